@@ -0,0 +1,13 @@
+package biblioteca.dev.luanluz.api.config;
+
+import biblioteca.dev.luanluz.api.repository.CacheAwareJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(
+        basePackages = "biblioteca.dev.luanluz.api.repository",
+        repositoryBaseClass = CacheAwareJpaRepository.class
+)
+public class JpaRepositoryConfig {
+}
@@ -0,0 +1,14 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("app.relatorio.bulkhead")
+public record RelatorioBulkheadProperties(
+        int preenchimentosSimultaneos,
+        int fila,
+        Duration esperaMaxima,
+        Duration retryAfter
+) {
+}
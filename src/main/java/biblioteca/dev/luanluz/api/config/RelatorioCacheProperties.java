@@ -0,0 +1,17 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("app.relatorio.cache")
+public record RelatorioCacheProperties(
+        Path diretorio,
+        Duration ttl,
+        DataSize memoriaMaxima,
+        DataSize tamanhoMaximoEmMemoria,
+        DataSize memoriaImpressoes
+) {
+}
@@ -0,0 +1,20 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({
+        RelatorioJobProperties.class,
+        RelatorioCacheProperties.class,
+        RelatorioRegistryProperties.class,
+        RelatorioVirtualizacaoProperties.class,
+        RelatorioBulkheadProperties.class,
+        RelatorioSecoesProperties.class,
+        RelatorioTabularProperties.class,
+        RelatorioSnapshotProperties.class
+})
+public class RelatorioConfig {
+}
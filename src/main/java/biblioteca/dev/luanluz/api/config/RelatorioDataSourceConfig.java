@@ -0,0 +1,30 @@
+package biblioteca.dev.luanluz.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Pool pequeno e somente leitura só para as consultas dos relatórios, no mesmo banco do pool primário. Um
+ * preenchimento segura a conexão do início ao fim, então separar os pools impede que relatórios longos esgotem as
+ * conexões do CRUD. O bean não é candidato padrão para não disputar a injeção de DataSource com o pool primário.
+ */
+@Configuration
+public class RelatorioDataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("app.relatorio.datasource.hikari")
+    public HikariDataSource relatorioDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("relatorio");
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
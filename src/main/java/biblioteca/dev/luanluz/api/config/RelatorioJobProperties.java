@@ -0,0 +1,18 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("app.relatorio.jobs")
+public record RelatorioJobProperties(
+        int threads,
+        int fila,
+        Duration timeout,
+        Duration ttl,
+        Duration intervaloLimpeza,
+        Duration retryAfter,
+        Path diretorio
+) {
+}
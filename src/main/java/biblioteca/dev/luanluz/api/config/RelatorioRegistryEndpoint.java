@@ -0,0 +1,74 @@
+package biblioteca.dev.luanluz.api.config;
+
+import biblioteca.dev.luanluz.api.service.RelatorioRegistry;
+import biblioteca.dev.luanluz.api.service.RelatorioRegistry.RelatorioCompilado;
+import lombok.RequiredArgsConstructor;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperReport;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Relatórios carregados pelo RelatorioRegistry, com tempo de carga e metadados (GET /actuator/relatorios). O SQL dos
+// relatórios não é publicado, para não expor o esquema do banco
+@Component
+@Endpoint(id = "relatorios")
+@RequiredArgsConstructor
+public class RelatorioRegistryEndpoint {
+
+    private final RelatorioRegistry relatorioRegistry;
+
+    public record RelatorioDescricao(
+            String nome,
+            String origem,
+            String assinatura,
+            Instant carregadoEm,
+            long duracaoEmMilissegundos,
+            List<String> parametros,
+            int campos,
+            int larguraPagina,
+            int alturaPagina
+    ) {
+    }
+
+    @ReadOperation
+    public List<RelatorioDescricao> relatorios() {
+        return relatorioRegistry.listar().values().stream()
+                .sorted(Comparator.comparing(RelatorioCompilado::nome))
+                .map(RelatorioRegistryEndpoint::descrever)
+                .toList();
+    }
+
+    @ReadOperation
+    public RelatorioDescricao relatorio(@Selector String nome) {
+        return relatorioRegistry.listar().containsKey(nome) ? descrever(relatorioRegistry.obter(nome)) : null;
+    }
+
+    private static RelatorioDescricao descrever(RelatorioCompilado compilado) {
+        JasperReport relatorio = compilado.relatorio();
+
+        // Apenas os parâmetros declarados no .jrxml; os de sistema (REPORT_CONNECTION etc.) ficam de fora
+        List<String> parametros = Arrays.stream(relatorio.getParameters())
+                .filter(parametro -> !parametro.isSystemDefined())
+                .map(JRParameter::getName)
+                .toList();
+
+        return new RelatorioDescricao(
+                compilado.nome(),
+                compilado.origem(),
+                compilado.assinatura(),
+                compilado.carregadoEm(),
+                compilado.duracaoEmMilissegundos(),
+                parametros,
+                relatorio.getFields() != null ? relatorio.getFields().length : 0,
+                relatorio.getPageWidth(),
+                relatorio.getPageHeight()
+        );
+    }
+}
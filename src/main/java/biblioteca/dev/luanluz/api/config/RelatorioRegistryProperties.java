@@ -0,0 +1,14 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("app.relatorio.registry")
+public record RelatorioRegistryProperties(
+        boolean recarregar,
+        Path fontes,
+        Duration intervalo
+) {
+}
@@ -0,0 +1,10 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.relatorio.secoes")
+public record RelatorioSecoesProperties(
+        int paralelismo,
+        int linhasMinimas
+) {
+}
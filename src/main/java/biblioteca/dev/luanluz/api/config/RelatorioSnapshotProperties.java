@@ -0,0 +1,19 @@
+package biblioteca.dev.luanluz.api.config;
+
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+// O agendamento em si vem de app.relatorio.snapshots.cron e app.relatorio.snapshots.zona, lidos pelo @Scheduled
+@ConfigurationProperties("app.relatorio.snapshots")
+public record RelatorioSnapshotProperties(
+        Path diretorio,
+        Duration idadeMaxima,
+        List<Tipo> tipos,
+        List<Formato> formatos
+) {
+}
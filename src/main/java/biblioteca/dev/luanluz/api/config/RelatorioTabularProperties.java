@@ -0,0 +1,10 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.relatorio.tabular")
+public record RelatorioTabularProperties(
+        int fetchSize,
+        int linhasEmMemoria
+) {
+}
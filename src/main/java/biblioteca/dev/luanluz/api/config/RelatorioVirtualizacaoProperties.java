@@ -0,0 +1,26 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties("app.relatorio.virtualizacao")
+public record RelatorioVirtualizacaoProperties(
+        Path diretorio,
+        int limitePaginas,
+        DataSize memoriaPorPreenchimento,
+        DataSize tamanhoEstimadoPagina
+) {
+
+    // Páginas mantidas no heap por preenchimento: o limite configurado, reduzido se estourar o orçamento de memória
+    public int paginasEmMemoria() {
+        long pelaMemoria = memoriaPorPreenchimento.toBytes() / Math.max(1, tamanhoEstimadoPagina.toBytes());
+        return (int) Math.max(1, Math.min(limitePaginas, pelaMemoria));
+    }
+
+    // Heap ocupado por uma impressão pronta: só as páginas que o virtualizador mantém em memória contam
+    public long memoriaEstimada(int paginas) {
+        return Math.min(paginas, paginasEmMemoria()) * tamanhoEstimadoPagina.toBytes();
+    }
+}
@@ -0,0 +1,66 @@
+package biblioteca.dev.luanluz.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile double lagSeconds;
+    private volatile boolean available = true;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+
+        Gauge.builder("biblioteca.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Atraso de replicação medido na réplica de leitura")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.datasource.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("Indica se as transações somente leitura estão sendo roteadas para a réplica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag.check-interval-ms}")
+    public void check() {
+        try {
+            Number lag = replicaJdbcTemplate.queryForObject(lagQuery, Number.class);
+            lagSeconds = lag != null ? lag.doubleValue() : 0;
+            updateAvailability(lagSeconds <= maxLag.toMillis() / 1000.0,
+                    "Atraso de replicação de {}s (limite {}s)", lagSeconds, maxLag.toSeconds());
+        } catch (Exception e) {
+            lagSeconds = Double.NaN;
+            updateAvailability(false, "Falha ao consultar o atraso da réplica: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    private void updateAvailability(boolean availableNow, String reason, Object... args) {
+        if (availableNow == available) {
+            return;
+        }
+
+        available = availableNow;
+
+        if (availableNow) {
+            log.info("Réplica de leitura disponível novamente, retomando o roteamento de leituras");
+        } else {
+            log.warn("Leituras redirecionadas para o banco primário. " + reason, args);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties("app.cache")
+public record SecondLevelCacheProperties(Map<String, Region> regions) {
+
+    public record Region(long maximumSize, Duration expireAfterWrite) {
+    }
+}
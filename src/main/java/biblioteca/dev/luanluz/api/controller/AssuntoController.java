@@ -1,13 +1,19 @@
 package biblioteca.dev.luanluz.api.controller;
 
 import biblioteca.dev.luanluz.api.dto.request.AssuntoRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoPaginacaoCursorDTO;
 import biblioteca.dev.luanluz.api.dto.response.AssuntoPaginacaoDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoPaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoSimilarResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetail;
 import biblioteca.dev.luanluz.api.exception.error.ValidationErrorDetail;
 import biblioteca.dev.luanluz.api.service.AssuntoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,7 +39,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
+
 import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageRequest;
+import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageSize;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -85,6 +94,141 @@ public class AssuntoController {
         return ResponseEntity.ok(assuntos);
     }
 
+    @Operation(
+            summary = "Listar todos os assuntos sem contagem total",
+            description = "Retorna uma página de assuntos sem calcular o total de elementos e de páginas, " +
+                    "indicando apenas se existe uma próxima página. " +
+                    "Aceita os mesmos parâmetros page, size e sort da listagem paginada."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de assuntos retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = AssuntoPaginacaoSliceDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/slice")
+    public ResponseEntity<PaginacaoSliceDTO<AssuntoResponseDTO>> findAllSlice(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "descricao,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "descricao", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var pageRequest = getPageRequest(page, size, sort);
+        var assuntos = assuntoService.findSlice(pageRequest);
+        return ResponseEntity.ok(assuntos);
+    }
+
+    @Operation(
+            summary = "Listar todos os assuntos por cursor",
+            description = "Retorna uma página de assuntos navegada por cursor (keyset), sem contagem total. " +
+                    "A primeira página é obtida sem o parâmetro cursor; as seguintes usam o valor de next " +
+                    "da resposta anterior, mantendo a mesma ordenação. Aceita ordenação por descricao ou codigo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de assuntos retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = AssuntoPaginacaoCursorDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor inválido ou ordenação não suportada",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginacaoCursorDTO<AssuntoResponseDTO>> findAllByCursor(
+            @Parameter(description = "Cursor opaco retornado em next pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "descricao,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "descricao", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var assuntos = assuntoService.findAll(cursor, getPageSize(size), sort);
+        return ResponseEntity.ok(assuntos);
+    }
+
+    @Operation(
+            summary = "Buscar assuntos com descrição semelhante",
+            description = "Retorna os assuntos cuja descrição é semelhante à informada, do mais para o menos " +
+                    "semelhante, pela similaridade de trigramas. Útil para encontrar um assunto já cadastrado com " +
+                    "grafia diferente antes de criar um novo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Assuntos semelhantes retornados com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = AssuntoSimilarResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Descrição ausente ou limite fora do intervalo permitido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/similar")
+    public ResponseEntity<List<AssuntoSimilarResponseDTO>> findSimilares(
+            @Parameter(description = "Descrição a comparar", example = "Literatura Brasilera", required = true)
+            @RequestParam(required = false) String descricao,
+            @Parameter(description = "Quantidade máxima de assuntos retornados", example = "5")
+            @RequestParam(required = false) Integer limite
+    ) {
+        var assuntos = assuntoService.findSimilares(descricao, limite);
+        return ResponseEntity.ok(assuntos);
+    }
+
     @Operation(
             summary = "Buscar assunto por código",
             description = "Retorna os dados completos de um assunto específico."
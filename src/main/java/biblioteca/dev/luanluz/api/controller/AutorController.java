@@ -1,13 +1,19 @@
 package biblioteca.dev.luanluz.api.controller;
 
 import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorPaginacaoCursorDTO;
 import biblioteca.dev.luanluz.api.dto.response.AutorPaginacaoDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorPaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorSimilarResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetail;
 import biblioteca.dev.luanluz.api.exception.error.ValidationErrorDetail;
 import biblioteca.dev.luanluz.api.service.AutorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -32,7 +38,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
+
 import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageRequest;
+import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageSize;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -84,6 +93,141 @@ public class AutorController {
         return ResponseEntity.ok(autores);
     }
 
+    @Operation(
+            summary = "Listar todos os autores sem contagem total",
+            description = "Retorna uma página de autores sem calcular o total de elementos e de páginas, " +
+                    "indicando apenas se existe uma próxima página. " +
+                    "Aceita os mesmos parâmetros page, size e sort da listagem paginada."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de autores retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = AutorPaginacaoSliceDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/slice")
+    public ResponseEntity<PaginacaoSliceDTO<AutorResponseDTO>> findAllSlice(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "nome,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "nome", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var pageRequest = getPageRequest(page, size, sort);
+        var autores = autorService.findSlice(pageRequest);
+        return ResponseEntity.ok(autores);
+    }
+
+    @Operation(
+            summary = "Listar todos os autores por cursor",
+            description = "Retorna uma página de autores navegada por cursor (keyset), sem contagem total. " +
+                    "A primeira página é obtida sem o parâmetro cursor; as seguintes usam o valor de next " +
+                    "da resposta anterior, mantendo a mesma ordenação. Aceita ordenação por nome ou codigo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de autores retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = AutorPaginacaoCursorDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor inválido ou ordenação não suportada",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginacaoCursorDTO<AutorResponseDTO>> findAllByCursor(
+            @Parameter(description = "Cursor opaco retornado em next pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "nome,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "nome", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var autores = autorService.findAll(cursor, getPageSize(size), sort);
+        return ResponseEntity.ok(autores);
+    }
+
+    @Operation(
+            summary = "Buscar autores com nome semelhante",
+            description = "Retorna os autores cujo nome é semelhante ao informado, do mais para o menos semelhante, " +
+                    "pela similaridade de trigramas. Útil para encontrar um autor já cadastrado com grafia diferente " +
+                    "antes de criar um novo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Autores semelhantes retornados com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = AutorSimilarResponseDTO.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Nome ausente ou limite fora do intervalo permitido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/similar")
+    public ResponseEntity<List<AutorSimilarResponseDTO>> findSimilares(
+            @Parameter(description = "Nome a comparar", example = "Machado de Asis", required = true)
+            @RequestParam(required = false) String nome,
+            @Parameter(description = "Quantidade máxima de autores retornados", example = "5")
+            @RequestParam(required = false) Integer limite
+    ) {
+        var autores = autorService.findSimilares(nome, limite);
+        return ResponseEntity.ok(autores);
+    }
+
     @Operation(
             summary = "Buscar autor por código",
             description = "Retorna os dados completos de um autor específico."
@@ -126,7 +270,8 @@ public class AutorController {
     @Operation(
             summary = "Criar novo autor",
             description = "Cadastra um novo autor no sistema. " +
-                    "O nome deve ser único no sistema."
+                    "O nome deve ser único no sistema. Com verificarSimilares=true o autor não é criado se já " +
+                    "existir um nome semelhante, e os autores candidatos são retornados em candidates."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -147,7 +292,7 @@ public class AutorController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Autor com nome já existente",
+                    description = "Autor com nome já existente ou semelhante",
                     content = @Content(
                             mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = ErrorDetail.class)
@@ -165,9 +310,11 @@ public class AutorController {
     @PostMapping
     public ResponseEntity<AutorResponseDTO> create(
             @Parameter(description = "Dados do autor a ser criado", required = true)
-            @Valid @RequestBody AutorRequestDTO autorRequestDTO
+            @Valid @RequestBody AutorRequestDTO autorRequestDTO,
+            @Parameter(description = "Recusa a criação e retorna os candidatos quando existir autor com nome semelhante")
+            @RequestParam(defaultValue = "false") boolean verificarSimilares
     ) {
-        var autorCriado = autorService.create(autorRequestDTO);
+        var autorCriado = autorService.create(autorRequestDTO, verificarSimilares);
         var location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{codigo}")
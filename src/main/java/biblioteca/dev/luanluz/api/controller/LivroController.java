@@ -1,11 +1,20 @@
 package biblioteca.dev.luanluz.api.controller;
 
+import biblioteca.dev.luanluz.api.dto.request.LivroFiltroDTO;
 import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroImportacaoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroPaginacaoCursorDTO;
 import biblioteca.dev.luanluz.api.dto.response.LivroPaginacaoDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroPaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoSliceDTO;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetail;
 import biblioteca.dev.luanluz.api.exception.error.ValidationErrorDetail;
+import biblioteca.dev.luanluz.api.service.LivroExportacaoService;
+import biblioteca.dev.luanluz.api.service.LivroImportacaoService;
 import biblioteca.dev.luanluz.api.service.LivroService;
+import biblioteca.dev.luanluz.api.util.StreamingHelper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,12 +22,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,12 +41,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageRequest;
+import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageSize;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -42,11 +65,18 @@ import static biblioteca.dev.luanluz.api.util.PageRequestHelper.getPageRequest;
 public class LivroController {
 
     private final LivroService livroService;
+    private final LivroImportacaoService livroImportacaoService;
+    private final LivroExportacaoService livroExportacaoService;
+
+    @Value("${app.livro.exportacao.tempo-limite}")
+    private Duration tempoLimiteExportacao;
 
     @Operation(
             summary = "Listar todos os livros",
             description = "Retorna uma lista paginada de todos os livros cadastrados. " +
                     "Suporta paginação e ordenação através dos parâmetros page, size e sort. " +
+                    "Aceita filtros opcionais e combináveis por editora, intervalo de ano de publicação, " +
+                    "intervalo de valor e códigos de autores e assuntos. " +
                     "Os livros são retornados com seus autores e assuntos associados."
     )
     @ApiResponses(value = {
@@ -58,6 +88,14 @@ public class LivroController {
                             schema = @Schema(implementation = LivroPaginacaoDTO.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Intervalo de filtro inválido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Erro Interno do Servidor",
@@ -69,6 +107,49 @@ public class LivroController {
     })
     @GetMapping
     public ResponseEntity<Page<LivroResponseDTO>> findAll(
+            @ParameterObject LivroFiltroDTO filtro,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "titulo,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "titulo", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var pageRequest = getPageRequest(page, size, sort);
+        var livros = livroService.findAll(filtro, pageRequest);
+        return ResponseEntity.ok(livros);
+    }
+
+    @Operation(
+            summary = "Listar todos os livros sem contagem total",
+            description = "Retorna uma página de livros sem calcular o total de elementos e de páginas, " +
+                    "indicando apenas se existe uma próxima página. " +
+                    "Aceita os mesmos parâmetros page, size e sort da listagem paginada."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de livros retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LivroPaginacaoSliceDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/slice")
+    public ResponseEntity<PaginacaoSliceDTO<LivroResponseDTO>> findAllSlice(
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @Parameter(
@@ -81,10 +162,173 @@ public class LivroController {
             }) Sort sort
     ) {
         var pageRequest = getPageRequest(page, size, sort);
-        var livros = livroService.findAll(pageRequest);
+        var livros = livroService.findSlice(pageRequest);
         return ResponseEntity.ok(livros);
     }
 
+    @Operation(
+            summary = "Listar todos os livros por cursor",
+            description = "Retorna uma página de livros navegada por cursor (keyset), sem contagem total. " +
+                    "A primeira página é obtida sem o parâmetro cursor; as seguintes usam o valor de next " +
+                    "da resposta anterior, mantendo a mesma ordenação. Aceita ordenação por titulo ou codigo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de livros retornada com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LivroPaginacaoCursorDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor inválido ou ordenação não suportada",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginacaoCursorDTO<LivroResponseDTO>> findAllByCursor(
+            @Parameter(description = "Cursor opaco retornado em next pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @Parameter(
+                    description = "Parâmetros de ordenação no formato: propriedade,direção",
+                    example = "titulo,asc",
+                    schema = @Schema(type = "string")
+            )
+            @SortDefault.SortDefaults({
+                    @SortDefault(sort = "titulo", direction = Sort.Direction.ASC)
+            }) Sort sort
+    ) {
+        var livros = livroService.findAll(cursor, getPageSize(size), sort);
+        return ResponseEntity.ok(livros);
+    }
+
+    @Operation(
+            summary = "Buscar livros por texto",
+            description = "Busca textual em português, sem diferenciar acentos, no título, na editora e nos nomes " +
+                    "de autores e descrições de assuntos. Os livros são ordenados por relevância e paginados por " +
+                    "cursor: as páginas seguintes usam o valor de next da resposta anterior com o mesmo termo. " +
+                    "O termo aceita aspas para frases, OR e - para excluir palavras."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Livros encontrados retornados com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LivroPaginacaoCursorDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Termo de busca ausente ou cursor inválido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<PaginacaoCursorDTO<LivroResponseDTO>> search(
+            @Parameter(description = "Termo de busca", example = "machado romance", required = true)
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Cursor opaco retornado em next pela página anterior")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        var livros = livroService.search(q, cursor, getPageSize(size));
+        return ResponseEntity.ok(livros);
+    }
+
+    @Operation(
+            summary = "Exportar todos os livros",
+            description = "Transmite o acervo completo, com autores e assuntos, em NDJSON (um livro por linha) " +
+                    "ou CSV (códigos de autores e assuntos separados por ponto e vírgula). " +
+                    "Os dados são lidos por cursor em uma única transação, refletindo um mesmo instante do banco. " +
+                    "A resposta é compactada com gzip quando o cliente envia Accept-Encoding: gzip."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Exportação transmitida com sucesso",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = LivroResponseDTO.class)),
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string"))
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Formato não suportado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato da exportação: ndjson ou csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        var formatoExportacao = LivroExportacaoService.Formato.of(formato);
+        var gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(formatoExportacao.getMediaType());
+        headers.setContentDispositionFormData("attachment", "livros." + formatoExportacao.getExtensao());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody corpo = saida -> {
+            if (gzip) {
+                GZIPOutputStream gzipSaida = new GZIPOutputStream(saida, 64 * 1024);
+                livroExportacaoService.exportar(gzipSaida, formatoExportacao);
+                gzipSaida.finish();
+            } else {
+                livroExportacaoService.exportar(saida, formatoExportacao);
+            }
+        };
+
+        StreamingHelper.tempoLimite(webRequest, tempoLimiteExportacao);
+
+        return new ResponseEntity<>(corpo, headers, HttpStatus.OK);
+    }
+
     @Operation(
             summary = "Buscar livro por código",
             description = "Retorna os dados completos de um livro específico, " +
@@ -181,6 +425,58 @@ public class LivroController {
         return ResponseEntity.created(location).body(livroCriado);
     }
 
+    @Operation(
+            summary = "Importar livros em lote",
+            description = "Importa livros a partir de um arquivo CSV (text/csv) ou NDJSON (application/x-ndjson) " +
+                    "lido em fluxo e gravado em lotes, cada um em sua própria transação. " +
+                    "O CSV deve ter cabeçalho com os nomes dos campos do livro; autoresCodigos e assuntosCodigos " +
+                    "separam os códigos com ponto e vírgula. Linhas inválidas são listadas no relatório sem " +
+                    "interromper a importação. Se a gravação de um lote falhar, a importação pode ser retomada " +
+                    "reenviando o arquivo com loteInicial igual ao proximoLote retornado."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Arquivo processado; o relatório indica as linhas importadas e rejeitadas",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = LivroImportacaoResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cabeçalho do CSV ou parâmetros de lote inválidos",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro Interno do Servidor",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<LivroImportacaoResponseDTO> importar(
+            @Parameter(description = "Quantidade de linhas por lote")
+            @RequestParam(required = false) Integer tamanhoLote,
+            @Parameter(description = "Lote a partir do qual a importação é retomada (começa em 0)")
+            @RequestParam(required = false) Long loteInicial,
+            HttpServletRequest request
+    ) throws IOException {
+        var relatorio = livroImportacaoService.importar(
+                request.getInputStream(),
+                MediaType.parseMediaType(request.getContentType()),
+                tamanhoLote,
+                loteInicial);
+
+        return ResponseEntity.ok(relatorio);
+    }
+
     @Operation(
             summary = "Atualizar livro existente",
             description = "Atualiza os dados de um livro existente. " +
@@ -1,22 +1,62 @@
 package biblioteca.dev.luanluz.api.controller;
 
+import biblioteca.dev.luanluz.api.dto.request.RelatorioFiltroDTO;
+import biblioteca.dev.luanluz.api.dto.request.RelatorioJobRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.RelatorioJobResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.RelatorioReconstrucaoResponseDTO;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetail;
+import biblioteca.dev.luanluz.api.service.RelatorioCacheService;
+import biblioteca.dev.luanluz.api.service.RelatorioJob;
+import biblioteca.dev.luanluz.api.service.RelatorioJobService;
 import biblioteca.dev.luanluz.api.service.RelatorioService;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Motor;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import biblioteca.dev.luanluz.api.service.RelatorioSnapshotService;
+import biblioteca.dev.luanluz.api.service.RelatorioSnapshotService.Snapshot;
+import biblioteca.dev.luanluz.api.service.RelatorioTabularService;
+import biblioteca.dev.luanluz.api.util.StreamingHelper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Map;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -25,13 +65,27 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Relatórios", description = "Endpoints para geração de relatórios do sistema")
 public class RelatorioController {
 
+    // Atributos do Tomcat para entregar um arquivo pelo sendfile do sistema operacional
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
     private final RelatorioService relatorioService;
+    private final RelatorioJobService relatorioJobService;
+    private final RelatorioCacheService relatorioCacheService;
+    private final RelatorioTabularService relatorioTabularService;
+    private final RelatorioSnapshotService relatorioSnapshotService;
+
+    @Value("${app.relatorio.download.tempo-limite}")
+    private Duration tempoLimiteDownload;
 
     @Operation(
             summary = "Gerar relatório agrupado por autores em PDF",
             description = "Gera e retorna o relatório de todos os autores em formato PDF. " +
                     "O relatório inclui informações de cada autor, seus livros, editoras, " +
-                    "assuntos relacionados, valores e período de publicação. "
+                    "assuntos relacionados, valores e período de publicação. " +
+                    "O arquivo é reaproveitado enquanto os dados não mudam e acompanha um ETag."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -42,6 +96,18 @@ public class RelatorioController {
                             schema = @Schema(type = "string", format = "binary")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Relatório não mudou desde a versão informada em If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Limite de relatórios simultâneos atingido; o cabeçalho Retry-After indica quando tentar novamente",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Erro interno do servidor ao gerar o relatório PDF",
@@ -52,20 +118,19 @@ public class RelatorioController {
             )
     })
     @GetMapping(value = "/autor/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> gerarRelatorioAutoresPDF() throws Exception {
-        byte[] relatorio = relatorioService.gerarRelatorioAutoresPDF();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "relatorio_autores.pdf");
-
-        return new ResponseEntity<>(relatorio, headers, HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioAutoresPDF(
+            @ParameterObject RelatorioFiltroDTO filtro,
+            NativeWebRequest webRequest
+    ) throws Exception {
+        StreamingHelper.tempoLimite(webRequest, tempoLimiteDownload);
+        return servirDoCache(Tipo.AUTORES, Formato.PDF, filtro, webRequest);
     }
 
     @Operation(
             summary = "Gerar relatório agrupado por autores em Excel",
             description = "Gera e retorna o relatório de todos os autores em formato Excel (XLSX). " +
-                    "O relatório inclui informações de cada autor em formato de planilha. "
+                    "O relatório inclui informações de cada autor em formato de planilha. " +
+                    "O arquivo é reaproveitado enquanto os dados não mudam e acompanha um ETag."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -76,6 +141,18 @@ public class RelatorioController {
                             schema = @Schema(type = "string", format = "binary")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Relatório não mudou desde a versão informada em If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Limite de relatórios simultâneos atingido; o cabeçalho Retry-After indica quando tentar novamente",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Erro interno do servidor ao gerar o relatório Excel",
@@ -86,13 +163,372 @@ public class RelatorioController {
             )
     })
     @GetMapping(value = "/autor/excel", produces = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-    public ResponseEntity<byte[]> gerarRelatorioAutoresExcel() throws Exception {
-        byte[] relatorio = relatorioService.gerarRelatorioAutoresExcel();
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioAutoresExcel(
+            @Parameter(description = "Motor de geração: jasper (layout do relatório) ou tabular (planilha simples em streaming)",
+                    example = "jasper")
+            @RequestParam(defaultValue = "jasper") String engine,
+            @ParameterObject RelatorioFiltroDTO filtro,
+            NativeWebRequest webRequest
+    ) throws Exception {
+        StreamingHelper.tempoLimite(webRequest, tempoLimiteDownload);
+
+        if (Motor.of(engine) == Motor.TABULAR) {
+            return exportarTabular(Tipo.AUTORES, RelatorioTabularService.Formato.EXCEL, filtro);
+        }
+
+        return servirDoCache(Tipo.AUTORES, Formato.EXCEL, filtro, webRequest);
+    }
+
+    @Operation(
+            summary = "Gerar relatório filtrado",
+            description = "Gera o relatório do tipo informado em PDF ou Excel. Tipos: autores (resumo por autor), " +
+                    "livros (livros com autores e assuntos) e livros-por-autor (estatísticas de preço por autor). " +
+                    "Os filtros são aplicados na consulta: no relatório de livros selecionam os livros, e nos " +
+                    "relatórios por autor selecionam os autores informados ou com algum livro que atenda aos " +
+                    "critérios, sempre com o resumo completo de cada autor. Com engine=tabular as linhas da " +
+                    "consulta são transmitidas em CSV ou XLSX sem o layout do relatório e sem cache."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Relatório gerado com sucesso",
+                    content = @Content(schema = @Schema(type = "string", format = "binary"))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Relatório não mudou desde a versão informada em If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Tipo, formato ou filtro inválido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Limite de relatórios simultâneos atingido; o cabeçalho Retry-After indica quando tentar novamente",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/{tipo}/{formato}")
+    public ResponseEntity<StreamingResponseBody> gerarRelatorio(
+            @Parameter(description = "Tipo de relatório", example = "livros", required = true)
+            @PathVariable String tipo,
+            @Parameter(description = "Formato do arquivo: pdf ou excel no motor jasper, csv ou excel no tabular",
+                    example = "pdf", required = true)
+            @PathVariable String formato,
+            @Parameter(description = "Motor de geração: jasper (layout do relatório) ou tabular (planilha simples em streaming)",
+                    example = "jasper")
+            @RequestParam(defaultValue = "jasper") String engine,
+            @ParameterObject RelatorioFiltroDTO filtro,
+            NativeWebRequest webRequest
+    ) throws Exception {
+        StreamingHelper.tempoLimite(webRequest, tempoLimiteDownload);
+
+        if (Motor.of(engine) == Motor.TABULAR) {
+            return exportarTabular(Tipo.of(tipo), RelatorioTabularService.Formato.of(formato), filtro);
+        }
+
+        return servirDoCache(Tipo.of(tipo), Formato.of(formato), filtro, webRequest);
+    }
+
+    @Operation(
+            summary = "Reconstruir os dados do relatório de autores",
+            description = "Recalcula do zero o resumo por autor usado pelo relatório de autores. " +
+                    "O resumo é mantido automaticamente a cada alteração de livros, autores e assuntos; " +
+                    "esta operação é destinada à recuperação caso ele fique inconsistente."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resumo reconstruído com sucesso",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = RelatorioReconstrucaoResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor ao reconstruir o resumo",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @PostMapping("/autor/reconstrucao")
+    public ResponseEntity<RelatorioReconstrucaoResponseDTO> reconstruirRelatorioAutores() {
+        var resultado = relatorioService.reconstruirRelatorioAutores();
+        return ResponseEntity.ok(resultado);
+    }
+
+    @Operation(
+            summary = "Solicitar geração de relatório em segundo plano",
+            description = "Enfileira a geração do relatório e retorna imediatamente o identificador do job. " +
+                    "A situação é consultada em /relatorio/jobs/{id} e o arquivo, quando concluído, " +
+                    "em /relatorio/jobs/{id}/result. Tipos suportados: AUTORES, LIVROS e LIVROS_POR_AUTOR. " +
+                    "Formatos: PDF ou EXCEL. O filtro opcional segue as regras de GET /relatorio/{tipo}/{formato}."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Relatório enfileirado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = RelatorioJobResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Tipo ou formato de relatório inválido",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Fila de relatórios cheia; o cabeçalho Retry-After indica quando tentar novamente",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @PostMapping("/jobs")
+    public ResponseEntity<RelatorioJobResponseDTO> criarJob(
+            @Parameter(description = "Tipo, formato e filtro do relatório", required = true)
+            @Valid @RequestBody RelatorioJobRequestDTO requestDTO
+    ) {
+        var job = relatorioJobService.criar(requestDTO.getTipo(), requestDTO.getFormato(),
+                relatorioService.parametros(requestDTO.getFiltro()));
+        var location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @Operation(
+            summary = "Consultar relatório em segundo plano",
+            description = "Retorna a situação do job e a quantidade de páginas preenchidas até o momento."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Situação do job",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = RelatorioJobResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Job não encontrado ou já expirado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<RelatorioJobResponseDTO> consultarJob(
+            @Parameter(description = "Identificador do job", required = true)
+            @PathVariable String id
+    ) {
+        return ResponseEntity.ok(relatorioJobService.status(id));
+    }
+
+    @Operation(
+            summary = "Baixar relatório gerado em segundo plano",
+            description = "Retorna o arquivo de um job concluído. O arquivo fica disponível até a expiração do job."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Arquivo do relatório",
+                    content = @Content(schema = @Schema(type = "string", format = "binary"))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Job não encontrado ou já expirado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Job ainda não concluído, com falha ou cancelado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<Resource> baixarJob(
+            @Parameter(description = "Identificador do job", required = true)
+            @PathVariable String id
+    ) {
+        RelatorioJob job = relatorioJobService.resultado(id);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(job.getFormato().getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(job.getTipo().getNome() + "." + job.getFormato().getExtensao())
+                .build());
+
+        return new ResponseEntity<>(new FileSystemResource(job.getArquivo()), headers, HttpStatus.OK);
+    }
+
+    @Operation(
+            summary = "Cancelar relatório em segundo plano",
+            description = "Interrompe o job se ainda estiver na fila ou em execução e remove o job e o arquivo gerado."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Job cancelado ou removido"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Job não encontrado ou já expirado",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ErrorDetail.class)
+                    )
+            )
+    })
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<Void> cancelarJob(
+            @Parameter(description = "Identificador do job", required = true)
+            @PathVariable String id
+    ) {
+        relatorioJobService.cancelar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /*
+     * Responde 304 pela versão dos dados, antes de qualquer renderização. O relatório é renderizado e aberto antes
+     * de a resposta começar, então falhas nessa etapa viram o erro JSON normal; o corpo só copia o arquivo em blocos
+     * para a saída do servlet, em transferência chunked, sem manter o relatório inteiro no heap.
+     */
+    private ResponseEntity<StreamingResponseBody> servirDoCache(Tipo tipo, Formato formato, RelatorioFiltroDTO filtro,
+                                                                NativeWebRequest webRequest) throws Exception {
+        Map<String, Object> parametros = relatorioService.parametros(filtro);
+
+        if (parametros.isEmpty()) {
+            var snapshot = relatorioSnapshotService.recente(tipo, formato);
+
+            if (snapshot.isPresent()) {
+                if (webRequest.checkNotModified(snapshot.get().etag())) {
+                    return null;
+                }
+
+                var resposta = servirSnapshot(tipo, formato, snapshot.get(),
+                        webRequest.getNativeRequest(HttpServletRequest.class));
+
+                if (resposta != null) {
+                    return resposta;
+                }
+            }
+        }
+
+        var chave = relatorioCacheService.chave(tipo, formato, parametros);
+
+        if (webRequest.checkNotModified(chave.etag())) {
+            return null;
+        }
+
+        InputStream relatorio = relatorioCacheService.obter(chave, parametros).abrir();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(formato.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(tipo.getNome() + "." + formato.getExtensao())
+                .build());
+        headers.setETag(chave.etag());
+        headers.setCacheControl(CacheControl.noCache());
+
+        StreamingResponseBody corpo = saida -> {
+            try (relatorio) {
+                relatorio.transferTo(saida);
+            }
+        };
+
+        return new ResponseEntity<>(corpo, headers, HttpStatus.OK);
+    }
+
+    /*
+     * O snapshot é aberto antes de a resposta começar: se foi substituído e apagado nesse meio tempo, a requisição
+     * segue pelo cache. O arquivo é imutável, então o tamanho vai no Content-Length. Quando o conector aceita, o
+     * Tomcat envia o arquivo por sendfile, do cache de páginas direto para o socket, depois de a resposta vazia ser
+     * confirmada; um snapshot substituído continua no disco pelo tempo limite dos downloads, então o nome ainda abre.
+     * Sem sendfile, o conteúdo é copiado do canal do arquivo para a saída em blocos, sem carregar o relatório no heap.
+     */
+    private ResponseEntity<StreamingResponseBody> servirSnapshot(Tipo tipo, Formato formato, Snapshot snapshot,
+                                                                 HttpServletRequest request) throws IOException {
+        FileChannel canal;
+
+        try {
+            canal = snapshot.abrir();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(formato.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(tipo.getNome() + "." + formato.getExtensao())
+                .build());
+        headers.setContentLength(snapshot.tamanho());
+        headers.setETag(snapshot.etag());
+        headers.setCacheControl(CacheControl.noCache());
+        headers.set(RelatorioSnapshotService.CABECALHO_SNAPSHOT, snapshot.geradoEm().toString());
+
+        relatorioSnapshotService.registrarServido();
+
+        if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            canal.close();
+
+            request.setAttribute(SENDFILE_ARQUIVO, snapshot.arquivo().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, 0L);
+            request.setAttribute(SENDFILE_FIM, snapshot.tamanho());
+
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+
+        StreamingResponseBody corpo = saida -> {
+            try (canal) {
+                WritableByteChannel destino = Channels.newChannel(saida);
+                long enviado = 0;
+
+                while (enviado < snapshot.tamanho()) {
+                    enviado += canal.transferTo(enviado, snapshot.tamanho() - enviado, destino);
+                }
+            }
+        };
+
+        return new ResponseEntity<>(corpo, headers, HttpStatus.OK);
+    }
+
+    // Sem cache nem ETag: cada requisição lê o estado atual pelo cursor antes de a cópia para o cliente começar
+    private ResponseEntity<StreamingResponseBody> exportarTabular(Tipo tipo, RelatorioTabularService.Formato formato,
+                                                                  RelatorioFiltroDTO filtro) throws Exception {
+        var exportacao = relatorioTabularService.preparar(tipo, formato, relatorioService.parametros(filtro));
 
         HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Type", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        headers.setContentDispositionFormData("attachment", "relatorio_autores.xlsx");
+        headers.setContentType(formato.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(tipo.getNome() + "." + formato.getExtensao())
+                .build());
+        headers.setCacheControl(CacheControl.noStore());
 
-        return new ResponseEntity<>(relatorio, headers, HttpStatus.OK);
+        return new ResponseEntity<>(exportacao::escrever, headers, HttpStatus.OK);
     }
 }
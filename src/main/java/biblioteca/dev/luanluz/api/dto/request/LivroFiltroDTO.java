@@ -0,0 +1,37 @@
+package biblioteca.dev.luanluz.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LivroFiltroDTO {
+
+    @Schema(description = "Editora do livro (igualdade exata)", example = "Editora Nacional")
+    private String editora;
+
+    @Schema(description = "Ano de publicação inicial (inclusivo)", example = "1880")
+    private Integer anoPublicacaoMinimo;
+
+    @Schema(description = "Ano de publicação final (inclusivo)", example = "1900")
+    private Integer anoPublicacaoMaximo;
+
+    @Schema(description = "Valor mínimo em centavos (inclusivo)", example = "1000")
+    private Integer valorEmCentavosMinimo;
+
+    @Schema(description = "Valor máximo em centavos (inclusivo)", example = "5000")
+    private Integer valorEmCentavosMaximo;
+
+    @Schema(description = "Códigos de autores; retorna os livros de qualquer um deles", example = "[1, 2]")
+    private Set<Integer> autoresCodigos;
+
+    @Schema(description = "Códigos de assuntos; retorna os livros de qualquer um deles", example = "[1]")
+    private Set<Integer> assuntosCodigos;
+}
@@ -0,0 +1,4 @@
+package biblioteca.dev.luanluz.api.dto.request;
+
+public record LivroImportacaoLinhaDTO(long linha, LivroRequestDTO livro) {
+}
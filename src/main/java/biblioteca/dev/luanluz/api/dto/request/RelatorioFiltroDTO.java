@@ -0,0 +1,32 @@
+package biblioteca.dev.luanluz.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioFiltroDTO {
+
+    @Schema(description = "Códigos de autores; restringe aos autores informados ou aos livros de qualquer um deles",
+            example = "[1, 2]")
+    private Set<Integer> autoresCodigos;
+
+    @Schema(description = "Códigos de assuntos; considera os livros de qualquer um deles", example = "[1]")
+    private Set<Integer> assuntosCodigos;
+
+    @Schema(description = "Editora do livro (igualdade exata)", example = "Editora Nacional")
+    private String editora;
+
+    @Schema(description = "Ano de publicação inicial (inclusivo)", example = "1880")
+    private Integer anoPublicacaoMinimo;
+
+    @Schema(description = "Ano de publicação final (inclusivo)", example = "1900")
+    private Integer anoPublicacaoMaximo;
+}
@@ -0,0 +1,26 @@
+package biblioteca.dev.luanluz.api.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioJobRequestDTO {
+
+    @Schema(description = "Tipo de relatório", example = "AUTORES")
+    @NotBlank(message = "{relatorio.tipo.notblank}")
+    private String tipo;
+
+    @Schema(description = "Formato do arquivo gerado (PDF ou EXCEL)", example = "PDF")
+    @NotBlank(message = "{relatorio.formato.notblank}")
+    private String formato;
+
+    @Schema(description = "Filtro opcional do relatório")
+    private RelatorioFiltroDTO filtro;
+}
@@ -0,0 +1,7 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resposta paginada por cursor de assuntos")
+public class AssuntoPaginacaoCursorDTO extends PaginacaoCursorDTO<AssuntoResponseDTO> {
+}
@@ -0,0 +1,24 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Assunto com descrição semelhante à pesquisada")
+public class AssuntoSimilarResponseDTO {
+
+    @Schema(description = "Código do assunto", example = "1")
+    private Integer codigo;
+
+    @Schema(description = "Descrição do assunto", example = "Literatura Brasileira")
+    private String descricao;
+
+    @Schema(description = "Similaridade por trigramas entre 0 e 1", example = "0.85")
+    private Double similaridade;
+}
@@ -0,0 +1,24 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Autor com nome semelhante ao pesquisado")
+public class AutorSimilarResponseDTO {
+
+    @Schema(description = "Código do autor", example = "1")
+    private Integer codigo;
+
+    @Schema(description = "Nome do autor", example = "Machado de Assis")
+    private String nome;
+
+    @Schema(description = "Similaridade por trigramas entre 0 e 1", example = "0.85")
+    private Double similaridade;
+}
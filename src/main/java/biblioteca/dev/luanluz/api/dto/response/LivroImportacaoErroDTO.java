@@ -0,0 +1,26 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Erro de importação de uma linha")
+public class LivroImportacaoErroDTO {
+
+    @Schema(description = "Número da linha no arquivo (começa em 1, incluindo o cabeçalho do CSV)", example = "42")
+    private long linha;
+
+    @Schema(description = "Lote ao qual a linha pertence (começa em 0)", example = "0")
+    private long lote;
+
+    @Schema(description = "Mensagens de erro da linha")
+    private List<String> mensagens;
+}
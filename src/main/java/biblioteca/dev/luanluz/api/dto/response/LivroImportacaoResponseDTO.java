@@ -0,0 +1,46 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Relatório da importação em lote de livros")
+public class LivroImportacaoResponseDTO {
+
+    @Schema(description = "Indica se todo o arquivo foi processado", example = "true")
+    private boolean concluida;
+
+    @Schema(description = "Linhas de dados lidas a partir do lote inicial", example = "5000")
+    private long linhasProcessadas;
+
+    @Schema(description = "Livros gravados", example = "4990")
+    private long linhasImportadas;
+
+    @Schema(description = "Linhas rejeitadas por erro de validação", example = "10")
+    private long linhasRejeitadas;
+
+    @Schema(description = "Tamanho dos lotes usados na importação", example = "1000")
+    private int tamanhoLote;
+
+    @Schema(description = "Lote a partir do qual a importação foi retomada (começa em 0)", example = "0")
+    private long loteInicial;
+
+    @Schema(description = "Lote a informar em loteInicial para retomar a importação; ausente quando concluída", example = "3")
+    private Long proximoLote;
+
+    @Schema(description = "Erros por linha, limitados ao máximo configurado")
+    @Builder.Default
+    private List<LivroImportacaoErroDTO> erros = new ArrayList<>();
+
+    @Schema(description = "Quantidade de erros não listados por exceder o limite do relatório", example = "0")
+    private long errosOmitidos;
+}
@@ -0,0 +1,24 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resposta paginada por cursor")
+public class PaginacaoCursorDTO<T> {
+
+    @Schema(description = "Lista de elementos da página atual")
+    private List<T> content;
+
+    @Schema(description = "Tamanho da página", example = "20")
+    private int size;
+
+    @Schema(description = "Cursor opaco da próxima página, ausente na última página", example = "eyJjYW1wbyI6InRpdHVsbyJ9")
+    private String next;
+}
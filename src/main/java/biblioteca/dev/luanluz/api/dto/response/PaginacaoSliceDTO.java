@@ -0,0 +1,37 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resposta paginada sem contagem total")
+public class PaginacaoSliceDTO<T> {
+
+    @Schema(description = "Lista de elementos da página atual")
+    private List<T> content;
+
+    @Schema(description = "Informações sobre a paginação")
+    private SliceInfo page;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Metadados da paginação sem contagem total")
+    public static class SliceInfo {
+
+        @Schema(description = "Tamanho da página", example = "20")
+        private int size;
+
+        @Schema(description = "Número da página atual (começa em 0)", example = "0")
+        private int number;
+
+        @Schema(description = "Indica se existe uma próxima página", example = "true")
+        private boolean hasNext;
+    }
+}
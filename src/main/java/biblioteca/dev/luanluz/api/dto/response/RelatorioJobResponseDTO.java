@@ -0,0 +1,47 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Situação de um relatório gerado em segundo plano")
+public class RelatorioJobResponseDTO {
+
+    @Schema(description = "Identificador do job", example = "6f1c2a0e-3b7d-4a51-9a8e-0c2b9d7e5f14")
+    private String id;
+
+    @Schema(description = "Tipo de relatório", example = "AUTORES")
+    private String tipo;
+
+    @Schema(description = "Formato do arquivo gerado", example = "PDF")
+    private String formato;
+
+    @Schema(description = "Situação do job: PENDENTE, EXECUTANDO, CONCLUIDO, FALHOU, CANCELADO ou TEMPO_ESGOTADO",
+            example = "EXECUTANDO")
+    private String status;
+
+    @Schema(description = "Páginas preenchidas até o momento", example = "12")
+    private int paginasGeradas;
+
+    @Schema(description = "Momento em que o job foi criado")
+    private Instant criadoEm;
+
+    @Schema(description = "Momento em que o job começou a ser executado")
+    private Instant iniciadoEm;
+
+    @Schema(description = "Momento em que o job terminou")
+    private Instant finalizadoEm;
+
+    @Schema(description = "Motivo da falha, cancelamento ou tempo esgotado")
+    private String erro;
+}
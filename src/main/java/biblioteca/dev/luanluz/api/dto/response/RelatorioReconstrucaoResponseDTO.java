@@ -0,0 +1,21 @@
+package biblioteca.dev.luanluz.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da reconstrução dos dados de um relatório")
+public class RelatorioReconstrucaoResponseDTO {
+
+    @Schema(description = "Linhas gravadas no resumo do relatório", example = "120")
+    private int linhas;
+
+    @Schema(description = "Duração da reconstrução em milissegundos", example = "850")
+    private long duracaoEmMilissegundos;
+}
@@ -0,0 +1,7 @@
+package biblioteca.dev.luanluz.api.exception;
+
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -3,11 +3,14 @@ package biblioteca.dev.luanluz.api.exception;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetail;
 import biblioteca.dev.luanluz.api.exception.error.ErrorDetailFactory;
 import biblioteca.dev.luanluz.api.exception.error.InvalidField;
+import biblioteca.dev.luanluz.api.exception.error.SimilarResourceErrorDetail;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -282,6 +285,69 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(SimilarResourceException.class)
+    public ResponseEntity<ErrorDetail> handleSimilarResourceException(
+            SimilarResourceException ex,
+            WebRequest request
+    ) {
+        log.warn("Conflito por semelhança: {}", ex.getMessage());
+
+        HttpServletRequest servletRequest = ((ServletWebRequest) request).getRequest();
+
+        String baseUri = String.format("%s://%s:%d",
+                servletRequest.getScheme(),
+                servletRequest.getServerName(),
+                servletRequest.getServerPort()
+        );
+        URI type = URI.create(baseUri + "/conflict");
+
+        ErrorDetail problemDetail = SimilarResourceErrorDetail.similarResourceErrorDetail()
+                .type(type.toString())
+                .title("Conflito")
+                .status(HttpStatus.CONFLICT.value())
+                .detail(ex.getMessage())
+                .instance(request.getDescription(false).replace("uri=", ""))
+                .candidates(ex.getCandidates())
+                .build();
+
+        return new ResponseEntity<>(problemDetail, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Object> handleBadRequestException(
+            BadRequestException ex,
+            WebRequest request
+    ) {
+        log.warn("Requisição inválida: {}", ex.getMessage());
+        return ErrorDetailFactory.create(
+                "Requisição mal sucedida",
+                ex.getMessage(),
+                HttpStatus.BAD_REQUEST,
+                request,
+                null
+        );
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Object> handleTooManyRequestsException(
+            TooManyRequestsException ex,
+            WebRequest request
+    ) {
+        log.warn("Requisição recusada por sobrecarga: {}", ex.getMessage());
+
+        ResponseEntity<Object> response = ErrorDetailFactory.create(
+                "Muitas requisições",
+                ex.getMessage(),
+                HttpStatus.TOO_MANY_REQUESTS,
+                request,
+                null
+        );
+
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(DomainException.class)
     public ResponseEntity<Object> handleDomainException(
             DomainException ex,
@@ -300,8 +366,15 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGenericException(
             Exception ex,
-            WebRequest request
+            WebRequest request,
+            HttpServletResponse response
     ) {
+        // Downloads em streaming: com parte do arquivo já enviada não há como trocar o status, só encerrar a resposta
+        if (response.isCommitted()) {
+            log.error("Erro após o início do envio da resposta: {}", ex.getMessage(), ex);
+            return null;
+        }
+
         log.error("Ocorreu um erro inesperado: {}", ex.getMessage(), ex);
         return ErrorDetailFactory.create(
                 "Erro interno do servidor",
@@ -0,0 +1,16 @@
+package biblioteca.dev.luanluz.api.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class SimilarResourceException extends RuntimeException {
+
+    private final List<?> candidates;
+
+    public SimilarResourceException(String resource, String field, Object value, List<?> candidates) {
+        super(String.format("%s com %s semelhante a '%s' já existe", resource, field, value));
+        this.candidates = candidates;
+    }
+}
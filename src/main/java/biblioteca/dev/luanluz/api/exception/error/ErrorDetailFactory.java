@@ -50,6 +50,7 @@ public class ErrorDetailFactory {
             case NOT_FOUND -> "/not-found";
             case BAD_REQUEST -> "/bad-request";
             case CONFLICT -> "/conflict";
+            case TOO_MANY_REQUESTS -> "/too-many-requests";
             case INTERNAL_SERVER_ERROR -> "/internal-error";
             default -> "/error";
         };
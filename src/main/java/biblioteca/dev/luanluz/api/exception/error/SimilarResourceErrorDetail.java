@@ -0,0 +1,27 @@
+package biblioteca.dev.luanluz.api.exception.error;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+@EqualsAndHashCode(callSuper = true)
+public class SimilarResourceErrorDetail extends ErrorDetail {
+
+    @Getter
+    private final List<?> candidates;
+
+    @Builder(builderMethodName = "similarResourceErrorDetail")
+    public SimilarResourceErrorDetail(
+            String type,
+            String title,
+            int status,
+            String detail,
+            String instance,
+            List<?> candidates
+    ) {
+        super(type, title, status, detail, instance);
+        this.candidates = candidates;
+    }
+}
@@ -2,7 +2,11 @@ package biblioteca.dev.luanluz.api.mapper;
 
 import biblioteca.dev.luanluz.api.dto.request.AssuntoRequestDTO;
 import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoSimilarResponseDTO;
 import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoSimilarProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -21,6 +25,18 @@ public class AssuntoMapper {
         return modelMapper.map(entity, AssuntoResponseDTO.class);
     }
 
+    public AssuntoResponseDTO toResponseDTO(AssuntoProjection projection) {
+        return new AssuntoResponseDTO(projection.codigo(), projection.descricao());
+    }
+
+    public AssuntoResponseDTO toResponseDTO(LivroAssuntoProjection projection) {
+        return new AssuntoResponseDTO(projection.codigo(), projection.descricao());
+    }
+
+    public AssuntoSimilarResponseDTO toSimilarResponseDTO(AssuntoSimilarProjection projection) {
+        return new AssuntoSimilarResponseDTO(projection.codigo(), projection.descricao(), projection.similaridade());
+    }
+
     public void updateEntityFromDTO(AssuntoRequestDTO dto, Assunto entity) {
         modelMapper.map(dto, entity);
     }
@@ -2,7 +2,11 @@ package biblioteca.dev.luanluz.api.mapper;
 
 import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
 import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorSimilarResponseDTO;
 import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.projection.AutorProjection;
+import biblioteca.dev.luanluz.api.repository.projection.AutorSimilarProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -21,6 +25,18 @@ public class AutorMapper {
         return modelMapper.map(entity, AutorResponseDTO.class);
     }
 
+    public AutorResponseDTO toResponseDTO(AutorProjection projection) {
+        return new AutorResponseDTO(projection.codigo(), projection.nome());
+    }
+
+    public AutorResponseDTO toResponseDTO(LivroAutorProjection projection) {
+        return new AutorResponseDTO(projection.codigo(), projection.nome());
+    }
+
+    public AutorSimilarResponseDTO toSimilarResponseDTO(AutorSimilarProjection projection) {
+        return new AutorSimilarResponseDTO(projection.codigo(), projection.nome(), projection.similaridade());
+    }
+
     public void updateEntityFromDTO(AutorRequestDTO dto, Autor entity) {
         modelMapper.map(dto, entity);
     }
@@ -1,15 +1,22 @@
 package biblioteca.dev.luanluz.api.mapper;
 
 import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
 import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
 import biblioteca.dev.luanluz.api.model.Assunto;
 import biblioteca.dev.luanluz.api.model.Autor;
 import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroProjection;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -39,6 +46,32 @@ public class LivroMapper {
         return dto;
     }
 
+    public List<LivroResponseDTO> toResponseDTOs(
+            List<LivroProjection> livros,
+            List<LivroAutorProjection> autores,
+            List<LivroAssuntoProjection> assuntos
+    ) {
+        Map<Integer, Set<AutorResponseDTO>> autoresPorLivro = autores.stream()
+                .collect(Collectors.groupingBy(LivroAutorProjection::livroCodigo,
+                        Collectors.mapping(autorMapper::toResponseDTO, Collectors.toSet())));
+        Map<Integer, Set<AssuntoResponseDTO>> assuntosPorLivro = assuntos.stream()
+                .collect(Collectors.groupingBy(LivroAssuntoProjection::livroCodigo,
+                        Collectors.mapping(assuntoMapper::toResponseDTO, Collectors.toSet())));
+
+        return livros.stream()
+                .map(livro -> LivroResponseDTO.builder()
+                        .codigo(livro.codigo())
+                        .titulo(livro.titulo())
+                        .editora(livro.editora())
+                        .edicao(livro.edicao())
+                        .anoPublicacao(livro.anoPublicacao())
+                        .valorEmCentavos(livro.valorEmCentavos())
+                        .autores(autoresPorLivro.getOrDefault(livro.codigo(), new HashSet<>()))
+                        .assuntos(assuntosPorLivro.getOrDefault(livro.codigo(), new HashSet<>()))
+                        .build())
+                .toList();
+    }
+
     public void updateEntityFromDTO(LivroRequestDTO dto, Livro entity) {
         modelMapper.map(dto, entity);
         entity.setAutores(convertAutoresCodigos(dto.getAutoresCodigos()));
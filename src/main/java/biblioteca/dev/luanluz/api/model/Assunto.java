@@ -7,6 +7,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,12 +15,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "assunto")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Assunto.CACHE_REGION)
 @Builder
 @Getter
 @Setter
@@ -28,8 +32,11 @@ import java.util.Set;
 @ToString(exclude = "livros")
 public class Assunto extends BaseModel {
 
+    public static final String CACHE_REGION = "assunto";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assunto_codas_seq")
+    @SequenceGenerator(name = "assunto_codas_seq", sequenceName = "assunto_codas_seq", allocationSize = 50)
     @Column(name = "codas")
     private Integer codigo;
 
@@ -7,6 +7,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,12 +15,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "autor")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Autor.CACHE_REGION)
 @Builder
 @Getter
 @Setter
@@ -28,8 +32,11 @@ import java.util.Set;
 @ToString(exclude = "livros")
 public class Autor extends BaseModel {
 
+    public static final String CACHE_REGION = "autor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "autor_codau_seq")
+    @SequenceGenerator(name = "autor_codau_seq", sequenceName = "autor_codau_seq", allocationSize = 50)
     @Column(name = "codau")
     private Integer codigo;
 
@@ -0,0 +1,27 @@
+package biblioteca.dev.luanluz.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+// Total de linhas por tabela, mantido pelos triggers de contagem do banco; nunca é escrito pela aplicação
+@Entity
+@Table(name = "contagem")
+@Immutable
+@Getter
+@NoArgsConstructor
+@ToString
+public class Contagem extends BaseModel {
+
+    @Id
+    @Column(name = "tabela", length = 63)
+    private String tabela;
+
+    @Column(name = "total", nullable = false)
+    private Long total;
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,6 +18,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -31,8 +34,12 @@ import java.util.Set;
 @ToString(exclude = {"autores", "assuntos"})
 public class Livro extends BaseModel {
 
+    public static final String AUTORES_CACHE_REGION = "livro-autores";
+    public static final String ASSUNTOS_CACHE_REGION = "livro-assuntos";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livro_codl_seq")
+    @SequenceGenerator(name = "livro_codl_seq", sequenceName = "livro_codl_seq", allocationSize = 50)
     @Column(name = "codl")
     private Integer codigo;
 
@@ -52,6 +59,7 @@ public class Livro extends BaseModel {
     private Integer valorEmCentavos;
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AUTORES_CACHE_REGION)
     @JoinTable(
             name = "livro_autor",
             joinColumns = @JoinColumn(name = "livro_codl"),
@@ -61,6 +69,7 @@ public class Livro extends BaseModel {
     private Set<Autor> autores = new HashSet<>();
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ASSUNTOS_CACHE_REGION)
     @JoinTable(
             name = "livro_assunto",
             joinColumns = @JoinColumn(name = "livro_codl"),
@@ -1,13 +1,36 @@
 package biblioteca.dev.luanluz.api.repository;
 
 import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 @Repository
 public interface AssuntoRepository extends JpaRepository<Assunto, Integer> {
 
-    boolean existsByDescricaoIgnoreCase(String descricao);
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection(a.codigo, a.descricao) " +
+            "FROM Assunto a")
+    Slice<AssuntoProjection> findAllProjections(Pageable pageable);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection(a.codigo, a.descricao) " +
+            "FROM Assunto a " +
+            "WHERE a.codigo = :codigo")
+    Optional<AssuntoProjection> findProjectionByCodigo(@Param("codigo") Integer codigo);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection(a.codigo, a.descricao) " +
+            "FROM Assunto a " +
+            "WHERE a.codigo IN :codigos")
+    List<AssuntoProjection> findProjectionsByCodigoIn(@Param("codigos") Collection<Integer> codigos);
 
-    boolean existsByDescricaoIgnoreCaseAndCodigoNot(String descricao, Integer codigo);
+    @Query("SELECT a.codigo FROM Assunto a WHERE a.codigo IN :codigos")
+    Set<Integer> findCodigosByCodigoIn(@Param("codigos") Collection<Integer> codigos);
 }
@@ -0,0 +1,81 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoSimilarProjection;
+import biblioteca.dev.luanluz.api.util.TrigramaHelper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class AssuntoSimilarRepository {
+
+    // O limiar vale só para a transação corrente; o operador % usa o índice GIN idx_assunto_descricao_trgm
+    private static final String SET_THRESHOLD = "SELECT set_config('pg_trgm.similarity_threshold', ?, true)";
+
+    private static final String FIND_SIMILAR = """
+            SELECT codas, descricao, similarity(descricao, ?)::FLOAT8 AS similaridade
+            FROM assunto
+            WHERE descricao % ?
+            ORDER BY similaridade DESC, codas
+            LIMIT ?
+            """;
+
+    private final EntityManager entityManager;
+
+    // Mesma busca de AutorSimilarRepository, sobre a descrição dos assuntos
+    public List<AssuntoSimilarProjection> findSimilares(String descricao, double limiar, int limite) {
+        Session session = entityManager.unwrap(Session.class);
+
+        if (!session.doReturningWork(connection -> connection.isWrapperFor(PGConnection.class))) {
+            return findSimilaresFallback(descricao, limiar, limite);
+        }
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement threshold = connection.prepareStatement(SET_THRESHOLD)) {
+                threshold.setString(1, String.valueOf(limiar));
+                threshold.execute();
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(FIND_SIMILAR)) {
+                statement.setString(1, descricao);
+                statement.setString(2, descricao);
+                statement.setInt(3, limite);
+
+                List<AssuntoSimilarProjection> similares = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        similares.add(new AssuntoSimilarProjection(
+                                resultSet.getInt(1), resultSet.getString(2), resultSet.getDouble(3)));
+                    }
+                }
+
+                return similares;
+            }
+        });
+    }
+
+    private List<AssuntoSimilarProjection> findSimilaresFallback(String descricao, double limiar, int limite) {
+        Set<String> trigramas = TrigramaHelper.trigramas(descricao);
+
+        return entityManager.createQuery("SELECT a.codigo, a.descricao FROM Assunto a", Object[].class)
+                .getResultStream()
+                .map(assunto -> new AssuntoSimilarProjection(
+                        (Integer) assunto[0], (String) assunto[1],
+                        TrigramaHelper.similaridade(trigramas, TrigramaHelper.trigramas((String) assunto[1]))))
+                .filter(assunto -> assunto.similaridade() >= limiar)
+                .sorted(Comparator.comparing(AssuntoSimilarProjection::similaridade).reversed()
+                        .thenComparing(AssuntoSimilarProjection::codigo))
+                .limit(limite)
+                .toList();
+    }
+}
@@ -1,13 +1,36 @@
 package biblioteca.dev.luanluz.api.repository;
 
 import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.projection.AutorProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, Integer> {
 
-    boolean existsByNomeIgnoreCase(String nome);
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AutorProjection(a.codigo, a.nome) " +
+            "FROM Autor a")
+    Slice<AutorProjection> findAllProjections(Pageable pageable);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AutorProjection(a.codigo, a.nome) " +
+            "FROM Autor a " +
+            "WHERE a.codigo = :codigo")
+    Optional<AutorProjection> findProjectionByCodigo(@Param("codigo") Integer codigo);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.AutorProjection(a.codigo, a.nome) " +
+            "FROM Autor a " +
+            "WHERE a.codigo IN :codigos")
+    List<AutorProjection> findProjectionsByCodigoIn(@Param("codigos") Collection<Integer> codigos);
 
-    boolean existsByNomeIgnoreCaseAndCodigoNot(String nome, Integer codigo);
+    @Query("SELECT a.codigo FROM Autor a WHERE a.codigo IN :codigos")
+    Set<Integer> findCodigosByCodigoIn(@Param("codigos") Collection<Integer> codigos);
 }
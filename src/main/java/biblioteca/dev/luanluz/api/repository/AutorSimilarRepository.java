@@ -0,0 +1,84 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.repository.projection.AutorSimilarProjection;
+import biblioteca.dev.luanluz.api.util.TrigramaHelper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class AutorSimilarRepository {
+
+    // O limiar vale só para a transação corrente; o operador % usa o índice GIN idx_autor_nome_trgm
+    private static final String SET_THRESHOLD = "SELECT set_config('pg_trgm.similarity_threshold', ?, true)";
+
+    private static final String FIND_SIMILAR = """
+            SELECT codau, nome, similarity(nome, ?)::FLOAT8 AS similaridade
+            FROM autor
+            WHERE nome % ?
+            ORDER BY similaridade DESC, codau
+            LIMIT ?
+            """;
+
+    private final EntityManager entityManager;
+
+    /*
+     * Devolve os autores com similaridade por trigramas (pg_trgm) maior ou igual ao limiar, do mais para o
+     * menos semelhante. Nos demais bancos a similaridade é calculada em memória com a mesma regra do pg_trgm.
+     */
+    public List<AutorSimilarProjection> findSimilares(String nome, double limiar, int limite) {
+        Session session = entityManager.unwrap(Session.class);
+
+        if (!session.doReturningWork(connection -> connection.isWrapperFor(PGConnection.class))) {
+            return findSimilaresFallback(nome, limiar, limite);
+        }
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement threshold = connection.prepareStatement(SET_THRESHOLD)) {
+                threshold.setString(1, String.valueOf(limiar));
+                threshold.execute();
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(FIND_SIMILAR)) {
+                statement.setString(1, nome);
+                statement.setString(2, nome);
+                statement.setInt(3, limite);
+
+                List<AutorSimilarProjection> similares = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        similares.add(new AutorSimilarProjection(
+                                resultSet.getInt(1), resultSet.getString(2), resultSet.getDouble(3)));
+                    }
+                }
+
+                return similares;
+            }
+        });
+    }
+
+    private List<AutorSimilarProjection> findSimilaresFallback(String nome, double limiar, int limite) {
+        Set<String> trigramas = TrigramaHelper.trigramas(nome);
+
+        return entityManager.createQuery("SELECT a.codigo, a.nome FROM Autor a", Object[].class)
+                .getResultStream()
+                .map(autor -> new AutorSimilarProjection(
+                        (Integer) autor[0], (String) autor[1],
+                        TrigramaHelper.similaridade(trigramas, TrigramaHelper.trigramas((String) autor[1]))))
+                .filter(autor -> autor.similaridade() >= limiar)
+                .sorted(Comparator.comparing(AutorSimilarProjection::similaridade).reversed()
+                        .thenComparing(AutorSimilarProjection::codigo))
+                .limit(limite)
+                .toList();
+    }
+}
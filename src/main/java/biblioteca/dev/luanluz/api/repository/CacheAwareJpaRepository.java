@@ -0,0 +1,47 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.annotations.Cache;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.util.Streamable;
+
+import java.util.List;
+import java.util.Objects;
+
+public class CacheAwareJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private final EntityManager entityManager;
+    private final boolean cacheable;
+
+    public CacheAwareJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+        this.cacheable = entityInformation.getJavaType().isAnnotationPresent(Cache.class);
+    }
+
+    // A consulta com IN do SimpleJpaRepository sempre vai ao banco; o multiLoad consulta antes a sessão e o
+    // cache de segundo nível e busca apenas os identificadores ausentes, sem disparar flush automático
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        if (!cacheable) {
+            return super.findAllById(ids);
+        }
+
+        List<ID> identificadores = Streamable.of(ids).toList();
+
+        if (identificadores.isEmpty()) {
+            return List.of();
+        }
+
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(getDomainClass())
+                .with(CacheMode.NORMAL)
+                .multiLoad(identificadores)
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,17 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.model.Contagem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ContagemRepository extends JpaRepository<Contagem, String> {
+
+    // Consulta em vez de findById para não devolver um total já carregado no contexto de persistência
+    @Query("SELECT c.total FROM Contagem c WHERE c.tabela = :tabela")
+    Optional<Long> findTotalByTabela(@Param("tabela") String tabela);
+}
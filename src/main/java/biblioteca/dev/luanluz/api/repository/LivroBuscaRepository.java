@@ -0,0 +1,96 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.repository.projection.LivroBuscaProjection;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Repository
+@RequiredArgsConstructor
+public class LivroBuscaRepository {
+
+    // A relevância é recalculada no filtro do cursor com a mesma expressão da ordenação
+    private static final String SEARCH = """
+            SELECT l.codl, ts_rank_cd(l.busca, q.consulta)::FLOAT8 AS relevancia
+            FROM livro l, websearch_to_tsquery('portugues_sem_acento', ?) AS q(consulta)
+            WHERE l.busca @@ q.consulta
+            %s
+            ORDER BY relevancia DESC, l.codl
+            LIMIT ?
+            """;
+
+    private static final String AFTER_CURSOR = """
+            AND (ts_rank_cd(l.busca, q.consulta)::FLOAT8 < ?
+                OR (ts_rank_cd(l.busca, q.consulta)::FLOAT8 = ? AND l.codl > ?))
+            """;
+
+    private static final String SEARCH_FALLBACK = """
+            SELECT l.codigo FROM Livro l
+            WHERE (LOWER(l.titulo) LIKE :termo
+                OR LOWER(l.editora) LIKE :termo
+                OR EXISTS (SELECT 1 FROM l.autores a WHERE LOWER(a.nome) LIKE :termo)
+                OR EXISTS (SELECT 1 FROM l.assuntos s WHERE LOWER(s.descricao) LIKE :termo))
+            AND l.codigo > :codigo
+            ORDER BY l.codigo
+            """;
+
+    private final EntityManager entityManager;
+
+    /*
+     * Busca livros pelo documento textual (título, autores, assuntos e editora) em ordem decrescente de
+     * relevância, continuando depois da posição (relevancia, codigo) quando informada. No PostgreSQL usa o
+     * índice GIN sobre livro.busca; nos demais bancos procura o termo por LIKE, com relevância zero.
+     */
+    public List<LivroBuscaProjection> search(String termo, Double relevancia, Integer codigo, int limite) {
+        Session session = entityManager.unwrap(Session.class);
+
+        if (!session.doReturningWork(connection -> connection.isWrapperFor(PGConnection.class))) {
+            return searchFallback(termo, codigo, limite);
+        }
+
+        return session.doReturningWork(connection -> {
+            boolean comCursor = relevancia != null && codigo != null;
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    SEARCH.formatted(comCursor ? AFTER_CURSOR : ""))) {
+                int parametro = 1;
+                statement.setString(parametro++, termo);
+
+                if (comCursor) {
+                    statement.setDouble(parametro++, relevancia);
+                    statement.setDouble(parametro++, relevancia);
+                    statement.setInt(parametro++, codigo);
+                }
+
+                statement.setInt(parametro, limite);
+
+                List<LivroBuscaProjection> resultados = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultados.add(new LivroBuscaProjection(resultSet.getInt(1), resultSet.getDouble(2)));
+                    }
+                }
+
+                return resultados;
+            }
+        });
+    }
+
+    private List<LivroBuscaProjection> searchFallback(String termo, Integer codigo, int limite) {
+        return entityManager.createQuery(SEARCH_FALLBACK, Integer.class)
+                .setParameter("termo", "%" + termo.toLowerCase(Locale.ROOT) + "%")
+                .setParameter("codigo", codigo != null ? codigo : Integer.MIN_VALUE)
+                .setMaxResults(limite)
+                .getResultList().stream()
+                .map(codigoLivro -> new LivroBuscaProjection(codigoLivro, 0.0))
+                .toList();
+    }
+}
@@ -0,0 +1,121 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class LivroExportacaoRepository {
+
+    private static final String SELECT_LIVROS = """
+            SELECT codl, titulo, editora, edicao, anopublicacao, valoremcentavos
+            FROM livro
+            ORDER BY codl
+            """;
+
+    private static final String SELECT_AUTORES = """
+            SELECT la.livro_codl, a.codau, a.nome
+            FROM livro_autor la
+            JOIN autor a ON a.codau = la.autor_codau
+            ORDER BY la.livro_codl, a.nome, a.codau
+            """;
+
+    private static final String SELECT_ASSUNTOS = """
+            SELECT la.livro_codl, a.codas, a.descricao
+            FROM livro_assunto la
+            JOIN assunto a ON a.codas = la.assunto_codas
+            ORDER BY la.livro_codl, a.descricao, a.codas
+            """;
+
+    private final EntityManager entityManager;
+
+    /*
+     * Percorre todos os livros em ordem de código, abrindo um cursor por tabela e intercalando autores e
+     * assuntos pela chave do livro (merge join), de modo que apenas o livro corrente fica em memória.
+     * Deve ser chamado dentro de uma transação para que o driver respeite o fetch size.
+     */
+    public void forEach(int fetchSize, Consumer<LivroResponseDTO> consumidor) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement livros = prepare(connection, SELECT_LIVROS, fetchSize);
+                 PreparedStatement autores = prepare(connection, SELECT_AUTORES, fetchSize);
+                 PreparedStatement assuntos = prepare(connection, SELECT_ASSUNTOS, fetchSize);
+                 ResultSet livrosResultSet = livros.executeQuery();
+                 ResultSet autoresResultSet = autores.executeQuery();
+                 ResultSet assuntosResultSet = assuntos.executeQuery()) {
+
+                Cursor autoresCursor = new Cursor(autoresResultSet);
+                Cursor assuntosCursor = new Cursor(assuntosResultSet);
+
+                while (livrosResultSet.next()) {
+                    int codigo = livrosResultSet.getInt(1);
+
+                    Set<AutorResponseDTO> autoresDoLivro = new LinkedHashSet<>();
+                    while (autoresCursor.advanceTo(codigo)) {
+                        autoresDoLivro.add(new AutorResponseDTO(autoresResultSet.getInt(2), autoresResultSet.getString(3)));
+                        autoresCursor.next();
+                    }
+
+                    Set<AssuntoResponseDTO> assuntosDoLivro = new LinkedHashSet<>();
+                    while (assuntosCursor.advanceTo(codigo)) {
+                        assuntosDoLivro.add(new AssuntoResponseDTO(assuntosResultSet.getInt(2), assuntosResultSet.getString(3)));
+                        assuntosCursor.next();
+                    }
+
+                    consumidor.accept(LivroResponseDTO.builder()
+                            .codigo(codigo)
+                            .titulo(livrosResultSet.getString(2))
+                            .editora(livrosResultSet.getString(3))
+                            .edicao(livrosResultSet.getObject(4, Integer.class))
+                            .anoPublicacao(livrosResultSet.getString(5))
+                            .valorEmCentavos(livrosResultSet.getObject(6, Integer.class))
+                            .autores(autoresDoLivro)
+                            .assuntos(assuntosDoLivro)
+                            .build());
+                }
+            }
+        });
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, int fetchSize) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement;
+    }
+
+    private static final class Cursor {
+
+        private final ResultSet resultSet;
+        private boolean hasRow;
+
+        private Cursor(ResultSet resultSet) throws SQLException {
+            this.resultSet = resultSet;
+            this.hasRow = resultSet.next();
+        }
+
+        private void next() throws SQLException {
+            hasRow = resultSet.next();
+        }
+
+        // Posiciona o cursor na primeira linha com chave >= codigo e indica se ela pertence ao livro
+        private boolean advanceTo(int codigo) throws SQLException {
+            while (hasRow && resultSet.getInt(1) < codigo) {
+                next();
+            }
+
+            return hasRow && resultSet.getInt(1) == codigo;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.model.Livro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class LivroFiltroRepository {
+
+    private final EntityManager entityManager;
+
+    /*
+     * Seleciona apenas os códigos dos livros que atendem à especificação, na ordem e página solicitadas.
+     * Busca uma linha a mais para saber se existe próxima página sem contar o total.
+     */
+    public Slice<Integer> findCodigos(Specification<Livro> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = builder.createQuery(Integer.class);
+        Root<Livro> root = query.from(Livro.class);
+
+        query.select(root.get("codigo"))
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        List<Integer> codigos = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = codigos.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? codigos.subList(0, pageable.getPageSize()) : codigos, pageable, hasNext);
+    }
+}
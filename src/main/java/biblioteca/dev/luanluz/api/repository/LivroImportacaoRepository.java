@@ -0,0 +1,192 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.dto.request.LivroImportacaoLinhaDTO;
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class LivroImportacaoRepository {
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE livro_importacao (
+                linha BIGINT PRIMARY KEY,
+                codl INTEGER,
+                titulo VARCHAR(40) NOT NULL,
+                editora VARCHAR(40),
+                edicao INTEGER,
+                anopublicacao VARCHAR(4),
+                valoremcentavos INTEGER,
+                autores INTEGER[] NOT NULL,
+                assuntos INTEGER[] NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY livro_importacao (linha, titulo, editora, edicao, anopublicacao, valoremcentavos, autores, assuntos)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    // Reserva blocos de 50 valores na sequência, como o gerador pooled do Hibernate (allocationSize = 50)
+    private static final String ASSIGN_CODES = """
+            WITH numeradas AS (
+                SELECT linha, ROW_NUMBER() OVER (ORDER BY linha) - 1 AS posicao
+                FROM livro_importacao
+            ), blocos AS (
+                SELECT bloco, nextval('livro_codl_seq') AS limite
+                FROM generate_series(0, (SELECT (COUNT(*) - 1) / 50 FROM livro_importacao)) AS bloco
+            )
+            UPDATE livro_importacao i
+            SET codl = (b.limite - 49 + n.posicao % 50)::INTEGER
+            FROM numeradas n
+            JOIN blocos b ON b.bloco = n.posicao / 50
+            WHERE i.linha = n.linha
+            """;
+
+    private static final String MERGE_LIVROS = """
+            WITH inseridos AS (
+                INSERT INTO livro (codl, titulo, editora, edicao, anopublicacao, valoremcentavos)
+                SELECT codl, titulo, editora, edicao, anopublicacao, valoremcentavos
+                FROM livro_importacao
+                ORDER BY linha
+                ON CONFLICT ((LOWER(titulo))) DO NOTHING
+                RETURNING codl
+            )
+            DELETE FROM livro_importacao i
+            WHERE NOT EXISTS (SELECT 1 FROM inseridos WHERE inseridos.codl = i.codl)
+            RETURNING i.linha
+            """;
+
+    private static final String MERGE_AUTORES = """
+            INSERT INTO livro_autor (livro_codl, autor_codau)
+            SELECT DISTINCT i.codl, a.codau
+            FROM livro_importacao i
+            CROSS JOIN LATERAL unnest(i.autores) AS a(codau)
+            """;
+
+    private static final String MERGE_ASSUNTOS = """
+            INSERT INTO livro_assunto (livro_codl, assunto_codas)
+            SELECT DISTINCT i.codl, a.codas
+            FROM livro_importacao i
+            CROSS JOIN LATERAL unnest(i.assuntos) AS a(codas)
+            """;
+
+    private final EntityManager entityManager;
+
+    /*
+     * Grava um lote já validado na transação corrente e devolve as linhas recusadas por título duplicado
+     * (gravado concorrentemente entre a validação e a escrita). No PostgreSQL o lote é copiado para uma
+     * tabela temporária com COPY e mesclado com instruções únicas por tabela; nos demais bancos usa o JPA.
+     */
+    public Set<Long> saveAll(List<LivroImportacaoLinhaDTO> linhas) {
+        if (linhas.isEmpty()) {
+            return Set.of();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection ->
+                connection.isWrapperFor(PGConnection.class)
+                        ? copyAndMerge(connection, linhas)
+                        : persistAll(linhas));
+    }
+
+    private Set<Long> copyAndMerge(Connection connection, List<LivroImportacaoLinhaDTO> linhas) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE);
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(COPY_STAGING, new StringReader(toCsv(linhas)));
+
+            statement.executeUpdate(ASSIGN_CODES);
+
+            Set<Long> recusadas = new HashSet<>();
+            try (ResultSet resultSet = statement.executeQuery(MERGE_LIVROS)) {
+                while (resultSet.next()) {
+                    recusadas.add(resultSet.getLong(1));
+                }
+            }
+
+            statement.executeUpdate(MERGE_AUTORES);
+            statement.executeUpdate(MERGE_ASSUNTOS);
+            statement.execute("DROP TABLE livro_importacao");
+
+            return recusadas;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Set<Long> persistAll(List<LivroImportacaoLinhaDTO> linhas) {
+        for (LivroImportacaoLinhaDTO linha : linhas) {
+            LivroRequestDTO dto = linha.livro();
+
+            entityManager.persist(Livro.builder()
+                    .titulo(dto.getTitulo())
+                    .editora(dto.getEditora())
+                    .edicao(dto.getEdicao())
+                    .anoPublicacao(dto.getAnoPublicacao())
+                    .valorEmCentavos(dto.getValorEmCentavos())
+                    .autores(dto.getAutoresCodigos().stream()
+                            .map(codigo -> entityManager.getReference(Autor.class, codigo))
+                            .collect(Collectors.toSet()))
+                    .assuntos(dto.getAssuntosCodigos().stream()
+                            .map(codigo -> entityManager.getReference(Assunto.class, codigo))
+                            .collect(Collectors.toSet()))
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        return Set.of();
+    }
+
+    private String toCsv(List<LivroImportacaoLinhaDTO> linhas) {
+        StringBuilder csv = new StringBuilder();
+
+        for (LivroImportacaoLinhaDTO linha : linhas) {
+            LivroRequestDTO dto = linha.livro();
+
+            csv.append(linha.linha()).append(',')
+                    .append(quote(dto.getTitulo())).append(',')
+                    .append(quote(dto.getEditora())).append(',')
+                    .append(dto.getEdicao()).append(',')
+                    .append(quote(dto.getAnoPublicacao())).append(',')
+                    .append(dto.getValorEmCentavos()).append(',')
+                    .append(quote(toArray(dto.getAutoresCodigos()))).append(',')
+                    .append(quote(toArray(dto.getAssuntosCodigos())))
+                    .append('\n');
+        }
+
+        return csv.toString();
+    }
+
+    private static String toArray(Set<Integer> codigos) {
+        return codigos.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String quote(String valor) {
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
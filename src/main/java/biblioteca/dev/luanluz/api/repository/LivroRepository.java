@@ -1,21 +1,24 @@
 package biblioteca.dev.luanluz.api.repository;
 
 import biblioteca.dev.luanluz.api.model.Livro;
-import org.springframework.data.domain.Page;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroProjection;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Integer> {
-
-    boolean existsByTituloIgnoreCase(String titulo);
-
-    boolean existsByTituloIgnoreCaseAndCodigoNot(String titulo, Integer codigo);
+public interface LivroRepository extends JpaRepository<Livro, Integer>, JpaSpecificationExecutor<Livro> {
 
     @Query("SELECT l FROM Livro l " +
             "LEFT JOIN FETCH l.autores " +
@@ -23,8 +26,27 @@ public interface LivroRepository extends JpaRepository<Livro, Integer> {
             "WHERE l.codigo = :id")
     Optional<Livro> findByIdWithRelations(@Param("id") Integer id);
 
-    @Query("SELECT DISTINCT l FROM Livro l " +
-            "LEFT JOIN FETCH l.autores " +
-            "LEFT JOIN FETCH l.assuntos")
-    Page<Livro> findAllWithRelations(Pageable pageable);
+    @Query("SELECT l.codigo FROM Livro l")
+    Slice<Integer> findPageCodigos(Pageable pageable);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.LivroProjection(" +
+            "l.codigo, l.titulo, l.editora, l.edicao, l.anoPublicacao, l.valorEmCentavos) " +
+            "FROM Livro l " +
+            "WHERE l.codigo IN :codigos")
+    List<LivroProjection> findProjectionsByCodigoIn(@Param("codigos") Collection<Integer> codigos);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection(l.codigo, a.codigo, a.nome) " +
+            "FROM Livro l " +
+            "JOIN l.autores a " +
+            "WHERE l.codigo IN :codigos")
+    List<LivroAutorProjection> findAutorProjectionsByLivroCodigoIn(@Param("codigos") Collection<Integer> codigos);
+
+    @Query("SELECT new biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection(l.codigo, a.codigo, a.descricao) " +
+            "FROM Livro l " +
+            "JOIN l.assuntos a " +
+            "WHERE l.codigo IN :codigos")
+    List<LivroAssuntoProjection> findAssuntoProjectionsByLivroCodigoIn(@Param("codigos") Collection<Integer> codigos);
+
+    @Query("SELECT LOWER(l.titulo) FROM Livro l WHERE LOWER(l.titulo) IN :titulos")
+    Set<String> findTitulosByTituloLowerIn(@Param("titulos") Collection<String> titulos);
 }
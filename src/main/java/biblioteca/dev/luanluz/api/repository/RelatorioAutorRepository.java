@@ -0,0 +1,44 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class RelatorioAutorRepository {
+
+    // Bloqueia os recálculos dos triggers durante a reconstrução sem impedir a leitura do relatório
+    private static final String LOCK = "LOCK TABLE relatorio_autor IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String DELETE_ALL = "DELETE FROM relatorio_autor";
+
+    private static final String INSERT_FROM_VIEW = """
+            INSERT INTO relatorio_autor (codau, nome_autor, quantidade_livros, titulos, editoras, assuntos,
+                                         valor_total_reais, ano_publicacao_mais_antigo, ano_publicacao_mais_recente)
+            SELECT codau, nome_autor, quantidade_livros, titulos, editoras, assuntos,
+                   valor_total_reais, ano_publicacao_mais_antigo, ano_publicacao_mais_recente
+            FROM vw_relatorio_por_autor
+            """;
+
+    private final EntityManager entityManager;
+
+    /*
+     * Recalcula todo o resumo por autor a partir de vw_relatorio_por_autor, para recuperação caso a tabela
+     * divirja dos dados. Deve ser chamado dentro de uma transação; leitores continuam vendo o resumo anterior
+     * até o commit. Retorna a quantidade de autores gravados.
+     */
+    public int reconstruir() {
+        Session session = entityManager.unwrap(Session.class);
+
+        if (session.doReturningWork(connection -> connection.isWrapperFor(PGConnection.class))) {
+            entityManager.createNativeQuery(LOCK).executeUpdate();
+        }
+
+        entityManager.createNativeQuery(DELETE_ALL).executeUpdate();
+
+        return entityManager.createNativeQuery(INSERT_FROM_VIEW).executeUpdate();
+    }
+}
@@ -0,0 +1,44 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+@RequiredArgsConstructor
+public class VersaoDadosRepository {
+
+    private static final String FIND_VERSAO = """
+            SELECT v.base + (SELECT COUNT(*) FROM versao_dados_transacao) FROM versao_dados v WHERE v.id = 1
+            """;
+
+    private static final String DELETE_TRANSACOES = "DELETE FROM versao_dados_transacao";
+
+    private static final String UPDATE_BASE = "UPDATE versao_dados SET base = base + :transacoes WHERE id = 1";
+
+    private final EntityManager entityManager;
+
+    /*
+     * Base mais as transações registradas pelos triggers trg_versao_dados_*, lidas numa única instrução. Só conta
+     * transações confirmadas, então o valor muda no commit de cada escrita. Deve ser lido fora de transações somente
+     * leitura, que podem ir para a réplica atrasada.
+     */
+    public long findVersaoAtual() {
+        return ((Number) entityManager.createNativeQuery(FIND_VERSAO).getSingleResult()).longValue();
+    }
+
+    // Move as transações confirmadas para a base na mesma transação, sem alterar a versão que os leitores veem
+    @Transactional
+    public int compactar() {
+        int transacoes = entityManager.createNativeQuery(DELETE_TRANSACOES).executeUpdate();
+
+        if (transacoes > 0) {
+            entityManager.createNativeQuery(UPDATE_BASE)
+                    .setParameter("transacoes", transacoes)
+                    .executeUpdate();
+        }
+
+        return transacoes;
+    }
+}
@@ -0,0 +1,4 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record AssuntoProjection(Integer codigo, String descricao) {
+}
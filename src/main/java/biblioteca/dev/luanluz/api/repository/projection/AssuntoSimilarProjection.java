@@ -0,0 +1,8 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record AssuntoSimilarProjection(
+        Integer codigo,
+        String descricao,
+        Double similaridade
+) {
+}
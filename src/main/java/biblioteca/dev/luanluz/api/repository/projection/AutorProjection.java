@@ -0,0 +1,4 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record AutorProjection(Integer codigo, String nome) {
+}
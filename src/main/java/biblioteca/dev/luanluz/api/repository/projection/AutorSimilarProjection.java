@@ -0,0 +1,8 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record AutorSimilarProjection(
+        Integer codigo,
+        String nome,
+        Double similaridade
+) {
+}
@@ -0,0 +1,4 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record LivroAssuntoProjection(Integer livroCodigo, Integer codigo, String descricao) {
+}
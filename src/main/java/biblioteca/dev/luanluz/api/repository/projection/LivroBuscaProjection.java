@@ -0,0 +1,7 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record LivroBuscaProjection(
+        Integer codigo,
+        Double relevancia
+) {
+}
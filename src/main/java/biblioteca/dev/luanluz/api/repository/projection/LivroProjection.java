@@ -0,0 +1,11 @@
+package biblioteca.dev.luanluz.api.repository.projection;
+
+public record LivroProjection(
+        Integer codigo,
+        String titulo,
+        String editora,
+        Integer edicao,
+        String anoPublicacao,
+        Integer valorEmCentavos
+) {
+}
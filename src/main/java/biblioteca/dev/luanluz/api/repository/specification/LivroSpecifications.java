@@ -0,0 +1,104 @@
+package biblioteca.dev.luanluz.api.repository.specification;
+
+import biblioteca.dev.luanluz.api.dto.request.LivroFiltroDTO;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.util.FiltroHelper;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class LivroSpecifications {
+
+    private LivroSpecifications() {}
+
+    // Combina com AND os critérios preenchidos do filtro; retorna null quando nenhum foi informado
+    public static Specification<Livro> porFiltro(LivroFiltroDTO filtro) {
+        List<Specification<Livro>> criterios = new ArrayList<>();
+
+        if (filtro.getEditora() != null && !filtro.getEditora().isBlank()) {
+            criterios.add(comEditora(filtro.getEditora().trim()));
+        }
+
+        if (filtro.getAnoPublicacaoMinimo() != null || filtro.getAnoPublicacaoMaximo() != null) {
+            criterios.add(comAnoPublicacaoEntre(filtro.getAnoPublicacaoMinimo(), filtro.getAnoPublicacaoMaximo()));
+        }
+
+        if (filtro.getValorEmCentavosMinimo() != null || filtro.getValorEmCentavosMaximo() != null) {
+            criterios.add(comValorEmCentavosEntre(filtro.getValorEmCentavosMinimo(), filtro.getValorEmCentavosMaximo()));
+        }
+
+        if (filtro.getAutoresCodigos() != null && !filtro.getAutoresCodigos().isEmpty()) {
+            criterios.add(comAlgumAutor(filtro.getAutoresCodigos()));
+        }
+
+        if (filtro.getAssuntosCodigos() != null && !filtro.getAssuntosCodigos().isEmpty()) {
+            criterios.add(comAlgumAssunto(filtro.getAssuntosCodigos()));
+        }
+
+        return criterios.isEmpty() ? null : Specification.allOf(criterios);
+    }
+
+    public static Specification<Livro> comEditora(String editora) {
+        return (root, query, builder) -> builder.equal(root.get("editora"), editora);
+    }
+
+    // O ano é gravado como texto de quatro dígitos, então a comparação textual preserva a ordem e usa o índice
+    public static Specification<Livro> comAnoPublicacaoEntre(Integer minimo, Integer maximo) {
+        return (root, query, builder) -> {
+            if (minimo == null) {
+                return builder.lessThanOrEqualTo(root.get("anoPublicacao"), FiltroHelper.formatarAno(maximo));
+            }
+
+            if (maximo == null) {
+                return builder.greaterThanOrEqualTo(root.get("anoPublicacao"), FiltroHelper.formatarAno(minimo));
+            }
+
+            return builder.between(root.get("anoPublicacao"), FiltroHelper.formatarAno(minimo), FiltroHelper.formatarAno(maximo));
+        };
+    }
+
+    public static Specification<Livro> comValorEmCentavosEntre(Integer minimo, Integer maximo) {
+        return (root, query, builder) -> {
+            if (minimo == null) {
+                return builder.lessThanOrEqualTo(root.get("valorEmCentavos"), maximo);
+            }
+
+            if (maximo == null) {
+                return builder.greaterThanOrEqualTo(root.get("valorEmCentavos"), minimo);
+            }
+
+            return builder.between(root.get("valorEmCentavos"), minimo, maximo);
+        };
+    }
+
+    public static Specification<Livro> comAlgumAutor(Collection<Integer> codigos) {
+        return associadoA("autores", codigos);
+    }
+
+    public static Specification<Livro> comAlgumAssunto(Collection<Integer> codigos) {
+        return associadoA("assuntos", codigos);
+    }
+
+    /*
+     * EXISTS correlacionado sobre a tabela de associação: o livro entra uma única vez no resultado, sem
+     * multiplicar linhas nem carregar a coleção, e o banco pode resolvê-lo como semi-join pelos índices
+     * (codigo da associação, livro).
+     */
+    private static Specification<Livro> associadoA(String colecao, Collection<Integer> codigos) {
+        return (root, query, builder) -> {
+            Subquery<Integer> subquery = query.subquery(Integer.class);
+            Root<Livro> livro = subquery.correlate(root);
+            Join<Livro, ?> associacao = livro.join(colecao);
+
+            subquery.select(associacao.<Integer>get("codigo"))
+                    .where(associacao.get("codigo").in(codigos));
+
+            return builder.exists(subquery);
+        };
+    }
+}
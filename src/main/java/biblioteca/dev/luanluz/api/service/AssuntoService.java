@@ -2,15 +2,31 @@ package biblioteca.dev.luanluz.api.service;
 
 import biblioteca.dev.luanluz.api.dto.request.AssuntoRequestDTO;
 import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AssuntoSimilarResponseDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
 import biblioteca.dev.luanluz.api.exception.DomainException;
 import biblioteca.dev.luanluz.api.exception.DuplicateResourceException;
+import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
 import biblioteca.dev.luanluz.api.mapper.AssuntoMapper;
 import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Livro;
 import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AssuntoSimilarRepository;
+import biblioteca.dev.luanluz.api.repository.ContagemRepository;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -19,15 +35,56 @@ public class AssuntoService extends BaseService<Assunto, Integer, AssuntoRequest
 
     private static final String RESOURCE_NAME = "Assunto";
     private static final String IDENTIFIER_FIELD = "código";
+    private static final String TABLE_NAME = "assunto";
+    private static final String LIVRO_ASSUNTOS_ROLE = Livro.class.getName() + ".assuntos";
+    private static final String UNIQUE_DESCRICAO_CONSTRAINT = "uk_assunto_descricao_lower";
 
     private final AssuntoRepository assuntoRepository;
     private final AssuntoMapper assuntoMapper;
+    private final ContagemRepository contagemRepository;
+    private final AssuntoSimilarRepository assuntoSimilarRepository;
+
+    @Value("${app.assunto.similares.limiar}")
+    private double limiarSimilaridade;
+
+    @Value("${app.assunto.similares.limite}")
+    private int limiteSimilaresPadrao;
+
+    @Value("${app.assunto.similares.limite-maximo}")
+    private int limiteSimilaresMaximo;
+
+    @Transactional(readOnly = true)
+    public List<AssuntoSimilarResponseDTO> findSimilares(String descricao, Integer limite) {
+        if (descricao == null || descricao.isBlank()) {
+            throw new BadRequestException("A descrição para a busca de assuntos semelhantes é obrigatória");
+        }
+
+        int quantidade = Objects.requireNonNullElse(limite, limiteSimilaresPadrao);
+
+        if (quantidade < 1 || quantidade > limiteSimilaresMaximo) {
+            throw new BadRequestException("O limite de assuntos semelhantes deve estar entre 1 e " + limiteSimilaresMaximo);
+        }
+
+        List<AssuntoSimilarResponseDTO> similares = assuntoSimilarRepository
+                .findSimilares(descricao.trim(), limiarSimilaridade, quantidade).stream()
+                .map(assuntoMapper::toSimilarResponseDTO)
+                .toList();
+
+        log.debug("Encontrados {} assuntos semelhantes", similares.size());
+
+        return similares;
+    }
 
     @Override
     protected JpaRepository<Assunto, Integer> getRepository() {
         return assuntoRepository;
     }
 
+    @Override
+    protected Class<Assunto> getEntityClass() {
+        return Assunto.class;
+    }
+
     @Override
     protected String getResourceName() {
         return RESOURCE_NAME;
@@ -38,6 +95,11 @@ public class AssuntoService extends BaseService<Assunto, Integer, AssuntoRequest
         return IDENTIFIER_FIELD;
     }
 
+    @Override
+    protected Set<String> getCursorSortFields() {
+        return Set.of("descricao", IDENTIFIER_ATTRIBUTE);
+    }
+
     @Override
     protected Assunto toEntity(AssuntoRequestDTO dto) {
         dto.setDescricao(dto.getDescricao().trim());
@@ -49,6 +111,30 @@ public class AssuntoService extends BaseService<Assunto, Integer, AssuntoRequest
         return assuntoMapper.toResponseDTO(entity);
     }
 
+    @Override
+    protected Slice<AssuntoResponseDTO> getSlice(Pageable pageable) {
+        return assuntoRepository.findAllProjections(pageable).map(assuntoMapper::toResponseDTO);
+    }
+
+    @Override
+    protected long countAll() {
+        return contagemRepository.findTotalByTabela(TABLE_NAME).orElseGet(assuntoRepository::count);
+    }
+
+    @Override
+    protected AssuntoResponseDTO getById(Integer codigo) {
+        return assuntoRepository.findProjectionByCodigo(codigo)
+                .map(assuntoMapper::toResponseDTO)
+                .orElseThrow(() -> new ResourceNotFoundException(getResourceName(), getIdentifierFieldName(), codigo));
+    }
+
+    @Override
+    protected List<AssuntoResponseDTO> findResponsesByIdsInOrder(List<Integer> codigos) {
+        return sortByIds(codigos, assuntoRepository.findProjectionsByCodigoIn(codigos), AssuntoProjection::codigo).stream()
+                .map(assuntoMapper::toResponseDTO)
+                .toList();
+    }
+
     @Override
     protected void updateEntityFromDTO(AssuntoRequestDTO dto, Assunto entity) {
         dto.setDescricao(dto.getDescricao().trim());
@@ -56,15 +142,30 @@ public class AssuntoService extends BaseService<Assunto, Integer, AssuntoRequest
     }
 
     @Override
-    protected void validateForCreate(Assunto assunto) {
-        validateDescricaoUnica(assunto.getDescricao().trim(), null);
+    protected Optional<DuplicateResourceException> translateUniqueViolation(String constraintName, Assunto assunto) {
+        if (isConstraint(constraintName, UNIQUE_DESCRICAO_CONSTRAINT)) {
+            return Optional.of(new DuplicateResourceException(RESOURCE_NAME, "descrição", assunto.getDescricao()));
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    protected void afterUpdate(Integer codigo, Assunto assunto) {
+        evictAfterCommit(codigo);
     }
 
     @Override
-    protected void validateForUpdate(Integer codigo, Assunto assunto) {
-        validateDescricaoUnica(assunto.getDescricao().trim(), codigo);
+    protected void afterDelete(Integer codigo, Assunto assunto) {
+        evictAfterCommit(codigo, LIVRO_ASSUNTOS_ROLE);
     }
 
+    @Override
+    protected void validateForCreate(Assunto assunto) {}
+
+    @Override
+    protected void validateForUpdate(Integer codigo, Assunto assunto) {}
+
     @Override
     protected void validateBeforeDelete(Integer codigo, Assunto assunto) {
         if (! assunto.getLivros().isEmpty()) {
@@ -72,16 +173,4 @@ public class AssuntoService extends BaseService<Assunto, Integer, AssuntoRequest
                     "Não é possível deletar o assunto pois existem livros associados a ele");
         }
     }
-
-    private void validateDescricaoUnica(String descricao, Integer codigoAtual) {
-        if (codigoAtual == null) {
-            if (assuntoRepository.existsByDescricaoIgnoreCase(descricao)) {
-                throw new DuplicateResourceException(RESOURCE_NAME, "descrição", descricao);
-            }
-        }
-
-        if (assuntoRepository.existsByDescricaoIgnoreCaseAndCodigoNot(descricao, codigoAtual)) {
-            throw new DuplicateResourceException(RESOURCE_NAME, "descrição", descricao);
-        }
-    }
 }
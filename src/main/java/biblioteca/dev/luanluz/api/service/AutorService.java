@@ -2,15 +2,32 @@ package biblioteca.dev.luanluz.api.service;
 
 import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
 import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorSimilarResponseDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
 import biblioteca.dev.luanluz.api.exception.DomainException;
 import biblioteca.dev.luanluz.api.exception.DuplicateResourceException;
+import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
+import biblioteca.dev.luanluz.api.exception.SimilarResourceException;
 import biblioteca.dev.luanluz.api.mapper.AutorMapper;
 import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.AutorSimilarRepository;
+import biblioteca.dev.luanluz.api.repository.ContagemRepository;
+import biblioteca.dev.luanluz.api.repository.projection.AutorProjection;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -19,15 +36,74 @@ public class AutorService extends BaseService<Autor, Integer, AutorRequestDTO, A
 
     private static final String RESOURCE_NAME = "Autor";
     private static final String IDENTIFIER_FIELD = "código";
+    private static final String TABLE_NAME = "autor";
+    private static final String LIVRO_AUTORES_ROLE = Livro.class.getName() + ".autores";
+    private static final String UNIQUE_NOME_CONSTRAINT = "uk_autor_nome_lower";
 
     private final AutorRepository autorRepository;
     private final AutorMapper autorMapper;
+    private final ContagemRepository contagemRepository;
+    private final AutorSimilarRepository autorSimilarRepository;
+
+    @Value("${app.autor.similares.limiar}")
+    private double limiarSimilaridade;
+
+    @Value("${app.autor.similares.limite}")
+    private int limiteSimilaresPadrao;
+
+    @Value("${app.autor.similares.limite-maximo}")
+    private int limiteSimilaresMaximo;
+
+    @Transactional(readOnly = true)
+    public List<AutorSimilarResponseDTO> findSimilares(String nome, Integer limite) {
+        if (nome == null || nome.isBlank()) {
+            throw new BadRequestException("O nome para a busca de autores semelhantes é obrigatório");
+        }
+
+        int quantidade = Objects.requireNonNullElse(limite, limiteSimilaresPadrao);
+
+        if (quantidade < 1 || quantidade > limiteSimilaresMaximo) {
+            throw new BadRequestException("O limite de autores semelhantes deve estar entre 1 e " + limiteSimilaresMaximo);
+        }
+
+        List<AutorSimilarResponseDTO> similares = autorSimilarRepository
+                .findSimilares(normalizarNome(nome), limiarSimilaridade, quantidade).stream()
+                .map(autorMapper::toSimilarResponseDTO)
+                .toList();
+
+        log.debug("Encontrados {} autores semelhantes", similares.size());
+
+        return similares;
+    }
+
+    // Com verificarSimilares o autor só é criado se nenhum nome semelhante existir; caso contrário os candidatos são devolvidos no erro
+    @Transactional
+    public AutorResponseDTO create(AutorRequestDTO requestDTO, boolean verificarSimilares) {
+        if (verificarSimilares) {
+            String nome = normalizarNome(requestDTO.getNome());
+            List<AutorSimilarResponseDTO> similares = autorSimilarRepository
+                    .findSimilares(nome, limiarSimilaridade, limiteSimilaresPadrao).stream()
+                    .map(autorMapper::toSimilarResponseDTO)
+                    .toList();
+
+            if (!similares.isEmpty()) {
+                throw new SimilarResourceException(RESOURCE_NAME, "nome", nome, similares);
+            }
+        }
+
+        return create(requestDTO);
+    }
 
     @Override
     protected JpaRepository<Autor, Integer> getRepository() {
         return autorRepository;
     }
 
+    @Override
+    protected Class<Autor> getEntityClass() {
+        return Autor.class;
+    }
+
     @Override
     protected String getResourceName() {
         return RESOURCE_NAME;
@@ -38,9 +114,14 @@ public class AutorService extends BaseService<Autor, Integer, AutorRequestDTO, A
         return IDENTIFIER_FIELD;
     }
 
+    @Override
+    protected Set<String> getCursorSortFields() {
+        return Set.of("nome", IDENTIFIER_ATTRIBUTE);
+    }
+
     @Override
     protected Autor toEntity(AutorRequestDTO dto) {
-        dto.setNome(dto.getNome().trim());
+        dto.setNome(normalizarNome(dto.getNome()));
         return autorMapper.toEntity(dto);
     }
 
@@ -49,22 +130,61 @@ public class AutorService extends BaseService<Autor, Integer, AutorRequestDTO, A
         return autorMapper.toResponseDTO(entity);
     }
 
+    @Override
+    protected Slice<AutorResponseDTO> getSlice(Pageable pageable) {
+        return autorRepository.findAllProjections(pageable).map(autorMapper::toResponseDTO);
+    }
+
+    @Override
+    protected long countAll() {
+        return contagemRepository.findTotalByTabela(TABLE_NAME).orElseGet(autorRepository::count);
+    }
+
+    @Override
+    protected AutorResponseDTO getById(Integer codigo) {
+        return autorRepository.findProjectionByCodigo(codigo)
+                .map(autorMapper::toResponseDTO)
+                .orElseThrow(() -> new ResourceNotFoundException(getResourceName(), getIdentifierFieldName(), codigo));
+    }
+
+    @Override
+    protected List<AutorResponseDTO> findResponsesByIdsInOrder(List<Integer> codigos) {
+        return sortByIds(codigos, autorRepository.findProjectionsByCodigoIn(codigos), AutorProjection::codigo).stream()
+                .map(autorMapper::toResponseDTO)
+                .toList();
+    }
+
     @Override
     protected void updateEntityFromDTO(AutorRequestDTO dto, Autor entity) {
-        dto.setNome(dto.getNome().trim());
+        dto.setNome(normalizarNome(dto.getNome()));
         autorMapper.updateEntityFromDTO(dto, entity);
     }
 
     @Override
-    protected void validateForCreate(Autor autor) {
-        validateNomeUnico(autor.getNome().trim(), null);
+    protected Optional<DuplicateResourceException> translateUniqueViolation(String constraintName, Autor autor) {
+        if (isConstraint(constraintName, UNIQUE_NOME_CONSTRAINT)) {
+            return Optional.of(new DuplicateResourceException(RESOURCE_NAME, "nome", autor.getNome()));
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    protected void afterUpdate(Integer codigo, Autor autor) {
+        evictAfterCommit(codigo);
     }
 
     @Override
-    protected void validateForUpdate(Integer codigo, Autor autor) {
-        validateNomeUnico(autor.getNome().trim(), codigo);
+    protected void afterDelete(Integer codigo, Autor autor) {
+        evictAfterCommit(codigo, LIVRO_AUTORES_ROLE);
     }
 
+    @Override
+    protected void validateForCreate(Autor autor) {}
+
+    @Override
+    protected void validateForUpdate(Integer codigo, Autor autor) {}
+
     @Override
     protected void validateBeforeDelete(Integer codigo, Autor autor) {
         if (! autor.getLivros().isEmpty()) {
@@ -73,15 +193,7 @@ public class AutorService extends BaseService<Autor, Integer, AutorRequestDTO, A
         }
     }
 
-    private void validateNomeUnico(String nome, Integer codigoAtual) {
-        if (codigoAtual == null) {
-            if (autorRepository.existsByNomeIgnoreCase(nome)) {
-                throw new DuplicateResourceException(RESOURCE_NAME, "nome", nome);
-            }
-        }
-
-        if (autorRepository.existsByNomeIgnoreCaseAndCodigoNot(nome, codigoAtual)) {
-            throw new DuplicateResourceException(RESOURCE_NAME, "nome", nome);
-        }
+    private static String normalizarNome(String nome) {
+        return nome.trim().replaceAll("\\s+", " ");
     }
 }
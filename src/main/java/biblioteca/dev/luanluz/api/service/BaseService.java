@@ -1,17 +1,50 @@
 package biblioteca.dev.luanluz.api.service;
 
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoSliceDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.exception.DuplicateResourceException;
 import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
+import biblioteca.dev.luanluz.api.util.CursorHelper;
+import biblioteca.dev.luanluz.api.util.CursorHelper.Cursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
 
+    protected static final String IDENTIFIER_ATTRIBUTE = "codigo";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     protected abstract JpaRepository<T, ID> getRepository();
 
+    protected abstract Class<T> getEntityClass();
+
     protected abstract String getResourceName();
 
     protected abstract String getIdentifierFieldName();
@@ -22,9 +55,14 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
 
     protected abstract void updateEntityFromDTO(REQUEST_DTO dto, T entity);
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Page<RESPONSE_DTO> findAll(Pageable pageable) {
-        Page<T> page = getAll(pageable);
+        Slice<RESPONSE_DTO> slice = getSlice(pageable);
+
+        // O total só é consultado quando não pode ser deduzido da própria página (última página incompleta)
+        Page<RESPONSE_DTO> page = slice instanceof Page<RESPONSE_DTO> pagina
+                ? pagina
+                : PageableExecutionUtils.getPage(slice.getContent(), pageable, this::countAll);
 
         log.info("Encontrados {} {} na página {} de {}",
                 page.getNumberOfElements(),
@@ -32,14 +70,59 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
                 page.getNumber() + 1,
                 page.getTotalPages());
 
-        return page.map(this::toResponseDTO);
+        return page;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public PaginacaoSliceDTO<RESPONSE_DTO> findSlice(Pageable pageable) {
+        Slice<RESPONSE_DTO> slice = getSlice(pageable);
+
+        log.info("Encontrados {} {} na página {} sem contagem total",
+                slice.getNumberOfElements(),
+                getResourceName(),
+                slice.getNumber() + 1);
+
+        return new PaginacaoSliceDTO<>(
+                slice.getContent(),
+                new PaginacaoSliceDTO.SliceInfo(slice.getSize(), slice.getNumber(), slice.hasNext()));
+    }
+
+    @Transactional(readOnly = true)
+    public PaginacaoCursorDTO<RESPONSE_DTO> findAll(String cursor, int size, Sort sort) {
+        Sort.Order order = getCursorOrder(sort);
+        Cursor posicao = cursor == null || cursor.isBlank() ? null : CursorHelper.decode(cursor);
+
+        if (posicao != null && (!posicao.campo().equals(order.getProperty()) || posicao.direcao() != order.getDirection())) {
+            throw new BadRequestException("O cursor de paginação não corresponde à ordenação solicitada");
+        }
+
+        List<Object[]> chaves = findCursorKeys(order, posicao, size + 1);
+        boolean hasNext = chaves.size() > size;
+        List<Object[]> pagina = hasNext ? chaves.subList(0, size) : chaves;
+
+        @SuppressWarnings("unchecked")
+        List<ID> ids = pagina.stream().map(chave -> (ID) chave[0]).toList();
+        List<RESPONSE_DTO> content = ids.isEmpty() ? List.of() : findResponsesByIdsInOrder(ids);
+
+        String next = null;
+        if (hasNext) {
+            Object[] ultima = pagina.get(pagina.size() - 1);
+            next = CursorHelper.encode(new Cursor(order.getProperty(), order.getDirection(), ultima[1], ultima[0]));
+        }
+
+        log.info("Encontrados {} {} na página por cursor ordenada por {}",
+                content.size(),
+                getResourceName(),
+                order.getProperty());
+
+        return new PaginacaoCursorDTO<>(content, size, next);
+    }
+
+    @Transactional(readOnly = true)
     public RESPONSE_DTO findById(ID id) {
-        T entity = findEntityById(id);
-        log.info("{} encontrado: {}", getResourceName(), entity);
-        return toResponseDTO(entity);
+        RESPONSE_DTO response = getById(id);
+        log.info("{} encontrado: {}", getResourceName(), response);
+        return response;
     }
 
     @Transactional
@@ -48,7 +131,7 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
 
         validateForCreate(entity);
 
-        T savedEntity = getRepository().save(entity);
+        T savedEntity = saveAndFlush(entity);
 
         log.info("{} criado com sucesso: {}", getResourceName(), savedEntity);
 
@@ -63,7 +146,9 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
 
         validateForUpdate(id, existingEntity);
 
-        T savedEntity = getRepository().save(existingEntity);
+        T savedEntity = saveAndFlush(existingEntity);
+
+        afterUpdate(id, savedEntity);
 
         log.info("{} atualizado com sucesso: {}", getResourceName(), savedEntity);
 
@@ -78,11 +163,75 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
 
         getRepository().delete(entity);
 
+        afterDelete(id, entity);
+
         log.info("{} deletado com sucesso: {}", getResourceName(), entity);
     }
 
-    protected Page<T> getAll(Pageable pageable) {
-        return getRepository().findAll(pageable);
+    protected Slice<RESPONSE_DTO> getSlice(Pageable pageable) {
+        return getRepository().findAll(pageable).map(this::toResponseDTO);
+    }
+
+    protected long countAll() {
+        return getRepository().count();
+    }
+
+    protected RESPONSE_DTO getById(ID id) {
+        return toResponseDTO(findEntityById(id));
+    }
+
+    protected Optional<DuplicateResourceException> translateUniqueViolation(String constraintName, T entity) {
+        return Optional.empty();
+    }
+
+    protected void afterUpdate(ID id, T entity) {}
+
+    protected void afterDelete(ID id, T entity) {}
+
+    // Remove a entidade e as coleções informadas do cache de segundo nível depois do commit, para que a
+    // próxima leitura venha do banco mesmo que a linha tenha sido alterada fora da sessão (SQL nativo, outro nó)
+    protected void evictAfterCommit(ID id, String... collectionRoles) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+
+                cache.evictEntityData(getEntityClass(), id);
+                for (String collectionRole : collectionRoles) {
+                    cache.evictCollectionData(collectionRole);
+                }
+            }
+        });
+    }
+
+    protected static boolean isConstraint(String violatedConstraint, String constraintName) {
+        return violatedConstraint != null && violatedConstraint.toLowerCase().contains(constraintName.toLowerCase());
+    }
+
+    protected Set<String> getCursorSortFields() {
+        return Set.of(IDENTIFIER_ATTRIBUTE);
+    }
+
+    protected List<RESPONSE_DTO> findResponsesByIdsInOrder(List<ID> ids) {
+        Function<T, Object> identificador = entityManager.getEntityManagerFactory().getPersistenceUnitUtil()::getIdentifier;
+
+        return sortByIds(ids, getRepository().findAllById(ids), identificador).stream()
+                .map(this::toResponseDTO)
+                .toList();
+    }
+
+    protected static <E> List<E> sortByIds(List<?> ids, List<E> itens, Function<E, Object> identificador) {
+        Map<Object, E> itensPorId = itens.stream()
+                .collect(Collectors.toMap(identificador, Function.identity()));
+
+        return ids.stream()
+                .map(itensPorId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     protected T findEntityById(ID id) {
@@ -90,6 +239,73 @@ public abstract class BaseService<T, ID, REQUEST_DTO, RESPONSE_DTO> {
                 .orElseThrow(() -> new ResourceNotFoundException(getResourceName(), getIdentifierFieldName(), id));
     }
 
+    private T saveAndFlush(T entity) {
+        try {
+            return getRepository().saveAndFlush(entity);
+        } catch (DataIntegrityViolationException ex) {
+            String constraintName = ex.getCause() instanceof ConstraintViolationException violation
+                    ? Objects.requireNonNullElse(violation.getConstraintName(), violation.getSQLException().getMessage())
+                    : null;
+
+            throw translateUniqueViolation(constraintName, entity)
+                    .map(RuntimeException.class::cast)
+                    .orElse(ex);
+        }
+    }
+
+    private Sort.Order getCursorOrder(Sort sort) {
+        List<Sort.Order> orders = sort.stream()
+                .filter(order -> !order.getProperty().equals(IDENTIFIER_ATTRIBUTE))
+                .toList();
+
+        if (orders.isEmpty()) {
+            Sort.Order porCodigo = sort.getOrderFor(IDENTIFIER_ATTRIBUTE);
+            return porCodigo != null ? porCodigo : Sort.Order.asc(IDENTIFIER_ATTRIBUTE);
+        }
+
+        if (orders.size() > 1 || !getCursorSortFields().contains(orders.get(0).getProperty())) {
+            throw new BadRequestException(String.format(
+                    "A paginação por cursor de %s aceita ordenação por apenas um dos campos: %s",
+                    getResourceName(),
+                    String.join(", ", getCursorSortFields())));
+        }
+
+        return orders.get(0);
+    }
+
+    private List<Object[]> findCursorKeys(Sort.Order order, Cursor posicao, int limite) {
+        String campo = "e." + order.getProperty();
+        String codigo = "e." + IDENTIFIER_ATTRIBUTE;
+        String direcao = order.isAscending() ? "ASC" : "DESC";
+        String operador = order.isAscending() ? ">" : "<";
+        boolean porCodigo = order.getProperty().equals(IDENTIFIER_ATTRIBUTE);
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT ").append(codigo).append(", ").append(campo)
+                .append(" FROM ").append(entityManager.getMetamodel().entity(getEntityClass()).getName()).append(" e");
+
+        if (posicao != null) {
+            jpql.append(porCodigo
+                    ? " WHERE " + codigo + " " + operador + " :codigo"
+                    : " WHERE (" + campo + ", " + codigo + ") " + operador + " (:valor, :codigo)");
+        }
+
+        jpql.append(" ORDER BY ").append(porCodigo ? "" : campo + " " + direcao + ", ")
+                .append(codigo).append(" ").append(direcao);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setMaxResults(limite);
+
+        if (posicao != null) {
+            query.setParameter("codigo", posicao.codigo());
+            if (!porCodigo) {
+                query.setParameter("valor", posicao.valor());
+            }
+        }
+
+        return query.getResultList();
+    }
+
     protected abstract void validateForCreate(T entity);
 
     protected abstract void validateForUpdate(ID id, T entity);
@@ -0,0 +1,159 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.response.AssuntoResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.repository.LivroExportacaoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LivroExportacaoService {
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addNumberColumn("codigo")
+            .addColumn("titulo")
+            .addColumn("editora")
+            .addNumberColumn("edicao")
+            .addColumn("anoPublicacao")
+            .addNumberColumn("valorEmCentavos")
+            .addArrayColumn("autoresCodigos", ";")
+            .addArrayColumn("assuntosCodigos", ";")
+            .build()
+            .withHeader();
+
+    private final LivroExportacaoRepository livroExportacaoRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.livro.exportacao.fetch-size}")
+    private int fetchSize;
+
+    @Getter
+    public enum Formato {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extensao;
+
+        Formato(MediaType mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public static Formato of(String formato) {
+            return Arrays.stream(values())
+                    .filter(valor -> valor.name().equals(formato.trim().toUpperCase(Locale.ROOT)))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Formato de exportação não suportado: '" + formato + "'"));
+        }
+    }
+
+    /*
+     * Escreve o acervo completo na saída dentro de uma única transação somente leitura em REPEATABLE READ,
+     * para que todas as linhas venham do mesmo instante mesmo com escritas concorrentes.
+     */
+    public void exportar(OutputStream saida, Formato formato) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        AtomicLong exportados = new AtomicLong();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (JsonGenerator generator = createGenerator(saida, formato)) {
+                ObjectWriter writer = objectMapper.writer()
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+                livroExportacaoRepository.forEach(fetchSize, livro -> {
+                    try {
+                        if (formato == Formato.CSV) {
+                            writeCsv(generator, livro);
+                        } else {
+                            writer.writeValue(generator, livro);
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    exportados.incrementAndGet();
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Exportação de livros em {} finalizada: {} livros", formato, exportados.get());
+    }
+
+    private JsonGenerator createGenerator(OutputStream saida, Formato formato) throws IOException {
+        if (formato == Formato.CSV) {
+            CsvGenerator generator = CSV_MAPPER.getFactory().createGenerator(saida);
+            generator.setSchema(CSV_SCHEMA);
+            return generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        return objectMapper.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private void writeCsv(JsonGenerator generator, LivroResponseDTO livro) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("codigo", livro.getCodigo());
+        generator.writeStringField("titulo", livro.getTitulo());
+        generator.writeStringField("editora", livro.getEditora());
+        writeNumberField(generator, "edicao", livro.getEdicao());
+        generator.writeStringField("anoPublicacao", livro.getAnoPublicacao());
+        writeNumberField(generator, "valorEmCentavos", livro.getValorEmCentavos());
+
+        generator.writeArrayFieldStart("autoresCodigos");
+        for (AutorResponseDTO autor : livro.getAutores()) {
+            generator.writeNumber(autor.getCodigo());
+        }
+        generator.writeEndArray();
+
+        generator.writeArrayFieldStart("assuntosCodigos");
+        for (AssuntoResponseDTO assunto : livro.getAssuntos()) {
+            generator.writeNumber(assunto.getCodigo());
+        }
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String campo, Integer valor) throws IOException {
+        if (valor == null) {
+            generator.writeNullField(campo);
+        } else {
+            generator.writeNumberField(campo, valor);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.LivroImportacaoLinhaDTO;
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroImportacaoErroDTO;
+import biblioteca.dev.luanluz.api.dto.response.LivroImportacaoResponseDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.exception.DomainException;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroImportacaoRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LivroImportacaoService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final Set<String> CSV_COLUMNS = Set.of(
+            "titulo", "editora", "edicao", "anoPublicacao", "valorEmCentavos", "autoresCodigos", "assuntosCodigos");
+    private static final Set<String> CSV_ARRAY_COLUMNS = Set.of("autoresCodigos", "assuntosCodigos");
+    private static final String CSV_ARRAY_SEPARATOR = ";";
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    private final LivroRepository livroRepository;
+    private final AutorRepository autorRepository;
+    private final AssuntoRepository assuntoRepository;
+    private final LivroImportacaoRepository livroImportacaoRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.livro.importacao.tamanho-lote}")
+    private int tamanhoLotePadrao;
+
+    @Value("${app.livro.importacao.tamanho-lote-maximo}")
+    private int tamanhoLoteMaximo;
+
+    @Value("${app.livro.importacao.maximo-erros}")
+    private int maximoErros;
+
+    /*
+     * Lê o corpo registro a registro e grava cada lote em uma transação própria, mantendo em memória apenas o lote
+     * corrente. O NDJSON é lido por linha; o CSV passa pelo parser em streaming, que aceita campos entre aspas com
+     * quebras de linha, e cada registro é identificado pela linha em que começa. Linhas inválidas são relatadas sem
+     * interromper a importação; uma falha ao gravar um lote interrompe o processamento e informa em proximoLote o
+     * ponto de retomada.
+     */
+    public LivroImportacaoResponseDTO importar(InputStream corpo, MediaType contentType,
+                                               Integer tamanhoLote, Long loteInicial) throws IOException {
+        int tamanho = Objects.requireNonNullElse(tamanhoLote, tamanhoLotePadrao);
+        long primeiroLote = Objects.requireNonNullElse(loteInicial, 0L);
+
+        if (tamanho < 1 || tamanho > tamanhoLoteMaximo) {
+            throw new BadRequestException("O tamanho do lote deve estar entre 1 e " + tamanhoLoteMaximo);
+        }
+
+        if (primeiroLote < 0) {
+            throw new BadRequestException("O lote inicial não pode ser negativo");
+        }
+
+        LivroImportacaoResponseDTO relatorio = LivroImportacaoResponseDTO.builder()
+                .concluida(true)
+                .tamanhoLote(tamanho)
+                .loteInicial(primeiroLote)
+                .build();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        LeitorDeRegistros leitor = TEXT_CSV.isCompatibleWith(contentType) ? leitorCsv(reader) : leitorNdjson(reader);
+
+        Map<Long, Registro> lote = new LinkedHashMap<>();
+        long registrosLidos = 0;
+        long indiceLote = primeiroLote;
+        Registro registro;
+
+        while ((registro = leitor.proximo()) != null) {
+            if (registrosLidos++ / tamanho < primeiroLote) {
+                continue;
+            }
+
+            lote.put(registro.linha(), registro);
+
+            if (lote.size() == tamanho) {
+                if (!processarLote(indiceLote, lote, relatorio)) {
+                    return relatorio;
+                }
+
+                lote.clear();
+                indiceLote++;
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            processarLote(indiceLote, lote, relatorio);
+        }
+
+        log.info("Importação de livros finalizada: {} importados, {} rejeitados",
+                relatorio.getLinhasImportadas(), relatorio.getLinhasRejeitadas());
+
+        return relatorio;
+    }
+
+    // Registro lido do corpo com a linha em que começa: o conteúdo estruturado ou o motivo de não ter sido lido
+    private record Registro(long linha, JsonNode conteudo, String erro) {
+    }
+
+    private interface LeitorDeRegistros {
+
+        // Próximo registro não vazio, ou null no fim do corpo
+        Registro proximo() throws IOException;
+    }
+
+    private LeitorDeRegistros leitorNdjson(BufferedReader reader) {
+        long[] numeroLinha = {0};
+
+        return () -> {
+            String texto;
+
+            do {
+                texto = reader.readLine();
+                numeroLinha[0]++;
+            } while (texto != null && texto.isBlank());
+
+            if (texto == null) {
+                return null;
+            }
+
+            try {
+                return new Registro(numeroLinha[0], objectMapper.readTree(texto), null);
+            } catch (JsonProcessingException e) {
+                return new Registro(numeroLinha[0], null, linhaMalformada(e));
+            }
+        };
+    }
+
+    /*
+     * O cabeçalho é validado antes de o parser assumir o restante do corpo, então as linhas contadas pelo parser são
+     * deslocadas em um. Um registro com colunas a mais é rejeitado e o parser retoma no próximo; um erro do qual o
+     * parser não se recupera, como aspas sem fechamento, rejeita o registro e encerra a leitura.
+     */
+    private LeitorDeRegistros leitorCsv(BufferedReader reader) throws IOException {
+        MappingIterator<JsonNode> registros = CSV_MAPPER.readerFor(JsonNode.class)
+                .with(createCsvSchema(reader.readLine()))
+                .readValues(reader);
+        boolean[] encerrado = {false};
+
+        return () -> {
+            if (encerrado[0]) {
+                return null;
+            }
+
+            try {
+                if (!registros.hasNextValue()) {
+                    return null;
+                }
+            } catch (JsonProcessingException e) {
+                encerrado[0] = true;
+                return new Registro(linhaCsv(registros), null, linhaMalformada(e));
+            }
+
+            // Com o registro aberto, a posição do parser já passou das linhas em branco e está na linha em que começa
+            long linha = linhaCsv(registros);
+
+            try {
+                return new Registro(linha, registros.nextValue(), null);
+            } catch (JsonProcessingException e) {
+                return new Registro(linha, null, linhaMalformada(e));
+            }
+        };
+    }
+
+    private static long linhaCsv(MappingIterator<JsonNode> registros) {
+        return registros.getParser().currentLocation().getLineNr() + 1;
+    }
+
+    private CsvSchema createCsvSchema(String cabecalho) {
+        if (cabecalho == null || cabecalho.isBlank()) {
+            throw new BadRequestException("O arquivo CSV deve começar com uma linha de cabeçalho");
+        }
+
+        CsvSchema.Builder schema = CsvSchema.builder().setArrayElementSeparator(CSV_ARRAY_SEPARATOR);
+        Set<String> colunas = new HashSet<>();
+
+        for (String coluna : cabecalho.replace("\uFEFF", "").split(",")) {
+            coluna = coluna.trim();
+
+            if (!CSV_COLUMNS.contains(coluna) || !colunas.add(coluna)) {
+                throw new BadRequestException("Coluna inválida ou repetida no cabeçalho do CSV: '" + coluna + "'");
+            }
+
+            schema.addColumn(coluna, CSV_ARRAY_COLUMNS.contains(coluna)
+                    ? CsvSchema.ColumnType.ARRAY
+                    : CsvSchema.ColumnType.STRING);
+        }
+
+        return schema.build();
+    }
+
+    private boolean processarLote(long indiceLote, Map<Long, Registro> lote, LivroImportacaoResponseDTO relatorio) {
+        List<LivroImportacaoLinhaDTO> linhas = new ArrayList<>(lote.size());
+        Set<String> titulosDoLote = new HashSet<>();
+        Map<Long, List<String>> errosDoLote = new TreeMap<>();
+
+        for (Map.Entry<Long, Registro> entrada : lote.entrySet()) {
+            List<String> mensagens = new ArrayList<>();
+            LivroRequestDTO livro = ler(entrada.getValue(), mensagens);
+
+            if (livro != null) {
+                validar(livro, titulosDoLote, mensagens);
+            }
+
+            if (mensagens.isEmpty()) {
+                linhas.add(new LivroImportacaoLinhaDTO(entrada.getKey(), livro));
+            } else {
+                errosDoLote.put(entrada.getKey(), mensagens);
+            }
+        }
+
+        try {
+            long importadas = new TransactionTemplate(transactionManager).execute(status ->
+                    gravarLote(linhas, errosDoLote));
+
+            relatorio.setLinhasImportadas(relatorio.getLinhasImportadas() + importadas);
+            relatorio.setLinhasProcessadas(relatorio.getLinhasProcessadas() + lote.size());
+            errosDoLote.forEach((linha, mensagens) -> rejeitar(relatorio, linha, indiceLote, mensagens));
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar o lote {} da importação de livros", indiceLote, e);
+
+            relatorio.setConcluida(false);
+            relatorio.setProximoLote(indiceLote);
+            return false;
+        }
+    }
+
+    private LivroRequestDTO ler(Registro registro, List<String> mensagens) {
+        if (registro.erro() != null) {
+            mensagens.add(registro.erro());
+            return null;
+        }
+
+        try {
+            return objectMapper.treeToValue(registro.conteudo(), LivroRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            mensagens.add(linhaMalformada(e));
+            return null;
+        }
+    }
+
+    private static String linhaMalformada(JsonProcessingException e) {
+        return "Linha malformada: " + e.getOriginalMessage();
+    }
+
+    private void validar(LivroRequestDTO livro, Set<String> titulosDoLote, List<String> mensagens) {
+        validator.validate(livro).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .forEach(mensagens::add);
+
+        if (livro.getAutoresCodigos() != null && livro.getAutoresCodigos().contains(null)) {
+            mensagens.add("O código do autor é obrigatório para associação");
+        }
+
+        if (livro.getAssuntosCodigos() != null && livro.getAssuntosCodigos().contains(null)) {
+            mensagens.add("O código do assunto é obrigatório para associação");
+        }
+
+        if (livro.getTitulo() != null) {
+            livro.setTitulo(livro.getTitulo().trim());
+
+            if (!titulosDoLote.add(livro.getTitulo().toLowerCase())) {
+                mensagens.add("Título '" + livro.getTitulo() + "' repetido no mesmo lote");
+            }
+        }
+
+        if (livro.getAnoPublicacao() != null && mensagens.isEmpty()) {
+            try {
+                LivroService.validateAnoPublicacao(livro.getAnoPublicacao());
+            } catch (DomainException e) {
+                mensagens.add(e.getMessage());
+            }
+        }
+    }
+
+    private long gravarLote(List<LivroImportacaoLinhaDTO> linhas, Map<Long, List<String>> errosDoLote) {
+        if (linhas.isEmpty()) {
+            return 0;
+        }
+
+        Set<Integer> autoresExistentes = autorRepository.findCodigosByCodigoIn(
+                codigos(linhas, LivroRequestDTO::getAutoresCodigos));
+        Set<Integer> assuntosExistentes = assuntoRepository.findCodigosByCodigoIn(
+                codigos(linhas, LivroRequestDTO::getAssuntosCodigos));
+        Set<String> titulosExistentes = livroRepository.findTitulosByTituloLowerIn(linhas.stream()
+                .map(linha -> linha.livro().getTitulo().toLowerCase())
+                .toList());
+
+        List<LivroImportacaoLinhaDTO> validas = new ArrayList<>(linhas.size());
+
+        for (LivroImportacaoLinhaDTO linha : linhas) {
+            LivroRequestDTO livro = linha.livro();
+            List<String> mensagens = new ArrayList<>();
+
+            if (titulosExistentes.contains(livro.getTitulo().toLowerCase())) {
+                mensagens.add(tituloDuplicado(livro));
+            }
+
+            naoEncontrados(livro.getAutoresCodigos(), autoresExistentes, "Autor", "Autores")
+                    .ifPresent(mensagens::add);
+            naoEncontrados(livro.getAssuntosCodigos(), assuntosExistentes, "Assunto", "Assuntos")
+                    .ifPresent(mensagens::add);
+
+            if (mensagens.isEmpty()) {
+                validas.add(linha);
+            } else {
+                errosDoLote.put(linha.linha(), mensagens);
+            }
+        }
+
+        Set<Long> recusadas = livroImportacaoRepository.saveAll(validas);
+
+        for (LivroImportacaoLinhaDTO linha : validas) {
+            if (recusadas.contains(linha.linha())) {
+                errosDoLote.put(linha.linha(), List.of(tituloDuplicado(linha.livro())));
+            }
+        }
+
+        return validas.size() - recusadas.size();
+    }
+
+    private static Set<Integer> codigos(List<LivroImportacaoLinhaDTO> linhas,
+                                        Function<LivroRequestDTO, Set<Integer>> associacao) {
+        return linhas.stream()
+                .flatMap(linha -> associacao.apply(linha.livro()).stream())
+                .collect(Collectors.toSet());
+    }
+
+    private static Optional<String> naoEncontrados(Collection<Integer> codigos, Set<Integer> existentes,
+                                                             String recurso, String recursoPlural) {
+        Set<Integer> naoEncontrados = new TreeSet<>(codigos);
+        naoEncontrados.removeAll(existentes);
+
+        if (naoEncontrados.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (naoEncontrados.size() == 1) {
+            return Optional.of(recurso + " com código " + naoEncontrados.iterator().next() + " não encontrado");
+        }
+
+        return Optional.of(recursoPlural + " com códigos " + naoEncontrados.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")) + " não encontrados");
+    }
+
+    private static String tituloDuplicado(LivroRequestDTO livro) {
+        return "Livro já existe com título: '" + livro.getTitulo() + "'";
+    }
+
+    private void rejeitar(LivroImportacaoResponseDTO relatorio, long linha, long lote, List<String> mensagens) {
+        relatorio.setLinhasRejeitadas(relatorio.getLinhasRejeitadas() + 1);
+
+        if (relatorio.getErros().size() < maximoErros) {
+            relatorio.getErros().add(LivroImportacaoErroDTO.builder()
+                    .linha(linha)
+                    .lote(lote)
+                    .mensagens(mensagens)
+                    .build());
+        } else {
+            relatorio.setErrosOmitidos(relatorio.getErrosOmitidos() + 1);
+        }
+    }
+}
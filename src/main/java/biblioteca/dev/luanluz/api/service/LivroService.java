@@ -1,7 +1,10 @@
 package biblioteca.dev.luanluz.api.service;
 
+import biblioteca.dev.luanluz.api.dto.request.LivroFiltroDTO;
 import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
 import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
 import biblioteca.dev.luanluz.api.exception.DomainException;
 import biblioteca.dev.luanluz.api.exception.DuplicateResourceException;
 import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
@@ -11,16 +14,36 @@ import biblioteca.dev.luanluz.api.model.Autor;
 import biblioteca.dev.luanluz.api.model.Livro;
 import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.ContagemRepository;
+import biblioteca.dev.luanluz.api.repository.LivroBuscaRepository;
+import biblioteca.dev.luanluz.api.repository.LivroFiltroRepository;
 import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.repository.projection.LivroBuscaProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroProjection;
+import biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications;
+import biblioteca.dev.luanluz.api.util.CursorHelper;
+import biblioteca.dev.luanluz.api.util.CursorHelper.Cursor;
+import biblioteca.dev.luanluz.api.util.FiltroHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -29,17 +52,93 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
 
     private static final String RESOURCE_NAME = "Livro";
     private static final String IDENTIFIER_FIELD = "código";
+    private static final String TABLE_NAME = "livro";
+    private static final String UNIQUE_TITULO_CONSTRAINT = "uk_livro_titulo_lower";
+    private static final String SEARCH_CURSOR_FIELD = "relevancia";
 
     private final LivroRepository livroRepository;
     private final AutorRepository autorRepository;
     private final AssuntoRepository assuntoRepository;
     private final LivroMapper livroMapper;
+    private final ContagemRepository contagemRepository;
+    private final LivroBuscaRepository livroBuscaRepository;
+    private final LivroFiltroRepository livroFiltroRepository;
+
+    // Sem critérios a listagem segue pelo caminho comum, com o total vindo da tabela contagem
+    @Transactional(readOnly = true)
+    public Page<LivroResponseDTO> findAll(LivroFiltroDTO filtro, Pageable pageable) {
+        validarFiltro(filtro);
+
+        Specification<Livro> specification = LivroSpecifications.porFiltro(filtro);
+
+        if (specification == null) {
+            return findAll(pageable);
+        }
+
+        Slice<Integer> codigos = livroFiltroRepository.findCodigos(specification, pageable);
+        List<LivroResponseDTO> content = codigos.isEmpty() ? List.of() : findResponsesByIdsInOrder(codigos.getContent());
+
+        Page<LivroResponseDTO> page = PageableExecutionUtils.getPage(content, pageable,
+                () -> livroRepository.count(specification));
+
+        log.info("Encontrados {} livros filtrados por {} na página {} de {}",
+                page.getNumberOfElements(),
+                filtro,
+                page.getNumber() + 1,
+                page.getTotalPages());
+
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public PaginacaoCursorDTO<LivroResponseDTO> search(String termo, String cursor, int size) {
+        if (termo == null || termo.isBlank()) {
+            throw new BadRequestException("O termo de busca é obrigatório");
+        }
+
+        Cursor posicao = cursor == null || cursor.isBlank() ? null : CursorHelper.decode(cursor);
+        Double relevancia = null;
+        Integer codigo = null;
+
+        if (posicao != null) {
+            if (!posicao.campo().equals(SEARCH_CURSOR_FIELD)
+                    || !(posicao.valor() instanceof Number valor)
+                    || !(posicao.codigo() instanceof Number codigoPosicao)) {
+                throw new BadRequestException("O cursor de paginação não corresponde à busca");
+            }
+
+            relevancia = valor.doubleValue();
+            codigo = codigoPosicao.intValue();
+        }
+
+        List<LivroBuscaProjection> resultados = livroBuscaRepository.search(termo.trim(), relevancia, codigo, size + 1);
+        boolean hasNext = resultados.size() > size;
+        List<LivroBuscaProjection> pagina = hasNext ? resultados.subList(0, size) : resultados;
+
+        List<Integer> codigos = pagina.stream().map(LivroBuscaProjection::codigo).toList();
+        List<LivroResponseDTO> content = codigos.isEmpty() ? List.of() : findResponsesByIdsInOrder(codigos);
+
+        String next = null;
+        if (hasNext) {
+            LivroBuscaProjection ultima = pagina.get(pagina.size() - 1);
+            next = CursorHelper.encode(new Cursor(SEARCH_CURSOR_FIELD, Sort.Direction.DESC, ultima.relevancia(), ultima.codigo()));
+        }
+
+        log.debug("Encontrados {} livros na busca textual", content.size());
+
+        return new PaginacaoCursorDTO<>(content, size, next);
+    }
 
     @Override
     protected JpaRepository<Livro, Integer> getRepository() {
         return livroRepository;
     }
 
+    @Override
+    protected Class<Livro> getEntityClass() {
+        return Livro.class;
+    }
+
     @Override
     protected String getResourceName() {
         return RESOURCE_NAME;
@@ -50,6 +149,11 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
         return IDENTIFIER_FIELD;
     }
 
+    @Override
+    protected Set<String> getCursorSortFields() {
+        return Set.of("titulo", IDENTIFIER_ATTRIBUTE);
+    }
+
     @Override
     protected Livro toEntity(LivroRequestDTO dto) {
         dto.setTitulo(dto.getTitulo().trim());
@@ -61,10 +165,46 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
         return livroMapper.toResponseDTO(entity);
     }
 
-    protected Page<Livro> getAll(Pageable pageable) {
-        return livroRepository.findAllWithRelations(pageable);
+    @Override
+    protected Slice<LivroResponseDTO> getSlice(Pageable pageable) {
+        Slice<Integer> codigos = livroRepository.findPageCodigos(pageable);
+
+        if (codigos.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, codigos.hasNext());
+        }
+
+        return new SliceImpl<>(findResponsesByIdsInOrder(codigos.getContent()), pageable, codigos.hasNext());
+    }
+
+    @Override
+    protected long countAll() {
+        return contagemRepository.findTotalByTabela(TABLE_NAME).orElseGet(livroRepository::count);
     }
 
+    @Override
+    protected LivroResponseDTO getById(Integer codigo) {
+        return findResponsesByIdsInOrder(List.of(codigo)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException(getResourceName(), getIdentifierFieldName(), codigo));
+    }
+
+    @Override
+    protected List<LivroResponseDTO> findResponsesByIdsInOrder(List<Integer> codigos) {
+        List<LivroProjection> livros = livroRepository.findProjectionsByCodigoIn(codigos);
+
+        if (livros.isEmpty()) {
+            return List.of();
+        }
+
+        List<LivroResponseDTO> respostas = livroMapper.toResponseDTOs(
+                livros,
+                livroRepository.findAutorProjectionsByLivroCodigoIn(codigos),
+                livroRepository.findAssuntoProjectionsByLivroCodigoIn(codigos));
+
+        return sortByIds(codigos, respostas, LivroResponseDTO::getCodigo);
+    }
+
+    @Override
     protected Livro findEntityById(Integer id) {
         return livroRepository.findByIdWithRelations(id)
                 .orElseThrow(() -> new ResourceNotFoundException(getResourceName(), getIdentifierFieldName(), id));
@@ -76,11 +216,19 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
         livroMapper.updateEntityFromDTO(dto, entity);
     }
 
+    @Override
+    protected Optional<DuplicateResourceException> translateUniqueViolation(String constraintName, Livro livro) {
+        if (isConstraint(constraintName, UNIQUE_TITULO_CONSTRAINT)) {
+            return Optional.of(new DuplicateResourceException(RESOURCE_NAME, "título", livro.getTitulo()));
+        }
+
+        return Optional.empty();
+    }
+
     @Override
     protected void validateForCreate(Livro livro) {
         processarRelacionamentos(livro);
 
-        validateTituloUnico(livro.getTitulo().trim(), null);
         validateAnoPublicacao(livro.getAnoPublicacao());
     }
 
@@ -88,14 +236,13 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
     protected void validateForUpdate(Integer codigo, Livro livro) {
         processarRelacionamentos(livro);
 
-        validateTituloUnico(livro.getTitulo().trim(), codigo);
         validateAnoPublicacao(livro.getAnoPublicacao());
     }
 
     @Override
     protected void validateBeforeDelete(Integer integer, Livro entity) {}
 
-    private void validateAnoPublicacao(String anoPublicacao) {
+    static void validateAnoPublicacao(String anoPublicacao) {
         if (anoPublicacao == null) {
             throw new DomainException("O ano de publicação é obrigatório");
         }
@@ -112,16 +259,10 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
         }
     }
 
-    private void validateTituloUnico(String titulo, Integer codigoAtual) {
-        if (codigoAtual == null) {
-            if (livroRepository.existsByTituloIgnoreCase(titulo)) {
-                throw new DuplicateResourceException(RESOURCE_NAME, "título", titulo);
-            }
-        }
-
-        if (livroRepository.existsByTituloIgnoreCaseAndCodigoNot(titulo, codigoAtual)) {
-            throw new DuplicateResourceException(RESOURCE_NAME, "título", titulo);
-        }
+    private static void validarFiltro(LivroFiltroDTO filtro) {
+        FiltroHelper.validarIntervaloDeAno(filtro.getAnoPublicacaoMinimo(), filtro.getAnoPublicacaoMaximo());
+        FiltroHelper.validarIntervalo(filtro.getValorEmCentavosMinimo(), filtro.getValorEmCentavosMaximo(),
+                Integer.MAX_VALUE, "valor em centavos");
     }
 
     private void processarRelacionamentos(Livro livro) {
@@ -134,20 +275,13 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
             return;
         }
 
-        Set<Autor> autoresValidados = new HashSet<>();
+        Set<Integer> codigos = extrairCodigos(livro.getAutores(), Autor::getCodigo,
+                "O código do autor é obrigatório para associação");
+        List<Autor> autores = autorRepository.findAllById(codigos);
 
-        for (var autor : livro.getAutores()) {
-            if (autor.getCodigo() == null) {
-                throw new DomainException("O código do autor é obrigatório para associação");
-            }
+        validarCodigosEncontrados(codigos, autores, Autor::getCodigo, "Autor", "Autores");
 
-            var autorExistente = autorRepository.findById(autor.getCodigo())
-                    .orElseThrow(() -> new DomainException("Autor com código " + autor.getCodigo() + " não encontrado"));
-
-            autoresValidados.add(autorExistente);
-        }
-
-        livro.setAutores(autoresValidados);
+        livro.setAutores(new HashSet<>(autores));
     }
 
     private void processarAssuntos(Livro livro) {
@@ -155,19 +289,51 @@ public class LivroService extends BaseService<Livro, Integer, LivroRequestDTO, L
             return;
         }
 
-        Set<Assunto> assuntosValidados = new HashSet<>();
+        Set<Integer> codigos = extrairCodigos(livro.getAssuntos(), Assunto::getCodigo,
+                "O código do assunto é obrigatório para associação");
+        List<Assunto> assuntos = assuntoRepository.findAllById(codigos);
+
+        validarCodigosEncontrados(codigos, assuntos, Assunto::getCodigo, "Assunto", "Assuntos");
+
+        livro.setAssuntos(new HashSet<>(assuntos));
+    }
 
-        for (var assunto : livro.getAssuntos()) {
-            if (assunto.getCodigo() == null) {
-                throw new DomainException("O código do assunto é obrigatório para associação");
+    private <E> Set<Integer> extrairCodigos(Set<E> associacoes, Function<E, Integer> codigo, String mensagemCodigoObrigatorio) {
+        Set<Integer> codigos = new HashSet<>();
+
+        for (var associacao : associacoes) {
+            Integer codigoAssociacao = codigo.apply(associacao);
+
+            if (codigoAssociacao == null) {
+                throw new DomainException(mensagemCodigoObrigatorio);
             }
 
-            var assuntoExistente = assuntoRepository.findById(assunto.getCodigo())
-                    .orElseThrow(() -> new DomainException("Assunto com código " + assunto.getCodigo() + " não encontrado"));
+            codigos.add(codigoAssociacao);
+        }
+
+        return codigos;
+    }
+
+    private <E> void validarCodigosEncontrados(
+            Set<Integer> codigos,
+            List<E> encontrados,
+            Function<E, Integer> codigo,
+            String recurso,
+            String recursoPlural
+    ) {
+        Set<Integer> naoEncontrados = new TreeSet<>(codigos);
+        encontrados.stream().map(codigo).forEach(naoEncontrados::remove);
+
+        if (naoEncontrados.isEmpty()) {
+            return;
+        }
 
-            assuntosValidados.add(assuntoExistente);
+        if (naoEncontrados.size() == 1) {
+            throw new DomainException(recurso + " com código " + naoEncontrados.iterator().next() + " não encontrado");
         }
 
-        livro.setAssuntos(assuntosValidados);
+        throw new DomainException(recursoPlural + " com códigos " + naoEncontrados.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", ")) + " não encontrados");
     }
 }
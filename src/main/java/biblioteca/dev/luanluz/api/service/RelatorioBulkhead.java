@@ -0,0 +1,115 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioBulkheadProperties;
+import biblioteca.dev.luanluz.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Limita os preenchimentos simultâneos de relatório. Sem vaga livre, até `fila` chamadas esperam em ordem de
+ * chegada pelo tempo máximo configurado; além disso, ou quando a espera expira, a chamada é recusada com 429.
+ * Os jobs em segundo plano esperam a vaga sem prazo e sem ocupar a fila das requisições.
+ */
+@Slf4j
+@Component
+public class RelatorioBulkhead {
+
+    private final RelatorioBulkheadProperties properties;
+    private final Semaphore vagas;
+    private final AtomicInteger aguardando = new AtomicInteger();
+    private final Timer espera;
+    private final Counter rejeicoes;
+
+    public RelatorioBulkhead(RelatorioBulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.vagas = new Semaphore(properties.preenchimentosSimultaneos(), true);
+
+        Gauge.builder("relatorio.bulkhead.fila", aguardando, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("relatorio.bulkhead.em-uso", vagas,
+                        semaforo -> properties.preenchimentosSimultaneos() - semaforo.availablePermits())
+                .register(meterRegistry);
+        this.espera = Timer.builder("relatorio.bulkhead.espera")
+                .register(meterRegistry);
+        this.rejeicoes = Counter.builder("relatorio.bulkhead.rejeicoes")
+                .register(meterRegistry);
+    }
+
+    public void adquirir() throws InterruptedException {
+        if (vagas.tryAcquire()) {
+            return;
+        }
+
+        if (aguardando.incrementAndGet() > properties.fila()) {
+            aguardando.decrementAndGet();
+            rejeitar("A fila de relatórios está cheia");
+        }
+
+        long inicio = System.nanoTime();
+        boolean adquirido;
+
+        try {
+            adquirido = vagas.tryAcquire(properties.esperaMaxima().toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            aguardando.decrementAndGet();
+            espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        if (!adquirido) {
+            rejeitar("Nenhuma vaga para gerar o relatório em " + properties.esperaMaxima());
+        }
+    }
+
+    // Espera na mesma ordem de chegada até haver vaga ou a thread ser interrompida
+    public void aguardar() throws InterruptedException {
+        if (vagas.tryAcquire()) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+
+        try {
+            vagas.acquire();
+        } finally {
+            espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /*
+     * Reserva a vaga de adquirir() e, sem esperar, mais vagas livres até o máximo, para um relatório dividido em
+     * seções. As vagas extras só são tomadas se ninguém estiver na fila, e todas são liberadas juntas no fim.
+     */
+    public int adquirirAte(int maximo) throws InterruptedException {
+        adquirir();
+
+        int adquiridas = 1;
+        while (adquiridas < maximo && vagas.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            adquiridas++;
+        }
+
+        return adquiridas;
+    }
+
+    public void liberar() {
+        vagas.release();
+    }
+
+    public void liberar(int quantidade) {
+        vagas.release(quantidade);
+    }
+
+    private void rejeitar(String motivo) {
+        rejeicoes.increment();
+        log.warn("Preenchimento de relatório recusado: {}", motivo);
+
+        throw new TooManyRequestsException(motivo + ". Tente novamente mais tarde", properties.retryAfter());
+    }
+}
@@ -0,0 +1,324 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioCacheProperties;
+import biblioteca.dev.luanluz.api.config.RelatorioVirtualizacaoProperties;
+import biblioteca.dev.luanluz.api.repository.VersaoDadosRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/*
+ * Cache dos relatórios renderizados, em disco e numa camada pequena em memória. A chave combina tipo, formato,
+ * parâmetros, a assinatura do relatório compilado e a versão dos dados mantida pelos triggers de versao_dados,
+ * então qualquer escrita no acervo ou mudança de layout torna as entradas anteriores obsoletas sem invalidação
+ * explícita. Requisições simultâneas para a mesma chave esperam uma única renderização, e a impressão preenchida
+ * é reaproveitada para exportar os demais formatos; ao sair do cache ela é liberada e o arquivo de swap descartado
+ * assim que a última exportação em andamento termina.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatorioCacheService {
+
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    private final RelatorioService relatorioService;
+    private final RelatorioSecoesService relatorioSecoesService;
+    private final RelatorioRegistry relatorioRegistry;
+    private final VersaoDadosRepository versaoDadosRepository;
+    private final RelatorioCacheProperties properties;
+    private final RelatorioVirtualizacaoProperties virtualizacaoProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CompletableFuture<RelatorioImpressao>> preenchimentos = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Path>> exportacoes = new ConcurrentHashMap<>();
+
+    private Cache<String, byte[]> memoria;
+    private Cache<String, RelatorioImpressao> impressoes;
+
+    public record Chave(Tipo tipo, Formato formato, String parametros, String modelo, long versao) {
+
+        // Identifica o relatório independentemente do formato e da versão, usado para descartar versões antigas
+        String relatorio() {
+            return tipo.getNome() + "-" + parametros;
+        }
+
+        String impressao() {
+            return relatorio() + "-" + modelo + "-" + versao;
+        }
+
+        String arquivo() {
+            return impressao() + "." + formato.getExtensao();
+        }
+
+        public String etag() {
+            return "\"" + arquivo() + "\"";
+        }
+    }
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(properties.diretorio());
+
+        memoria = Caffeine.newBuilder()
+                .maximumWeight(properties.memoriaMaxima().toBytes())
+                .weigher((String chave, byte[] conteudo) -> conteudo.length)
+                .recordStats()
+                .build();
+        // Limitadas pelo heap estimado: uma impressão pequena e uma com centenas de páginas em memória pesam diferente
+        impressoes = Caffeine.newBuilder()
+                .maximumWeight(properties.memoriaImpressoes().toBytes())
+                .weigher((String chave, RelatorioImpressao impressao) -> (int) Math.min(Integer.MAX_VALUE,
+                        virtualizacaoProperties.memoriaEstimada(impressao.getJasperPrint().getPages().size())))
+                // Listener na própria thread que descarta, para que o swap seja liberado também no encerramento
+                .executor(Runnable::run)
+                .removalListener((String chave, RelatorioImpressao impressao, RemovalCause causa) -> impressao.close())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memoria, "relatorio.arquivos");
+        CaffeineCacheMetrics.monitor(meterRegistry, impressoes, "relatorio.impressoes");
+    }
+
+    @PreDestroy
+    void encerrar() {
+        impressoes.invalidateAll();
+    }
+
+    // Move as transações registradas pelos triggers de versão para a base, para que a leitura do carimbo siga barata
+    @Scheduled(fixedDelayString = "${app.relatorio.cache.intervalo-compactacao-versao}")
+    public void compactarVersao() {
+        int transacoes = versaoDadosRepository.compactar();
+        log.debug("{} transações compactadas na versão dos dados", transacoes);
+    }
+
+    // Barata: só consulta a versão dos dados, para que requisições condicionais sejam respondidas sem renderizar
+    public Chave chave(Tipo tipo, Formato formato, Map<String, ?> parametros) {
+        return new Chave(tipo, formato, resumir(parametros), relatorioRegistry.obter(tipo.getNome()).assinatura(),
+                versaoDadosRepository.findVersaoAtual());
+    }
+
+    // Relatório pronto para envio: em memória quando pequeno, senão o arquivo do cache lido em blocos
+    public record Relatorio(byte[] conteudo, Path arquivo) {
+
+        public InputStream abrir() throws IOException {
+            return conteudo != null ? new ByteArrayInputStream(conteudo) : Files.newInputStream(arquivo);
+        }
+    }
+
+    public Relatorio obter(Chave chave, Map<String, Object> parametros) throws Exception {
+        byte[] conteudo = memoria.getIfPresent(chave.arquivo());
+
+        if (conteudo != null) {
+            return new Relatorio(conteudo, null);
+        }
+
+        Path arquivo = properties.diretorio().resolve(chave.arquivo());
+
+        if (Files.exists(arquivo)) {
+            try {
+                return carregar(chave, arquivo);
+            } catch (NoSuchFileException e) {
+                // Descartado por uma versão mais nova dos dados entre a verificação e a leitura
+                log.debug("Relatório {} removido do cache durante a leitura", chave.arquivo());
+            }
+        }
+
+        return carregar(chave, coalescer(exportacoes, chave.arquivo(), () -> exportar(chave, parametros)));
+    }
+
+    private Path exportar(Chave chave, Map<String, Object> parametros) throws Exception {
+        Path arquivo = properties.diretorio().resolve(chave.arquivo());
+
+        // Outra requisição pode ter concluído a exportação entre a verificação e a entrada aqui
+        if (Files.exists(arquivo)) {
+            return arquivo;
+        }
+
+        Path temporario = arquivo.resolveSibling(chave.arquivo() + EXTENSAO_TEMPORARIA);
+
+        try (RelatorioImpressao impressao = reservarImpressao(chave, parametros)) {
+            try (OutputStream saida = Files.newOutputStream(temporario)) {
+                relatorioService.exportar(impressao.getJasperPrint(), chave.formato(), saida);
+            }
+
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+
+        Counter.builder("relatorio.exportacoes")
+                .tag("tipo", chave.tipo().name())
+                .tag("formato", chave.formato().name())
+                .register(meterRegistry)
+                .increment();
+
+        log.info("Relatório {} exportado para o cache: {} bytes", chave.arquivo(), Files.size(arquivo));
+
+        descartarObsoletos(chave);
+        return arquivo;
+    }
+
+    // Reserva a impressão em cache ou a preenche; a reserva é liberada ao fechar, depois da exportação
+    private RelatorioImpressao reservarImpressao(Chave chave, Map<String, Object> parametros) throws Exception {
+        RelatorioImpressao impressao = impressoes.getIfPresent(chave.impressao());
+
+        if (impressao == null) {
+            impressao = coalescer(preenchimentos, chave.impressao(), () -> preencher(chave, parametros));
+        }
+
+        if (impressao.reservar()) {
+            return impressao;
+        }
+
+        // Descartada do cache entre a consulta e a reserva: preenche uma cópia só para esta exportação
+        return preencherSemCache(chave, parametros);
+    }
+
+    private RelatorioImpressao preencher(Chave chave, Map<String, Object> parametros) throws Exception {
+        RelatorioImpressao impressao = impressoes.getIfPresent(chave.impressao());
+
+        if (impressao != null) {
+            return impressao;
+        }
+
+        impressao = preencherSemCache(chave, parametros);
+        impressoes.put(chave.impressao(), impressao);
+
+        return impressao;
+    }
+
+    private RelatorioImpressao preencherSemCache(Chave chave, Map<String, Object> parametros) throws Exception {
+        RelatorioImpressao impressao = relatorioSecoesService.preencher(chave.tipo(), parametros);
+
+        Counter.builder("relatorio.preenchimentos")
+                .tag("tipo", chave.tipo().name())
+                .register(meterRegistry)
+                .increment();
+
+        return impressao;
+    }
+
+    // Arquivos pequenos passam para a memória; os grandes são servidos direto do disco
+    private Relatorio carregar(Chave chave, Path arquivo) throws IOException {
+        if (Files.size(arquivo) > properties.tamanhoMaximoEmMemoria().toBytes()) {
+            return new Relatorio(null, arquivo);
+        }
+
+        byte[] conteudo = Files.readAllBytes(arquivo);
+        memoria.put(chave.arquivo(), conteudo);
+
+        return new Relatorio(conteudo, null);
+    }
+
+    // Remove as versões anteriores do mesmo relatório e os arquivos não renovados dentro do TTL
+    private void descartarObsoletos(Chave chave) {
+        String prefixo = chave.relatorio() + "-";
+        String extensao = "." + chave.formato().getExtensao();
+        Instant limite = Instant.now().minus(properties.ttl());
+
+        try (Stream<Path> arquivos = Files.list(properties.diretorio())) {
+            arquivos.filter(arquivo -> {
+                        String nome = arquivo.getFileName().toString();
+                        boolean versaoAnterior = nome.startsWith(prefixo) && nome.endsWith(extensao)
+                                && !nome.equals(chave.arquivo());
+
+                        return versaoAnterior || !nome.endsWith(EXTENSAO_TEMPORARIA) && modificadoAntesDe(arquivo, limite);
+                    })
+                    .forEach(this::apagar);
+        } catch (IOException e) {
+            log.warn("Falha ao limpar o cache de relatórios {}: {}", properties.diretorio(), e.getMessage());
+        }
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Falha ao remover o relatório em cache {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    private static boolean modificadoAntesDe(Path arquivo, Instant limite) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toInstant().isBefore(limite);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /*
+     * Executa a tarefa uma única vez por chave: quem chega enquanto ela está em andamento espera o mesmo
+     * resultado. A chave é liberada ao final, e o resultado passa a ser encontrado no disco ou na memória.
+     */
+    private static <T> T coalescer(Map<String, CompletableFuture<T>> emAndamento, String chave,
+                                   Callable<T> tarefa) throws Exception {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        CompletableFuture<T> existente = emAndamento.putIfAbsent(chave, futuro);
+
+        if (existente != null) {
+            try {
+                return existente.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception causa ? causa : e;
+            }
+        }
+
+        try {
+            T resultado = tarefa.call();
+            futuro.complete(resultado);
+            return resultado;
+        } catch (Throwable e) {
+            futuro.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, futuro);
+        }
+    }
+
+    private static String resumir(Map<String, ?> parametros) {
+        if (parametros.isEmpty()) {
+            return "padrao";
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(new TreeMap<>(parametros).toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package biblioteca.dev.luanluz.api.service;
+
+import lombok.Getter;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Relatório preenchido junto com o virtualizador que guarda as páginas fora do heap. O arquivo de swap só pode ser
+ * descartado quando ninguém mais exporta o relatório, então cada uso reserva uma referência e a libera ao fechar.
+ * Quem recebe a impressão do preenchimento já detém a primeira referência.
+ */
+public class RelatorioImpressao implements AutoCloseable {
+
+    @Getter
+    private final JasperPrint jasperPrint;
+    private final List<JRVirtualizer> virtualizadores;
+    private final AtomicInteger referencias = new AtomicInteger(1);
+
+    RelatorioImpressao(JasperPrint jasperPrint, JRVirtualizer virtualizador) {
+        this(jasperPrint, virtualizador == null ? List.of() : List.of(virtualizador));
+    }
+
+    private RelatorioImpressao(JasperPrint jasperPrint, List<JRVirtualizer> virtualizadores) {
+        this.jasperPrint = jasperPrint;
+        this.virtualizadores = virtualizadores;
+    }
+
+    /*
+     * Junta as páginas das seções, na ordem recebida, no relatório da primeira. Cada página continua no virtualizador
+     * da sua seção, então a impressão resultante assume todos eles e os libera juntos.
+     */
+    static RelatorioImpressao concatenar(List<RelatorioImpressao> secoes) {
+        JasperPrint documento = secoes.get(0).jasperPrint;
+
+        secoes.stream()
+                .skip(1)
+                .flatMap(secao -> secao.jasperPrint.getPages().stream())
+                .forEach(documento::addPage);
+
+        return new RelatorioImpressao(documento, secoes.stream()
+                .flatMap(secao -> secao.virtualizadores.stream())
+                .toList());
+    }
+
+    // Páginas somente leitura não são regravadas a cada saída da memória; alterações posteriores seriam perdidas
+    void somenteLeitura() {
+        virtualizadores.forEach(virtualizador -> {
+            if (virtualizador instanceof JRAbstractLRUVirtualizer lru) {
+                lru.setReadOnly(true);
+            }
+        });
+    }
+
+    // Falha quando a impressão já foi liberada e as páginas em disco descartadas
+    public boolean reservar() {
+        int atual;
+
+        do {
+            atual = referencias.get();
+
+            if (atual == 0) {
+                return false;
+            }
+        } while (!referencias.compareAndSet(atual, atual + 1));
+
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (referencias.decrementAndGet() == 0) {
+            virtualizadores.forEach(JRVirtualizer::cleanup);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.fill.ReportFiller;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Estado de um relatório gerado em segundo plano. As transições são sincronizadas porque o cancelamento e o
+ * tempo limite chegam de outras threads enquanto o worker preenche e exporta o relatório.
+ */
+@Slf4j
+@Getter
+public class RelatorioJob {
+
+    public enum Status {
+        PENDENTE, EXECUTANDO, CONCLUIDO, FALHOU, CANCELADO, TEMPO_ESGOTADO;
+
+        public boolean isFinal() {
+            return this != PENDENTE && this != EXECUTANDO;
+        }
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Tipo tipo;
+    private final Formato formato;
+    private final Map<String, Object> parametros;
+    private final Instant criadoEm = Instant.now();
+    private final AtomicInteger paginasGeradas = new AtomicInteger();
+
+    private volatile Status status = Status.PENDENTE;
+    private volatile Instant iniciadoEm;
+    private volatile Instant finalizadoEm;
+    private volatile String erro;
+    private volatile Path arquivo;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private Future<?> execucao;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private ReportFiller filler;
+
+    public RelatorioJob(Tipo tipo, Formato formato, Map<String, Object> parametros) {
+        this.tipo = tipo;
+        this.formato = formato;
+        this.parametros = parametros;
+    }
+
+    synchronized void setExecucao(Future<?> execucao) {
+        this.execucao = execucao;
+
+        if (status.isFinal()) {
+            execucao.cancel(true);
+        }
+    }
+
+    // Retorna false quando o job foi cancelado enquanto aguardava na fila
+    synchronized boolean iniciar(ReportFiller filler) {
+        if (status != Status.PENDENTE) {
+            return false;
+        }
+
+        this.filler = filler;
+        this.status = Status.EXECUTANDO;
+        this.iniciadoEm = Instant.now();
+        return true;
+    }
+
+    void paginaGerada() {
+        paginasGeradas.incrementAndGet();
+    }
+
+    void paginasPreenchidas(int total) {
+        paginasGeradas.set(total);
+    }
+
+    synchronized boolean concluir(Path arquivo) {
+        if (status != Status.EXECUTANDO) {
+            return false;
+        }
+
+        this.arquivo = arquivo;
+        finalizar(Status.CONCLUIDO);
+        return true;
+    }
+
+    synchronized boolean falhar(String erro) {
+        if (status.isFinal()) {
+            return false;
+        }
+
+        this.erro = erro;
+        finalizar(Status.FALHOU);
+        return true;
+    }
+
+    // Cancela o preenchimento em andamento (incluindo a consulta no banco) e interrompe a exportação
+    synchronized boolean interromper(Status motivo, String erro) {
+        if (status.isFinal()) {
+            return false;
+        }
+
+        // A situação final só fica visível depois de o preenchimento e a execução terem sido cancelados
+        if (filler != null) {
+            try {
+                filler.cancelFill();
+            } catch (JRException e) {
+                log.warn("Falha ao cancelar o preenchimento do relatório {}: {}", id, e.getMessage());
+            }
+        }
+
+        if (execucao != null) {
+            execucao.cancel(true);
+        }
+
+        this.erro = erro;
+        finalizar(motivo);
+        return true;
+    }
+
+    private void finalizar(Status status) {
+        this.status = status;
+        this.finalizadoEm = Instant.now();
+        this.filler = null;
+    }
+}
@@ -0,0 +1,266 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioJobProperties;
+import biblioteca.dev.luanluz.api.dto.response.RelatorioJobResponseDTO;
+import biblioteca.dev.luanluz.api.exception.DomainException;
+import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
+import biblioteca.dev.luanluz.api.exception.TooManyRequestsException;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.FillListener;
+import net.sf.jasperreports.engine.fill.ReportFiller;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * Gera relatórios em segundo plano num pool limitado. O executor não é exposto como bean para não substituir o
+ * executor padrão do Spring; a fila é limitada e, quando cheia, a requisição recebe 429 em vez de enfileirar sem fim.
+ * Os arquivos gerados ficam no disco local e são removidos junto com o job depois do TTL.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatorioJobService {
+
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    private final RelatorioService relatorioService;
+    private final RelatorioJobProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RelatorioJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService agendador;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(properties.diretorio());
+
+        executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.fila()), new CustomizableThreadFactory("relatorio-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        agendador = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("relatorio-job-agendador-"));
+        agendador.scheduleWithFixedDelay(this::limparExpirados, properties.intervaloLimpeza().toMillis(),
+                properties.intervaloLimpeza().toMillis(), TimeUnit.MILLISECONDS);
+
+        new ExecutorServiceMetrics(executor, "relatorio.jobs", List.of()).bindTo(meterRegistry);
+    }
+
+    // Interrompe os jobs em andamento e aguarda brevemente para que removam os arquivos temporários
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        agendador.shutdownNow();
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public RelatorioJobResponseDTO criar(String tipo, String formato) {
+        return criar(tipo, formato, Map.of());
+    }
+
+    public RelatorioJobResponseDTO criar(String tipo, String formato, Map<String, Object> parametros) {
+        RelatorioJob job = new RelatorioJob(Tipo.of(tipo), Formato.of(formato), parametros);
+        jobs.put(job.getId(), job);
+
+        try {
+            job.setExecucao(executor.submit(() -> executar(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new TooManyRequestsException(
+                    "A fila de relatórios está cheia. Tente novamente mais tarde", properties.retryAfter());
+        }
+
+        log.info("Relatório {} em {} enfileirado: job {}", job.getTipo(), job.getFormato(), job.getId());
+        return toResponseDTO(job);
+    }
+
+    public RelatorioJobResponseDTO status(String id) {
+        return toResponseDTO(buscar(id));
+    }
+
+    public RelatorioJob resultado(String id) {
+        RelatorioJob job = buscar(id);
+
+        if (job.getStatus() != RelatorioJob.Status.CONCLUIDO) {
+            throw new DomainException("O relatório " + id + " não está disponível. Situação atual: " + job.getStatus());
+        }
+
+        return job;
+    }
+
+    public void cancelar(String id) {
+        RelatorioJob job = buscar(id);
+
+        job.interromper(RelatorioJob.Status.CANCELADO, "Cancelado a pedido do usuário");
+        remover(job);
+        // O job cancelado ainda na fila ocuparia a vaga até o worker descartá-lo
+        executor.purge();
+
+        log.info("Relatório {} cancelado", id);
+    }
+
+    private void executar(RelatorioJob job) {
+        Path arquivo = properties.diretorio().resolve(job.getId() + "." + job.getFormato().getExtensao());
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + EXTENSAO_TEMPORARIA);
+        ScheduledFuture<?> tempoLimite = null;
+
+        try {
+            ReportFiller filler = relatorioService.criarFiller(job.getTipo());
+            // O Jasper avisa cada página quando a seguinte começa; o total final vem do relatório preenchido
+            filler.addFillListener(new FillListener() {
+                @Override
+                public void pageGenerated(JasperPrint jasperPrint, int pageIndex) {
+                    job.paginaGerada();
+                }
+
+                @Override
+                public void pageUpdated(JasperPrint jasperPrint, int pageIndex) {
+                }
+            });
+
+            if (!job.iniciar(filler)) {
+                return;
+            }
+
+            tempoLimite = agendador.schedule(
+                    () -> job.interromper(RelatorioJob.Status.TEMPO_ESGOTADO,
+                            "Tempo limite de " + properties.timeout() + " excedido"),
+                    properties.timeout().toMillis(), TimeUnit.MILLISECONDS);
+
+            try (RelatorioImpressao impressao =
+                         relatorioService.preencherEmSegundoPlano(job.getTipo(), job.getParametros(), filler)) {
+                // O preenchimento cancelado pode terminar sem exceção, com o relatório parcial
+                if (job.getStatus().isFinal()) {
+                    return;
+                }
+
+                job.paginasPreenchidas(impressao.getJasperPrint().getPages().size());
+
+                try (OutputStream saida = Files.newOutputStream(temporario)) {
+                    relatorioService.exportar(impressao.getJasperPrint(), job.getFormato(), saida);
+                }
+            }
+
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+
+            if (!job.concluir(arquivo)) {
+                Files.deleteIfExists(arquivo);
+                return;
+            }
+
+            log.info("Relatório {} concluído: {} páginas", job.getId(), job.getPaginasGeradas().get());
+        } catch (Exception e) {
+            if (job.falhar(e.getMessage())) {
+                log.error("Falha ao gerar o relatório {}", job.getId(), e);
+            }
+        } finally {
+            if (tempoLimite != null) {
+                tempoLimite.cancel(false);
+            }
+
+            apagar(temporario);
+        }
+    }
+
+    void limparExpirados() {
+        Instant limite = Instant.now().minus(properties.ttl());
+
+        jobs.values().stream()
+                .filter(job -> job.getStatus().isFinal() && job.getFinalizadoEm().isBefore(limite))
+                .forEach(job -> {
+                    remover(job);
+                    log.debug("Relatório {} expirado e removido", job.getId());
+                });
+
+        // Arquivos de jobs perdidos, por exemplo de uma execução anterior da aplicação
+        try (Stream<Path> arquivos = Files.list(properties.diretorio())) {
+            arquivos.filter(arquivo -> !jobs.containsKey(idDoArquivo(arquivo)) && modificadoAntesDe(arquivo, limite))
+                    .forEach(this::apagar);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Falha ao limpar o diretório de relatórios {}: {}", properties.diretorio(), e.getMessage());
+        }
+    }
+
+    private RelatorioJob buscar(String id) {
+        RelatorioJob job = jobs.get(id);
+
+        if (job == null) {
+            throw new ResourceNotFoundException("Relatório não encontrado com o id: " + id);
+        }
+
+        return job;
+    }
+
+    private void remover(RelatorioJob job) {
+        jobs.remove(job.getId());
+
+        if (job.getArquivo() != null) {
+            apagar(job.getArquivo());
+        }
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Falha ao remover o arquivo de relatório {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    private static String idDoArquivo(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        int ponto = nome.indexOf('.');
+
+        return ponto < 0 ? nome : nome.substring(0, ponto);
+    }
+
+    private static boolean modificadoAntesDe(Path arquivo, Instant limite) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toInstant().isBefore(limite);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RelatorioJobResponseDTO toResponseDTO(RelatorioJob job) {
+        return RelatorioJobResponseDTO.builder()
+                .id(job.getId())
+                .tipo(job.getTipo().name())
+                .formato(job.getFormato().name())
+                .status(job.getStatus().name())
+                .paginasGeradas(job.getPaginasGeradas().get())
+                .criadoEm(job.getCriadoEm())
+                .iniciadoEm(job.getIniciadoEm())
+                .finalizadoEm(job.getFinalizadoEm())
+                .erro(job.getErro())
+                .build();
+    }
+}
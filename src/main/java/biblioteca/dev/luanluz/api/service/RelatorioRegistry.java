@@ -0,0 +1,200 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioRegistryProperties;
+import biblioteca.dev.luanluz.api.util.CompiladorRelatorios;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fonts.FontFamily;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Relatórios compilados carregados uma única vez na inicialização. Os .jasper são gerados no build a partir dos
+ * .jrxml de reports/; um JasperReport não é alterado pelo preenchimento, então a mesma instância é compartilhada
+ * entre as threads. O mapa é trocado inteiro a cada recarga, e quem já obteve um relatório continua com ele.
+ * Com app.relatorio.registry.recarregar (perfil dev), os .jrxml alterados são recompilados sem reiniciar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatorioRegistry {
+
+    private static final String PADRAO_COMPILADOS = "classpath*:reports/*" + CompiladorRelatorios.EXTENSAO_COMPILADO;
+
+    private final RelatorioRegistryProperties properties;
+
+    private volatile Map<String, RelatorioCompilado> relatorios = Map.of();
+    private ScheduledExecutorService observador;
+
+    /*
+     * A assinatura identifica o conteúdo compilado e entra na chave do cache de relatórios, para que um layout
+     * novo (após deploy ou recarga) não seja servido com arquivos renderizados pelo anterior.
+     */
+    public record RelatorioCompilado(
+            String nome,
+            JasperReport relatorio,
+            String assinatura,
+            String origem,
+            Instant carregadoEm,
+            long duracaoEmMilissegundos,
+            FileTime modificadoEm
+    ) {
+    }
+
+    @PostConstruct
+    void iniciar() throws IOException, JRException {
+        long inicio = System.nanoTime();
+        Map<String, RelatorioCompilado> carregados = new HashMap<>();
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(PADRAO_COMPILADOS)) {
+            long inicioRelatorio = System.nanoTime();
+
+            try (InputStream entrada = resource.getInputStream()) {
+                byte[] conteudo = entrada.readAllBytes();
+                JasperReport relatorio = (JasperReport) JRLoader.loadObject(new ByteArrayInputStream(conteudo));
+                String nome = CompiladorRelatorios.nomeDoRelatorio(Path.of(resource.getFilename()));
+
+                carregados.put(nome, new RelatorioCompilado(nome, relatorio, assinar(conteudo),
+                        resource.getDescription(), Instant.now(), milissegundosDesde(inicioRelatorio), null));
+            }
+        }
+
+        aquecer(carregados);
+        relatorios = Map.copyOf(carregados);
+
+        log.info("{} relatórios carregados em {} ms: {}", carregados.size(), milissegundosDesde(inicio),
+                carregados.keySet());
+
+        if (properties.recarregar()) {
+            observador = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("relatorio-registry-"));
+            observador.scheduleWithFixedDelay(this::recarregarAlterados, 0, properties.intervalo().toMillis(),
+                    TimeUnit.MILLISECONDS);
+
+            log.info("Recarga de relatórios habilitada a partir de {}", properties.fontes().toAbsolutePath());
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (observador != null) {
+            observador.shutdownNow();
+        }
+    }
+
+    public RelatorioCompilado obter(String nome) {
+        RelatorioCompilado relatorio = relatorios.get(nome);
+
+        if (relatorio == null) {
+            throw new IllegalStateException("Relatório compilado não encontrado: " + nome + ". Verifique se o build "
+                    + "gerou reports/" + nome + CompiladorRelatorios.EXTENSAO_COMPILADO);
+        }
+
+        return relatorio;
+    }
+
+    public Map<String, RelatorioCompilado> listar() {
+        return relatorios;
+    }
+
+    // Recompila os .jrxml modificados desde a última carga; uma falha de compilação mantém a versão anterior
+    void recarregarAlterados() {
+        try {
+            for (Path fonte : CompiladorRelatorios.listarFontes(properties.fontes())) {
+                String nome = CompiladorRelatorios.nomeDoRelatorio(fonte);
+                FileTime modificadoEm = Files.getLastModifiedTime(fonte);
+                RelatorioCompilado atual = relatorios.get(nome);
+
+                if (atual == null || alterado(atual, modificadoEm)) {
+                    recarregar(nome, fonte, modificadoEm);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Falha ao verificar os relatórios em {}: {}", properties.fontes(), e.getMessage());
+        }
+    }
+
+    private void recarregar(String nome, Path fonte, FileTime modificadoEm) {
+        long inicio = System.nanoTime();
+
+        try {
+            JasperReport relatorio = CompiladorRelatorios.compilar(fonte);
+
+            ByteArrayOutputStream conteudo = new ByteArrayOutputStream();
+            JRSaver.saveObject(relatorio, conteudo);
+
+            Map<String, RelatorioCompilado> atualizados = new HashMap<>(relatorios);
+            atualizados.put(nome, new RelatorioCompilado(nome, relatorio, assinar(conteudo.toByteArray()),
+                    fonte.toAbsolutePath().toString(), Instant.now(), milissegundosDesde(inicio), modificadoEm));
+            relatorios = Map.copyOf(atualizados);
+
+            log.info("Relatório {} recompilado a partir de {} em {} ms", nome, fonte, milissegundosDesde(inicio));
+        } catch (IOException | JRException e) {
+            log.warn("Falha ao recompilar o relatório {}: {}", fonte, e.getMessage());
+        }
+    }
+
+    // Relatórios vindos do classpath só são recompilados se o .jrxml for editado depois da inicialização
+    private static boolean alterado(RelatorioCompilado atual, FileTime modificadoEm) {
+        if (atual.modificadoEm() == null) {
+            return modificadoEm.toInstant().isAfter(atual.carregadoEm());
+        }
+
+        return !modificadoEm.equals(atual.modificadoEm());
+    }
+
+    /*
+     * Carrega as extensões de fontes e as classes de preenchimento na inicialização, em vez de na primeira
+     * requisição. O preenchimento sem registros não consulta o banco.
+     */
+    private static void aquecer(Map<String, RelatorioCompilado> relatorios) {
+        DefaultJasperReportsContext.getInstance().getExtensions(FontFamily.class);
+
+        relatorios.values().forEach(compilado -> {
+            try {
+                JasperFillManager.fillReport(compilado.relatorio(), new HashMap<>(), new JREmptyDataSource(0));
+            } catch (JRException e) {
+                log.warn("Falha ao pré-carregar o relatório {}: {}", compilado.nome(), e.getMessage());
+            }
+        });
+    }
+
+    private static String assinar(byte[] conteudo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long milissegundosDesde(long inicio) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+    }
+}
@@ -0,0 +1,348 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioSecoesProperties;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/*
+ * Preenche o relatório de autores em seções paralelas. O resumo é dividido em faixas contíguas da ordenação do
+ * relatório (nome e código do autor) e cada faixa é preenchida num pool fork-join próprio, com conexão e virtualizador
+ * próprios. As vagas no bulkhead são reservadas de uma vez pelo relatório, uma por faixa: a primeira com a espera e a
+ * recusa de sempre e as demais só se estiverem livres, então sob carga o relatório é dividido em menos faixas em vez
+ * de esperar por elas, e nenhuma recusa chega depois de uma faixa já preenchida. As páginas são concatenadas na ordem
+ * das faixas e a numeração do rodapé é refeita para o relatório inteiro. Relatórios pequenos, filtrados ou de outros
+ * tipos seguem o preenchimento único.
+ *
+ * As faixas, a contagem que as define e o preenchimento de cada uma leem a mesma instantânea do banco: a primeira faixa
+ * usa a transação REPEATABLE READ em que os limites foram calculados e, no PostgreSQL, as demais importam a
+ * instantânea exportada por ela (pg_export_snapshot). Assim um autor incluído ou renomeado durante o preenchimento não
+ * aparece duas vezes nem some na fronteira entre faixas.
+ */
+@Slf4j
+@Service
+public class RelatorioSecoesService {
+
+    // Propriedade dinâmica do layout que identifica os campos do rodapé; fica em cada elemento impresso
+    private static final String PROPRIEDADE_RODAPE = RelatorioService.PREFIXO_PROPRIEDADES_IMPRESSAS + "rodape";
+    private static final String CHAVE_NUMERO_PAGINA = "numeroPagina";
+    private static final String CHAVE_TOTAL_PAGINAS = "totalPaginas";
+    private static final Pattern NUMERO = Pattern.compile("\\d+");
+
+    private static final String CONTAR = "SELECT COUNT(*) FROM relatorio_autor";
+    private static final String EXPORTAR_INSTANTANEA = "SELECT pg_export_snapshot()";
+
+    // Primeiro autor de cada faixa a partir da segunda, pela mesma ordenação do relatório
+    private static final String LIMITES = """
+            SELECT nome_autor, codau, posicao
+            FROM (SELECT nome_autor, codau, ROW_NUMBER() OVER (ORDER BY nome_autor, codau) AS posicao
+                  FROM relatorio_autor) r
+            WHERE posicao > 1
+              AND MOD(posicao - 1, ?) = 0
+            ORDER BY posicao
+            """;
+
+    private final RelatorioService relatorioService;
+    private final RelatorioBulkhead relatorioBulkhead;
+    private final RelatorioSecoesProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private ForkJoinPool pool;
+
+    public RelatorioSecoesService(RelatorioService relatorioService,
+                                  RelatorioBulkhead relatorioBulkhead,
+                                  RelatorioSecoesProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  @Qualifier("relatorioDataSource") DataSource dataSource) {
+        this.relatorioService = relatorioService;
+        this.relatorioBulkhead = relatorioBulkhead;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private record Limite(String nome, Integer codau, long posicao) {
+    }
+
+    @PostConstruct
+    void iniciar() {
+        pool = new ForkJoinPool(properties.paralelismo(), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("relatorio-secao-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        new ExecutorServiceMetrics(pool, "relatorio.secoes", List.of()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        pool.shutdownNow();
+    }
+
+    // A primeira contagem só estima quantas faixas pedir ao bulkhead; os limites são calculados na instantânea
+    public RelatorioImpressao preencher(Tipo tipo, Map<String, Object> parametros)
+            throws SQLException, JRException, InterruptedException {
+        long linhas = tipo == Tipo.AUTORES && parametros.isEmpty() ? contar() : 0;
+        int secoesPossiveis = secoes(linhas, properties.paralelismo());
+
+        if (secoesPossiveis < 2) {
+            return relatorioService.preencher(tipo, parametros, relatorioService.criarFiller(tipo));
+        }
+
+        long inicio = System.nanoTime();
+        int vagas = relatorioBulkhead.adquirirAte(secoesPossiveis);
+        List<RelatorioImpressao> impressoes;
+
+        // A transação só lê e não é confirmada; o pool a desfaz quando a conexão é devolvida
+        try (Connection connection = dataSource.getConnection()) {
+            iniciarTransacao(connection);
+            String instantanea = exportarInstantanea(connection);
+            List<Limite> limites = limites(connection, vagas);
+            int secoes = limites.size() + 1;
+
+            List<ForkJoinTask<RelatorioImpressao>> tarefas = new ArrayList<>(secoes);
+            for (int i = 0; i < secoes; i++) {
+                Map<String, Object> secao = parametrosDaSecao(i == 0 ? null : limites.get(i - 1),
+                        i == limites.size() ? null : limites.get(i));
+                tarefas.add(i == 0
+                        ? pool.submit(() -> relatorioService.preencherSecao(tipo, secao, secoes, connection))
+                        : pool.submit(() -> preencherSecao(tipo, secao, secoes, instantanea)));
+            }
+
+            impressoes = aguardar(tarefas);
+        } finally {
+            relatorioBulkhead.liberar(vagas);
+        }
+
+        RelatorioImpressao impressao = RelatorioImpressao.concatenar(impressoes);
+
+        try {
+            renumerar(impressao);
+            impressao.somenteLeitura();
+        } catch (RuntimeException e) {
+            impressao.close();
+            throw e;
+        }
+
+        log.info("Relatório {} preenchido em {} seções: {} páginas em {} ms", tipo, impressoes.size(),
+                impressao.getJasperPrint().getPages().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
+        return impressao;
+    }
+
+    private long contar() {
+        return jdbcTemplate.queryForObject(CONTAR, Long.class);
+    }
+
+    private RelatorioImpressao preencherSecao(Tipo tipo, Map<String, Object> secao, int secoes, String instantanea)
+            throws SQLException, JRException {
+        try (Connection connection = dataSource.getConnection()) {
+            iniciarTransacao(connection);
+            importarInstantanea(connection, instantanea);
+            return relatorioService.preencherSecao(tipo, secao, secoes, connection);
+        }
+    }
+
+    private static void iniciarTransacao(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    }
+
+    // Só o PostgreSQL exporta instantâneas; nos demais bancos cada faixa lê na sua própria transação
+    private static String exportarInstantanea(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return null;
+        }
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(EXPORTAR_INSTANTANEA)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    // SET TRANSACTION SNAPSHOT não aceita parâmetro; o identificador vem do próprio banco
+    private static void importarInstantanea(Connection connection, String instantanea) throws SQLException {
+        if (instantanea == null) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET TRANSACTION SNAPSHOT '" + instantanea + "'");
+        }
+    }
+
+    // Faixas com pelo menos o mínimo de linhas, até o limite informado
+    private int secoes(long linhas, int maximo) {
+        return (int) Math.min(maximo, linhas / Math.max(1, properties.linhasMinimas()));
+    }
+
+    // Primeiro autor de cada faixa a partir da segunda, contados na transação da instantânea; vazio quando só cabe uma faixa
+    private List<Limite> limites(Connection connection, int vagas) throws SQLException {
+        long linhas;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(CONTAR)) {
+            resultSet.next();
+            linhas = resultSet.getLong(1);
+        }
+
+        int secoes = secoes(linhas, vagas);
+
+        if (secoes < 2) {
+            return List.of();
+        }
+
+        List<Limite> limites = new ArrayList<>(secoes - 1);
+        try (PreparedStatement statement = connection.prepareStatement(LIMITES)) {
+            statement.setLong(1, (linhas + secoes - 1) / secoes);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    limites.add(new Limite(resultSet.getString("nome_autor"), resultSet.getInt("codau"),
+                            resultSet.getLong("posicao")));
+                }
+            }
+        }
+
+        return limites;
+    }
+
+    private static Map<String, Object> parametrosDaSecao(Limite inicio, Limite fim) {
+        Map<String, Object> parametros = new HashMap<>();
+
+        if (inicio != null) {
+            parametros.put("SECAO_INICIO_NOME", inicio.nome());
+            parametros.put("SECAO_INICIO_CODAU", inicio.codau());
+            parametros.put("SECAO_LINHA_INICIAL", (int) (inicio.posicao() - 1));
+        }
+
+        if (fim != null) {
+            parametros.put("SECAO_FIM_NOME", fim.nome());
+            parametros.put("SECAO_FIM_CODAU", fim.codau());
+        }
+
+        return parametros;
+    }
+
+    /*
+     * Aguarda as seções na ordem do relatório. Se uma falhar, as que ainda não começaram são canceladas e as demais
+     * são aguardadas e fechadas, para que nenhum arquivo de swap fique para trás.
+     */
+    private static List<RelatorioImpressao> aguardar(List<ForkJoinTask<RelatorioImpressao>> tarefas)
+            throws SQLException, JRException, InterruptedException {
+        List<RelatorioImpressao> impressoes = new ArrayList<>(tarefas.size());
+
+        try {
+            for (ForkJoinTask<RelatorioImpressao> tarefa : tarefas) {
+                impressoes.add(tarefa.get());
+            }
+
+            return impressoes;
+        } catch (ExecutionException e) {
+            descartar(tarefas);
+            throw causa(e);
+        } catch (InterruptedException | RuntimeException e) {
+            descartar(tarefas);
+            throw e;
+        }
+    }
+
+    private static void descartar(List<ForkJoinTask<RelatorioImpressao>> tarefas) {
+        tarefas.forEach(tarefa -> tarefa.cancel(true));
+
+        for (ForkJoinTask<RelatorioImpressao> tarefa : tarefas) {
+            tarefa.quietlyJoin();
+
+            if (tarefa.isCompletedNormally()) {
+                tarefa.getRawResult().close();
+            }
+        }
+    }
+
+    private static RuntimeException causa(ExecutionException e) throws SQLException, JRException, InterruptedException {
+        Throwable causa = e.getCause();
+
+        if (causa instanceof SQLException sqlException) {
+            throw sqlException;
+        }
+
+        if (causa instanceof JRException jrException) {
+            throw jrException;
+        }
+
+        if (causa instanceof InterruptedException interruptedException) {
+            throw interruptedException;
+        }
+
+        if (causa instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+
+        if (causa instanceof Error error) {
+            throw error;
+        }
+
+        return new IllegalStateException("Falha no preenchimento de uma seção do relatório", causa);
+    }
+
+    /*
+     * Cada seção numera as próprias páginas. Os campos do rodapé identificados pela propriedade recebem o número da página
+     * e o total do relatório concatenado; o restante do texto vem do layout. As páginas ainda são graváveis, então a
+     * alteração é mantida quando a página volta para o arquivo de swap.
+     */
+    private static void renumerar(RelatorioImpressao impressao) {
+        List<JRPrintPage> paginas = impressao.getJasperPrint().getPages();
+        String total = String.valueOf(paginas.size());
+
+        for (int i = 0; i < paginas.size(); i++) {
+            String numero = String.valueOf(i + 1);
+
+            for (JRPrintElement elemento : paginas.get(i).getElements()) {
+                if (!(elemento instanceof JRPrintText texto) || texto.getFullText() == null || !texto.hasProperties()) {
+                    continue;
+                }
+
+                String campo = texto.getPropertiesMap().getProperty(PROPRIEDADE_RODAPE);
+
+                if (CHAVE_NUMERO_PAGINA.equals(campo)) {
+                    texto.setText(NUMERO.matcher(texto.getFullText()).replaceFirst(numero));
+                } else if (CHAVE_TOTAL_PAGINAS.equals(campo)) {
+                    texto.setText(NUMERO.matcher(texto.getFullText()).replaceFirst(total));
+                }
+            }
+        }
+    }
+}
@@ -1,60 +1,298 @@
 package biblioteca.dev.luanluz.api.service;
 
-import lombok.AllArgsConstructor;
+import biblioteca.dev.luanluz.api.dto.request.RelatorioFiltroDTO;
+import biblioteca.dev.luanluz.api.dto.response.RelatorioReconstrucaoResponseDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.repository.RelatorioAutorRepository;
+import biblioteca.dev.luanluz.api.util.FiltroHelper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JasperExportManager;
-import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
 import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRFiller;
+import net.sf.jasperreports.engine.fill.ReportFiller;
+import net.sf.jasperreports.engine.query.JRJdbcQueryExecuterFactory;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
-@AllArgsConstructor
 public class RelatorioService {
+
+    // Propriedades dos layouts com este prefixo são copiadas para os elementos impressos
+    static final String PREFIXO_PROPRIEDADES_IMPRESSAS = "biblioteca.relatorio.";
+
     private final DataSource dataSource;
+    private final RelatorioAutorRepository relatorioAutorRepository;
+    private final RelatorioRegistry relatorioRegistry;
+    private final RelatorioVirtualizacaoService relatorioVirtualizacaoService;
+    private final RelatorioBulkhead relatorioBulkhead;
+    private final JasperReportsContext jasperReportsContext;
 
-    public byte[] gerarRelatorioAutoresPDF() throws Exception {
-        try (Connection connection = dataSource.getConnection()) {
-            InputStream jasperStream = new ClassPathResource("reports/relatorio_autores.jasper").getInputStream();
+    // Preenchimentos usam o pool próprio dos relatórios, com tempo limite por consulta aplicado pelo Jasper
+    public RelatorioService(@Qualifier("relatorioDataSource") DataSource dataSource,
+                            RelatorioAutorRepository relatorioAutorRepository,
+                            RelatorioRegistry relatorioRegistry,
+                            RelatorioVirtualizacaoService relatorioVirtualizacaoService,
+                            RelatorioBulkhead relatorioBulkhead,
+                            @Value("${app.relatorio.datasource.query-timeout}") Duration queryTimeout) {
+        this.dataSource = dataSource;
+        this.relatorioAutorRepository = relatorioAutorRepository;
+        this.relatorioRegistry = relatorioRegistry;
+        this.relatorioVirtualizacaoService = relatorioVirtualizacaoService;
+        this.relatorioBulkhead = relatorioBulkhead;
+
+        SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+        context.setProperty(JRJdbcQueryExecuterFactory.PROPERTY_JDBC_QUERY_TIMEOUT,
+                String.valueOf(queryTimeout.toSeconds()));
+        context.setProperty(JRPropertiesUtil.PROPERTY_PREFIX + "print.transfer.biblioteca", PREFIXO_PROPRIEDADES_IMPRESSAS);
+        this.jasperReportsContext = context;
+    }
+
+    @Getter
+    public enum Tipo {
+        AUTORES("relatorio_autores", "Relatório de Autores"),
+        LIVROS("relatorio_livros", "Relatório de Livros"),
+        LIVROS_POR_AUTOR("relatorio_livros_por_autor", "Estatísticas de Livros por Autor");
+
+        // Nome do .jrxml em reports/, compilado no build e carregado pelo RelatorioRegistry
+        private final String nome;
+        private final String titulo;
+
+        Tipo(String nome, String titulo) {
+            this.nome = nome;
+            this.titulo = titulo;
+        }
+
+        // Aceita também o nome usado na URL, como livros-por-autor
+        public static Tipo of(String tipo) {
+            String valor = tipo.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+
+            return Arrays.stream(values())
+                    .filter(item -> item.name().equals(valor))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Tipo de relatório não suportado: '" + tipo + "'"));
+        }
+    }
+
+    @Getter
+    public enum Formato {
+        PDF(MediaType.APPLICATION_PDF, "pdf"),
+        EXCEL(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"), "xlsx");
+
+        private final MediaType mediaType;
+        private final String extensao;
+
+        Formato(MediaType mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public static Formato of(String formato) {
+            String valor = formato.trim().toUpperCase(Locale.ROOT);
+
+            return Arrays.stream(values())
+                    .filter(item -> item.name().equals(valor) || item.extensao.toUpperCase(Locale.ROOT).equals(valor))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Formato de relatório não suportado: '" + formato + "'"));
+        }
+    }
+
+    // JASPER gera o documento com o layout completo; TABULAR transmite as linhas da consulta em CSV ou XLSX
+    public enum Motor {
+        JASPER,
+        TABULAR;
+
+        public static Motor of(String motor) {
+            String valor = motor.trim().toUpperCase(Locale.ROOT);
+
+            return Arrays.stream(values())
+                    .filter(item -> item.name().equals(valor))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Motor de relatório não suportado: '" + motor + "'"));
+        }
+    }
+
+    @Transactional
+    public RelatorioReconstrucaoResponseDTO reconstruirRelatorioAutores() {
+        long inicio = System.nanoTime();
+
+        int linhas = relatorioAutorRepository.reconstruir();
+        long duracao = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        log.info("Resumo do relatório de autores reconstruído: {} autores em {} ms", linhas, duracao);
+
+        return new RelatorioReconstrucaoResponseDTO(linhas, duracao);
+    }
+
+    /*
+     * Converte o filtro nos parâmetros dos relatórios, que chegam à consulta como parâmetros SQL vinculados. Só os
+     * critérios informados entram no mapa, em ordem estável, porque ele também compõe a chave do cache.
+     */
+    public Map<String, Object> parametros(RelatorioFiltroDTO filtro) {
+        if (filtro == null) {
+            return Map.of();
+        }
 
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("REPORT_TITLE", "Relatório de Autores");
+        FiltroHelper.validarIntervaloDeAno(filtro.getAnoPublicacaoMinimo(), filtro.getAnoPublicacaoMaximo());
+        Map<String, Object> parametros = new HashMap<>();
 
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperStream, parameters, connection);
+        if (filtro.getAutoresCodigos() != null && !filtro.getAutoresCodigos().isEmpty()) {
+            parametros.put("AUTORES", List.copyOf(new TreeSet<>(filtro.getAutoresCodigos())));
+        }
+
+        if (filtro.getAssuntosCodigos() != null && !filtro.getAssuntosCodigos().isEmpty()) {
+            parametros.put("ASSUNTOS", List.copyOf(new TreeSet<>(filtro.getAssuntosCodigos())));
+        }
+
+        if (filtro.getEditora() != null && !filtro.getEditora().isBlank()) {
+            parametros.put("EDITORAS", List.of(filtro.getEditora().trim()));
+        }
 
-            return JasperExportManager.exportReportToPdf(jasperPrint);
+        // O ano é gravado como texto de quatro dígitos, então a comparação textual preserva a ordem e usa o índice
+        if (filtro.getAnoPublicacaoMinimo() != null) {
+            parametros.put("ANO_INICIAL", FiltroHelper.formatarAno(filtro.getAnoPublicacaoMinimo()));
         }
+
+        if (filtro.getAnoPublicacaoMaximo() != null) {
+            parametros.put("ANO_FINAL", FiltroHelper.formatarAno(filtro.getAnoPublicacaoMaximo()));
+        }
+
+        return parametros;
     }
 
-    public byte[] gerarRelatorioAutoresExcel() throws Exception {
+    // O filler é exposto separadamente para que quem preenche possa acompanhar as páginas e cancelar o preenchimento
+    public ReportFiller criarFiller(Tipo tipo) throws JRException {
+        JasperReport jasperReport = relatorioRegistry.obter(tipo.getNome()).relatorio();
+        return JRFiller.createReportFiller(jasperReportsContext, jasperReport);
+    }
+
+    public RelatorioImpressao preencher(Tipo tipo, ReportFiller filler)
+            throws SQLException, JRException, InterruptedException {
+        return preencher(tipo, Map.of(), filler);
+    }
+
+    /*
+     * Preenche com um virtualizador próprio: acima do limite de páginas em memória, as páginas vão para um arquivo
+     * de swap que vive até a impressão retornada ser fechada. Em caso de falha o arquivo é descartado aqui. A vaga
+     * no bulkhead é mantida só enquanto a conexão está em uso; a exportação acontece depois de liberá-la.
+     */
+    public RelatorioImpressao preencher(Tipo tipo, Map<String, Object> parametros, ReportFiller filler)
+            throws SQLException, JRException, InterruptedException {
+        return preencherImpressao(tipo, parametros, filler, relatorioBulkhead::adquirir);
+    }
+
+    // Os jobs já são limitados pelo próprio pool: esperam a vaga no bulkhead sem prazo em vez de falhar com 429
+    public RelatorioImpressao preencherEmSegundoPlano(Tipo tipo, Map<String, Object> parametros, ReportFiller filler)
+            throws SQLException, JRException, InterruptedException {
+        return preencherImpressao(tipo, parametros, filler, relatorioBulkhead::aguardar);
+    }
+
+    private RelatorioImpressao preencherImpressao(Tipo tipo, Map<String, Object> parametros, ReportFiller filler,
+                                                  Vaga vaga) throws SQLException, JRException, InterruptedException {
+        RelatorioVirtualizador virtualizador = relatorioVirtualizacaoService.criar();
+        JasperPrint jasperPrint;
+
+        // O arquivo de swap só é criado quando a primeira página sai da memória; até lá não há o que descartar
+        vaga.adquirir();
+
+        try {
+            jasperPrint = preencher(tipo, parametros, filler, virtualizador);
+        } finally {
+            relatorioBulkhead.liberar();
+        }
+
+        RelatorioImpressao impressao = new RelatorioImpressao(jasperPrint, virtualizador);
+        impressao.somenteLeitura();
+        return impressao;
+    }
+
+    /*
+     * Preenche uma das seções de um relatório dividido, com uma fração do orçamento de memória e na conexão de quem
+     * divide, que já está na transação da instantânea compartilhada. As vagas no bulkhead são do relatório inteiro e
+     * ficam com quem divide. As páginas continuam graváveis para que a numeração seja refeita depois da concatenação;
+     * quem junta as seções as torna somente leitura.
+     */
+    RelatorioImpressao preencherSecao(Tipo tipo, Map<String, Object> parametros, int secoes, Connection connection)
+            throws SQLException, JRException {
+        ReportFiller filler = criarFiller(tipo);
+        RelatorioVirtualizador virtualizador = relatorioVirtualizacaoService.criar(secoes);
+
+        try {
+            return new RelatorioImpressao(preencher(tipo, parametros, filler, virtualizador, connection), virtualizador);
+        } catch (JRException | RuntimeException e) {
+            virtualizador.cleanup();
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Vaga {
+        void adquirir() throws InterruptedException;
+    }
+
+    private JasperPrint preencher(Tipo tipo, Map<String, Object> parametros, ReportFiller filler,
+                                  RelatorioVirtualizador virtualizador) throws SQLException, JRException {
         try (Connection connection = dataSource.getConnection()) {
-            InputStream jasperStream = new ClassPathResource("reports/relatorio_autores.jasper").getInputStream();
+            return preencher(tipo, parametros, filler, virtualizador, connection);
+        } catch (SQLException | JRException | RuntimeException e) {
+            virtualizador.cleanup();
+            throw e;
+        }
+    }
 
-            Map<String, Object> parameters = new HashMap<>();
-            parameters.put("REPORT_TITLE", "Relatório de Autores");
+    private JasperPrint preencher(Tipo tipo, Map<String, Object> parametros, ReportFiller filler,
+                                  RelatorioVirtualizador virtualizador, Connection connection) throws JRException {
+        Map<String, Object> parameters = new HashMap<>(parametros);
+        parameters.put("REPORT_TITLE", tipo.getTitulo());
+        parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizador);
 
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperStream, parameters, connection);
+        JasperPrint jasperPrint = filler.fill(parameters, connection);
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (virtualizador.isGravouEmDisco()) {
+            log.info("Relatório {} preenchido com {} páginas, parte delas em disco", tipo, jasperPrint.getPages().size());
+        }
 
-            JRXlsxExporter exporter = createXlsxExporter(jasperPrint, outputStream);
-            exporter.exportReport();
+        return jasperPrint;
+    }
 
-            return outputStream.toByteArray();
+    public void exportar(JasperPrint jasperPrint, Formato formato, OutputStream saida) throws JRException {
+        if (formato == Formato.PDF) {
+            JasperExportManager.exportReportToPdfStream(jasperPrint, saida);
+            return;
         }
+
+        createXlsxExporter(jasperPrint, saida).exportReport();
     }
 
-    private JRXlsxExporter createXlsxExporter(JasperPrint jasperPrint, ByteArrayOutputStream outputStream) {
+    private JRXlsxExporter createXlsxExporter(JasperPrint jasperPrint, OutputStream outputStream) {
         JRXlsxExporter exporter = new JRXlsxExporter();
         exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(outputStream));
@@ -0,0 +1,208 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioSnapshotProperties;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/*
+ * Snapshots dos relatórios sem filtro, renderizados pelo agendamento fora do horário de pico. Cada snapshot é um
+ * arquivo imutável com o instante da geração no nome; o mais novo de cada tipo e formato é servido enquanto tiver até
+ * a idade máxima configurada, mesmo que os dados tenham mudado depois. Um snapshot novo substitui o anterior, que
+ * continua no disco pelo tempo limite dos downloads: o sendfile do Tomcat abre o arquivo pelo nome depois de a resposta
+ * começar, então apagá-lo na hora cortaria o download em andamento. As gerações seguintes apagam os vencidos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatorioSnapshotService {
+
+    public static final String CABECALHO_SNAPSHOT = "X-Relatorio-Snapshot";
+
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+
+    private final RelatorioCacheService relatorioCacheService;
+    private final RelatorioSnapshotProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<Path, Instant> substituidos = new ConcurrentHashMap<>();
+
+    @Value("${app.relatorio.download.tempo-limite}")
+    private Duration tempoLimiteDownload;
+
+    public record Snapshot(Path arquivo, Instant geradoEm, long tamanho) {
+
+        public boolean recente(Duration idadeMaxima, Instant agora) {
+            return !geradoEm.plus(idadeMaxima).isBefore(agora);
+        }
+
+        public String etag() {
+            return "\"" + arquivo.getFileName() + "\"";
+        }
+
+        public FileChannel abrir() throws IOException {
+            return FileChannel.open(arquivo);
+        }
+    }
+
+    // Retoma os snapshots gravados antes de a aplicação reiniciar; sobras de gerações interrompidas são apagadas
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(properties.diretorio());
+
+        try (Stream<Path> arquivos = Files.list(properties.diretorio())) {
+            for (Path arquivo : arquivos.toList()) {
+                String nome = arquivo.getFileName().toString();
+                int separador = nome.lastIndexOf('-');
+                int extensao = nome.lastIndexOf('.');
+
+                if (nome.endsWith(EXTENSAO_TEMPORARIA) || separador < 0 || extensao < separador) {
+                    Files.deleteIfExists(arquivo);
+                    continue;
+                }
+
+                try {
+                    Instant geradoEm = Instant.ofEpochMilli(Long.parseLong(nome.substring(separador + 1, extensao)));
+                    // Nada foi servido ainda, então o mais antigo pode sair do disco na hora
+                    Snapshot descartado = publicar(nome.substring(0, separador) + nome.substring(extensao),
+                            new Snapshot(arquivo, geradoEm, Files.size(arquivo)));
+
+                    if (descartado != null) {
+                        Files.deleteIfExists(descartado.arquivo());
+                    }
+                } catch (NumberFormatException e) {
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+        }
+
+        log.info("{} snapshots de relatório carregados de {}", snapshots.size(), properties.diretorio());
+    }
+
+    @Scheduled(cron = "${app.relatorio.snapshots.cron}", zone = "${app.relatorio.snapshots.zona}")
+    public void gerarTodos() {
+        for (Tipo tipo : properties.tipos()) {
+            for (Formato formato : properties.formatos()) {
+                try {
+                    gerar(tipo, formato);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    contar("falhas");
+                    log.warn("Falha ao gerar o snapshot do relatório {} em {}", tipo, formato, e);
+                }
+            }
+        }
+    }
+
+    /*
+     * Renderiza pelo cache de relatórios, então reaproveita o arquivo da versão atual dos dados quando existir. O
+     * instante registrado é o de antes da consulta à versão, para nunca parecer mais novo do que os dados que contém.
+     */
+    public Snapshot gerar(Tipo tipo, Formato formato) throws Exception {
+        Instant geradoEm = Instant.now();
+        var chave = relatorioCacheService.chave(tipo, formato, Map.of());
+        var relatorio = relatorioCacheService.obter(chave, Map.of());
+
+        Path arquivo = properties.diretorio()
+                .resolve(tipo.getNome() + "-" + geradoEm.toEpochMilli() + "." + formato.getExtensao());
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + EXTENSAO_TEMPORARIA);
+
+        try (InputStream conteudo = relatorio.abrir()) {
+            Files.copy(conteudo, temporario, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+
+        Snapshot snapshot = new Snapshot(arquivo, geradoEm, Files.size(arquivo));
+        Snapshot descartado = publicar(chave(tipo, formato), snapshot);
+        contar("gerados");
+
+        Instant agora = Instant.now();
+        if (descartado != null) {
+            substituidos.put(descartado.arquivo(), agora);
+        }
+        descartarSubstituidos(agora);
+
+        log.info("Snapshot do relatório {} em {} gerado: {} bytes", tipo, formato, snapshot.tamanho());
+        return snapshot;
+    }
+
+    public Optional<Snapshot> recente(Tipo tipo, Formato formato) {
+        Snapshot snapshot = snapshots.get(chave(tipo, formato));
+
+        if (snapshot == null || !snapshot.recente(properties.idadeMaxima(), Instant.now())) {
+            return Optional.empty();
+        }
+
+        return Optional.of(snapshot);
+    }
+
+    // Chamado por quem de fato envia o arquivo, depois de abri-lo; o 304 e o snapshot apagado não contam
+    public void registrarServido() {
+        contar("servidos");
+    }
+
+    // Apaga os arquivos substituídos há mais que o tempo limite dos downloads, quando nenhum envio pode mais abri-los
+    public void descartarSubstituidos(Instant agora) {
+        substituidos.forEach((arquivo, substituidoEm) -> {
+            if (!substituidoEm.plus(tempoLimiteDownload).isBefore(agora)) {
+                return;
+            }
+
+            try {
+                Files.deleteIfExists(arquivo);
+                substituidos.remove(arquivo);
+            } catch (IOException e) {
+                log.warn("Falha ao apagar o snapshot substituído {}: {}", arquivo, e.getMessage());
+            }
+        });
+    }
+
+    // Mantém só o mais novo por tipo e formato e devolve o outro, que fica a cargo de quem publicou
+    private Snapshot publicar(String chave, Snapshot snapshot) {
+        Snapshot[] descartado = {null};
+
+        snapshots.merge(chave, snapshot, (anterior, novo) -> {
+            Snapshot mantido = anterior.geradoEm().isAfter(novo.geradoEm()) ? anterior : novo;
+            descartado[0] = mantido == anterior ? novo : anterior;
+            return mantido;
+        });
+
+        return descartado[0];
+    }
+
+    private static String chave(Tipo tipo, Formato formato) {
+        return tipo.getNome() + "." + formato.getExtensao();
+    }
+
+    private void contar(String operacao) {
+        Counter.builder("relatorio.snapshots")
+                .tag("operacao", operacao)
+                .register(meterRegistry)
+                .increment();
+    }
+}
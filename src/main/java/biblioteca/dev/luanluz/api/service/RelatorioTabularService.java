@@ -0,0 +1,434 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioTabularProperties;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Exportação tabular dos relatórios, sem o motor de layout do Jasper. A consulta aplica os mesmos filtros do relatório
+ * e as linhas são lidas por cursor para um arquivo temporário: em CSV linha a linha e em XLSX por uma planilha em
+ * streaming que mantém só as últimas linhas em memória e grava as anteriores compactadas. Só depois de o cursor ser
+ * esgotado e a conexão devolvida o arquivo é copiado para a resposta, então um cliente lento não prende o banco.
+ */
+@Slf4j
+@Service
+public class RelatorioTabularService {
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final int TAMANHO_MAXIMO_TEXTO = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    // Quem seleciona os autores: os informados ou os com algum livro que atenda aos critérios dos livros
+    private static final String AUTORES_DOS_LIVROS = """
+            SELECT la.autor_codau
+            FROM livro_autor la
+                     JOIN livro l ON l.codl = la.livro_codl
+            WHERE TRUE""";
+
+    private static final Map<Tipo, Consulta> CONSULTAS = Map.of(
+            Tipo.AUTORES, new Consulta("""
+                    SELECT r.codau, r.nome_autor, r.quantidade_livros, r.titulos, r.editoras, r.assuntos,
+                           r.valor_total_reais, r.ano_publicacao_mais_antigo, r.ano_publicacao_mais_recente
+                    FROM relatorio_autor r
+                    WHERE TRUE""", "r.codau", "ORDER BY r.nome_autor, r.codau",
+                    List.of("Código", "Nome do Autor", "Qtd.", "Títulos", "Editoras", "Assuntos", "Valor Total",
+                            "Ano Mais Antigo", "Ano Mais Recente")),
+            Tipo.LIVROS, new Consulta("""
+                    SELECT v.codl, v.titulo, v.editora, v.edicao, v.anopublicacao,
+                           v.valoremcentavos / 100.0 AS valor, v.autores, v.assuntos
+                    FROM vw_livros_completos v
+                    WHERE TRUE""", null, "ORDER BY v.titulo, v.codl",
+                    List.of("Código", "Título", "Editora", "Ed.", "Ano", "Valor", "Autores", "Assuntos")),
+            Tipo.LIVROS_POR_AUTOR, new Consulta("""
+                    SELECT v.codau, v.autor, v.quantidade_livros,
+                           CAST(v.preco_medio AS NUMERIC(12, 2)) AS preco_medio,
+                           CAST(v.preco_minimo AS NUMERIC(12, 2)) AS preco_minimo,
+                           CAST(v.preco_maximo AS NUMERIC(12, 2)) AS preco_maximo,
+                           CAST(v.valor_total AS NUMERIC(12, 2)) AS valor_total
+                    FROM vw_relatorio_livros_por_autor v
+                    WHERE TRUE""", "v.codau", "ORDER BY v.quantidade_livros DESC, v.autor, v.codau",
+                    List.of("Código", "Autor", "Qtd. Livros", "Preço Médio", "Preço Mínimo", "Preço Máximo",
+                            "Valor Total"))
+    );
+
+    private final RelatorioBulkhead relatorioBulkhead;
+    private final RelatorioTabularProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Mesmo pool e tempo limite por consulta dos preenchimentos; o cursor exige uma transação para respeitar o fetch size
+    public RelatorioTabularService(@Qualifier("relatorioDataSource") DataSource dataSource,
+                                   RelatorioBulkhead relatorioBulkhead,
+                                   RelatorioTabularProperties properties,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.relatorio.datasource.query-timeout}") Duration queryTimeout) {
+        this.relatorioBulkhead = relatorioBulkhead;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(properties.fetchSize());
+        template.setQueryTimeout((int) queryTimeout.toSeconds());
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Getter
+    public enum Formato {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        EXCEL(RelatorioService.Formato.EXCEL.getMediaType(), "xlsx");
+
+        private final MediaType mediaType;
+        private final String extensao;
+
+        Formato(MediaType mediaType, String extensao) {
+            this.mediaType = mediaType;
+            this.extensao = extensao;
+        }
+
+        public static Formato of(String formato) {
+            String valor = formato.trim().toUpperCase(Locale.ROOT);
+
+            return Arrays.stream(values())
+                    .filter(item -> item.name().equals(valor) || item.extensao.toUpperCase(Locale.ROOT).equals(valor))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException(
+                            "Formato não suportado pela exportação tabular: '" + formato + "'"));
+        }
+    }
+
+    private record Consulta(String select, String chaveAutor, String ordem, List<String> colunas) {
+    }
+
+    @FunctionalInterface
+    public interface Exportacao {
+
+        void escrever(OutputStream saida) throws IOException;
+    }
+
+    /*
+     * Reserva a vaga no bulkhead antes de a resposta começar, para que a recusa ainda vire um 429. A vaga fica com a
+     * exportação só enquanto o cursor é lido; a cópia para o cliente acontece depois de liberá-la.
+     */
+    public Exportacao preparar(Tipo tipo, Formato formato, Map<String, Object> parametros) throws InterruptedException {
+        relatorioBulkhead.adquirir();
+
+        return saida -> {
+            AtomicBoolean liberada = new AtomicBoolean();
+            Runnable liberar = () -> {
+                if (liberada.compareAndSet(false, true)) {
+                    relatorioBulkhead.liberar();
+                }
+            };
+
+            try {
+                exportar(tipo, formato, parametros, saida, liberar);
+            } finally {
+                liberar.run();
+            }
+        };
+    }
+
+    void exportar(Tipo tipo, Formato formato, Map<String, Object> parametros, OutputStream saida) throws IOException {
+        exportar(tipo, formato, parametros, saida, () -> {
+        });
+    }
+
+    private void exportar(Tipo tipo, Formato formato, Map<String, Object> parametros, OutputStream saida,
+                          Runnable cursorEsgotado) throws IOException {
+        Consulta consulta = CONSULTAS.get(tipo);
+        MapSqlParameterSource parametrosSql = new MapSqlParameterSource();
+        String sql = montar(tipo, consulta, parametros, parametrosSql);
+
+        long inicio = System.nanoTime();
+        long linhas;
+
+        try (Escritor escritor = formato == Formato.CSV ? new EscritorCsv(consulta.colunas())
+                : new EscritorXlsx(tipo.getTitulo(), consulta.colunas(), properties.linhasEmMemoria())) {
+            linhas = transactionTemplate.execute(status -> {
+                long[] escritas = {0};
+
+                jdbcTemplate.query(sql, parametrosSql, resultSet -> {
+                    escritor.linha(valores(resultSet, consulta.colunas().size()));
+                    escritas[0]++;
+                });
+
+                return escritas[0];
+            });
+
+            cursorEsgotado.run();
+            escritor.concluir(saida);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long duracao = System.nanoTime() - inicio;
+        Timer.builder("relatorio.tabular.exportacao")
+                .tag("tipo", tipo.name())
+                .tag("formato", formato.name())
+                .register(meterRegistry)
+                .record(duracao, TimeUnit.NANOSECONDS);
+
+        log.info("Relatório {} exportado em {} pelo motor tabular: {} linhas em {} ms", tipo, formato, linhas,
+                TimeUnit.NANOSECONDS.toMillis(duracao));
+    }
+
+    /*
+     * Mesmos critérios dos .jrxml: só os filtros informados entram na consulta, sempre como parâmetros vinculados.
+     * A seleção por autor usa = ANY (ARRAY(...)) para que o código chegue ao agrupamento das views como nos relatórios.
+     */
+    private static String montar(Tipo tipo, Consulta consulta, Map<String, Object> parametros,
+                                 MapSqlParameterSource parametrosSql) {
+        StringBuilder sql = new StringBuilder(consulta.select());
+        parametros.forEach(parametrosSql::addValue);
+
+        boolean autores = parametros.containsKey("AUTORES");
+        boolean assuntos = parametros.containsKey("ASSUNTOS");
+        boolean editoras = parametros.containsKey("EDITORAS");
+        boolean anoInicial = parametros.containsKey("ANO_INICIAL");
+        boolean anoFinal = parametros.containsKey("ANO_FINAL");
+
+        if (tipo == Tipo.LIVROS) {
+            filtrarLivro(sql, "v.editora", "v.anopublicacao", editoras, anoInicial, anoFinal);
+
+            if (autores) {
+                sql.append("\n  AND v.codl = ANY (ARRAY(SELECT la.livro_codl FROM livro_autor la WHERE la.autor_codau IN (:AUTORES)))");
+            }
+
+            if (assuntos) {
+                sql.append("\n  AND v.codl = ANY (ARRAY(SELECT las.livro_codl FROM livro_assunto las WHERE las.assunto_codas IN (:ASSUNTOS)))");
+            }
+        } else {
+            if (autores) {
+                sql.append("\n  AND ").append(consulta.chaveAutor()).append(" IN (:AUTORES)");
+            }
+
+            if (assuntos || editoras || anoInicial || anoFinal) {
+                sql.append("\n  AND ").append(consulta.chaveAutor()).append(" = ANY (ARRAY(").append(AUTORES_DOS_LIVROS);
+
+                if (autores) {
+                    sql.append("\n  AND la.autor_codau IN (:AUTORES)");
+                }
+
+                filtrarLivro(sql, "l.editora", "l.anopublicacao", editoras, anoInicial, anoFinal);
+
+                if (assuntos) {
+                    sql.append("\n  AND EXISTS (SELECT 1 FROM livro_assunto las WHERE las.livro_codl = l.codl AND las.assunto_codas IN (:ASSUNTOS))");
+                }
+
+                sql.append("))");
+            }
+        }
+
+        return sql.append('\n').append(consulta.ordem()).toString();
+    }
+
+    private static void filtrarLivro(StringBuilder sql, String editora, String ano,
+                                     boolean editoras, boolean anoInicial, boolean anoFinal) {
+        if (editoras) {
+            sql.append("\n  AND ").append(editora).append(" IN (:EDITORAS)");
+        }
+
+        if (anoInicial) {
+            sql.append("\n  AND ").append(ano).append(" >= :ANO_INICIAL");
+        }
+
+        if (anoFinal) {
+            sql.append("\n  AND ").append(ano).append(" <= :ANO_FINAL");
+        }
+    }
+
+    private static Object[] valores(ResultSet resultSet, int colunas) throws SQLException {
+        Object[] valores = new Object[colunas];
+
+        for (int i = 0; i < colunas; i++) {
+            valores[i] = resultSet.getObject(i + 1);
+        }
+
+        return valores;
+    }
+
+    private interface Escritor extends AutoCloseable {
+
+        void linha(Object[] valores);
+
+        void concluir(OutputStream saida) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class EscritorCsv implements Escritor {
+
+        private final Path arquivo;
+        private final CsvGenerator generator;
+
+        private EscritorCsv(List<String> colunas) throws IOException {
+            CsvSchema.Builder schema = CsvSchema.builder();
+            colunas.forEach(schema::addColumn);
+
+            arquivo = Files.createTempFile("relatorio-tabular-", ".csv");
+            try {
+                generator = CSV_MAPPER.getFactory().createGenerator(Files.newOutputStream(arquivo));
+            } catch (IOException e) {
+                Files.deleteIfExists(arquivo);
+                throw e;
+            }
+            generator.setSchema(schema.build());
+            // Aspas só quando o valor exige, como em títulos com vírgula
+            generator.enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING);
+
+            linha(colunas.toArray());
+        }
+
+        @Override
+        public void linha(Object[] valores) {
+            try {
+                generator.writeStartArray();
+
+                for (Object valor : valores) {
+                    if (valor == null) {
+                        generator.writeNull();
+                    } else if (valor instanceof BigDecimal decimal) {
+                        generator.writeNumber(decimal);
+                    } else if (valor instanceof Number numero) {
+                        generator.writeNumber(numero.longValue());
+                    } else {
+                        generator.writeString(valor.toString());
+                    }
+                }
+
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void concluir(OutputStream saida) throws IOException {
+            generator.close();
+            Files.copy(arquivo, saida);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                generator.close();
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    // Só a janela de linhas fica no heap; o restante vai para o arquivo temporário, apagado ao fechar
+    private static final class EscritorXlsx implements Escritor {
+
+        private final SXSSFWorkbook workbook;
+        private final SXSSFSheet sheet;
+        private final CellStyle estiloDecimal;
+        private int proximaLinha;
+
+        private EscritorXlsx(String titulo, List<String> colunas, int linhasEmMemoria) {
+            this.workbook = new SXSSFWorkbook(linhasEmMemoria);
+            this.workbook.setCompressTempFiles(true);
+            this.sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(titulo));
+
+            this.estiloDecimal = workbook.createCellStyle();
+            this.estiloDecimal.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            Font negrito = workbook.createFont();
+            negrito.setBold(true);
+            CellStyle estiloCabecalho = workbook.createCellStyle();
+            estiloCabecalho.setFont(negrito);
+
+            Row cabecalho = sheet.createRow(proximaLinha++);
+            for (int i = 0; i < colunas.size(); i++) {
+                Cell cell = cabecalho.createCell(i);
+                cell.setCellValue(colunas.get(i));
+                cell.setCellStyle(estiloCabecalho);
+            }
+
+            sheet.createFreezePane(0, 1);
+        }
+
+        @Override
+        public void linha(Object[] valores) {
+            Row row = sheet.createRow(proximaLinha++);
+
+            for (int i = 0; i < valores.length; i++) {
+                Object valor = valores[i];
+
+                if (valor == null) {
+                    continue;
+                }
+
+                Cell cell = row.createCell(i);
+
+                if (valor instanceof BigDecimal decimal) {
+                    cell.setCellValue(decimal.doubleValue());
+                    cell.setCellStyle(estiloDecimal);
+                } else if (valor instanceof Number numero) {
+                    cell.setCellValue(numero.doubleValue());
+                } else {
+                    String texto = valor.toString();
+                    cell.setCellValue(texto.length() > TAMANHO_MAXIMO_TEXTO ? texto.substring(0, TAMANHO_MAXIMO_TEXTO) : texto);
+                }
+            }
+        }
+
+        @Override
+        public void concluir(OutputStream saida) throws IOException {
+            workbook.write(saida);
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
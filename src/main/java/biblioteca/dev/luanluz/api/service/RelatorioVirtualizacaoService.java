@@ -0,0 +1,80 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioVirtualizacaoProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+ * Cria os virtualizadores usados nos preenchimentos. Cada preenchimento mantém no heap no máximo o número de páginas
+ * que cabe no orçamento de memória configurado; as demais vão para um arquivo de swap no diretório próprio, que é
+ * esvaziado na inicialização para descartar arquivos de uma execução interrompida.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatorioVirtualizacaoService {
+
+    private final RelatorioVirtualizacaoProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger arquivosAtivos = new AtomicInteger();
+
+    private Counter paginasGravadas;
+    private Counter paginasLidas;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(properties.diretorio());
+        apagarRemanescentes();
+
+        paginasGravadas = Counter.builder("relatorio.virtualizacao.paginas")
+                .tag("operacao", "gravadas")
+                .register(meterRegistry);
+        paginasLidas = Counter.builder("relatorio.virtualizacao.paginas")
+                .tag("operacao", "lidas")
+                .register(meterRegistry);
+        Gauge.builder("relatorio.virtualizacao.arquivos", arquivosAtivos, AtomicInteger::get)
+                .register(meterRegistry);
+
+        log.info("Preenchimentos de relatório mantêm até {} páginas em memória; as demais vão para {}",
+                properties.paginasEmMemoria(), properties.diretorio());
+    }
+
+    RelatorioVirtualizador criar() {
+        return criar(1);
+    }
+
+    // Seções de um mesmo preenchimento dividem entre si o orçamento de páginas em memória
+    RelatorioVirtualizador criar(int secoes) {
+        return new RelatorioVirtualizador(Math.max(1, properties.paginasEmMemoria() / secoes), properties.diretorio(),
+                arquivosAtivos, paginasGravadas, paginasLidas);
+    }
+
+    public int getArquivosAtivos() {
+        return arquivosAtivos.get();
+    }
+
+    private void apagarRemanescentes() throws IOException {
+        try (Stream<Path> arquivos = Files.list(properties.diretorio())) {
+            arquivos.filter(Files::isRegularFile).forEach(arquivo -> {
+                try {
+                    Files.deleteIfExists(arquivo);
+                    log.info("Arquivo de swap remanescente removido: {}", arquivo);
+                } catch (IOException e) {
+                    log.warn("Falha ao remover o arquivo de swap {}: {}", arquivo, e.getMessage());
+                }
+            });
+        }
+    }
+}
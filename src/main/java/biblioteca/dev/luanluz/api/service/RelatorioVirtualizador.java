@@ -0,0 +1,112 @@
+package biblioteca.dev.luanluz.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.StoreVirtualizer;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.SwapFileVirtualizerStore;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Virtualizador de um único preenchimento: mantém no heap até o limite de páginas e grava as demais num arquivo de
+ * swap próprio. O arquivo só é criado quando a primeira página sai da memória, então relatórios abaixo do limite
+ * não tocam o disco, e é apagado no cleanup.
+ */
+class RelatorioVirtualizador extends StoreVirtualizer {
+
+    private final ArquivoSwap arquivoSwap;
+    private final Counter paginasGravadas;
+    private final Counter paginasLidas;
+
+    RelatorioVirtualizador(int paginasEmMemoria, Path diretorio, AtomicInteger arquivosAtivos,
+                           Counter paginasGravadas, Counter paginasLidas) {
+        this(paginasEmMemoria, new ArquivoSwap(diretorio, arquivosAtivos), paginasGravadas, paginasLidas);
+    }
+
+    private RelatorioVirtualizador(int paginasEmMemoria, ArquivoSwap arquivoSwap,
+                                   Counter paginasGravadas, Counter paginasLidas) {
+        super(paginasEmMemoria, arquivoSwap);
+        this.arquivoSwap = arquivoSwap;
+        this.paginasGravadas = paginasGravadas;
+        this.paginasLidas = paginasLidas;
+    }
+
+    boolean isGravouEmDisco() {
+        return arquivoSwap.isCriado();
+    }
+
+    @Override
+    protected void pageOut(JRVirtualizable o) throws IOException {
+        super.pageOut(o);
+        paginasGravadas.increment();
+    }
+
+    @Override
+    protected void pageIn(JRVirtualizable o) throws IOException {
+        super.pageIn(o);
+        paginasLidas.increment();
+    }
+
+    private static class ArquivoSwap implements VirtualizerStore {
+
+        private static final int TAMANHO_BLOCO = 4096;
+        private static final int CRESCIMENTO_MINIMO = 64;
+
+        private final Path diretorio;
+        private final AtomicInteger arquivosAtivos;
+
+        private SwapFileVirtualizerStore store;
+        private boolean criado;
+
+        ArquivoSwap(Path diretorio, AtomicInteger arquivosAtivos) {
+            this.diretorio = diretorio;
+            this.arquivosAtivos = arquivosAtivos;
+        }
+
+        synchronized boolean isCriado() {
+            return criado;
+        }
+
+        @Override
+        public synchronized boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer) {
+            if (store == null) {
+                store = new SwapFileVirtualizerStore(
+                        new JRSwapFile(diretorio.toString(), TAMANHO_BLOCO, CRESCIMENTO_MINIMO), true);
+                criado = true;
+                arquivosAtivos.incrementAndGet();
+            }
+
+            return store.store(o, serializer);
+        }
+
+        @Override
+        public synchronized void retrieve(JRVirtualizable<?> o, boolean devirtualize, VirtualizationSerializer serializer) {
+            if (store == null) {
+                throw new IllegalStateException("Página " + o.getUID() + " não está no arquivo de swap");
+            }
+
+            store.retrieve(o, devirtualize, serializer);
+        }
+
+        @Override
+        public synchronized void remove(String objectId) {
+            if (store != null) {
+                store.remove(objectId);
+            }
+        }
+
+        @Override
+        public synchronized void dispose() {
+            if (store != null) {
+                store.dispose();
+                store = null;
+                arquivosAtivos.decrementAndGet();
+            }
+        }
+    }
+}
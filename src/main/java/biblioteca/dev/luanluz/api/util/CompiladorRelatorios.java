@@ -0,0 +1,65 @@
+package biblioteca.dev.luanluz.api.util;
+
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+ * Compila os .jrxml em .jasper. Roda no build (exec-maven-plugin, fase process-classes) para que os relatórios
+ * compilados não sejam versionados, e em desenvolvimento para recarregar um relatório alterado.
+ */
+@Slf4j
+public class CompiladorRelatorios {
+
+    public static final String EXTENSAO_FONTE = ".jrxml";
+    public static final String EXTENSAO_COMPILADO = ".jasper";
+
+    public static void main(String[] args) throws IOException, JRException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Uso: CompiladorRelatorios <diretório dos .jrxml> <diretório de saída>");
+        }
+
+        Path fontes = Path.of(args[0]);
+        Path saida = Path.of(args[1]);
+
+        for (Path fonte : listarFontes(fontes)) {
+            Path compilado = saida.resolve(nomeDoRelatorio(fonte) + EXTENSAO_COMPILADO);
+
+            if (Files.exists(compilado)
+                    && Files.getLastModifiedTime(compilado).compareTo(Files.getLastModifiedTime(fonte)) >= 0) {
+                continue;
+            }
+
+            Files.createDirectories(saida);
+            JasperCompileManager.compileReportToFile(fonte.toString(), compilado.toString());
+            log.info("Relatório compilado: {} -> {}", fonte.getFileName(), compilado);
+        }
+    }
+
+    public static JasperReport compilar(Path fonte) throws IOException, JRException {
+        try (InputStream entrada = Files.newInputStream(fonte)) {
+            return JasperCompileManager.compileReport(entrada);
+        }
+    }
+
+    public static List<Path> listarFontes(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(EXTENSAO_FONTE))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static String nomeDoRelatorio(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return nome.substring(0, nome.lastIndexOf('.'));
+    }
+}
@@ -0,0 +1,40 @@
+package biblioteca.dev.luanluz.api.util;
+
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+
+public class CursorHelper {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static String encode(Cursor cursor) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(OBJECT_MAPPER.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível gerar o cursor de paginação", e);
+        }
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            Cursor cursor = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), Cursor.class);
+
+            if (cursor.campo() == null || cursor.direcao() == null || cursor.codigo() == null) {
+                throw new BadRequestException("O cursor de paginação informado é inválido");
+            }
+
+            return cursor;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("O cursor de paginação informado é inválido");
+        }
+    }
+
+    public record Cursor(String campo, Sort.Direction direcao, Object valor, Object codigo) {
+    }
+}
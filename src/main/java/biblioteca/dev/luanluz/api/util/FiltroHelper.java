@@ -0,0 +1,31 @@
+package biblioteca.dev.luanluz.api.util;
+
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+
+public class FiltroHelper {
+
+    // O ano é gravado e comparado como texto de quatro dígitos, então o filtro só vale de 0 a 9999
+    public static final int ANO_MAXIMO = 9999;
+
+    public static void validarIntervaloDeAno(Integer minimo, Integer maximo) {
+        validarIntervalo(minimo, maximo, ANO_MAXIMO, "ano de publicação");
+    }
+
+    public static void validarIntervalo(Integer minimo, Integer maximo, int limite, String campo) {
+        if ((minimo != null && minimo < 0) || (maximo != null && maximo < 0)) {
+            throw new BadRequestException("O filtro de " + campo + " não aceita valores negativos");
+        }
+
+        if ((minimo != null && minimo > limite) || (maximo != null && maximo > limite)) {
+            throw new BadRequestException("O filtro de " + campo + " não aceita valores acima de " + limite);
+        }
+
+        if (minimo != null && maximo != null && minimo > maximo) {
+            throw new BadRequestException("O filtro de " + campo + " tem mínimo maior que o máximo");
+        }
+    }
+
+    public static String formatarAno(int ano) {
+        return String.format("%04d", ano);
+    }
+}
@@ -6,9 +6,13 @@ import org.springframework.data.domain.Sort;
 public class PageRequestHelper {
     public static PageRequest getPageRequest(Integer page, Integer size, Sort sort) {
         int defaultPage = page == null || page < 0 ? 0 : page;
-        int defaultSize = size == null || size < 1 ? 20 : size;
+        int defaultSize = getPageSize(size);
         Sort defaultSort = sort != null ? sort : Sort.by("id").ascending();
 
         return PageRequest.of(defaultPage, defaultSize, defaultSort);
     }
+
+    public static int getPageSize(Integer size) {
+        return size == null || size < 1 ? 20 : size;
+    }
 }
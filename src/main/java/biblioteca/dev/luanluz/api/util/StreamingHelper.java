@@ -0,0 +1,18 @@
+package biblioteca.dev.luanluz.api.util;
+
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.Duration;
+
+public class StreamingHelper {
+
+    /*
+     * Tempo limite só da resposta assíncrona desta requisição. O Spring MVC aplica o tempo padrão antes de chamar o
+     * handler e só inicia o processamento assíncrono depois que ele devolve o StreamingResponseBody, então o valor
+     * definido aqui substitui o padrão apenas para este download.
+     */
+    public static void tempoLimite(WebRequest webRequest, Duration tempoLimite) {
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(tempoLimite.toMillis());
+    }
+}
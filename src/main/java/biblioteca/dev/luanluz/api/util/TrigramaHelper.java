@@ -0,0 +1,36 @@
+package biblioteca.dev.luanluz.api.util;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class TrigramaHelper {
+
+    // Mesma extração do pg_trgm: palavras alfanuméricas em minúsculas, com dois espaços antes e um depois
+    public static Set<String> trigramas(String texto) {
+        Set<String> trigramas = new HashSet<>();
+
+        for (String palavra : texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+
+            String completa = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= completa.length(); i++) {
+                trigramas.add(completa.substring(i, i + 3));
+            }
+        }
+
+        return trigramas;
+    }
+
+    // Mesma regra do similarity() do pg_trgm: trigramas em comum sobre o total de trigramas distintos
+    public static double similaridade(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+
+        long comuns = a.stream().filter(b::contains).count();
+        return (double) comuns / (a.size() + b.size() - comuns);
+    }
+}
@@ -0,0 +1,9 @@
+-- Índices compostos para a paginação por cursor (keyset): campo de ordenação + código
+CREATE INDEX idx_livro_titulo_codl ON livro (titulo, codl);
+CREATE INDEX idx_autor_nome_codau ON autor (nome, codau);
+CREATE INDEX idx_assunto_descricao_codas ON assunto (descricao, codas);
+
+-- Comentários
+COMMENT ON INDEX idx_livro_titulo_codl IS 'Índice para paginação por cursor de livros ordenados por título';
+COMMENT ON INDEX idx_autor_nome_codau IS 'Índice para paginação por cursor de autores ordenados por nome';
+COMMENT ON INDEX idx_assunto_descricao_codas IS 'Índice para paginação por cursor de assuntos ordenados por descrição';
@@ -0,0 +1,9 @@
+-- Índices únicos funcionais que garantem unicidade sem diferenciar maiúsculas e minúsculas
+CREATE UNIQUE INDEX uk_livro_titulo_lower ON livro (LOWER(titulo));
+CREATE UNIQUE INDEX uk_autor_nome_lower ON autor (LOWER(nome));
+CREATE UNIQUE INDEX uk_assunto_descricao_lower ON assunto (LOWER(descricao));
+
+-- Comentários
+COMMENT ON INDEX uk_livro_titulo_lower IS 'Garante título de livro único, ignorando maiúsculas e minúsculas';
+COMMENT ON INDEX uk_autor_nome_lower IS 'Garante nome de autor único, ignorando maiúsculas e minúsculas';
+COMMENT ON INDEX uk_assunto_descricao_lower IS 'Garante descrição de assunto única, ignorando maiúsculas e minúsculas';
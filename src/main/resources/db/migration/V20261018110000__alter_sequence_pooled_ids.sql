@@ -0,0 +1,16 @@
+-- Sequências das colunas SERIAL passam a reservar blocos de 50 códigos (otimizador pooled do Hibernate).
+-- O próximo valor é posicionado 50 acima do maior código existente, preservando os registros atuais:
+-- o Hibernate usa o intervalo (valor - 49 .. valor) a cada chamada de nextval.
+ALTER SEQUENCE autor_codau_seq INCREMENT BY 50;
+SELECT setval('autor_codau_seq', COALESCE((SELECT MAX(codau) FROM autor), 0) + 50, false);
+
+ALTER SEQUENCE assunto_codas_seq INCREMENT BY 50;
+SELECT setval('assunto_codas_seq', COALESCE((SELECT MAX(codas) FROM assunto), 0) + 50, false);
+
+ALTER SEQUENCE livro_codl_seq INCREMENT BY 50;
+SELECT setval('livro_codl_seq', COALESCE((SELECT MAX(codl) FROM livro), 0) + 50, false);
+
+-- Comentários
+COMMENT ON SEQUENCE autor_codau_seq IS 'Sequência do código do autor, incrementada em blocos de 50 para inserções em lote';
+COMMENT ON SEQUENCE assunto_codas_seq IS 'Sequência do código do assunto, incrementada em blocos de 50 para inserções em lote';
+COMMENT ON SEQUENCE livro_codl_seq IS 'Sequência do código do livro, incrementada em blocos de 50 para inserções em lote';
@@ -0,0 +1,95 @@
+-- Tabela com o total de linhas de cada tabela paginada, para que as listagens não precisem de COUNT(*)
+CREATE TABLE contagem
+(
+    tabela VARCHAR(63) NOT NULL,
+    total  BIGINT      NOT NULL,
+    CONSTRAINT pk_contagem PRIMARY KEY (tabela)
+);
+
+INSERT INTO contagem (tabela, total)
+SELECT 'autor', COUNT(*) FROM autor
+UNION ALL
+SELECT 'assunto', COUNT(*) FROM assunto
+UNION ALL
+SELECT 'livro', COUNT(*) FROM livro;
+
+-- Triggers por instrução com tabelas de transição: uma importação em lote atualiza o contador uma única vez.
+-- Instruções que não afetam linhas (ON CONFLICT DO NOTHING) não travam a linha do contador.
+CREATE OR REPLACE FUNCTION fn_contagem_insert()
+    RETURNS TRIGGER AS
+$$
+DECLARE
+    v_total BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO v_total FROM linhas_novas;
+
+    IF v_total > 0 THEN
+        UPDATE contagem SET total = total + v_total WHERE tabela = TG_TABLE_NAME;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_contagem_delete()
+    RETURNS TRIGGER AS
+$$
+DECLARE
+    v_total BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO v_total FROM linhas_antigas;
+
+    IF v_total > 0 THEN
+        UPDATE contagem SET total = total - v_total WHERE tabela = TG_TABLE_NAME;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_contagem_truncate()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE contagem SET total = 0 WHERE tabela = TG_TABLE_NAME;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Criação dos triggers
+CREATE TRIGGER trg_contagem_autor_insert
+    AFTER INSERT ON autor REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_insert();
+CREATE TRIGGER trg_contagem_autor_delete
+    AFTER DELETE ON autor REFERENCING OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_delete();
+CREATE TRIGGER trg_contagem_autor_truncate
+    AFTER TRUNCATE ON autor
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_truncate();
+
+CREATE TRIGGER trg_contagem_assunto_insert
+    AFTER INSERT ON assunto REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_insert();
+CREATE TRIGGER trg_contagem_assunto_delete
+    AFTER DELETE ON assunto REFERENCING OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_delete();
+CREATE TRIGGER trg_contagem_assunto_truncate
+    AFTER TRUNCATE ON assunto
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_truncate();
+
+CREATE TRIGGER trg_contagem_livro_insert
+    AFTER INSERT ON livro REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_insert();
+CREATE TRIGGER trg_contagem_livro_delete
+    AFTER DELETE ON livro REFERENCING OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_delete();
+CREATE TRIGGER trg_contagem_livro_truncate
+    AFTER TRUNCATE ON livro
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_contagem_truncate();
+
+-- Comentários
+COMMENT ON TABLE contagem IS 'Total de linhas por tabela, mantido pelos triggers trg_contagem_*';
+COMMENT ON FUNCTION fn_contagem_insert() IS 'Soma ao contador da tabela as linhas inseridas pela instrução';
+COMMENT ON FUNCTION fn_contagem_delete() IS 'Subtrai do contador da tabela as linhas removidas pela instrução';
+COMMENT ON FUNCTION fn_contagem_truncate() IS 'Zera o contador da tabela truncada';
@@ -0,0 +1,129 @@
+-- Busca textual em português, sem acentos, sobre título, autores, assuntos e editora do livro
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE livro ADD COLUMN busca TSVECTOR;
+
+-- Documento de busca do livro; os pesos ordenam a relevância: título (A), autores (B), assuntos (C), editora (D)
+CREATE OR REPLACE FUNCTION fn_livro_busca(p_codl INTEGER, p_titulo VARCHAR, p_editora VARCHAR)
+    RETURNS TSVECTOR AS
+$$
+SELECT setweight(to_tsvector('portugues_sem_acento', COALESCE(p_titulo, '')), 'A')
+           || setweight(to_tsvector('portugues_sem_acento', COALESCE((
+        SELECT string_agg(a.nome, ' ')
+        FROM livro_autor la
+                 JOIN autor a ON a.codau = la.autor_codau
+        WHERE la.livro_codl = p_codl), '')), 'B')
+           || setweight(to_tsvector('portugues_sem_acento', COALESCE((
+        SELECT string_agg(s.descricao, ' ')
+        FROM livro_assunto ls
+                 JOIN assunto s ON s.codas = ls.assunto_codas
+        WHERE ls.livro_codl = p_codl), '')), 'C')
+           || setweight(to_tsvector('portugues_sem_acento', COALESCE(p_editora, '')), 'D');
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION fn_livro_busca_livro()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.busca := fn_livro_busca(NEW.codl, NEW.titulo, NEW.editora);
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recalcula os livros cujas associações mudaram; insert e delete usam o mesmo nome de tabela de transição
+CREATE OR REPLACE FUNCTION fn_livro_busca_associacao()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE livro l
+    SET busca = fn_livro_busca(l.codl, l.titulo, l.editora)
+    WHERE l.codl IN (SELECT livro_codl FROM linhas_alteradas);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_livro_busca_autor()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE livro l
+    SET busca = fn_livro_busca(l.codl, l.titulo, l.editora)
+    WHERE l.codl IN (SELECT livro_codl FROM livro_autor WHERE autor_codau = NEW.codau);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_livro_busca_assunto()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    UPDATE livro l
+    SET busca = fn_livro_busca(l.codl, l.titulo, l.editora)
+    WHERE l.codl IN (SELECT livro_codl FROM livro_assunto WHERE assunto_codas = NEW.codas);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A auditoria passa a considerar apenas as colunas de negócio, para que o recálculo de busca não gere registros
+DROP TRIGGER trg_audit_livro_update ON livro;
+CREATE TRIGGER trg_audit_livro_update
+    AFTER UPDATE OF codl, titulo, editora, edicao, anopublicacao, valoremcentavos
+    ON livro
+    FOR EACH ROW
+EXECUTE FUNCTION fn_audit_livro_update();
+
+-- Criação dos triggers
+CREATE TRIGGER trg_livro_busca
+    BEFORE INSERT OR UPDATE OF titulo, editora
+    ON livro
+    FOR EACH ROW
+EXECUTE FUNCTION fn_livro_busca_livro();
+
+CREATE TRIGGER trg_livro_busca_livro_autor_insert
+    AFTER INSERT ON livro_autor REFERENCING NEW TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_livro_busca_associacao();
+CREATE TRIGGER trg_livro_busca_livro_autor_delete
+    AFTER DELETE ON livro_autor REFERENCING OLD TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_livro_busca_associacao();
+
+CREATE TRIGGER trg_livro_busca_livro_assunto_insert
+    AFTER INSERT ON livro_assunto REFERENCING NEW TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_livro_busca_associacao();
+CREATE TRIGGER trg_livro_busca_livro_assunto_delete
+    AFTER DELETE ON livro_assunto REFERENCING OLD TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_livro_busca_associacao();
+
+CREATE TRIGGER trg_livro_busca_autor
+    AFTER UPDATE OF nome
+    ON autor
+    FOR EACH ROW
+    WHEN (OLD.nome IS DISTINCT FROM NEW.nome)
+EXECUTE FUNCTION fn_livro_busca_autor();
+
+CREATE TRIGGER trg_livro_busca_assunto
+    AFTER UPDATE OF descricao
+    ON assunto
+    FOR EACH ROW
+    WHEN (OLD.descricao IS DISTINCT FROM NEW.descricao)
+EXECUTE FUNCTION fn_livro_busca_assunto();
+
+-- Preenche os livros existentes e cria o índice depois da carga
+UPDATE livro SET busca = fn_livro_busca(codl, titulo, editora);
+
+CREATE INDEX idx_livro_busca ON livro USING GIN (busca);
+
+-- Comentários
+COMMENT ON COLUMN livro.busca IS 'Documento de busca textual (título, autores, assuntos e editora), mantido pelos triggers trg_livro_busca*';
+COMMENT ON FUNCTION fn_livro_busca(INTEGER, VARCHAR, VARCHAR) IS 'Monta o documento de busca textual de um livro';
+COMMENT ON FUNCTION fn_livro_busca_livro() IS 'Calcula o documento de busca ao inserir ou alterar título e editora do livro';
+COMMENT ON FUNCTION fn_livro_busca_associacao() IS 'Recalcula o documento de busca dos livros cujos autores ou assuntos mudaram';
+COMMENT ON FUNCTION fn_livro_busca_autor() IS 'Recalcula o documento de busca dos livros de um autor renomeado';
+COMMENT ON FUNCTION fn_livro_busca_assunto() IS 'Recalcula o documento de busca dos livros de um assunto renomeado';
@@ -0,0 +1,9 @@
+-- Índices de trigramas para localizar nomes de autores e descrições de assuntos semelhantes (operador %)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_autor_nome_trgm ON autor USING GIN (nome gin_trgm_ops);
+CREATE INDEX idx_assunto_descricao_trgm ON assunto USING GIN (descricao gin_trgm_ops);
+
+-- Comentários
+COMMENT ON INDEX idx_autor_nome_trgm IS 'Índice de trigramas para busca de autores com nome semelhante';
+COMMENT ON INDEX idx_assunto_descricao_trgm IS 'Índice de trigramas para busca de assuntos com descrição semelhante';
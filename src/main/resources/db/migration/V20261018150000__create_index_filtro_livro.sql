@@ -0,0 +1,19 @@
+-- Índices para os filtros da listagem de livros (GET /livro)
+CREATE INDEX idx_livro_editora ON livro (editora);
+CREATE INDEX idx_livro_anopublicacao ON livro (anopublicacao);
+CREATE INDEX idx_livro_valoremcentavos ON livro (valoremcentavos);
+
+-- Filtros por autor e assunto (EXISTS): com o código da associação à frente e o livro em seguida o semi-join
+-- é resolvido só pelo índice; substituem os índices de coluna única, que passam a ser redundantes
+CREATE INDEX idx_livro_autor_autor_livro ON livro_autor (autor_codau, livro_codl);
+DROP INDEX idx_livro_autor_autor;
+
+CREATE INDEX idx_livro_assunto_assunto_livro ON livro_assunto (assunto_codas, livro_codl);
+DROP INDEX idx_livro_assunto_assunto;
+
+-- Comentários
+COMMENT ON INDEX idx_livro_editora IS 'Índice para o filtro de livros por editora';
+COMMENT ON INDEX idx_livro_anopublicacao IS 'Índice para o filtro de livros por intervalo de ano de publicação';
+COMMENT ON INDEX idx_livro_valoremcentavos IS 'Índice para o filtro de livros por intervalo de valor';
+COMMENT ON INDEX idx_livro_autor_autor_livro IS 'Índice para o semi-join do filtro de livros por autor';
+COMMENT ON INDEX idx_livro_assunto_assunto_livro IS 'Índice para o semi-join do filtro de livros por assunto';
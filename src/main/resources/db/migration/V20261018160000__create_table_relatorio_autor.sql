@@ -0,0 +1,171 @@
+-- Resumo por autor materializado a partir de vw_relatorio_por_autor, para que o relatório não reagregue o acervo
+CREATE TABLE relatorio_autor
+(
+    codau                       INTEGER     NOT NULL,
+    nome_autor                  VARCHAR(40) NOT NULL,
+    quantidade_livros           BIGINT      NOT NULL,
+    titulos                     TEXT,
+    editoras                    TEXT,
+    assuntos                    TEXT,
+    valor_total_reais           NUMERIC,
+    ano_publicacao_mais_antigo  VARCHAR(4),
+    ano_publicacao_mais_recente VARCHAR(4),
+    CONSTRAINT pk_relatorio_autor PRIMARY KEY (codau),
+    CONSTRAINT fk_relatorio_autor_autor FOREIGN KEY (codau)
+        REFERENCES autor (codau) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_relatorio_autor_nome_autor ON relatorio_autor (nome_autor, codau);
+
+INSERT INTO relatorio_autor
+SELECT codau, nome_autor, quantidade_livros, titulos, editoras, assuntos, valor_total_reais,
+       ano_publicacao_mais_antigo, ano_publicacao_mais_recente
+FROM vw_relatorio_por_autor;
+
+/*
+ * Recalcula apenas os autores informados. O filtro por codau é levado para dentro do agrupamento da view,
+ * então o custo depende dos livros desses autores e não do acervo. As linhas são travadas antes do recálculo,
+ * em ordem de código para evitar deadlock: uma transação concorrente que altere o mesmo autor espera o commit
+ * da outra e recalcula com os dados dela, sem sobrescrever o resumo com um snapshot antigo.
+ */
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_atualizar(p_codaus INTEGER[])
+    RETURNS VOID AS
+$$
+BEGIN
+    IF p_codaus IS NULL OR cardinality(p_codaus) = 0 THEN
+        RETURN;
+    END IF;
+
+    PERFORM 1
+    FROM relatorio_autor
+    WHERE codau = ANY (p_codaus)
+    ORDER BY codau
+    FOR UPDATE;
+
+    INSERT INTO relatorio_autor
+    SELECT codau, nome_autor, quantidade_livros, titulos, editoras, assuntos, valor_total_reais,
+           ano_publicacao_mais_antigo, ano_publicacao_mais_recente
+    FROM vw_relatorio_por_autor
+    WHERE codau = ANY (p_codaus)
+    ON CONFLICT (codau) DO UPDATE
+        SET nome_autor                  = EXCLUDED.nome_autor,
+            quantidade_livros           = EXCLUDED.quantidade_livros,
+            titulos                     = EXCLUDED.titulos,
+            editoras                    = EXCLUDED.editoras,
+            assuntos                    = EXCLUDED.assuntos,
+            valor_total_reais           = EXCLUDED.valor_total_reais,
+            ano_publicacao_mais_antigo  = EXCLUDED.ano_publicacao_mais_antigo,
+            ano_publicacao_mais_recente = EXCLUDED.ano_publicacao_mais_recente;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Autores incluídos ou renomeados
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_autor()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM fn_relatorio_autor_atualizar(ARRAY(SELECT codau FROM linhas_novas));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Associações entre livro e autor incluídas ou removidas; insert e delete usam o mesmo nome de tabela de transição
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_livro_autor()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM fn_relatorio_autor_atualizar(ARRAY(SELECT DISTINCT autor_codau FROM linhas_alteradas));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Associações entre livro e assunto incluídas ou removidas: recalcula os autores dos livros afetados
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_livro_assunto()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM fn_relatorio_autor_atualizar(ARRAY(
+            SELECT DISTINCT la.autor_codau
+            FROM livro_autor la
+            WHERE la.livro_codl IN (SELECT livro_codl FROM linhas_alteradas)));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Livros alterados: só interessam as colunas exibidas no relatório (o recálculo de busca também atualiza livro)
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_livro()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM fn_relatorio_autor_atualizar(ARRAY(
+            SELECT DISTINCT la.autor_codau
+            FROM linhas_novas n
+                     JOIN linhas_antigas o ON o.codl = n.codl
+                     JOIN livro_autor la ON la.livro_codl = n.codl
+            WHERE (n.titulo, n.editora, n.anopublicacao, n.valoremcentavos)
+                      IS DISTINCT FROM (o.titulo, o.editora, o.anopublicacao, o.valoremcentavos)));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Assunto renomeado: recalcula os autores dos livros com esse assunto
+CREATE OR REPLACE FUNCTION fn_relatorio_autor_assunto()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    PERFORM fn_relatorio_autor_atualizar(ARRAY(
+            SELECT DISTINCT la.autor_codau
+            FROM livro_assunto las
+                     JOIN livro_autor la ON la.livro_codl = las.livro_codl
+            WHERE las.assunto_codas = NEW.codas));
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Criação dos triggers. Remoções de livros, autores e assuntos chegam pelas exclusões em cascata das tabelas de
+-- associação, e a remoção do autor apaga o resumo pela chave estrangeira
+CREATE TRIGGER trg_relatorio_autor_autor_insert
+    AFTER INSERT ON autor REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_autor();
+CREATE TRIGGER trg_relatorio_autor_autor_update
+    AFTER UPDATE ON autor REFERENCING NEW TABLE AS linhas_novas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_autor();
+
+CREATE TRIGGER trg_relatorio_autor_livro_autor_insert
+    AFTER INSERT ON livro_autor REFERENCING NEW TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_livro_autor();
+CREATE TRIGGER trg_relatorio_autor_livro_autor_delete
+    AFTER DELETE ON livro_autor REFERENCING OLD TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_livro_autor();
+
+CREATE TRIGGER trg_relatorio_autor_livro_assunto_insert
+    AFTER INSERT ON livro_assunto REFERENCING NEW TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_livro_assunto();
+CREATE TRIGGER trg_relatorio_autor_livro_assunto_delete
+    AFTER DELETE ON livro_assunto REFERENCING OLD TABLE AS linhas_alteradas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_livro_assunto();
+
+CREATE TRIGGER trg_relatorio_autor_livro_update
+    AFTER UPDATE ON livro REFERENCING NEW TABLE AS linhas_novas OLD TABLE AS linhas_antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_relatorio_autor_livro();
+
+CREATE TRIGGER trg_relatorio_autor_assunto
+    AFTER UPDATE OF descricao
+    ON assunto
+    FOR EACH ROW
+    WHEN (OLD.descricao IS DISTINCT FROM NEW.descricao)
+EXECUTE FUNCTION fn_relatorio_autor_assunto();
+
+-- Comentários
+COMMENT ON TABLE relatorio_autor IS 'Resumo de livros por autor (mesmas colunas de vw_relatorio_por_autor), mantido pelos triggers trg_relatorio_autor_*';
+COMMENT ON FUNCTION fn_relatorio_autor_atualizar(INTEGER[]) IS 'Recalcula o resumo dos autores informados a partir de vw_relatorio_por_autor';
+COMMENT ON FUNCTION fn_relatorio_autor_autor() IS 'Recalcula o resumo dos autores incluídos ou alterados';
+COMMENT ON FUNCTION fn_relatorio_autor_livro_autor() IS 'Recalcula o resumo dos autores cujas associações com livros mudaram';
+COMMENT ON FUNCTION fn_relatorio_autor_livro_assunto() IS 'Recalcula o resumo dos autores dos livros cujos assuntos mudaram';
+COMMENT ON FUNCTION fn_relatorio_autor_livro() IS 'Recalcula o resumo dos autores dos livros com título, editora, ano ou valor alterados';
+COMMENT ON FUNCTION fn_relatorio_autor_assunto() IS 'Recalcula o resumo dos autores dos livros de um assunto renomeado';
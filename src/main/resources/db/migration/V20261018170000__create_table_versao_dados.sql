@@ -0,0 +1,57 @@
+-- Carimbo dos dados do cache de relatórios: a base compactada mais uma linha por transação que escreveu no acervo.
+-- A linha só fica visível no commit, então o carimbo muda exatamente quando os dados mudam para quem lê, e
+-- transações concorrentes inserem chaves diferentes sem esperar uma pela outra
+CREATE TABLE versao_dados
+(
+    id   SMALLINT NOT NULL DEFAULT 1,
+    base BIGINT   NOT NULL,
+    CONSTRAINT pk_versao_dados PRIMARY KEY (id),
+    CONSTRAINT ck_versao_dados_unica CHECK (id = 1)
+);
+
+INSERT INTO versao_dados (id, base)
+VALUES (1, 0);
+
+CREATE TABLE versao_dados_transacao
+(
+    xid BIGINT NOT NULL,
+    CONSTRAINT pk_versao_dados_transacao PRIMARY KEY (xid)
+);
+
+-- Trigger por instrução: uma transação registra uma única linha, por mais instruções que execute
+CREATE OR REPLACE FUNCTION fn_versao_dados_registrar()
+    RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO versao_dados_transacao (xid)
+    VALUES (pg_current_xact_id()::TEXT::BIGINT)
+    ON CONFLICT DO NOTHING;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Criação dos triggers
+CREATE TRIGGER trg_versao_dados_autor
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON autor
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+CREATE TRIGGER trg_versao_dados_assunto
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON assunto
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+CREATE TRIGGER trg_versao_dados_livro
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livro
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+CREATE TRIGGER trg_versao_dados_livro_autor
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livro_autor
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+CREATE TRIGGER trg_versao_dados_livro_assunto
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON livro_assunto
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+CREATE TRIGGER trg_versao_dados_relatorio_autor
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON relatorio_autor
+    FOR EACH STATEMENT EXECUTE FUNCTION fn_versao_dados_registrar();
+
+-- Comentários
+COMMENT ON TABLE versao_dados IS 'Transações já compactadas na versão dos dados do acervo';
+COMMENT ON TABLE versao_dados_transacao IS 'Transações que escreveram no acervo desde a última compactação, registradas pelos triggers trg_versao_dados_*';
+COMMENT ON FUNCTION fn_versao_dados_registrar() IS 'Registra a transação corrente como escritora do acervo';
@@ -0,0 +1,158 @@
+package biblioteca.dev.luanluz.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Mede a latência (p50/p99 no modo SampleTime) da primeira página de GET /livro/search diretamente no
+ * PostgreSQL, com o banco migrado pelo Flyway. Na primeira execução o acervo é completado até a quantidade
+ * de livros informada, com autores e assuntos, o que recalcula o documento de busca pelos triggers.
+ * Meta: p99 abaixo de 20 ms com 1 milhão de livros. Execução:
+ *
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath -Dbusca.url=jdbc:postgresql://localhost:5432/biblioteca_benchmark \
+ *     -Dbusca.username=postgres -Dbusca.password=postgres org.openjdk.jmh.Main LivroBuscaBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LivroBuscaBenchmark {
+
+    // Mesma consulta da primeira página de LivroBuscaRepository
+    private static final String SEARCH = """
+            SELECT l.codl, ts_rank_cd(l.busca, q.consulta)::FLOAT8 AS relevancia
+            FROM livro l, websearch_to_tsquery('portugues_sem_acento', ?) AS q(consulta)
+            WHERE l.busca @@ q.consulta
+            ORDER BY relevancia DESC, l.codl
+            LIMIT ?
+            """;
+
+    private static final String SEED_AUTORES = """
+            INSERT INTO autor (nome)
+            SELECT (ARRAY['Machado', 'Clarice', 'Jorge', 'Cecília', 'Graciliano', 'Lygia', 'Érico', 'Rachel'])[1 + g % 8]
+                       || ' ' || (ARRAY['Assis', 'Amado', 'Meireles', 'Ramos', 'Telles', 'Veríssimo', 'Queiroz', 'Rosa'])[1 + (g / 8) % 8]
+                       || ' ' || g
+            FROM generate_series(1, 10000) AS g
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String SEED_ASSUNTOS = """
+            INSERT INTO assunto (descricao)
+            SELECT (ARRAY['Romance', 'História', 'Poesia', 'Ciência', 'Viagem', 'Memórias', 'Contos', 'Teatro'])[1 + g % 8]
+                       || ' ' || g
+            FROM generate_series(1, 200) AS g
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String SEED_LIVROS = """
+            INSERT INTO livro (titulo, editora, edicao, anopublicacao, valoremcentavos)
+            SELECT (ARRAY['Noite', 'Mar', 'Sertão', 'Cidade', 'Jardim', 'Rio', 'Vento', 'Pedra', 'Sonho', 'Estrada',
+                          'Memória', 'Silêncio', 'Viagem', 'Fogo', 'Céu', 'Ilha'])[1 + g % 16]
+                       || ' ' || (ARRAY['azul', 'antigo', 'perdido', 'sem fim', 'de outono', 'das águas', 'da serra',
+                                        'do norte', 'eterno', 'secreto', 'em chamas', 'de vidro'])[1 + (g / 16) % 12]
+                       || ' ' || g,
+                   'Editora ' || g % 500,
+                   1 + g % 5,
+                   (1900 + g % 120)::TEXT,
+                   1000 + g % 9000
+            FROM generate_series((SELECT COUNT(*) FROM livro) + 1, ?) AS g
+            ON CONFLICT ((LOWER(titulo))) DO NOTHING
+            """;
+
+    private static final String SEED_ASSOCIACOES = """
+            WITH autores AS (SELECT array_agg(codau ORDER BY codau) AS codigos FROM autor),
+                 assuntos AS (SELECT array_agg(codas ORDER BY codas) AS codigos FROM assunto),
+                 novos AS (SELECT codl FROM livro l WHERE NOT EXISTS (SELECT 1 FROM livro_autor la WHERE la.livro_codl = l.codl)),
+                 inseridos AS (
+                     INSERT INTO livro_assunto (livro_codl, assunto_codas)
+                     SELECT n.codl, s.codigos[1 + n.codl % array_length(s.codigos, 1)]
+                     FROM novos n, assuntos s
+                     ON CONFLICT DO NOTHING
+                 )
+            INSERT INTO livro_autor (livro_codl, autor_codau)
+            SELECT n.codl, a.codigos[1 + n.codl % array_length(a.codigos, 1)]
+            FROM novos n, autores a
+            ON CONFLICT DO NOTHING
+            """;
+
+    @Param({"1000000"})
+    private int livros;
+
+    @Param({"machado", "sertão perdido", "\"jardim de outono\"", "poesia -teatro"})
+    private String termo;
+
+    @Param({"21"})
+    private int limite;
+
+    private Connection connection;
+    private PreparedStatement search;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("busca.url", "jdbc:postgresql://localhost:5432/biblioteca_benchmark"),
+                System.getProperty("busca.username", "postgres"),
+                System.getProperty("busca.password", "postgres"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(SEED_AUTORES);
+            statement.executeUpdate(SEED_ASSUNTOS);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(SEED_LIVROS)) {
+            statement.setInt(1, livros);
+            statement.executeUpdate();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(SEED_ASSOCIACOES);
+            statement.execute("VACUUM ANALYZE livro");
+        }
+
+        search = connection.prepareStatement(SEARCH);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        search.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Integer> primeiraPagina() throws SQLException {
+        search.setString(1, termo);
+        search.setInt(2, limite);
+
+        List<Integer> codigos = new ArrayList<>(limite);
+        try (ResultSet resultSet = search.executeQuery()) {
+            while (resultSet.next()) {
+                codigos.add(resultSet.getInt(1));
+            }
+        }
+
+        return codigos;
+    }
+}
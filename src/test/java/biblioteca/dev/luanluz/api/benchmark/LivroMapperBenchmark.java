@@ -0,0 +1,102 @@
+package biblioteca.dev.luanluz.api.benchmark;
+
+import biblioteca.dev.luanluz.api.config.ModelMapperConfig;
+import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import biblioteca.dev.luanluz.api.mapper.AssuntoMapper;
+import biblioteca.dev.luanluz.api.mapper.AutorMapper;
+import biblioteca.dev.luanluz.api.mapper.LivroMapper;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroProjection;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Compara a conversão de uma página de livros pelo caminho com entidades (ModelMapper) com a
+ * montagem direta a partir das projeções. Execução:
+ *
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main LivroMapperBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LivroMapperBenchmark {
+
+    @Param({"20", "100"})
+    private int tamanhoPagina;
+
+    private LivroMapper livroMapper;
+    private List<Livro> livros;
+    private List<LivroProjection> livrosProjetados;
+    private List<LivroAutorProjection> autoresProjetados;
+    private List<LivroAssuntoProjection> assuntosProjetados;
+
+    @Setup
+    public void setUp() {
+        ModelMapper modelMapper = new ModelMapperConfig().modelMapper();
+        livroMapper = new LivroMapper(modelMapper, new AutorMapper(modelMapper), new AssuntoMapper(modelMapper));
+
+        livros = new ArrayList<>();
+        livrosProjetados = new ArrayList<>();
+        autoresProjetados = new ArrayList<>();
+        assuntosProjetados = new ArrayList<>();
+
+        for (int codigo = 1; codigo <= tamanhoPagina; codigo++) {
+            Autor autor = Autor.builder().codigo(codigo).nome("Autor " + codigo).build();
+            Autor coautor = Autor.builder().codigo(codigo + 1000).nome("Coautor " + codigo).build();
+            Assunto assunto = Assunto.builder().codigo(codigo).descricao("Assunto " + codigo).build();
+            Assunto outroAssunto = Assunto.builder().codigo(codigo + 1000).descricao("Outro assunto " + codigo).build();
+
+            livros.add(Livro.builder()
+                    .codigo(codigo)
+                    .titulo("Livro " + codigo)
+                    .editora("Editora")
+                    .edicao(1)
+                    .anoPublicacao("2000")
+                    .valorEmCentavos(4990)
+                    .autores(Set.of(autor, coautor))
+                    .assuntos(Set.of(assunto, outroAssunto))
+                    .build());
+
+            livrosProjetados.add(new LivroProjection(codigo, "Livro " + codigo, "Editora", 1, "2000", 4990));
+            autoresProjetados.add(new LivroAutorProjection(codigo, autor.getCodigo(), autor.getNome()));
+            autoresProjetados.add(new LivroAutorProjection(codigo, coautor.getCodigo(), coautor.getNome()));
+            assuntosProjetados.add(new LivroAssuntoProjection(codigo, assunto.getCodigo(), assunto.getDescricao()));
+            assuntosProjetados.add(new LivroAssuntoProjection(codigo, outroAssunto.getCodigo(), outroAssunto.getDescricao()));
+        }
+    }
+
+    @Benchmark
+    public List<LivroResponseDTO> mapperComEntidades() {
+        return livros.stream()
+                .map(livroMapper::toResponseDTO)
+                .toList();
+    }
+
+    @Benchmark
+    public List<LivroResponseDTO> montagemComProjecoes() {
+        return livroMapper.toResponseDTOs(livrosProjetados, autoresProjetados, assuntosProjetados);
+    }
+}
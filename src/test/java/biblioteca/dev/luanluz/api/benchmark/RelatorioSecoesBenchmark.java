@@ -0,0 +1,132 @@
+package biblioteca.dev.luanluz.api.benchmark;
+
+import biblioteca.dev.luanluz.api.ApiApplication;
+import biblioteca.dev.luanluz.api.service.RelatorioImpressao;
+import biblioteca.dev.luanluz.api.service.RelatorioSecoesService;
+import biblioteca.dev.luanluz.api.service.RelatorioService;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Mede o tempo de parede do relatório de autores preenchido em 1, 2, 4 e 8 seções paralelas, com a aplicação
+ * completa contra um PostgreSQL (migrado pelo Flyway na inicialização). O pool de conexões e o bulkhead dos relatórios
+ * acompanham o paralelismo, para que a espera por vaga não entre na medida. Na primeira execução o acervo é completado
+ * até a quantidade de autores informada, com três livros por autor. Para comparar núcleos, rode com a JVM restrita a
+ * 8 CPUs (por exemplo taskset -c 0-7). Execução:
+ *
+ * ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath -Drelatorio.host=localhost -Drelatorio.port=5432 -Drelatorio.db=biblioteca_benchmark \
+ *     -Drelatorio.username=postgres -Drelatorio.password=postgres org.openjdk.jmh.Main RelatorioSecoesBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RelatorioSecoesBenchmark {
+
+    private static final String SEED_AUTORES = """
+            INSERT INTO autor (nome)
+            SELECT (ARRAY['Machado', 'Clarice', 'Jorge', 'Cecília', 'Graciliano', 'Lygia', 'Érico', 'Rachel'])[1 + g % 8]
+                       || ' ' || (ARRAY['Assis', 'Amado', 'Meireles', 'Ramos', 'Telles', 'Veríssimo', 'Queiroz', 'Rosa'])[1 + (g / 8) % 8]
+                       || ' ' || g
+            FROM generate_series((SELECT COUNT(*) FROM autor) + 1, ?) AS g
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String SEED_LIVROS = """
+            INSERT INTO livro (titulo, editora, edicao, anopublicacao, valoremcentavos)
+            SELECT 'Livro de relatório ' || g, 'Editora ' || g % 500, 1 + g % 5, (1900 + g % 120)::TEXT, 1000 + g % 9000
+            FROM generate_series((SELECT COUNT(*) FROM livro) + 1, ?) AS g
+            ON CONFLICT ((LOWER(titulo))) DO NOTHING
+            """;
+
+    private static final String SEED_ASSOCIACOES = """
+            WITH autores AS (SELECT array_agg(codau ORDER BY codau) AS codigos FROM autor)
+            INSERT INTO livro_autor (livro_codl, autor_codau)
+            SELECT l.codl, a.codigos[1 + l.codl % array_length(a.codigos, 1)]
+            FROM livro l, autores a
+            WHERE NOT EXISTS (SELECT 1 FROM livro_autor la WHERE la.livro_codl = l.codl)
+            ON CONFLICT DO NOTHING
+            """;
+
+    @Param({"20000"})
+    private int autores;
+
+    @Param({"1", "2", "4", "8"})
+    private int paralelismo;
+
+    private ConfigurableApplicationContext context;
+    private RelatorioSecoesService relatorioSecoesService;
+    private RelatorioService relatorioService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=dev",
+                        "--POSTGRES_HOST=" + System.getProperty("relatorio.host", "localhost"),
+                        "--POSTGRES_PORT=" + System.getProperty("relatorio.port", "5432"),
+                        "--POSTGRES_DB=" + System.getProperty("relatorio.db", "biblioteca_benchmark"),
+                        "--POSTGRES_USER=" + System.getProperty("relatorio.username", "postgres"),
+                        "--POSTGRES_PASSWORD=" + System.getProperty("relatorio.password", "postgres"),
+                        "--FRONTEND_URL=http://localhost",
+                        "--app.relatorio.registry.recarregar=false",
+                        "--app.relatorio.secoes.paralelismo=" + paralelismo,
+                        "--app.relatorio.secoes.linhas-minimas=1000",
+                        "--app.relatorio.datasource.hikari.maximum-pool-size=" + paralelismo,
+                        "--app.relatorio.bulkhead.preenchimentos-simultaneos=" + paralelismo,
+                        "--logging.level.root=WARN");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(SEED_AUTORES, autores);
+        jdbcTemplate.update(SEED_LIVROS, autores * 3);
+        jdbcTemplate.update(SEED_ASSOCIACOES);
+
+        relatorioSecoesService = context.getBean(RelatorioSecoesService.class);
+        relatorioService = context.getBean(RelatorioService.class);
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int preencher() throws Exception {
+        try (RelatorioImpressao impressao = relatorioSecoesService.preencher(Tipo.AUTORES, Map.of())) {
+            return impressao.getJasperPrint().getPages().size();
+        }
+    }
+
+    // A exportação do relatório concatenado é sequencial; mostra quanto do ganho chega ao download
+    @Benchmark
+    public int preencherEExportarPdf() throws Exception {
+        try (RelatorioImpressao impressao = relatorioSecoesService.preencher(Tipo.AUTORES, Map.of())) {
+            relatorioService.exportar(impressao.getJasperPrint(), Formato.PDF, OutputStream.nullOutputStream());
+            return impressao.getJasperPrint().getPages().size();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Locale;
+
+// Equivalente no H2 dos triggers trg_contagem_* do PostgreSQL, registrado em schema-h2.sql
+public class ContagemH2Trigger implements Trigger {
+
+    private String tabela;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+        this.tabela = tableName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("UPDATE contagem SET total = total + ? WHERE tabela = ?")) {
+            statement.setLong(1, newRow != null ? 1 : -1);
+            statement.setString(2, tabela);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package biblioteca.dev.luanluz.api.config;
+
+import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
+import biblioteca.dev.luanluz.api.dto.response.AutorResponseDTO;
+import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.service.AutorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;INIT=CREATE TABLE IF NOT EXISTS atraso_replica (segundos INT)",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=password",
+        "app.datasource.replica.lag.query=SELECT COALESCE(MAX(segundos), 0) FROM atraso_replica",
+        "app.datasource.replica.lag.max=5s",
+        "app.datasource.replica.lag.check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS autor (codau INT PRIMARY KEY, nome VARCHAR(40) NOT NULL)");
+        replicaJdbcTemplate.update("DELETE FROM atraso_replica");
+        replicaLagMonitor.check();
+        autorRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaJdbcTemplate.update("DELETE FROM atraso_replica");
+        replicaLagMonitor.check();
+        autorRepository.deleteAll();
+    }
+
+    @Test
+    void deveRotearTransacoesSomenteLeituraParaReplica() {
+        assertEquals("REPLICADB", bancoAtual(true));
+        assertEquals("TESTDB", bancoAtual(false));
+    }
+
+    @Test
+    void deveUsarPrimarioQuandoAtrasoDaReplicaExcedeLimite() {
+        replicaJdbcTemplate.update("INSERT INTO atraso_replica (segundos) VALUES (120)");
+
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isAvailable());
+        assertEquals("TESTDB", bancoAtual(true));
+        assertEquals(120.0, meterRegistry.get("biblioteca.datasource.replica.lag").gauge().value());
+        assertEquals(0.0, meterRegistry.get("biblioteca.datasource.replica.available").gauge().value());
+    }
+
+    @Test
+    void deveRetomarReplicaQuandoAtrasoVoltaAoLimite() {
+        replicaJdbcTemplate.update("INSERT INTO atraso_replica (segundos) VALUES (120)");
+        replicaLagMonitor.check();
+
+        replicaJdbcTemplate.update("UPDATE atraso_replica SET segundos = 1");
+        replicaLagMonitor.check();
+
+        assertTrue(replicaLagMonitor.isAvailable());
+        assertEquals("REPLICADB", bancoAtual(true));
+    }
+
+    @Test
+    void deveLerDaReplicaNasConsultasDoServico() {
+        AutorRequestDTO dto = new AutorRequestDTO();
+        dto.setNome("Machado de Assis");
+        AutorResponseDTO criado = autorService.create(dto);
+
+        // A réplica de teste não recebe a escrita feita no primário
+        assertThrows(ResourceNotFoundException.class, () -> autorService.findById(criado.getCodigo()));
+
+        replicaJdbcTemplate.update("INSERT INTO atraso_replica (segundos) VALUES (120)");
+        replicaLagMonitor.check();
+
+        assertEquals("Machado de Assis", autorService.findById(criado.getCodigo()).getNome());
+    }
+
+    @Test
+    void devePublicarMetricasPorPool() {
+        assertEquals(1, meterRegistry.find("hikaricp.connections.max").tag("pool", "primary").gauges().size());
+        assertEquals(1, meterRegistry.find("hikaricp.connections.max").tag("pool", "replica").gauges().size());
+    }
+
+    private String bancoAtual(boolean somenteLeitura) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(somenteLeitura);
+        return transactionTemplate.execute(status ->
+                entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult().toString());
+    }
+}
@@ -0,0 +1,13 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.testcontainers.DockerClientFactory;
+
+public final class PostgresDisponivel {
+
+    private PostgresDisponivel() {
+    }
+
+    public static boolean disponivel() {
+        return System.getenv("POSTGRES_TESTE_URL") != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+}
@@ -0,0 +1,22 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * Teste de integração contra o PostgreSQL com o esquema das migrações do Flyway. Sem POSTGRES_TESTE_URL e sem Docker
+ * para o Testcontainers, a classe é ignorada.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ActiveProfiles({"test", "postgres"})
+@EnabledIf("biblioteca.dev.luanluz.api.config.PostgresDisponivel#disponivel")
+public @interface PostgresIntegrationTest {
+}
@@ -0,0 +1,23 @@
+package biblioteca.dev.luanluz.api.config;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/*
+ * Equivalente no H2 dos triggers trg_versao_dados_* do PostgreSQL, registrado em schema-h2.sql. O H2 reaproveita os
+ * identificadores de transação, então cada instrução registra uma linha própria; a versão continua mudando só no
+ * commit.
+ */
+public class VersaoDadosH2Trigger implements Trigger {
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(
+                "INSERT INTO versao_dados_transacao (xid) VALUES (NEXT VALUE FOR seq_versao_dados_transacao)")) {
+            statement.executeUpdate();
+        }
+    }
+}
@@ -299,4 +299,44 @@ class AssuntoControllerIntegrationTest {
                 .andExpect(jsonPath("$.codigo").isNumber())
                 .andExpect(jsonPath("$.descricao").isString());
     }
+
+    @Test
+    @Order(20)
+    void deveBuscarAssuntosComDescricaoSemelhante() throws Exception {
+        assuntoRepository.save(Assunto.builder().descricao("Ficção Científica BR").build());
+        assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+
+        mockMvc.perform(get("/assunto/similar")
+                        .param("descricao", "Ficção Cientifica")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].codigo", is(assunto1.getCodigo())))
+                .andExpect(jsonPath("$[0].descricao", is("Ficção Científica")))
+                .andExpect(jsonPath("$[0].similaridade", notNullValue()))
+                .andExpect(jsonPath("$[1].descricao", is("Ficção Científica BR")));
+
+        mockMvc.perform(get("/assunto/similar")
+                        .param("descricao", "Ficção Cientifica")
+                        .param("limite", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @Order(21)
+    void deveRetornar400QuandoBuscaDeSemelhantesInvalida() throws Exception {
+        mockMvc.perform(get("/assunto/similar")
+                        .param("descricao", "  ")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("A descrição para a busca de assuntos semelhantes é obrigatória")));
+
+        mockMvc.perform(get("/assunto/similar")
+                        .param("descricao", "Ficção")
+                        .param("limite", "0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
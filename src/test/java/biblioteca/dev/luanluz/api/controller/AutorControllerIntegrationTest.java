@@ -3,7 +3,10 @@ package biblioteca.dev.luanluz.api.controller;
 import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
 import biblioteca.dev.luanluz.api.model.Autor;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.ContagemRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -15,12 +18,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -45,6 +53,12 @@ class AutorControllerIntegrationTest {
     @Autowired
     private AutorRepository autorRepository;
 
+    @Autowired
+    private ContagemRepository contagemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Autor autor1;
 
     @BeforeEach
@@ -299,4 +313,200 @@ class AutorControllerIntegrationTest {
                 .andExpect(jsonPath("$.codigo").isNumber())
                 .andExpect(jsonPath("$.nome").isString());
     }
+
+    @Test
+    @Order(20)
+    void deveListarAutoresPorCursorPercorrendoTodasAsPaginas() throws Exception {
+        for (String nome : List.of("Clarice Lispector", "Jorge Amado", "Cecília Meireles", "Rachel de Queiroz")) {
+            Autor autor = new Autor();
+            autor.setNome(nome);
+            autorRepository.save(autor);
+        }
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/autor/cursor")
+                        .param("size", "2")
+                        .param("sort", "nome,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].nome", is("Cecília Meireles")))
+                .andExpect(jsonPath("$.content[1].nome", is("Clarice Lispector")))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+
+        String next = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.next");
+
+        MvcResult segundaPagina = mockMvc.perform(get("/autor/cursor")
+                        .param("size", "2")
+                        .param("sort", "nome,asc")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].nome", is("Jorge Amado")))
+                .andExpect(jsonPath("$.content[1].nome", is("Machado de Assis")))
+                .andReturn();
+
+        next = JsonPath.read(segundaPagina.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/autor/cursor")
+                        .param("size", "2")
+                        .param("sort", "nome,asc")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].nome", is("Rachel de Queiroz")))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @Order(21)
+    void deveRetornar400QuandoOrdenacaoPorCursorNaoForIndexada() throws Exception {
+        mockMvc.perform(get("/autor/cursor")
+                        .param("sort", "livros,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    @Test
+    @Order(22)
+    void deveRetornar400QuandoCursorInvalido() throws Exception {
+        mockMvc.perform(get("/autor/cursor")
+                        .param("cursor", "invalido")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    @Test
+    @Order(23)
+    void deveManterContagemDeAutoresPorTrigger() {
+        autorRepository.flush();
+        long total = autorRepository.count();
+        assertEquals(Optional.of(total), contagemRepository.findTotalByTabela("autor"));
+
+        Autor autor2 = autorRepository.saveAndFlush(Autor.builder().nome("Clarice Lispector").build());
+        autorRepository.saveAndFlush(Autor.builder().nome("Jorge Amado").build());
+        assertEquals(Optional.of(total + 2), contagemRepository.findTotalByTabela("autor"));
+
+        autorRepository.delete(autor2);
+        autorRepository.flush();
+        assertEquals(Optional.of(total + 1), contagemRepository.findTotalByTabela("autor"));
+    }
+
+    @Test
+    @Order(24)
+    void deveUsarContagemNoTotalDaListagemPaginada() throws Exception {
+        entityManager.createNativeQuery("UPDATE contagem SET total = 42 WHERE tabela = 'autor'").executeUpdate();
+
+        mockMvc.perform(get("/autor")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.page.totalElements", is(42)))
+                .andExpect(jsonPath("$.page.totalPages", is(42)));
+    }
+
+    @Test
+    @Order(25)
+    void deveListarAutoresSemContagemTotal() throws Exception {
+        autorRepository.save(Autor.builder().nome("Clarice Lispector").build());
+
+        mockMvc.perform(get("/autor/slice")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].nome", is("Clarice Lispector")))
+                .andExpect(jsonPath("$.page.size", is(1)))
+                .andExpect(jsonPath("$.page.number", is(0)))
+                .andExpect(jsonPath("$.page.hasNext", is(true)))
+                .andExpect(jsonPath("$.page.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/autor/slice")
+                        .param("page", "1")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nome", is("Machado de Assis")))
+                .andExpect(jsonPath("$.page.hasNext", is(false)));
+    }
+
+    @Test
+    @Order(26)
+    void deveBuscarAutoresComNomeSemelhante() throws Exception {
+        autorRepository.save(Autor.builder().nome("Machado Assis Filho").build());
+        autorRepository.save(Autor.builder().nome("Clarice Lispector").build());
+
+        mockMvc.perform(get("/autor/similar")
+                        .param("nome", "Machado de Asis")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].codigo", is(autor1.getCodigo())))
+                .andExpect(jsonPath("$[0].nome", is("Machado de Assis")))
+                .andExpect(jsonPath("$[0].similaridade", notNullValue()))
+                .andExpect(jsonPath("$[1].nome", is("Machado Assis Filho")));
+
+        mockMvc.perform(get("/autor/similar")
+                        .param("nome", "Machado de Asis")
+                        .param("limite", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @Order(27)
+    void deveRetornar400QuandoBuscaDeSemelhantesInvalida() throws Exception {
+        mockMvc.perform(get("/autor/similar")
+                        .param("nome", "  ")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("O nome para a busca de autores semelhantes é obrigatório")));
+
+        mockMvc.perform(get("/autor/similar")
+                        .param("nome", "Machado")
+                        .param("limite", "0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(28)
+    void deveRetornar409ComCandidatosQuandoExistirAutorSemelhante() throws Exception {
+        AutorRequestDTO requestDTO = new AutorRequestDTO();
+        requestDTO.setNome("Machado  Assis");
+
+        mockMvc.perform(post("/autor")
+                        .param("verificarSimilares", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail", is("Autor com nome semelhante a 'Machado Assis' já existe")))
+                .andExpect(jsonPath("$.candidates", hasSize(1)))
+                .andExpect(jsonPath("$.candidates[0].codigo", is(autor1.getCodigo())))
+                .andExpect(jsonPath("$.candidates[0].nome", is("Machado de Assis")));
+
+        assertEquals(1, autorRepository.count());
+    }
+
+    @Test
+    @Order(29)
+    void deveCriarAutorQuandoNaoExistirSemelhanteENormalizarEspacos() throws Exception {
+        AutorRequestDTO requestDTO = new AutorRequestDTO();
+        requestDTO.setNome("  Clarice   Lispector ");
+
+        mockMvc.perform(post("/autor")
+                        .param("verificarSimilares", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nome", is("Clarice Lispector")));
+    }
 }
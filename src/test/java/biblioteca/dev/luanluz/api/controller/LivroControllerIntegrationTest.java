@@ -8,6 +8,11 @@ import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
 import biblioteca.dev.luanluz.api.repository.LivroRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -19,6 +24,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
@@ -27,6 +33,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -57,6 +64,12 @@ class LivroControllerIntegrationTest {
     @Autowired
     private AssuntoRepository assuntoRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Livro livro1;
     private Autor autor1;
     private Autor autor2;
@@ -94,6 +107,8 @@ class LivroControllerIntegrationTest {
         livro1.setAutores(Set.of(autor1));
         livro1.setAssuntos(Set.of(assunto1));
         livro1 = livroRepository.save(livro1);
+
+        entityManager.flush();
     }
 
     @Test
@@ -593,6 +608,43 @@ class LivroControllerIntegrationTest {
 
     @Test
     @Order(28)
+    void deveCarregarApenasOsLivrosDaPaginaIndependenteDoTamanhoDoAcervo() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            Livro livro = new Livro();
+            livro.setTitulo(String.format("Livro %02d", i));
+            livro.setEditora("Editora Nacional");
+            livro.setEdicao(1);
+            livro.setAnoPublicacao("2000");
+            livro.setValorEmCentavos(1000);
+            livro.setAutores(Set.of(autor1, autor2));
+            livro.setAssuntos(Set.of(assunto1, assunto2));
+            livroRepository.save(livro);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/livro")
+                        .param("page", "1")
+                        .param("size", "5")
+                        .param("sort", "titulo,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Livro 04")))
+                .andExpect(jsonPath("$.content[0].autores", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].assuntos", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements", is(31)));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(5, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    @Order(29)
     void deveCriarLivroComMultiplosAutoresEAssuntos() throws Exception {
         LivroRequestDTO requestDTO = LivroRequestDTO.builder()
                 .titulo("Livro Colaborativo")
@@ -610,4 +662,244 @@ class LivroControllerIntegrationTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.titulo", is("Livro Colaborativo")));
     }
+
+    @Test
+    @Order(30)
+    void deveListarLivrosPorCursorEmOrdemDecrescente() throws Exception {
+        Livro livro2 = new Livro();
+        livro2.setTitulo("Capitães da Areia");
+        livro2.setEditora("Companhia das Letras");
+        livro2.setEdicao(1);
+        livro2.setAnoPublicacao("1937");
+        livro2.setValorEmCentavos(4500);
+        livro2.setAutores(Set.of(autor2));
+        livro2.setAssuntos(Set.of(assunto2));
+        livroRepository.save(livro2);
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/livro/cursor")
+                        .param("size", "1")
+                        .param("sort", "titulo,desc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Dom Casmurro")))
+                .andExpect(jsonPath("$.content[0].autores", hasSize(1)))
+                .andExpect(jsonPath("$.size", is(1)))
+                .andReturn();
+
+        String next = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/livro/cursor")
+                        .param("size", "1")
+                        .param("sort", "titulo,desc")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Capitães da Areia")))
+                .andExpect(jsonPath("$.content[0].assuntos", hasSize(1)))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @Order(31)
+    void deveRetornar400QuandoCursorNaoCorrespondeAOrdenacao() throws Exception {
+        Livro livro2 = new Livro();
+        livro2.setTitulo("Capitães da Areia");
+        livro2.setEditora("Companhia das Letras");
+        livro2.setEdicao(1);
+        livro2.setAnoPublicacao("1937");
+        livro2.setValorEmCentavos(4500);
+        livroRepository.save(livro2);
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/livro/cursor")
+                        .param("size", "1")
+                        .param("sort", "titulo,asc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String next = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/livro/cursor")
+                        .param("size", "1")
+                        .param("sort", "codigo,asc")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(32)
+    void deveBuscarLivrosPorTextoComPaginacaoPorCursor() throws Exception {
+        Livro livro2 = new Livro();
+        livro2.setTitulo("Capitães da Areia");
+        livro2.setEditora("Companhia das Letras");
+        livro2.setEdicao(1);
+        livro2.setAnoPublicacao("1937");
+        livro2.setValorEmCentavos(4500);
+        livro2.setAutores(Set.of(autor2));
+        livro2.setAssuntos(Set.of(assunto2));
+        livro2 = livroRepository.save(livro2);
+
+        Livro livro3 = new Livro();
+        livro3.setTitulo("Gabriela");
+        livro3.setEditora("Record");
+        livro3.setEdicao(1);
+        livro3.setAnoPublicacao("1958");
+        livro3.setValorEmCentavos(4000);
+        livro3.setAutores(Set.of(autor2));
+        livro3.setAssuntos(Set.of(assunto2));
+        livro3 = livroRepository.save(livro3);
+        entityManager.flush();
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/livro/search")
+                        .param("q", "romance")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].codigo", is(livro2.getCodigo())))
+                .andExpect(jsonPath("$.content[0].autores[0].nome", is("Jorge Amado")))
+                .andExpect(jsonPath("$.next", notNullValue()))
+                .andReturn();
+
+        String next = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/livro/search")
+                        .param("q", "romance")
+                        .param("size", "1")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].codigo", is(livro3.getCodigo())))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/livro/search")
+                        .param("q", "Machado")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Dom Casmurro")));
+    }
+
+    @Test
+    @Order(33)
+    void deveRetornar400QuandoTermoDeBuscaAusenteOuCursorDeOutraPaginacao() throws Exception {
+        mockMvc.perform(get("/livro/search")
+                        .param("q", " ")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("O termo de busca é obrigatório")));
+
+        Livro livro2 = new Livro();
+        livro2.setTitulo("Capitães da Areia");
+        livro2.setEditora("Companhia das Letras");
+        livro2.setEdicao(1);
+        livro2.setAnoPublicacao("1937");
+        livro2.setValorEmCentavos(4500);
+        livroRepository.save(livro2);
+
+        MvcResult primeiraPagina = mockMvc.perform(get("/livro/cursor")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String next = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.next");
+
+        mockMvc.perform(get("/livro/search")
+                        .param("q", "areia")
+                        .param("cursor", next)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(34)
+    void deveFiltrarLivrosPorCriteriosCombinados() throws Exception {
+        Livro livro2 = new Livro();
+        livro2.setTitulo("Capitães da Areia");
+        livro2.setEditora("Companhia das Letras");
+        livro2.setEdicao(1);
+        livro2.setAnoPublicacao("1937");
+        livro2.setValorEmCentavos(4500);
+        livro2.setAutores(Set.of(autor1, autor2));
+        livro2.setAssuntos(Set.of(assunto1, assunto2));
+        livroRepository.save(livro2);
+
+        Livro livro3 = new Livro();
+        livro3.setTitulo("Quincas Borba");
+        livro3.setEditora("Editora Nacional");
+        livro3.setEdicao(2);
+        livro3.setAnoPublicacao("1891");
+        livro3.setValorEmCentavos(3000);
+        livro3.setAutores(Set.of(autor1));
+        livro3.setAssuntos(Set.of(assunto2));
+        livroRepository.save(livro3);
+        entityManager.flush();
+
+        mockMvc.perform(get("/livro")
+                        .param("editora", "Editora Nacional")
+                        .param("anoPublicacaoMinimo", "1890")
+                        .param("anoPublicacaoMaximo", "1900")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Dom Casmurro")))
+                .andExpect(jsonPath("$.content[1].titulo", is("Quincas Borba")))
+                .andExpect(jsonPath("$.page.totalElements", is(2)));
+
+        mockMvc.perform(get("/livro")
+                        .param("valorEmCentavosMinimo", "4000")
+                        .param("assuntosCodigos", assunto1.getCodigo() + "," + assunto2.getCodigo())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Capitães da Areia")))
+                .andExpect(jsonPath("$.content[0].assuntos", hasSize(2)))
+                .andExpect(jsonPath("$.content[1].titulo", is("Dom Casmurro")));
+
+        mockMvc.perform(get("/livro")
+                        .param("autoresCodigos", String.valueOf(autor2.getCodigo()))
+                        .param("valorEmCentavosMaximo", "4500")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].titulo", is("Capitães da Areia")))
+                .andExpect(jsonPath("$.content[0].autores", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements", is(1)));
+
+        mockMvc.perform(get("/livro")
+                        .param("editora", "Record")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)))
+                .andExpect(jsonPath("$.page.totalElements", is(0)));
+    }
+
+    @Test
+    @Order(35)
+    void deveRetornar400QuandoIntervaloDoFiltroInvalido() throws Exception {
+        mockMvc.perform(get("/livro")
+                        .param("anoPublicacaoMinimo", "1950")
+                        .param("anoPublicacaoMaximo", "1900")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("O filtro de ano de publicação tem mínimo maior que o máximo")));
+
+        mockMvc.perform(get("/livro")
+                        .param("valorEmCentavosMinimo", "-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("O filtro de valor em centavos não aceita valores negativos")));
+
+        mockMvc.perform(get("/livro")
+                        .param("anoPublicacaoMaximo", "10000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("O filtro de ano de publicação não aceita valores acima de 9999")));
+    }
 }
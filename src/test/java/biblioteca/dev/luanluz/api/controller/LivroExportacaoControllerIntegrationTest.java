@@ -0,0 +1,180 @@
+package biblioteca.dev.luanluz.api.controller;
+
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sem @Transactional: a exportação abre a própria transação em outra thread e precisa ver os dados gravados
+@SpringBootTest(properties = "app.livro.exportacao.fetch-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LivroExportacaoControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    private Autor autor1;
+    private Autor autor2;
+    private Assunto assunto1;
+    private Assunto assunto2;
+    private Livro livro1;
+    private Livro livro2;
+    private Livro livro3;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> criarAcervo());
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveExportarTodosOsLivrosEmNdjson() throws Exception {
+        MvcResult result = exportar(get("/livro/export"));
+
+        List<String> linhas = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, linhas.size());
+
+        JsonNode primeiro = objectMapper.readTree(linhas.get(0));
+        assertEquals(livro1.getCodigo(), primeiro.get("codigo").asInt());
+        assertEquals("Dom Casmurro", primeiro.get("titulo").asText());
+        assertEquals("Jorge Amado", primeiro.get("autores").get(0).get("nome").asText());
+        assertEquals("Machado de Assis", primeiro.get("autores").get(1).get("nome").asText());
+        assertEquals(1, primeiro.get("assuntos").size());
+
+        JsonNode segundo = objectMapper.readTree(linhas.get(1));
+        assertEquals(1, segundo.get("autores").size());
+        assertEquals(2, segundo.get("assuntos").size());
+
+        assertEquals(livro3.getCodigo(), objectMapper.readTree(linhas.get(2)).get("codigo").asInt());
+    }
+
+    @Test
+    void deveExportarTodosOsLivrosEmCsv() throws Exception {
+        MvcResult result = exportar(get("/livro/export").param("formato", "csv"));
+
+        List<String> linhas = result.getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+
+        assertEquals(List.of(
+                "codigo,titulo,editora,edicao,anoPublicacao,valorEmCentavos,autoresCodigos,assuntosCodigos",
+                livro1.getCodigo() + ",\"Dom Casmurro\",Editora,1,1900,3990," + autor2.getCodigo() + ";" + autor1.getCodigo()
+                        + "," + assunto1.getCodigo(),
+                livro2.getCodigo() + ",\"Capitães da Areia\",Editora,1,1900,3990," + autor2.getCodigo()
+                        + "," + assunto2.getCodigo() + ";" + assunto1.getCodigo(),
+                livro3.getCodigo() + ",\"Quincas Borba\",Editora,1,1900,3990," + autor1.getCodigo()
+                        + "," + assunto2.getCodigo()
+        ), linhas);
+    }
+
+    @Test
+    void deveCompactarComGzipQuandoSolicitado() throws Exception {
+        MvcResult result = exportar(get("/livro/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        assertEquals("gzip", result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertEquals(3, new String(gzip.readAllBytes(), StandardCharsets.UTF_8).lines().count());
+        }
+    }
+
+    @Test
+    void deveRetornar400QuandoFormatoNaoSuportado() throws Exception {
+        mockMvc.perform(get("/livro/export").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult exportar(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("livros.")))
+                .andReturn();
+    }
+
+    private void criarAcervo() {
+        autor1 = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        autor2 = autorRepository.save(Autor.builder().nome("Jorge Amado").build());
+        assunto1 = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+        assunto2 = assuntoRepository.save(Assunto.builder().descricao("Ficção").build());
+
+        livro1 = livroRepository.save(livro("Dom Casmurro", Set.of(autor1, autor2), Set.of(assunto1)));
+        livro2 = livroRepository.save(livro("Capitães da Areia", Set.of(autor2), Set.of(assunto1, assunto2)));
+        livro3 = livroRepository.save(livro("Quincas Borba", Set.of(autor1), Set.of(assunto2)));
+    }
+
+    private Livro livro(String titulo, Set<Autor> autores, Set<Assunto> assuntos) {
+        return Livro.builder()
+                .titulo(titulo)
+                .editora("Editora")
+                .edicao(1)
+                .anoPublicacao("1900")
+                .valorEmCentavos(3990)
+                .autores(autores)
+                .assuntos(assuntos)
+                .build();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
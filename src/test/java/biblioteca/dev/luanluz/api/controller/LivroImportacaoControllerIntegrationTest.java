@@ -0,0 +1,249 @@
+package biblioteca.dev.luanluz.api.controller;
+
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.livro.importacao.maximo-erros=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class LivroImportacaoControllerIntegrationTest {
+
+    private static final String CSV_HEADER =
+            "titulo,editora,edicao,anoPublicacao,valorEmCentavos,autoresCodigos,assuntosCodigos\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Autor autor1;
+    private Autor autor2;
+    private Assunto assunto1;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+
+        autor1 = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        autor2 = autorRepository.save(Autor.builder().nome("Jorge Amado").build());
+        assunto1 = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+
+        livroRepository.save(Livro.builder()
+                .titulo("Dom Casmurro")
+                .editora("Editora Nacional")
+                .edicao(1)
+                .anoPublicacao("1899")
+                .valorEmCentavos(5000)
+                .autores(Set.of(autor1))
+                .assuntos(Set.of(assunto1))
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void deveImportarLivrosDeCsv() throws Exception {
+        String csv = CSV_HEADER
+                + "Memórias Póstumas,Editora Nacional,1,1881,4500," + autor1.getCodigo() + ";" + autor2.getCodigo()
+                + "," + assunto1.getCodigo() + "\n"
+                + "\"Capitães da Areia, 2ª ed.\",Record,2,1937,3900," + autor2.getCodigo() + "," + assunto1.getCodigo() + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concluida", is(true)))
+                .andExpect(jsonPath("$.linhasProcessadas", is(2)))
+                .andExpect(jsonPath("$.linhasImportadas", is(2)))
+                .andExpect(jsonPath("$.linhasRejeitadas", is(0)))
+                .andExpect(jsonPath("$.proximoLote", nullValue()));
+
+        entityManager.clear();
+        Livro memorias = livroRepository.findAll().stream()
+                .filter(livro -> livro.getTitulo().equals("Memórias Póstumas"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(3, livroRepository.count());
+        assertEquals(2, livroRepository.findByIdWithRelations(memorias.getCodigo()).orElseThrow().getAutores().size());
+        assertTrue(livroRepository.findAll().stream()
+                .anyMatch(livro -> livro.getTitulo().equals("Capitães da Areia, 2ª ed.")));
+    }
+
+    @Test
+    void deveImportarCamposCsvComQuebraDeLinhaEntreAspas() throws Exception {
+        String csv = CSV_HEADER
+                + "\"Memórias Póstumas\",\"Editora\nNacional\",1,1881,4500," + autor1.getCodigo() + ","
+                + assunto1.getCodigo() + "\n"
+                + "Iracema,Record,1,1865,3900," + autor1.getCodigo() + "," + assunto1.getCodigo() + ",extra\n"
+                + "\n"
+                + "O Guarani,Record,0,1857,3900," + autor1.getCodigo() + "," + assunto1.getCodigo() + "\n"
+                + "Senhora,Record,1,1875,3900," + autor2.getCodigo() + "," + assunto1.getCodigo() + "\n"
+                + "\"Lucíola,Record,1,1862,3900," + autor2.getCodigo() + "," + assunto1.getCodigo() + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concluida", is(true)))
+                .andExpect(jsonPath("$.linhasProcessadas", is(5)))
+                .andExpect(jsonPath("$.linhasImportadas", is(2)))
+                .andExpect(jsonPath("$.linhasRejeitadas", is(3)))
+                .andExpect(jsonPath("$.erros[0].linha", is(4)))
+                .andExpect(jsonPath("$.erros[0].mensagens[0]", containsString("Linha malformada")))
+                .andExpect(jsonPath("$.erros[1].linha", is(6)))
+                .andExpect(jsonPath("$.errosOmitidos", is(1)));
+
+        entityManager.clear();
+        assertTrue(livroRepository.findAll().stream()
+                .anyMatch(livro -> livro.getEditora().equals("Editora\nNacional")));
+    }
+
+    @Test
+    void deveImportarLivrosDeNdjson() throws Exception {
+        String ndjson = livroJson("Iracema", autor1.getCodigo()) + "\n"
+                + "\n"
+                + livroJson("O Guarani", autor2.getCodigo()) + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concluida", is(true)))
+                .andExpect(jsonPath("$.linhasImportadas", is(2)))
+                .andExpect(jsonPath("$.erros", hasSize(0)));
+
+        assertEquals(3, livroRepository.count());
+    }
+
+    @Test
+    void deveRelatarErrosPorLinhaSemInterromperImportacao() throws Exception {
+        String ndjson = livroJson("Iracema", autor1.getCodigo()) + "\n"
+                + livroJson("dom casmurro", autor1.getCodigo()) + "\n"
+                + livroJson("Senhora", 999999) + "\n"
+                + "{\"titulo\": \n"
+                + livroJson("Lucíola", autor2.getCodigo()) + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .param("tamanhoLote", "2")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.concluida", is(true)))
+                .andExpect(jsonPath("$.linhasProcessadas", is(5)))
+                .andExpect(jsonPath("$.linhasImportadas", is(2)))
+                .andExpect(jsonPath("$.linhasRejeitadas", is(3)))
+                .andExpect(jsonPath("$.erros", hasSize(2)))
+                .andExpect(jsonPath("$.erros[0].linha", is(2)))
+                .andExpect(jsonPath("$.erros[0].lote", is(0)))
+                .andExpect(jsonPath("$.erros[0].mensagens[0]", containsString("título: 'dom casmurro'")))
+                .andExpect(jsonPath("$.erros[1].linha", is(3)))
+                .andExpect(jsonPath("$.erros[1].lote", is(1)))
+                .andExpect(jsonPath("$.erros[1].mensagens[0]", is("Autor com código 999999 não encontrado")))
+                .andExpect(jsonPath("$.errosOmitidos", is(1)));
+
+        assertEquals(3, livroRepository.count());
+    }
+
+    @Test
+    void deveRejeitarLinhasComCamposInvalidosETitulosRepetidosNoLote() throws Exception {
+        String csv = CSV_HEADER
+                + ",Record,0,1937,3900," + autor1.getCodigo() + "," + assunto1.getCodigo() + "\n"
+                + "Iracema,Record,1,1865,3900," + autor1.getCodigo() + "," + assunto1.getCodigo() + "\n"
+                + "IRACEMA,Record,1,1865,3900," + autor1.getCodigo() + "," + assunto1.getCodigo() + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linhasImportadas", is(1)))
+                .andExpect(jsonPath("$.erros[0].linha", is(2)))
+                .andExpect(jsonPath("$.erros[0].mensagens", hasSize(2)))
+                .andExpect(jsonPath("$.erros[1].linha", is(4)))
+                .andExpect(jsonPath("$.erros[1].mensagens[0]", is("Título 'IRACEMA' repetido no mesmo lote")));
+    }
+
+    @Test
+    void deveRetomarImportacaoAPartirDoLoteInicial() throws Exception {
+        String ndjson = livroJson("Iracema", autor1.getCodigo()) + "\n"
+                + livroJson("O Guarani", autor1.getCodigo()) + "\n"
+                + livroJson("Senhora", autor1.getCodigo()) + "\n";
+
+        mockMvc.perform(post("/livro/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .param("tamanhoLote", "2")
+                        .param("loteInicial", "1")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loteInicial", is(1)))
+                .andExpect(jsonPath("$.linhasProcessadas", is(1)))
+                .andExpect(jsonPath("$.linhasImportadas", is(1)));
+
+        entityManager.clear();
+        assertEquals(Set.of("Dom Casmurro", "Senhora"), Set.copyOf(livroRepository.findAll().stream()
+                .map(Livro::getTitulo)
+                .toList()));
+    }
+
+    @Test
+    void deveRetornar400QuandoCabecalhoCsvInvalido() throws Exception {
+        mockMvc.perform(post("/livro/import")
+                        .contentType("text/csv")
+                        .content("titulo,isbn\nIracema,123\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", containsString("isbn")));
+    }
+
+    @Test
+    void deveRetornar400QuandoTamanhoLoteInvalido() throws Exception {
+        mockMvc.perform(post("/livro/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .param("tamanhoLote", "0")
+                        .content(livroJson("Iracema", autor1.getCodigo())))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String livroJson(String titulo, Integer autorCodigo) {
+        return "{\"titulo\":\"" + titulo + "\",\"editora\":\"Editora Nacional\",\"edicao\":1,"
+                + "\"anoPublicacao\":\"1865\",\"valorEmCentavos\":3990,"
+                + "\"autoresCodigos\":[" + autorCodigo + "],\"assuntosCodigos\":[" + assunto1.getCodigo() + "]}";
+    }
+}
@@ -0,0 +1,426 @@
+package biblioteca.dev.luanluz.api.controller;
+
+import biblioteca.dev.luanluz.api.config.RelatorioBulkheadProperties;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioBulkhead;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sem @Transactional: o relatório é preenchido por outra conexão e precisa ver os dados gravados
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RelatorioControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RelatorioBulkhead relatorioBulkhead;
+
+    @Autowired
+    private RelatorioBulkheadProperties relatorioBulkheadProperties;
+
+    private Autor autor1;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> criarAcervo());
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveReconstruirResumoDoRelatorioDeAutores() throws Exception {
+        mockMvc.perform(post("/relatorio/autor/reconstrucao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linhas", is(2)))
+                .andExpect(jsonPath("$.duracaoEmMilissegundos", notNullValue()));
+
+        Map<String, Object> resumo = jdbcTemplate.queryForMap(
+                "SELECT * FROM relatorio_autor WHERE codau = ?", autor1.getCodigo());
+
+        assertEquals(2L, ((Number) resumo.get("QUANTIDADE_LIVROS")).longValue());
+        assertEquals("Dom Casmurro; Quincas Borba", resumo.get("TITULOS"));
+        assertEquals("Ficção; Romance", resumo.get("ASSUNTOS"));
+        assertEquals("1891", resumo.get("ANO_PUBLICACAO_MAIS_ANTIGO"));
+    }
+
+    @Test
+    void deveGerarPdfAPartirDoResumo() throws Exception {
+        mockMvc.perform(post("/relatorio/autor/reconstrucao"))
+                .andExpect(status().isOk());
+
+        MvcResult result = baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+                .andReturn();
+
+        byte[] pdf = result.getResponse().getContentAsByteArray();
+        assertTrue(new String(pdf, 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF-"));
+    }
+
+    @Test
+    void deveServirRelatorioDoCacheEnquantoOsDadosNaoMudam() throws Exception {
+        mockMvc.perform(post("/relatorio/autor/reconstrucao"))
+                .andExpect(status().isOk());
+
+        double preenchimentos = contador("relatorio.preenchimentos");
+        double exportacoes = contador("relatorio.exportacoes");
+
+        String etag = baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/relatorio/autor/pdf").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        byte[] pdf = baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertTrue(new String(pdf, 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF-"));
+
+        baixar(get("/relatorio/autor/excel"))
+                .andExpect(status().isOk());
+
+        // O Excel é exportado do mesmo JasperPrint preenchido para o PDF
+        assertEquals(1, contador("relatorio.preenchimentos") - preenchimentos);
+        assertEquals(2, contador("relatorio.exportacoes") - exportacoes);
+
+        autorRepository.save(Autor.builder().nome("José de Alencar").build());
+
+        String novaEtag = baixar(get("/relatorio/autor/pdf").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, novaEtag);
+        assertEquals(2, contador("relatorio.preenchimentos") - preenchimentos);
+    }
+
+    @Test
+    void deveGerarRelatorioEmSegundoPlanoEDisponibilizarOArquivo() throws Exception {
+        mockMvc.perform(post("/relatorio/autor/reconstrucao"))
+                .andExpect(status().isOk());
+
+        MvcResult criado = mockMvc.perform(post("/relatorio/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tipo\": \"autores\", \"formato\": \"pdf\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("/relatorio/jobs/")))
+                .andExpect(jsonPath("$.tipo", is("AUTORES")))
+                .andExpect(jsonPath("$.formato", is("PDF")))
+                .andReturn();
+
+        String id = objectMapper.readTree(criado.getResponse().getContentAsString()).get("id").asText();
+        JsonNode job = aguardarFinalizacao(id);
+
+        assertEquals("CONCLUIDO", job.get("status").asText());
+        assertTrue(job.get("paginasGeradas").asInt() >= 1);
+
+        MvcResult result = mockMvc.perform(get("/relatorio/jobs/{id}/result", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("relatorio_autores.pdf")))
+                .andReturn();
+
+        byte[] pdf = result.getResponse().getContentAsByteArray();
+        assertTrue(new String(pdf, 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF-"));
+
+        mockMvc.perform(delete("/relatorio/jobs/{id}", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/relatorio/jobs/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deveRetornar429QuandoTodasAsVagasDePreenchimentoEstiveremOcupadasMasManterOsJobsNaEspera() throws Exception {
+        mockMvc.perform(post("/relatorio/autor/reconstrucao"))
+                .andExpect(status().isOk());
+
+        // Ocupa as vagas do bulkhead como se houvesse preenchimentos em andamento
+        for (int i = 0; i < relatorioBulkheadProperties.preenchimentosSimultaneos(); i++) {
+            relatorioBulkhead.adquirir();
+        }
+
+        String job;
+
+        try {
+            mockMvc.perform(get("/relatorio/autor/pdf"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(relatorioBulkheadProperties.retryAfter().toSeconds())));
+
+            // O job espera a vaga além da espera máxima das requisições, em vez de falhar com 429
+            MvcResult criado = mockMvc.perform(post("/relatorio/jobs")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"tipo\": \"autores\", \"formato\": \"pdf\"}"))
+                    .andExpect(status().isAccepted())
+                    .andReturn();
+            job = objectMapper.readTree(criado.getResponse().getContentAsString()).get("id").asText();
+
+            Thread.sleep(relatorioBulkheadProperties.esperaMaxima().multipliedBy(2).toMillis());
+            mockMvc.perform(get("/relatorio/jobs/{id}", job))
+                    .andExpect(jsonPath("$.status", is("EXECUTANDO")));
+        } finally {
+            for (int i = 0; i < relatorioBulkheadProperties.preenchimentosSimultaneos(); i++) {
+                relatorioBulkhead.liberar();
+            }
+        }
+
+        assertEquals("CONCLUIDO", aguardarFinalizacao(job).get("status").asText());
+
+        baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("relatorio.bulkhead.rejeicoes").counter().count() >= 1);
+        assertTrue(meterRegistry.get("relatorio.bulkhead.espera").timer().count() >= 1);
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.fila").gauge().value());
+        assertTrue(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "relatorio").timer().count() >= 1);
+    }
+
+    @Test
+    void deveGerarRelatorioFiltradoComVersaoPropriaPorFiltro() throws Exception {
+        MvcResult todos = baixar(get("/relatorio/{tipo}/{formato}", "livros", "pdf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("relatorio_livros.pdf")))
+                .andReturn();
+
+        MvcResult filtrado = baixar(get("/relatorio/{tipo}/{formato}", "livros", "pdf")
+                        .param("editora", "Garnier")
+                        .param("anoPublicacaoMinimo", "1895"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNotEquals(todos.getResponse().getHeader(HttpHeaders.ETAG),
+                filtrado.getResponse().getHeader(HttpHeaders.ETAG));
+
+        baixar(get("/relatorio/{tipo}/{formato}", "livros-por-autor", "excel")
+                        .param("autoresCodigos", String.valueOf(autor1.getCodigo())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        containsString("relatorio_livros_por_autor.xlsx")));
+    }
+
+    @Test
+    void deveExportarPeloMotorTabularSemCache() throws Exception {
+        MvcResult csv = baixar(get("/relatorio/{tipo}/{formato}", "livros", "csv")
+                        .param("engine", "tabular")
+                        .param("anoPublicacaoMinimo", "1895"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("relatorio_livros.csv")))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andReturn();
+
+        String[] linhas = csv.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+        assertTrue(linhas[1].contains(",Dom Casmurro,Garnier,1,1899,39.9"), linhas[1]);
+        assertTrue(linhas[1].contains(",Machado de Assis,"), linhas[1]);
+
+        MvcResult xlsx = baixar(get("/relatorio/autor/excel").param("engine", "tabular"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("relatorio_autores.xlsx")))
+                .andReturn();
+
+        byte[] planilha = xlsx.getResponse().getContentAsByteArray();
+        assertEquals("PK", new String(planilha, 0, 2, StandardCharsets.US_ASCII));
+
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "livros", "pdf").param("engine", "tabular"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "livros", "csv"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "livros", "excel").param("engine", "poi"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deveRetornar400QuandoFiltroOuTipoDoRelatorioForInvalido() throws Exception {
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "livros", "pdf")
+                        .param("anoPublicacaoMinimo", "1900")
+                        .param("anoPublicacaoMaximo", "1800"))
+                .andExpect(status().isBadRequest());
+
+        // O ano é comparado como texto de quatro dígitos; 10000 ficaria entre 1000 e 2000
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "livros", "pdf")
+                        .param("anoPublicacaoMaximo", "10000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", containsString("acima de 9999")));
+
+        mockMvc.perform(get("/relatorio/{tipo}/{formato}", "editoras", "pdf"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deveRetornar400QuandoTipoDeRelatorioNaoSuportado() throws Exception {
+        mockMvc.perform(post("/relatorio/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tipo\": \"editoras\", \"formato\": \"pdf\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/relatorio/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tipo\": \"autores\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deveExporOsRelatoriosCarregadosNoActuator() throws Exception {
+        mockMvc.perform(get("/actuator/relatorios"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nome", is("relatorio_autores")))
+                .andExpect(jsonPath("$[0].parametros", hasItem("REPORT_TITLE")))
+                .andExpect(jsonPath("$[0].duracaoEmMilissegundos", notNullValue()));
+
+        mockMvc.perform(get("/actuator/relatorios/{nome}", "relatorio_autores"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome", is("relatorio_autores")))
+                .andExpect(jsonPath("$.consulta").doesNotExist());
+
+        mockMvc.perform(get("/actuator/relatorios/{nome}", "inexistente"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deveRetornar404QuandoJobNaoExiste() throws Exception {
+        mockMvc.perform(get("/relatorio/jobs/{id}/result", "inexistente"))
+                .andExpect(status().isNotFound());
+    }
+
+    // Os relatórios são enviados em streaming, fora da thread da requisição
+    private ResultActions baixar(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private double contador(String nome) {
+        return meterRegistry.find(nome).tag("tipo", "AUTORES").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private JsonNode aguardarFinalizacao(String id) throws Exception {
+        long limite = System.nanoTime() + 30_000_000_000L;
+
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/relatorio/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            JsonNode job = objectMapper.readTree(result.getResponse().getContentAsString());
+            String situacao = job.get("status").asText();
+
+            if (!situacao.equals("PENDENTE") && !situacao.equals("EXECUTANDO") || System.nanoTime() > limite) {
+                return job;
+            }
+
+            Thread.sleep(50);
+        }
+    }
+
+    private void criarAcervo() {
+        autor1 = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        autorRepository.save(Autor.builder().nome("Jorge Amado").build());
+        Assunto romance = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+        Assunto ficcao = assuntoRepository.save(Assunto.builder().descricao("Ficção").build());
+
+        livroRepository.save(livro("Dom Casmurro", "1899", 3990, Set.of(romance, ficcao)));
+        livroRepository.save(livro("Quincas Borba", "1891", 2500, Set.of(romance)));
+    }
+
+    private Livro livro(String titulo, String ano, int valor, Set<Assunto> assuntos) {
+        return Livro.builder()
+                .titulo(titulo)
+                .editora("Garnier")
+                .edicao(1)
+                .anoPublicacao(ano)
+                .valorEmCentavos(valor)
+                .autores(Set.of(autor1))
+                .assuntos(assuntos)
+                .build();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
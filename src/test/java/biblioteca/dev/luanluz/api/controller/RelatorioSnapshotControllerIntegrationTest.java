@@ -0,0 +1,206 @@
+package biblioteca.dev.luanluz.api.controller;
+
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import biblioteca.dev.luanluz.api.service.RelatorioSnapshotService;
+import biblioteca.dev.luanluz.api.service.RelatorioSnapshotService.Snapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Contexto próprio: os snapshots gerados aqui não podem ser servidos aos testes dos demais relatórios. Sobe o Tomcat
+ * numa porta livre para que o download por sendfile passe pelo conector de verdade.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.relatorio.snapshots.idade-maxima=1h",
+        "app.relatorio.snapshots.tipos=AUTORES",
+        "app.relatorio.snapshots.formatos=PDF,EXCEL"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RelatorioSnapshotControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RelatorioSnapshotService relatorioSnapshotService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @LocalServerPort
+    private int porta;
+
+    @Value("${app.relatorio.download.tempo-limite}")
+    private Duration tempoLimiteDownload;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveServirOSnapshotRecenteMesmoComDadosAlterados() throws Exception {
+        Snapshot snapshot = relatorioSnapshotService.gerar(Tipo.AUTORES, Formato.PDF);
+        double servidos = servidos();
+
+        autorRepository.save(Autor.builder().nome("Jorge Amado").build());
+        relatorioService.reconstruirRelatorioAutores();
+
+        MvcResult result = baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RelatorioSnapshotService.CABECALHO_SNAPSHOT, snapshot.geradoEm().toString()))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, snapshot.tamanho()))
+                .andReturn();
+
+        assertArrayEquals(Files.readAllBytes(snapshot.arquivo()), result.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get("/relatorio/autor/pdf").header(HttpHeaders.IF_NONE_MATCH, snapshot.etag()))
+                .andExpect(status().isNotModified());
+
+        // Relatórios filtrados não têm snapshot e seguem pelo cache
+        baixar(get("/relatorio/autor/pdf").param("editora", "Garnier"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(RelatorioSnapshotService.CABECALHO_SNAPSHOT));
+
+        // Só o download completo conta: o 304 e o relatório filtrado não enviam o snapshot
+        assertEquals(servidos + 1, servidos());
+    }
+
+    // Sem o atributo do conector a cópia é pelo canal do arquivo; com ele o corpo fica para o sendfile do Tomcat
+    @Test
+    void deveDelegarOEnvioAoSendfileQuandoOConectorSuportar() throws Exception {
+        Snapshot snapshot = relatorioSnapshotService.gerar(Tipo.AUTORES, Formato.PDF);
+        double servidos = servidos();
+
+        MvcResult result = mockMvc.perform(get("/relatorio/autor/pdf")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, snapshot.tamanho()))
+                .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+                .andExpect(content().bytes(new byte[0]))
+                .andReturn();
+
+        assertEquals(snapshot.arquivo().toAbsolutePath().toString(),
+                result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, result.getRequest().getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(snapshot.tamanho(), result.getRequest().getAttribute("org.apache.tomcat.sendfile.end"));
+
+        MvcResult copia = baixar(get("/relatorio/autor/pdf"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNull(copia.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertArrayEquals(Files.readAllBytes(snapshot.arquivo()), copia.getResponse().getContentAsByteArray());
+
+        // No Tomcat embutido o conector anuncia o sendfile e entrega o arquivo inteiro
+        HttpResponse<byte[]> resposta = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/relatorio/autor/pdf")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, resposta.statusCode());
+        assertEquals(snapshot.etag(), resposta.headers().firstValue(HttpHeaders.ETAG).orElseThrow());
+        assertArrayEquals(Files.readAllBytes(snapshot.arquivo()), resposta.body());
+        assertEquals(servidos + 3, servidos());
+    }
+
+    @Test
+    void deveSubstituirOSnapshotAnteriorEDescartarOsVencidos() throws Exception {
+        relatorioSnapshotService.gerarTodos();
+        Snapshot anterior = relatorioSnapshotService.recente(Tipo.AUTORES, Formato.EXCEL).orElseThrow();
+
+        Thread.sleep(5);
+        Snapshot novo = relatorioSnapshotService.gerar(Tipo.AUTORES, Formato.EXCEL);
+
+        // O substituído fica no disco para os downloads por sendfile que ainda vão abri-lo pelo nome
+        assertTrue(Files.exists(anterior.arquivo()));
+        assertTrue(Files.exists(novo.arquivo()));
+
+        relatorioSnapshotService.descartarSubstituidos(Instant.now().plus(tempoLimiteDownload).minusSeconds(60));
+        assertTrue(Files.exists(anterior.arquivo()));
+
+        relatorioSnapshotService.descartarSubstituidos(Instant.now().plus(tempoLimiteDownload).plusSeconds(1));
+        assertFalse(Files.exists(anterior.arquivo()));
+        assertTrue(Files.exists(novo.arquivo()));
+        assertEquals(novo, relatorioSnapshotService.recente(Tipo.AUTORES, Formato.EXCEL).orElseThrow());
+        assertTrue(relatorioSnapshotService.recente(Tipo.AUTORES, Formato.PDF).isPresent());
+        assertTrue(relatorioSnapshotService.recente(Tipo.LIVROS, Formato.PDF).isEmpty());
+
+        assertTrue(novo.recente(Duration.ofHours(1), novo.geradoEm().plus(Duration.ofMinutes(59))));
+        assertFalse(novo.recente(Duration.ofHours(1), novo.geradoEm().plus(Duration.ofMinutes(61))));
+    }
+
+    private double servidos() {
+        var contador = meterRegistry.find("relatorio.snapshots").tag("operacao", "servidos").counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    private ResultActions baixar(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+}
@@ -0,0 +1,209 @@
+package biblioteca.dev.luanluz.api.controller;
+
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Baixa o relatório pelo controller e mede os bytes alocados pela tarefa assíncrona que escreve o StreamingResponseBody,
+ * do início ao fim. A saída da resposta descarta o conteúdo, em vez de acumulá-lo como a resposta do MockMvc, e com a
+ * camada em memória desligada o corpo copia o arquivo do cache em blocos: a alocação não cresce com o relatório.
+ */
+@SpringBootTest(properties = "app.relatorio.cache.tamanho-maximo-em-memoria=0B")
+@ActiveProfiles("test")
+class RelatorioStreamingHeapIntegrationTest {
+
+    private static final long ALOCACAO_MAXIMA_POR_ENVIO = 64 * 1024;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    private static volatile SaidaDescartada saida;
+
+    private MockMvc mockMvc;
+
+    // Envolve as tarefas do executor usado pelo Spring MVC para escrever as respostas assíncronas
+    @TestConfiguration
+    static class MedicaoConfig {
+
+        @Bean
+        TaskDecorator medirAlocacao() {
+            return tarefa -> () -> {
+                long antes = SaidaDescartada.alocadoPelaThread();
+
+                try {
+                    tarefa.run();
+                } finally {
+                    SaidaDescartada atual = saida;
+
+                    if (atual != null && atual.escritora == Thread.currentThread()) {
+                        atual.concluir(SaidaDescartada.alocadoPelaThread() - antes);
+                    }
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        Filter descartarCorpo = (request, response, chain) -> chain.doFilter(request,
+                new HttpServletResponseWrapper((HttpServletResponse) response) {
+                    @Override
+                    public ServletOutputStream getOutputStream() {
+                        return saida;
+                    }
+                });
+
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(descartarCorpo).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveEnviarRelatorioComAlocacaoIndependenteDoTamanho() throws Exception {
+        criarAutores(0, 20);
+        SaidaDescartada pequeno = baixar();
+
+        criarAutores(20, 3000);
+        SaidaDescartada grande = baixar();
+
+        assertTrue(grande.escritos > 10 * pequeno.escritos,
+                "O relatório grande deveria ser bem maior: " + pequeno.escritos + " x " + grande.escritos);
+        assertTrue(grande.escritos > 2 * ALOCACAO_MAXIMA_POR_ENVIO,
+                "O relatório grande deveria superar o limite de alocação: " + grande.escritos);
+        assertTrue(pequeno.alocado() < ALOCACAO_MAXIMA_POR_ENVIO, "Alocado no envio pequeno: " + pequeno.alocado());
+        assertTrue(grande.alocado() < ALOCACAO_MAXIMA_POR_ENVIO, "Alocado no envio grande: " + grande.alocado());
+    }
+
+    // O primeiro download renderiza o relatório e aquece o caminho de envio; o segundo é servido do arquivo e medido
+    private SaidaDescartada baixar() throws Exception {
+        relatorioService.reconstruirRelatorioAutores();
+
+        enviar();
+        return enviar();
+    }
+
+    private SaidaDescartada enviar() throws Exception {
+        saida = new SaidaDescartada();
+
+        MvcResult result = mockMvc.perform(get("/relatorio/autor/pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        assertTrue(saida.concluida.await(5, TimeUnit.SECONDS), "A tarefa que escreve o corpo não terminou");
+        assertEquals(1, saida.threads, "O corpo deveria ser escrito por uma única thread");
+        return saida;
+    }
+
+    private void criarAutores(int inicio, int fim) {
+        List<Autor> autores = IntStream.range(inicio, fim)
+                .mapToObj(i -> Autor.builder().nome("Autor de Teste " + i).build())
+                .toList();
+
+        autorRepository.saveAll(autores);
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+
+    // Conta os bytes recebidos e guarda a alocação da tarefa que os escreveu
+    private static class SaidaDescartada extends ServletOutputStream {
+
+        private static final com.sun.management.ThreadMXBean THREADS =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private final CountDownLatch concluida = new CountDownLatch(1);
+
+        private volatile Thread escritora;
+        private volatile int threads;
+        private volatile long escritos;
+        private volatile long alocado;
+
+        static long alocadoPelaThread() {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+
+        void concluir(long alocado) {
+            this.alocado = alocado;
+            concluida.countDown();
+        }
+
+        long alocado() {
+            return alocado;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (escritora != Thread.currentThread()) {
+                escritora = Thread.currentThread();
+                threads++;
+            }
+
+            escritos += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoSimilarProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PostgresIntegrationTest
+@Transactional
+class AssuntoSimilarRepositoryPostgresIntegrationTest {
+
+    @Autowired
+    private AssuntoSimilarRepository assuntoSimilarRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Assunto realismo;
+
+    @BeforeEach
+    void setUp() {
+        realismo = assuntoRepository.save(Assunto.builder().descricao("Realismo Mágico").build());
+        assuntoRepository.save(Assunto.builder().descricao("Realismo Fantástico").build());
+        assuntoRepository.flush();
+    }
+
+    @Test
+    void deveDevolverOsAssuntosAcimaDoLimiarDoMaisParaOMenosSemelhante() {
+        List<AssuntoSimilarProjection> similares = assuntoSimilarRepository.findSimilares("Realismo Magico", 0.3, 5);
+
+        assertEquals(realismo.getCodigo(), similares.get(0).codigo());
+        assertEquals(similaridade("Realismo Magico", realismo.getDescricao()), similares.get(0).similaridade(), 1e-6);
+        assertTrue(similares.stream().allMatch(assunto -> assunto.similaridade() >= 0.3));
+        assertEquals(similares.stream().map(AssuntoSimilarProjection::similaridade).sorted((a, b) -> Double.compare(b, a)).toList(),
+                similares.stream().map(AssuntoSimilarProjection::similaridade).toList());
+    }
+
+    @Test
+    void deveConsultarPeloIndiceDeTrigramas() {
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_indexonlyscan = off");
+
+        String plano = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT codas FROM assunto WHERE descricao % 'Realismo Magico'", String.class));
+
+        assertTrue(plano.contains("idx_assunto_descricao_trgm"), plano);
+    }
+
+    private double similaridade(String a, String b) {
+        return jdbcTemplate.queryForObject("SELECT similarity(?, ?)::FLOAT8", Double.class, a, b);
+    }
+}
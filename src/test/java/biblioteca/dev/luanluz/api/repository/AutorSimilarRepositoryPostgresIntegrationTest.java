@@ -0,0 +1,80 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.projection.AutorSimilarProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Limiar por set_config e operador % do pg_trgm; nos demais bancos a similaridade é calculada em memória
+@PostgresIntegrationTest
+@Transactional
+class AutorSimilarRepositoryPostgresIntegrationTest {
+
+    @Autowired
+    private AutorSimilarRepository autorSimilarRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Autor guimaraes;
+    private Autor graciliano;
+
+    @BeforeEach
+    void setUp() {
+        guimaraes = autorRepository.save(Autor.builder().nome("Guimarães Rosa").build());
+        graciliano = autorRepository.save(Autor.builder().nome("Graciliano Ramos").build());
+        autorRepository.flush();
+    }
+
+    @Test
+    void deveDevolverOsAutoresAcimaDoLimiarDoMaisParaOMenosSemelhante() {
+        List<AutorSimilarProjection> similares = autorSimilarRepository.findSimilares("Guimaraes Rosa", 0.3, 5);
+
+        assertEquals(guimaraes.getCodigo(), similares.get(0).codigo());
+        assertEquals(similaridade("Guimaraes Rosa", guimaraes.getNome()), similares.get(0).similaridade(), 1e-6);
+        assertTrue(similares.stream().allMatch(autor -> autor.similaridade() >= 0.3));
+        assertEquals(similares.stream().map(AutorSimilarProjection::similaridade).sorted((a, b) -> Double.compare(b, a)).toList(),
+                similares.stream().map(AutorSimilarProjection::similaridade).toList());
+    }
+
+    @Test
+    void deveAplicarOLimiarInformadoNaTransacao() {
+        double similaridadeGraciliano = similaridade("Guimaraes Rosa", graciliano.getNome());
+
+        assertTrue(autorSimilarRepository.findSimilares("Guimaraes Rosa", similaridadeGraciliano - 0.01, 50).stream()
+                .anyMatch(autor -> autor.codigo().equals(graciliano.getCodigo())));
+        assertTrue(autorSimilarRepository.findSimilares("Guimaraes Rosa", similaridadeGraciliano + 0.01, 50).stream()
+                .noneMatch(autor -> autor.codigo().equals(graciliano.getCodigo())));
+        assertEquals(similaridadeGraciliano + 0.01,
+                Double.parseDouble(jdbcTemplate.queryForObject("SHOW pg_trgm.similarity_threshold", String.class)), 1e-6);
+    }
+
+    @Test
+    void deveConsultarPeloIndiceDeTrigramas() {
+        // Sem varredura sequencial nem pelos índices B-tree, sobra o bitmap sobre o índice GIN se ele servir ao %
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_indexonlyscan = off");
+
+        String plano = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT codau FROM autor WHERE nome % 'Guimaraes Rosa'", String.class));
+
+        assertTrue(plano.contains("idx_autor_nome_trgm"), plano);
+    }
+
+    private double similaridade(String a, String b) {
+        return jdbcTemplate.queryForObject("SELECT similarity(?, ?)::FLOAT8", Double.class, a, b);
+    }
+}
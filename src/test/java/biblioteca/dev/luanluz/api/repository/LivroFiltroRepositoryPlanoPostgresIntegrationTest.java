@@ -0,0 +1,178 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.config.SqlCapturadoInspector;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications.comAlgumAssunto;
+import static biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications.comAlgumAutor;
+import static biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications.comAnoPublicacaoEntre;
+import static biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications.comEditora;
+import static biblioteca.dev.luanluz.api.repository.specification.LivroSpecifications.comValorEmCentavosEntre;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Planos do PostgreSQL sobre os índices criados pelas migrações, com estatísticas de um acervo de 10 mil livros em que
+ * cada filtro é seletivo. Os valores dos critérios são escritos no SQL para que o EXPLAIN mostre o plano real da
+ * consulta filtrada.
+ */
+@PostgresIntegrationTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=biblioteca.dev.luanluz.api.config.SqlCapturadoInspector",
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline"
+})
+@Transactional
+class LivroFiltroRepositoryPlanoPostgresIntegrationTest {
+
+    private static final String LIVRO_SEQ_SCAN = "Seq Scan on livro ";
+
+    private static final String CRIAR_ACERVO = """
+            INSERT INTO livro (titulo, editora, edicao, anopublicacao, valoremcentavos)
+            SELECT 'Livro do plano ' || i, 'Editora ' || i % 500, 1, (1000 + i % 1000)::TEXT, 1000 + i * 10
+            FROM generate_series(1, 10000) AS i
+            """;
+
+    // Só um em cada cem livros é do autor do teste e um em cada cinquenta do assunto; os demais ficam com outro
+    private static final String ASSOCIAR = """
+            INSERT INTO %1$s
+            SELECT l.codl, CASE WHEN substring(l.titulo FROM 16)::INTEGER %% %2$d = 0 THEN ? ELSE ? END
+            FROM livro l
+            WHERE l.titulo LIKE 'Livro do plano %%'
+            """;
+
+    @Autowired
+    private LivroFiltroRepository livroFiltroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Autor autor;
+    private Assunto assunto;
+
+    @BeforeEach
+    void setUp() {
+        autor = autorRepository.save(Autor.builder().nome("Autor do Plano").build());
+        Autor outroAutor = autorRepository.save(Autor.builder().nome("Outro Autor do Plano").build());
+        assunto = assuntoRepository.save(Assunto.builder().descricao("Assunto Plano").build());
+        Assunto outroAssunto = assuntoRepository.save(Assunto.builder().descricao("Outro Assunto Plano").build());
+        entityManager.flush();
+
+        jdbcTemplate.update(CRIAR_ACERVO);
+        jdbcTemplate.update(ASSOCIAR.formatted("livro_autor (livro_codl, autor_codau)", 100),
+                autor.getCodigo(), outroAutor.getCodigo());
+        jdbcTemplate.update(ASSOCIAR.formatted("livro_assunto (livro_codl, assunto_codas)", 50),
+                assunto.getCodigo(), outroAssunto.getCodigo());
+        jdbcTemplate.execute("ANALYZE livro, livro_autor, livro_assunto");
+    }
+
+    @Test
+    void deveUsarIndiceNoFiltroPorEditora() {
+        String plano = planoDe(comEditora("Editora 1"));
+
+        assertFalse(plano.contains(LIVRO_SEQ_SCAN), plano);
+        assertTrue(plano.contains("idx_livro_editora"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceNoFiltroPorIntervaloDeAno() {
+        String plano = planoDe(comAnoPublicacaoEntre(1905, 1907));
+
+        assertFalse(plano.contains(LIVRO_SEQ_SCAN), plano);
+        assertTrue(plano.contains("idx_livro_anopublicacao"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceNoFiltroPorIntervaloDeValor() {
+        String plano = planoDe(comValorEmCentavosEntre(null, 1200));
+
+        assertFalse(plano.contains(LIVRO_SEQ_SCAN), plano);
+        assertTrue(plano.contains("idx_livro_valoremcentavos"), plano);
+    }
+
+    @Test
+    void deveFiltrarPorAutorEAssuntoComSemiJoinSemJuntarAsEntidades() {
+        String sql = sqlDe(comAlgumAutor(List.of(autor.getCodigo())).and(comAlgumAssunto(List.of(assunto.getCodigo()))));
+
+        assertEquals(2, sql.split("exists").length - 1, sql);
+        assertFalse(sql.contains(" join "), sql);
+        assertFalse(sql.contains("from autor"), sql);
+        assertFalse(sql.contains("from assunto"), sql);
+
+        String plano = explain(sql);
+        assertTrue(plano.contains("idx_livro_autor_autor_livro"), plano);
+        assertFalse(plano.contains("Seq Scan on livro_autor"), plano);
+        assertFalse(plano.contains("Seq Scan on livro_assunto"), plano);
+    }
+
+    @Test
+    void deveUsarIndiceDoLivroQuandoSemiJoinCombinadoComCriterioSeletivo() {
+        String plano = planoDe(comEditora("Editora 1").and(comAlgumAutor(List.of(autor.getCodigo()))));
+
+        assertFalse(plano.contains(LIVRO_SEQ_SCAN), plano);
+        assertFalse(plano.contains("Seq Scan on livro_autor"), plano);
+    }
+
+    private String planoDe(Specification<Livro> specification) {
+        return explain(sqlDe(specification));
+    }
+
+    private String sqlDe(Specification<Livro> specification) {
+        SqlCapturadoInspector.clear();
+
+        livroFiltroRepository.findCodigos(specification, PageRequest.of(0, 10, Sort.by("titulo")));
+
+        return SqlCapturadoInspector.statements().stream()
+                .filter(sql -> sql.startsWith("select l1_0.codl from livro l1_0"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Os parâmetros restantes são apenas o deslocamento e o limite da página
+    private String explain(String sql) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setInt(i, 10);
+                }
+
+                List<String> linhas = new ArrayList<>();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        linhas.add(resultSet.getString(1));
+                    }
+                }
+
+                return String.join("\n", linhas);
+            }
+        });
+    }
+}
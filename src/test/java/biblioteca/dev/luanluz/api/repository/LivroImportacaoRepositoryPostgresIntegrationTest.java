@@ -0,0 +1,136 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.dto.request.LivroImportacaoLinhaDTO;
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// COPY para a tabela temporária e mescla em instruções únicas, o caminho que o H2 não percorre
+@PostgresIntegrationTest
+@Transactional
+class LivroImportacaoRepositoryPostgresIntegrationTest {
+
+    @Autowired
+    private LivroImportacaoRepository livroImportacaoRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Autor azevedo;
+    private Autor alencar;
+    private Assunto indianismo;
+
+    @BeforeEach
+    void setUp() {
+        azevedo = autorRepository.save(Autor.builder().nome("Aluísio Azevedo").build());
+        alencar = autorRepository.save(Autor.builder().nome("José de Alencar").build());
+        indianismo = assuntoRepository.save(Assunto.builder().descricao("Indianismo").build());
+
+        livroRepository.save(Livro.builder()
+                .titulo("Senhora")
+                .editora("Garnier")
+                .edicao(1)
+                .anoPublicacao("1875")
+                .valorEmCentavos(3990)
+                .autores(Set.of(azevedo))
+                .assuntos(Set.of(indianismo))
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void deveCopiarEMesclarOLoteDevolvendoOsTitulosJaGravados() {
+        Set<Long> recusadas = livroImportacaoRepository.saveAll(List.of(
+                linha(2, "O Guarani", "Editora \"Nacional\", RJ", Set.of(azevedo, alencar)),
+                linha(3, "SENHORA", "Garnier", Set.of(azevedo)),
+                linha(5, "Iracema", "Garnier", Set.of(alencar))));
+
+        assertEquals(Set.of(3L), recusadas);
+
+        entityManager.clear();
+        Livro guarani = livro("O Guarani");
+
+        assertEquals("Editora \"Nacional\", RJ", guarani.getEditora());
+        assertEquals(Set.of(azevedo.getCodigo(), alencar.getCodigo()), Set.copyOf(guarani.getAutores().stream()
+                .map(Autor::getCodigo)
+                .toList()));
+        assertEquals(Set.of(indianismo.getCodigo()), Set.copyOf(guarani.getAssuntos().stream()
+                .map(Assunto::getCodigo)
+                .toList()));
+        assertEquals(Set.of(alencar.getCodigo()), Set.copyOf(livro("Iracema").getAutores().stream()
+                .map(Autor::getCodigo)
+                .toList()));
+    }
+
+    @Test
+    void deveReservarCodigosSemColidirComOGeradorDoHibernate() {
+        livroImportacaoRepository.saveAll(IntStream.range(0, 120)
+                .mapToObj(i -> linha(i + 2, "Importado no lote " + i, "Garnier", Set.of(azevedo)))
+                .toList());
+
+        Livro posterior = livroRepository.save(Livro.builder()
+                .titulo("Gravado pelo JPA")
+                .editora("Garnier")
+                .edicao(1)
+                .anoPublicacao("1900")
+                .valorEmCentavos(1000)
+                .autores(Set.of(azevedo))
+                .assuntos(Set.of(indianismo))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Integer> importados = livroRepository.findAll().stream()
+                .filter(livro -> livro.getTitulo().startsWith("Importado no lote "))
+                .map(Livro::getCodigo)
+                .toList();
+
+        assertEquals(120, Set.copyOf(importados).size());
+        importados.forEach(codigo -> assertNotEquals(posterior.getCodigo(), codigo));
+    }
+
+    private Livro livro(String titulo) {
+        Integer codigo = livroRepository.findAll().stream()
+                .filter(livro -> livro.getTitulo().equals(titulo))
+                .findFirst()
+                .orElseThrow()
+                .getCodigo();
+
+        return livroRepository.findByIdWithRelations(codigo).orElseThrow();
+    }
+
+    private LivroImportacaoLinhaDTO linha(long numero, String titulo, String editora, Set<Autor> autores) {
+        return new LivroImportacaoLinhaDTO(numero, LivroRequestDTO.builder()
+                .titulo(titulo)
+                .editora(editora)
+                .edicao(1)
+                .anoPublicacao("1881")
+                .valorEmCentavos(4500)
+                .autoresCodigos(Set.copyOf(autores.stream().map(Autor::getCodigo).toList()))
+                .assuntosCodigos(Set.of(indianismo.getCodigo()))
+                .build());
+    }
+}
@@ -0,0 +1,127 @@
+package biblioteca.dev.luanluz.api.repository;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Triggers de versao_dados: a versão muda no commit e escritas concorrentes na mesma tabela não esperam uma pela outra
+@PostgresIntegrationTest
+class VersaoDadosRepositoryPostgresIntegrationTest {
+
+    private static final String UPDATE_AUTOR = "UPDATE autor SET nome = nome || '.' WHERE codau = %d";
+
+    @Autowired
+    private VersaoDadosRepository versaoDadosRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int primeiroAutor;
+    private int segundoAutor;
+
+    @BeforeEach
+    void setUp() {
+        primeiroAutor = jdbcTemplate.queryForObject(
+                "INSERT INTO autor (nome) VALUES ('Versão concorrente A') RETURNING codau", Integer.class);
+        segundoAutor = jdbcTemplate.queryForObject(
+                "INSERT INTO autor (nome) VALUES ('Versão concorrente B') RETURNING codau", Integer.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM autor WHERE nome LIKE 'Versão concorrente %'");
+    }
+
+    @Test
+    void deveAvancarAVersaoAoEscreverSemConsumirValorNaLeitura() {
+        long anterior = versaoDadosRepository.findVersaoAtual();
+
+        assertEquals(anterior, versaoDadosRepository.findVersaoAtual());
+
+        jdbcTemplate.update(UPDATE_AUTOR.formatted(primeiroAutor));
+
+        assertTrue(versaoDadosRepository.findVersaoAtual() > anterior);
+    }
+
+    @Test
+    void naoDeveSerializarEscritasConcorrentesNaMesmaTabela() throws Exception {
+        try (Connection primeira = dataSource.getConnection(); Connection segunda = dataSource.getConnection()) {
+            primeira.setAutoCommit(false);
+            segunda.setAutoCommit(false);
+
+            executar(primeira, UPDATE_AUTOR.formatted(primeiroAutor));
+
+            // Com uma linha de versão por tabela, esta instrução esperaria o commit da primeira transação
+            executar(segunda, "SET LOCAL lock_timeout = '2s'");
+            executar(segunda, UPDATE_AUTOR.formatted(segundoAutor));
+
+            segunda.commit();
+            primeira.commit();
+        }
+    }
+
+    /*
+     * A escreve e ainda não confirmou; B escreve e confirma. Quem renderiza agora não vê as linhas de A, então a versão
+     * lida não pode ser a mesma de depois do commit de A.
+     */
+    @Test
+    void deveMudarAVersaoNoCommitDeCadaEscrita() throws Exception {
+        long anterior = versaoDadosRepository.findVersaoAtual();
+
+        try (Connection primeira = dataSource.getConnection(); Connection segunda = dataSource.getConnection()) {
+            primeira.setAutoCommit(false);
+            segunda.setAutoCommit(false);
+
+            executar(primeira, UPDATE_AUTOR.formatted(primeiroAutor));
+            executar(primeira, UPDATE_AUTOR.formatted(primeiroAutor));
+            assertEquals(anterior, versaoDadosRepository.findVersaoAtual());
+
+            executar(segunda, UPDATE_AUTOR.formatted(segundoAutor));
+            segunda.commit();
+
+            long semA = versaoDadosRepository.findVersaoAtual();
+            assertEquals(anterior + 1, semA);
+
+            primeira.commit();
+            assertEquals(semA + 1, versaoDadosRepository.findVersaoAtual());
+
+            // Transação desfeita não muda a versão
+            executar(primeira, UPDATE_AUTOR.formatted(primeiroAutor));
+            primeira.rollback();
+            assertEquals(semA + 1, versaoDadosRepository.findVersaoAtual());
+        }
+    }
+
+    @Test
+    void deveCompactarSemAlterarAVersao() {
+        jdbcTemplate.update(UPDATE_AUTOR.formatted(primeiroAutor));
+        long anterior = versaoDadosRepository.findVersaoAtual();
+
+        assertTrue(versaoDadosRepository.compactar() > 0);
+
+        assertEquals(anterior, versaoDadosRepository.findVersaoAtual());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM versao_dados_transacao", Integer.class));
+
+        jdbcTemplate.update(UPDATE_AUTOR.formatted(primeiroAutor));
+        assertEquals(anterior + 1, versaoDadosRepository.findVersaoAtual());
+    }
+
+    private static void executar(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
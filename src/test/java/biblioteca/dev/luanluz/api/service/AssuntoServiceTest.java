@@ -8,17 +8,22 @@ import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
 import biblioteca.dev.luanluz.api.mapper.AssuntoMapper;
 import biblioteca.dev.luanluz.api.model.Assunto;
 import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.projection.AssuntoProjection;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
@@ -27,8 +32,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -50,6 +53,7 @@ class AssuntoServiceTest {
     private Assunto assunto;
     private AssuntoRequestDTO requestDTO;
     private AssuntoResponseDTO responseDTO;
+    private AssuntoProjection projection;
 
     @BeforeEach
     void setUp() {
@@ -64,16 +68,18 @@ class AssuntoServiceTest {
         responseDTO = new AssuntoResponseDTO();
         responseDTO.setCodigo(1);
         responseDTO.setDescricao("Ficção Científica");
+
+        projection = new AssuntoProjection(1, "Ficção Científica");
     }
 
     @Test
     void deveBuscarTodosComPaginacao() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Assunto> page = new PageImpl<>(Collections.singletonList(assunto));
+        Slice<AssuntoProjection> slice = new SliceImpl<>(Collections.singletonList(projection), pageable, false);
 
-        when(assuntoRepository.findAll(pageable)).thenReturn(page);
-        when(assuntoMapper.toResponseDTO(any(Assunto.class))).thenReturn(responseDTO);
+        when(assuntoRepository.findAllProjections(pageable)).thenReturn(slice);
+        when(assuntoMapper.toResponseDTO(projection)).thenReturn(responseDTO);
 
         // Act
         Page<AssuntoResponseDTO> result = assuntoService.findAll(pageable);
@@ -81,14 +87,15 @@ class AssuntoServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(assuntoRepository, times(1)).findAll(pageable);
+        verify(assuntoRepository, times(1)).findAllProjections(pageable);
+        verify(assuntoRepository, never()).findAll(pageable);
     }
 
     @Test
     void deveBuscarPorId() {
         // Arrange
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(assuntoMapper.toResponseDTO(assunto)).thenReturn(responseDTO);
+        when(assuntoRepository.findProjectionByCodigo(1)).thenReturn(Optional.of(projection));
+        when(assuntoMapper.toResponseDTO(projection)).thenReturn(responseDTO);
 
         // Act
         AssuntoResponseDTO result = assuntoService.findById(1);
@@ -97,25 +104,25 @@ class AssuntoServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getCodigo());
         assertEquals("Ficção Científica", result.getDescricao());
-        verify(assuntoRepository, times(1)).findById(1);
+        verify(assuntoRepository, times(1)).findProjectionByCodigo(1);
+        verify(assuntoRepository, never()).findById(1);
     }
 
     @Test
     void deveLancarExcecaoQuandoNaoEncontrarPorId() {
         // Arrange
-        when(assuntoRepository.findById(999)).thenReturn(Optional.empty());
+        when(assuntoRepository.findProjectionByCodigo(999)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> assuntoService.findById(999));
-        verify(assuntoRepository, times(1)).findById(999);
+        verify(assuntoRepository, times(1)).findProjectionByCodigo(999);
     }
 
     @Test
     void deveCriarNovoAssunto() {
         // Arrange
         when(assuntoMapper.toEntity(requestDTO)).thenReturn(assunto);
-        when(assuntoRepository.existsByDescricaoIgnoreCase(anyString())).thenReturn(false);
-        when(assuntoRepository.save(any(Assunto.class))).thenReturn(assunto);
+        when(assuntoRepository.saveAndFlush(any(Assunto.class))).thenReturn(assunto);
         when(assuntoMapper.toResponseDTO(assunto)).thenReturn(responseDTO);
 
         // Act
@@ -124,28 +131,25 @@ class AssuntoServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Ficção Científica", result.getDescricao());
-        verify(assuntoRepository, times(1)).existsByDescricaoIgnoreCase(anyString());
-        verify(assuntoRepository, times(1)).save(any(Assunto.class));
+        verify(assuntoRepository, times(1)).saveAndFlush(any(Assunto.class));
     }
 
     @Test
     void deveLancarExcecaoAoCriarAssuntoComDescricaoDuplicada() {
         // Arrange
         when(assuntoMapper.toEntity(requestDTO)).thenReturn(assunto);
-        when(assuntoRepository.existsByDescricaoIgnoreCase(anyString())).thenReturn(true);
+        when(assuntoRepository.saveAndFlush(any(Assunto.class))).thenThrow(violacaoDeUnicidade("uk_assunto_descricao_lower"));
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> assuntoService.create(requestDTO));
-        verify(assuntoRepository, times(1)).existsByDescricaoIgnoreCase(anyString());
-        verify(assuntoRepository, never()).save(any(Assunto.class));
+        verify(assuntoRepository, times(1)).saveAndFlush(any(Assunto.class));
     }
 
     @Test
     void deveAtualizarAssunto() {
         // Arrange
         when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(assuntoRepository.existsByDescricaoIgnoreCaseAndCodigoNot(anyString(), anyInt())).thenReturn(false);
-        when(assuntoRepository.save(any(Assunto.class))).thenReturn(assunto);
+        when(assuntoRepository.saveAndFlush(any(Assunto.class))).thenReturn(assunto);
         when(assuntoMapper.toResponseDTO(assunto)).thenReturn(responseDTO);
         doNothing().when(assuntoMapper).updateEntityFromDTO(any(), any());
 
@@ -155,19 +159,19 @@ class AssuntoServiceTest {
         // Assert
         assertNotNull(result);
         verify(assuntoRepository, times(1)).findById(1);
-        verify(assuntoRepository, times(1)).save(any(Assunto.class));
+        verify(assuntoRepository, times(1)).saveAndFlush(any(Assunto.class));
     }
 
     @Test
     void deveLancarExcecaoAoAtualizarComDescricaoDuplicada() {
         // Arrange
         when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(assuntoRepository.existsByDescricaoIgnoreCaseAndCodigoNot(anyString(), anyInt())).thenReturn(true);
+        when(assuntoRepository.saveAndFlush(any(Assunto.class))).thenThrow(violacaoDeUnicidade("uk_assunto_descricao_lower"));
         doNothing().when(assuntoMapper).updateEntityFromDTO(any(), any());
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> assuntoService.update(1, requestDTO));
-        verify(assuntoRepository, never()).save(any(Assunto.class));
+        verify(assuntoRepository, times(1)).saveAndFlush(any(Assunto.class));
     }
 
     @Test
@@ -195,4 +199,10 @@ class AssuntoServiceTest {
         verify(assuntoRepository, times(1)).findById(1);
         verify(assuntoRepository, never()).delete(any(Assunto.class));
     }
+
+    private DataIntegrityViolationException violacaoDeUnicidade(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value violates unique constraint",
+                        new SQLException("duplicate key"), constraintName));
+    }
 }
@@ -8,27 +8,31 @@ import biblioteca.dev.luanluz.api.exception.ResourceNotFoundException;
 import biblioteca.dev.luanluz.api.mapper.AutorMapper;
 import biblioteca.dev.luanluz.api.model.Autor;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.projection.AutorProjection;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -50,6 +54,7 @@ class AutorServiceTest {
     private Autor autor;
     private AutorRequestDTO requestDTO;
     private AutorResponseDTO responseDTO;
+    private AutorProjection projection;
 
     @BeforeEach
     void setUp() {
@@ -64,16 +69,18 @@ class AutorServiceTest {
         responseDTO = new AutorResponseDTO();
         responseDTO.setCodigo(1);
         responseDTO.setNome("Isaac Asimov");
+
+        projection = new AutorProjection(1, "Isaac Asimov");
     }
 
     @Test
     void deveBuscarTodosComPaginacao() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Autor> page = new PageImpl<>(Collections.singletonList(autor));
+        Slice<AutorProjection> slice = new SliceImpl<>(Collections.singletonList(projection), pageable, false);
 
-        when(autorRepository.findAll(pageable)).thenReturn(page);
-        when(autorMapper.toResponseDTO(any(Autor.class))).thenReturn(responseDTO);
+        when(autorRepository.findAllProjections(pageable)).thenReturn(slice);
+        when(autorMapper.toResponseDTO(projection)).thenReturn(responseDTO);
 
         // Act
         Page<AutorResponseDTO> result = autorService.findAll(pageable);
@@ -81,14 +88,15 @@ class AutorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(autorRepository, times(1)).findAll(pageable);
+        verify(autorRepository, times(1)).findAllProjections(pageable);
+        verify(autorRepository, never()).findAll(pageable);
     }
 
     @Test
     void deveBuscarPorId() {
         // Arrange
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(autorMapper.toResponseDTO(autor)).thenReturn(responseDTO);
+        when(autorRepository.findProjectionByCodigo(1)).thenReturn(Optional.of(projection));
+        when(autorMapper.toResponseDTO(projection)).thenReturn(responseDTO);
 
         // Act
         AutorResponseDTO result = autorService.findById(1);
@@ -97,25 +105,25 @@ class AutorServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getCodigo());
         assertEquals("Isaac Asimov", result.getNome());
-        verify(autorRepository, times(1)).findById(1);
+        verify(autorRepository, times(1)).findProjectionByCodigo(1);
+        verify(autorRepository, never()).findById(1);
     }
 
     @Test
     void deveLancarExcecaoQuandoNaoEncontrarPorId() {
         // Arrange
-        when(autorRepository.findById(999)).thenReturn(Optional.empty());
+        when(autorRepository.findProjectionByCodigo(999)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> autorService.findById(999));
-        verify(autorRepository, times(1)).findById(999);
+        verify(autorRepository, times(1)).findProjectionByCodigo(999);
     }
 
     @Test
     void deveCriarNovoAutor() {
         // Arrange
         when(autorMapper.toEntity(requestDTO)).thenReturn(autor);
-        when(autorRepository.existsByNomeIgnoreCase(anyString())).thenReturn(false);
-        when(autorRepository.save(any(Autor.class))).thenReturn(autor);
+        when(autorRepository.saveAndFlush(any(Autor.class))).thenReturn(autor);
         when(autorMapper.toResponseDTO(autor)).thenReturn(responseDTO);
 
         // Act
@@ -124,28 +132,38 @@ class AutorServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Isaac Asimov", result.getNome());
-        verify(autorRepository, times(1)).existsByNomeIgnoreCase(anyString());
-        verify(autorRepository, times(1)).save(any(Autor.class));
+        verify(autorRepository, times(1)).saveAndFlush(any(Autor.class));
     }
 
     @Test
     void deveLancarExcecaoAoCriarAutorComNomeDuplicado() {
         // Arrange
         when(autorMapper.toEntity(requestDTO)).thenReturn(autor);
-        when(autorRepository.existsByNomeIgnoreCase(anyString())).thenReturn(true);
+        when(autorRepository.saveAndFlush(any(Autor.class))).thenThrow(violacaoDeUnicidade("uk_autor_nome_lower"));
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> autorService.create(requestDTO));
-        verify(autorRepository, times(1)).existsByNomeIgnoreCase(anyString());
-        verify(autorRepository, never()).save(any(Autor.class));
+        verify(autorRepository, times(1)).saveAndFlush(any(Autor.class));
+    }
+
+    @Test
+    void devePropagarViolacaoDeIntegridadeQueNaoSejaDeUnicidade() {
+        // Arrange
+        DataIntegrityViolationException violacao = violacaoDeUnicidade("fk_livro_autor_autor");
+        when(autorMapper.toEntity(requestDTO)).thenReturn(autor);
+        when(autorRepository.saveAndFlush(any(Autor.class))).thenThrow(violacao);
+
+        // Act & Assert
+        DataIntegrityViolationException exception =
+                assertThrows(DataIntegrityViolationException.class, () -> autorService.create(requestDTO));
+        assertSame(violacao, exception);
     }
 
     @Test
     void deveAtualizarAutor() {
         // Arrange
         when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(autorRepository.existsByNomeIgnoreCaseAndCodigoNot(anyString(), anyInt())).thenReturn(false);
-        when(autorRepository.save(any(Autor.class))).thenReturn(autor);
+        when(autorRepository.saveAndFlush(any(Autor.class))).thenReturn(autor);
         when(autorMapper.toResponseDTO(autor)).thenReturn(responseDTO);
         doNothing().when(autorMapper).updateEntityFromDTO(any(), any());
 
@@ -155,19 +173,19 @@ class AutorServiceTest {
         // Assert
         assertNotNull(result);
         verify(autorRepository, times(1)).findById(1);
-        verify(autorRepository, times(1)).save(any(Autor.class));
+        verify(autorRepository, times(1)).saveAndFlush(any(Autor.class));
     }
 
     @Test
     void deveLancarExcecaoAoAtualizarComNomeDuplicado() {
         // Arrange
         when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(autorRepository.existsByNomeIgnoreCaseAndCodigoNot(anyString(), anyInt())).thenReturn(true);
+        when(autorRepository.saveAndFlush(any(Autor.class))).thenThrow(violacaoDeUnicidade("uk_autor_nome_lower"));
         doNothing().when(autorMapper).updateEntityFromDTO(any(), any());
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> autorService.update(1, requestDTO));
-        verify(autorRepository, never()).save(any(Autor.class));
+        verify(autorRepository, times(1)).saveAndFlush(any(Autor.class));
     }
 
     @Test
@@ -195,4 +213,10 @@ class AutorServiceTest {
         verify(autorRepository, times(1)).findById(1);
         verify(autorRepository, never()).delete(any(Autor.class));
     }
+
+    private DataIntegrityViolationException violacaoDeUnicidade(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value violates unique constraint",
+                        new SQLException("duplicate key"), constraintName));
+    }
 }
@@ -0,0 +1,176 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sem @Transactional: o cache de segundo nível só é populado e invalidado no commit
+@SpringBootTest
+@ActiveProfiles("test")
+class CacheSegundoNivelIntegrationTest {
+
+    private static final String LIVRO_AUTORES_ROLE = Livro.class.getName() + ".autores";
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache cache;
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+    private Autor autor;
+    private Assunto assunto;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        cache = sessionFactory.getCache();
+        statistics = sessionFactory.getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        limpar();
+
+        autor = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        assunto = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+
+        cache.evictAllRegions();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveReaproveitarAutoresEAssuntosDoCacheNasEscritasDeLivros() {
+        livroService.create(livro("Dom Casmurro"));
+        livroService.create(livro("Quincas Borba"));
+
+        CacheRegionStatistics autores = statistics.getDomainDataRegionStatistics(Autor.CACHE_REGION);
+        CacheRegionStatistics assuntos = statistics.getDomainDataRegionStatistics(Assunto.CACHE_REGION);
+
+        assertEquals(1, autores.getMissCount());
+        assertEquals(1, autores.getHitCount());
+        assertEquals(1, assuntos.getMissCount());
+        assertEquals(1, assuntos.getHitCount());
+    }
+
+    @Test
+    void deveCachearColecoesDeAutoresEAssuntosDoLivro() {
+        Integer codigo = livroService.create(livro("Dom Casmurro")).getCodigo();
+        cache.evictAllRegions();
+
+        transactionTemplate.executeWithoutResult(status -> livroRepository.findById(codigo).orElseThrow().getAutores().size());
+        transactionTemplate.executeWithoutResult(status -> livroRepository.findById(codigo).orElseThrow().getAutores().size());
+
+        assertTrue(cache.containsCollection(LIVRO_AUTORES_ROLE, codigo));
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Livro.AUTORES_CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void deveInvalidarAutorAoAtualizar() {
+        autorRepository.findAllById(List.of(autor.getCodigo()));
+        assertTrue(cache.containsEntity(Autor.class, autor.getCodigo()));
+
+        AutorRequestDTO requestDTO = new AutorRequestDTO();
+        requestDTO.setNome("Joaquim Maria Machado de Assis");
+        autorService.update(autor.getCodigo(), requestDTO);
+
+        assertFalse(cache.containsEntity(Autor.class, autor.getCodigo()));
+        assertEquals("Joaquim Maria Machado de Assis",
+                autorRepository.findAllById(List.of(autor.getCodigo())).get(0).getNome());
+    }
+
+    @Test
+    void deveInvalidarAutorEColecoesDeLivrosAoDeletar() {
+        Integer codigoLivro = livroService.create(livro("Dom Casmurro")).getCodigo();
+        Autor semLivros = autorRepository.save(Autor.builder().nome("José de Alencar").build());
+
+        transactionTemplate.executeWithoutResult(status -> livroRepository.findById(codigoLivro).orElseThrow().getAutores().size());
+        autorRepository.findAllById(List.of(semLivros.getCodigo()));
+        assertTrue(cache.containsCollection(LIVRO_AUTORES_ROLE, codigoLivro));
+
+        autorService.delete(semLivros.getCodigo());
+
+        assertFalse(cache.containsEntity(Autor.class, semLivros.getCodigo()));
+        assertFalse(cache.containsCollection(LIVRO_AUTORES_ROLE, codigoLivro));
+    }
+
+    @Test
+    void devePublicarAcertosEFalhasDoCachePorRegiao() {
+        autorRepository.findAllById(List.of(autor.getCodigo()));
+        autorRepository.findAllById(List.of(autor.getCodigo()));
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", Autor.CACHE_REGION).tag("result", "hit")
+                .functionCounter().count() >= 1);
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", Autor.CACHE_REGION).tag("result", "miss")
+                .functionCounter().count() >= 1);
+        assertEquals(1, meterRegistry.find("cache.gets").tag("cache", Livro.ASSUNTOS_CACHE_REGION)
+                .tag("result", "hit").functionCounters().size());
+    }
+
+    private LivroRequestDTO livro(String titulo) {
+        return LivroRequestDTO.builder()
+                .titulo(titulo)
+                .editora("Editora Nacional")
+                .edicao(1)
+                .anoPublicacao("1899")
+                .valorEmCentavos(5000)
+                .autoresCodigos(Set.of(autor.getCodigo()))
+                .assuntosCodigos(Set.of(assunto.getCodigo()))
+                .build();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
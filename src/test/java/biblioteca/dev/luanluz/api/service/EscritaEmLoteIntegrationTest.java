@@ -0,0 +1,156 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "biblioteca.dev.luanluz.api.service.EscritaEmLoteIntegrationTest$ContadorSql")
+@ActiveProfiles("test")
+@Transactional
+class EscritaEmLoteIntegrationTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    private Autor autor1;
+    private Autor autor2;
+    private Assunto assunto1;
+    private Assunto assunto2;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+
+        autor1 = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        autor2 = autorRepository.save(Autor.builder().nome("José de Alencar").build());
+        assunto1 = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+        assunto2 = assuntoRepository.save(Assunto.builder().descricao("Literatura").build());
+        entityManager.flush();
+
+        ContadorSql.limpar();
+    }
+
+    @Test
+    void deveInserirVariosAutoresEmUmaUnicaInstrucaoEmLote() {
+        autorRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> Autor.builder().nome("Autor " + i).build())
+                .toList());
+        entityManager.flush();
+
+        assertEquals(1, ContadorSql.contar("insert into autor"));
+    }
+
+    @Test
+    void deveCriarLivroComRelacionamentosEmTresInsercoes() {
+        LivroRequestDTO requestDTO = LivroRequestDTO.builder()
+                .titulo("Iracema")
+                .editora("Editora Nacional")
+                .edicao(1)
+                .anoPublicacao("1865")
+                .valorEmCentavos(3990)
+                .autoresCodigos(Set.of(autor1.getCodigo(), autor2.getCodigo()))
+                .assuntosCodigos(Set.of(assunto1.getCodigo(), assunto2.getCodigo()))
+                .build();
+
+        livroService.create(requestDTO);
+
+        assertEquals(1, ContadorSql.contar("insert into livro "));
+        assertEquals(1, ContadorSql.contar("insert into livro_autor"));
+        assertEquals(1, ContadorSql.contar("insert into livro_assunto"));
+    }
+
+    @Test
+    void deveAgruparInsercoesDeVariosLivrosPorTabela() {
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            livros.add(Livro.builder()
+                    .titulo("Livro " + i)
+                    .editora("Editora Nacional")
+                    .edicao(1)
+                    .anoPublicacao("2000")
+                    .valorEmCentavos(1000)
+                    .autores(Set.of(autor1, autor2))
+                    .assuntos(Set.of(assunto1, assunto2))
+                    .build());
+        }
+
+        livroRepository.saveAll(livros);
+        entityManager.flush();
+
+        assertEquals(1, ContadorSql.contar("insert into livro "));
+        assertEquals(1, ContadorSql.contar("insert into livro_autor"));
+        assertEquals(1, ContadorSql.contar("insert into livro_assunto"));
+    }
+
+    @Test
+    void deveAgruparAtualizacoesDeVariosLivros() {
+        livroRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> Livro.builder()
+                        .titulo("Livro " + i)
+                        .editora("Editora Nacional")
+                        .edicao(1)
+                        .anoPublicacao("2000")
+                        .valorEmCentavos(1000)
+                        .build())
+                .toList())
+                .forEach(livro -> livro.setValorEmCentavos(2000));
+        entityManager.flush();
+
+        assertEquals(1, ContadorSql.contar("update livro "));
+    }
+
+    public static class ContadorSql implements StatementInspector {
+
+        private static final Queue<String> INSTRUCOES = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            INSTRUCOES.add(sql.toLowerCase().replaceAll("\\s+", " "));
+            return sql;
+        }
+
+        static void limpar() {
+            INSTRUCOES.clear();
+        }
+
+        static long contar(String prefixo) {
+            return INSTRUCOES.stream().filter(sql -> sql.startsWith(prefixo)).count();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.dto.response.LivroResponseDTO;
+import biblioteca.dev.luanluz.api.dto.response.PaginacaoCursorDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// websearch_to_tsquery, unaccent e o cursor por ts_rank_cd, que o H2 troca por LIKE sem relevância
+@PostgresIntegrationTest
+@Transactional
+class LivroBuscaPostgresIntegrationTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Autor autor;
+    private Assunto assunto;
+
+    @BeforeEach
+    void setUp() {
+        autor = autorRepository.save(Autor.builder().nome("Iberê Tapajós").build());
+        assunto = assuntoRepository.save(Assunto.builder().descricao("Crônica Amazônica").build());
+    }
+
+    @Test
+    void deveBuscarSemAcentoPorTituloAutoresEAssuntosComOTituloMaisRelevante() {
+        Livro peloTitulo = livro("Memórias do Jacundá", "Editora Norte");
+        Livro peloAutor = livro("Histórias do Rio Negro", "Editora Norte");
+        Livro pelaEditora = livro("Outro Livro Qualquer", "Jacundá Edições");
+        entityManager.flush();
+
+        assertEquals(List.of(peloTitulo.getCodigo(), pelaEditora.getCodigo()), codigos(buscar("JACUNDA", null, 10)));
+        assertEquals(List.of(peloTitulo.getCodigo(), peloAutor.getCodigo(), pelaEditora.getCodigo()),
+                codigos(buscar("tapajos", null, 10)));
+        assertEquals(List.of(peloAutor.getCodigo()), codigos(buscar("cronica amazonica rio", null, 10)));
+    }
+
+    @Test
+    void deveAceitarASintaxeDeBuscaWeb() {
+        Livro jacunda = livro("Memórias do Jacundá", "Editora Norte");
+        livro("Jacundá e Tucunaré", "Editora Norte");
+        entityManager.flush();
+
+        assertEquals(List.of(jacunda.getCodigo()), codigos(buscar("jacunda -tucunare", null, 10)));
+        assertEquals(List.of(jacunda.getCodigo()), codigos(buscar("\"memórias do jacundá\"", null, 10)));
+    }
+
+    @Test
+    void devePaginarPorCursorSemRepetirNemPularLivrosDeMesmaRelevancia() {
+        List<Integer> esperados = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            esperados.add(livro("Tapajós Volume " + i, "Editora Norte").getCodigo());
+        }
+        entityManager.flush();
+
+        List<Integer> paginados = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            PaginacaoCursorDTO<LivroResponseDTO> pagina = buscar("volume tapajós", cursor, 2);
+            paginados.addAll(codigos(pagina));
+            cursor = pagina.getNext();
+        } while (cursor != null);
+
+        assertEquals(esperados, paginados);
+        assertNull(buscar("volume tapajós", null, 5).getNext());
+    }
+
+    private PaginacaoCursorDTO<LivroResponseDTO> buscar(String termo, String cursor, int size) {
+        return livroService.search(termo, cursor, size);
+    }
+
+    private static List<Integer> codigos(PaginacaoCursorDTO<LivroResponseDTO> pagina) {
+        return pagina.getContent().stream()
+                .map(LivroResponseDTO::getCodigo)
+                .toList();
+    }
+
+    private Livro livro(String titulo, String editora) {
+        return livroRepository.save(Livro.builder()
+                .titulo(titulo)
+                .editora(editora)
+                .edicao(1)
+                .anoPublicacao("1950")
+                .valorEmCentavos(2500)
+                .autores(Set.of(autor))
+                .assuntos(Set.of(assunto))
+                .build());
+    }
+}
@@ -11,22 +11,31 @@ import biblioteca.dev.luanluz.api.model.Autor;
 import biblioteca.dev.luanluz.api.model.Livro;
 import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
 import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.ContagemRepository;
 import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAssuntoProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroAutorProjection;
+import biblioteca.dev.luanluz.api.repository.projection.LivroProjection;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -34,7 +43,6 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -56,6 +64,9 @@ class LivroServiceTest {
     @Mock
     private LivroMapper livroMapper;
 
+    @Mock
+    private ContagemRepository contagemRepository;
+
     @InjectMocks
     private LivroService livroService;
 
@@ -64,6 +75,7 @@ class LivroServiceTest {
     private LivroResponseDTO responseDTO;
     private Autor autor;
     private Assunto assunto;
+    private LivroProjection livroProjection;
 
     @BeforeEach
     void setUp() {
@@ -93,16 +105,23 @@ class LivroServiceTest {
         responseDTO = new LivroResponseDTO();
         responseDTO.setCodigo(1);
         responseDTO.setTitulo("Fundação");
+
+        livroProjection = new LivroProjection(1, "Fundação", "Aleph", 1, "1951", null);
     }
 
     @Test
     void deveBuscarTodosComPaginacao() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Livro> page = new PageImpl<>(Collections.singletonList(livro));
+        Slice<Integer> codigos = new SliceImpl<>(List.of(1), pageable, false);
+        List<LivroAutorProjection> autores = List.of(new LivroAutorProjection(1, 1, "Isaac Asimov"));
+        List<LivroAssuntoProjection> assuntos = List.of(new LivroAssuntoProjection(1, 1, "Ficção Científica"));
 
-        when(livroRepository.findAllWithRelations(pageable)).thenReturn(page);
-        when(livroMapper.toResponseDTO(any(Livro.class))).thenReturn(responseDTO);
+        when(livroRepository.findPageCodigos(pageable)).thenReturn(codigos);
+        when(livroRepository.findProjectionsByCodigoIn(List.of(1))).thenReturn(List.of(livroProjection));
+        when(livroRepository.findAutorProjectionsByLivroCodigoIn(List.of(1))).thenReturn(autores);
+        when(livroRepository.findAssuntoProjectionsByLivroCodigoIn(List.of(1))).thenReturn(assuntos);
+        when(livroMapper.toResponseDTOs(List.of(livroProjection), autores, assuntos)).thenReturn(List.of(responseDTO));
 
         // Act
         Page<LivroResponseDTO> result = livroService.findAll(pageable);
@@ -110,14 +129,63 @@ class LivroServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(livroRepository, times(1)).findAllWithRelations(pageable);
+        verify(livroRepository, times(1)).findPageCodigos(pageable);
+        verify(livroRepository, never()).findAllById(any());
+        verify(livroMapper, never()).toResponseDTO(any(Livro.class));
+        verify(contagemRepository, never()).findTotalByTabela(any());
+    }
+
+    @Test
+    void deveCarregarRelacionamentosApenasDaPaginaMantendoOrdenacao() {
+        // Arrange
+        LivroProjection outroLivro = new LivroProjection(2, "Eu, Robô", "Aleph", 1, "1950", 4990);
+
+        Pageable pageable = PageRequest.of(3, 2);
+        Slice<Integer> codigos = new SliceImpl<>(List.of(2, 1), pageable, true);
+
+        when(livroRepository.findPageCodigos(pageable)).thenReturn(codigos);
+        when(contagemRepository.findTotalByTabela("livro")).thenReturn(Optional.of(500L));
+        when(livroRepository.findProjectionsByCodigoIn(List.of(2, 1))).thenReturn(List.of(livroProjection, outroLivro));
+        when(livroRepository.findAutorProjectionsByLivroCodigoIn(List.of(2, 1))).thenReturn(List.of());
+        when(livroRepository.findAssuntoProjectionsByLivroCodigoIn(List.of(2, 1))).thenReturn(List.of());
+        when(livroMapper.toResponseDTOs(List.of(livroProjection, outroLivro), List.of(), List.of()))
+                .thenReturn(List.of(responseDTO, LivroResponseDTO.builder().codigo(2).build()));
+
+        // Act
+        Page<LivroResponseDTO> result = livroService.findAll(pageable);
+
+        // Assert
+        assertEquals(500, result.getTotalElements());
+        assertEquals(List.of(2, 1), result.getContent().stream().map(LivroResponseDTO::getCodigo).toList());
+    }
+
+    @Test
+    void deveNaoCarregarRelacionamentosQuandoPaginaVazia() {
+        // Arrange
+        Pageable pageable = PageRequest.of(10, 10);
+
+        when(livroRepository.findPageCodigos(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        when(contagemRepository.findTotalByTabela("livro")).thenReturn(Optional.empty());
+        when(livroRepository.count()).thenReturn(3L);
+
+        // Act
+        Page<LivroResponseDTO> result = livroService.findAll(pageable);
+
+        // Assert
+        assertEquals(0, result.getNumberOfElements());
+        assertEquals(3, result.getTotalElements());
+        verify(livroRepository, never()).findProjectionsByCodigoIn(any());
+        verify(livroRepository, never()).findAutorProjectionsByLivroCodigoIn(any());
+        verify(livroRepository, never()).findAssuntoProjectionsByLivroCodigoIn(any());
     }
 
     @Test
     void deveBuscarPorId() {
         // Arrange
-        when(livroRepository.findByIdWithRelations(1)).thenReturn(Optional.of(livro));
-        when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
+        when(livroRepository.findProjectionsByCodigoIn(List.of(1))).thenReturn(List.of(livroProjection));
+        when(livroRepository.findAutorProjectionsByLivroCodigoIn(List.of(1))).thenReturn(List.of());
+        when(livroRepository.findAssuntoProjectionsByLivroCodigoIn(List.of(1))).thenReturn(List.of());
+        when(livroMapper.toResponseDTOs(List.of(livroProjection), List.of(), List.of())).thenReturn(List.of(responseDTO));
 
         // Act
         LivroResponseDTO result = livroService.findById(1);
@@ -126,27 +194,27 @@ class LivroServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getCodigo());
         assertEquals("Fundação", result.getTitulo());
-        verify(livroRepository, times(1)).findByIdWithRelations(1);
+        verify(livroRepository, never()).findByIdWithRelations(1);
     }
 
     @Test
     void deveLancarExcecaoQuandoNaoEncontrarPorId() {
         // Arrange
-        when(livroRepository.findByIdWithRelations(999)).thenReturn(Optional.empty());
+        when(livroRepository.findProjectionsByCodigoIn(List.of(999))).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> livroService.findById(999));
-        verify(livroRepository, times(1)).findByIdWithRelations(999);
+        verify(livroRepository, never()).findAutorProjectionsByLivroCodigoIn(any());
+        verify(livroRepository, never()).findAssuntoProjectionsByLivroCodigoIn(any());
     }
 
     @Test
     void deveCriarNovoLivro() {
         // Arrange
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(livroRepository.existsByTituloIgnoreCase(anyString())).thenReturn(false);
-        when(livroRepository.save(any(Livro.class))).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
 
         // Act
@@ -155,43 +223,43 @@ class LivroServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Fundação", result.getTitulo());
-        verify(livroRepository, times(1)).save(any(Livro.class));
+        verify(livroRepository, times(1)).saveAndFlush(any(Livro.class));
     }
 
     @Test
     void deveLancarExcecaoAoCriarLivroComTituloDuplicado() {
         // Arrange
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(livroRepository.existsByTituloIgnoreCase(anyString())).thenReturn(true);
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenThrow(violacaoDeUnicidade("uk_livro_titulo_lower"));
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, times(1)).saveAndFlush(any(Livro.class));
     }
 
     @Test
     void deveLancarExcecaoQuandoAutorNaoExistir() {
         // Arrange
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.empty());
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
     void deveLancarExcecaoQuandoAssuntoNaoExistir() {
         // Arrange
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.empty());
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of());
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -199,12 +267,12 @@ class LivroServiceTest {
         // Arrange
         livro.setAnoPublicacao("ABC");
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -212,22 +280,21 @@ class LivroServiceTest {
         // Arrange
         livro.setAnoPublicacao("2100");
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
     void deveAtualizarLivro() {
         // Arrange
         when(livroRepository.findByIdWithRelations(1)).thenReturn(Optional.of(livro));
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(livroRepository.existsByTituloIgnoreCaseAndCodigoNot(anyString(), anyInt())).thenReturn(false);
-        when(livroRepository.save(any(Livro.class))).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
         doNothing().when(livroMapper).updateEntityFromDTO(any(), any());
 
@@ -237,7 +304,7 @@ class LivroServiceTest {
         // Assert
         assertNotNull(result);
         verify(livroRepository, times(1)).findByIdWithRelations(1);
-        verify(livroRepository, times(1)).save(any(Livro.class));
+        verify(livroRepository, times(1)).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -259,9 +326,8 @@ class LivroServiceTest {
         // Arrange
         livro.setAutores(new HashSet<>());
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
-        when(livroRepository.existsByTituloIgnoreCase(anyString())).thenReturn(false);
-        when(livroRepository.save(any(Livro.class))).thenReturn(livro);
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
 
         // Act
@@ -269,7 +335,7 @@ class LivroServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(livroRepository, times(1)).save(any(Livro.class));
+        verify(livroRepository, times(1)).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -277,9 +343,8 @@ class LivroServiceTest {
         // Arrange
         livro.setAssuntos(new HashSet<>());
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(livroRepository.existsByTituloIgnoreCase(anyString())).thenReturn(false);
-        when(livroRepository.save(any(Livro.class))).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenReturn(livro);
         when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
 
         // Act
@@ -287,7 +352,7 @@ class LivroServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(livroRepository, times(1)).save(any(Livro.class));
+        verify(livroRepository, times(1)).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -301,7 +366,7 @@ class LivroServiceTest {
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -316,7 +381,7 @@ class LivroServiceTest {
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
-        verify(livroRepository, never()).save(any(Livro.class));
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
     }
 
     @Test
@@ -324,8 +389,8 @@ class LivroServiceTest {
         // Arrange
         livro.setAnoPublicacao(null);
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
@@ -336,8 +401,8 @@ class LivroServiceTest {
         // Arrange
         livro.setAnoPublicacao("ABC");
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
@@ -349,8 +414,8 @@ class LivroServiceTest {
         int anoFuturo = java.time.Year.now().getValue() + 1;
         livro.setAnoPublicacao(String.valueOf(anoFuturo));
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertThrows(DomainException.class, () -> livroService.create(requestDTO));
@@ -362,10 +427,81 @@ class LivroServiceTest {
         int anoValido = java.time.Year.now().getValue() - 1;
         livro.setAnoPublicacao(String.valueOf(anoValido));
         when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
-        when(autorRepository.findById(1)).thenReturn(Optional.of(autor));
-        when(assuntoRepository.findById(1)).thenReturn(Optional.of(assunto));
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1))).thenReturn(List.of(assunto));
 
         // Act & Assert
         assertDoesNotThrow(() -> livroService.create(requestDTO));
     }
+
+    @Test
+    void deveResolverTodosOsAutoresEAssuntosComUmaConsultaPorRelacionamento() {
+        // Arrange
+        Set<Autor> autores = new HashSet<>();
+        Set<Assunto> assuntos = new HashSet<>();
+        for (int codigo = 1; codigo <= 10; codigo++) {
+            autores.add(Autor.builder().codigo(codigo).nome("Autor " + codigo).build());
+            assuntos.add(Assunto.builder().codigo(codigo).descricao("Assunto " + codigo).build());
+        }
+        Set<Integer> codigos = Set.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        livro.setAutores(new HashSet<>(autores));
+        livro.setAssuntos(new HashSet<>(assuntos));
+
+        when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(codigos)).thenReturn(List.copyOf(autores));
+        when(assuntoRepository.findAllById(codigos)).thenReturn(List.copyOf(assuntos));
+        when(livroRepository.saveAndFlush(any(Livro.class))).thenReturn(livro);
+        when(livroMapper.toResponseDTO(livro)).thenReturn(responseDTO);
+
+        // Act
+        livroService.create(requestDTO);
+
+        // Assert
+        verify(autorRepository, times(1)).findAllById(codigos);
+        verify(assuntoRepository, times(1)).findAllById(codigos);
+        verify(autorRepository, never()).findById(anyInt());
+        verify(assuntoRepository, never()).findById(anyInt());
+        assertEquals(10, livro.getAutores().size());
+        assertEquals(10, livro.getAssuntos().size());
+    }
+
+    @Test
+    void deveInformarTodosOsAutoresNaoEncontradosEmUmaUnicaExcecao() {
+        // Arrange
+        livro.setAutores(new HashSet<>(List.of(
+                autor,
+                Autor.builder().codigo(7).build(),
+                Autor.builder().codigo(3).build())));
+
+        when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1, 3, 7))).thenReturn(List.of(autor));
+
+        // Act & Assert
+        DomainException exception = assertThrows(DomainException.class, () -> livroService.create(requestDTO));
+        assertEquals("Autores com códigos 3, 7 não encontrados", exception.getMessage());
+        verify(autorRepository, times(1)).findAllById(Set.of(1, 3, 7));
+        verify(assuntoRepository, never()).findAllById(any());
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
+    }
+
+    @Test
+    void deveInformarAssuntoNaoEncontrado() {
+        // Arrange
+        livro.setAssuntos(new HashSet<>(List.of(assunto, Assunto.builder().codigo(42).build())));
+
+        when(livroMapper.toEntity(requestDTO)).thenReturn(livro);
+        when(autorRepository.findAllById(Set.of(1))).thenReturn(List.of(autor));
+        when(assuntoRepository.findAllById(Set.of(1, 42))).thenReturn(List.of(assunto));
+
+        // Act & Assert
+        DomainException exception = assertThrows(DomainException.class, () -> livroService.create(requestDTO));
+        assertEquals("Assunto com código 42 não encontrado", exception.getMessage());
+        verify(livroRepository, never()).saveAndFlush(any(Livro.class));
+    }
+
+    private DataIntegrityViolationException violacaoDeUnicidade(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key value violates unique constraint",
+                        new SQLException("duplicate key"), constraintName));
+    }
 }
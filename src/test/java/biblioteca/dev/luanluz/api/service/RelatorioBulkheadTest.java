@@ -0,0 +1,138 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioBulkheadProperties;
+import biblioteca.dev.luanluz.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelatorioBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void deveRecusarComRetryAfterQuandoNaoHouverVagaNemFila() throws Exception {
+        RelatorioBulkhead bulkhead = bulkhead(0, Duration.ofSeconds(5));
+
+        bulkhead.adquirir();
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, bulkhead::adquirir);
+        assertEquals(Duration.ofSeconds(15), exception.getRetryAfter());
+        assertEquals(1, meterRegistry.get("relatorio.bulkhead.rejeicoes").counter().count());
+        assertEquals(1, meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+    }
+
+    @Test
+    void deveAguardarNaFilaAteUmaVagaSerLiberada() throws Exception {
+        RelatorioBulkhead bulkhead = bulkhead(1, Duration.ofSeconds(5));
+        bulkhead.adquirir();
+
+        CompletableFuture<Void> aguardando = CompletableFuture.runAsync(() -> {
+            try {
+                bulkhead.adquirir();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        aguardarFila(1);
+        assertFalse(aguardando.isDone());
+
+        // A fila de uma posição está ocupada: a próxima chamada é recusada sem esperar
+        assertThrows(TooManyRequestsException.class, bulkhead::adquirir);
+
+        bulkhead.liberar();
+        aguardando.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.fila").gauge().value());
+        assertEquals(1, meterRegistry.get("relatorio.bulkhead.espera").timer().count());
+    }
+
+    @Test
+    void deveRecusarQuandoAEsperaNaFilaExpirar() throws Exception {
+        RelatorioBulkhead bulkhead = bulkhead(1, Duration.ofMillis(50));
+        bulkhead.adquirir();
+
+        assertThrows(TooManyRequestsException.class, bulkhead::adquirir);
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.fila").gauge().value());
+
+        bulkhead.liberar();
+        bulkhead.adquirir();
+    }
+
+    @Test
+    void deveFazerOsJobsEsperaremSemPrazoEForaDaFila() throws Exception {
+        RelatorioBulkhead bulkhead = bulkhead(0, Duration.ofMillis(50));
+        bulkhead.adquirir();
+
+        CompletableFuture<Void> job = CompletableFuture.runAsync(() -> {
+            try {
+                bulkhead.aguardar();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(200);
+        assertFalse(job.isDone());
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.fila").gauge().value());
+
+        bulkhead.liberar();
+        job.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.rejeicoes").counter().count());
+    }
+
+    @Test
+    void deveReservarAsVagasLivresDeUmaVezELiberarTodasJuntas() throws Exception {
+        RelatorioBulkhead bulkhead = bulkhead(3, 1, Duration.ofSeconds(5));
+
+        assertEquals(2, bulkhead.adquirirAte(2));
+        assertEquals(1, bulkhead.adquirirAte(4));
+
+        CompletableFuture<Void> aguardando = CompletableFuture.runAsync(() -> {
+            try {
+                bulkhead.adquirir();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        aguardarFila(1);
+
+        // As duas vagas voltam juntas: uma para quem está na fila e outra para o próximo relatório
+        bulkhead.liberar(2);
+        aguardando.get(5, TimeUnit.SECONDS);
+        assertEquals(1, bulkhead.adquirirAte(4));
+
+        assertEquals(3, meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.rejeicoes").counter().count());
+    }
+
+    private RelatorioBulkhead bulkhead(int fila, Duration esperaMaxima) {
+        return bulkhead(1, fila, esperaMaxima);
+    }
+
+    private RelatorioBulkhead bulkhead(int vagas, int fila, Duration esperaMaxima) {
+        return new RelatorioBulkhead(
+                new RelatorioBulkheadProperties(vagas, fila, esperaMaxima, Duration.ofSeconds(15)), meterRegistry);
+    }
+
+    private void aguardarFila(int esperado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (meterRegistry.get("relatorio.bulkhead.fila").gauge().value() != esperado && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(System.nanoTime() < limite, "A chamada não entrou na fila");
+    }
+}
@@ -0,0 +1,105 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Sem @Transactional: as requisições simultâneas rodam em outras threads e precisam ver os dados gravados
+@SpringBootTest
+@ActiveProfiles("test")
+class RelatorioCacheServiceIntegrationTest {
+
+    private static final int REQUISICOES = 8;
+
+    @Autowired
+    private RelatorioCacheService relatorioCacheService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveRenderizarUmaUnicaVezParaRequisicoesSimultaneas() throws Exception {
+        double preenchimentos = contador("relatorio.preenchimentos");
+        double exportacoes = contador("relatorio.exportacoes");
+
+        CyclicBarrier largada = new CyclicBarrier(REQUISICOES);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUISICOES);
+        List<Future<byte[]>> resultados = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < REQUISICOES; i++) {
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+
+                    var chave = relatorioCacheService.chave(Tipo.AUTORES, Formato.PDF, Map.of());
+                    try (var relatorio = relatorioCacheService.obter(chave, Map.of()).abrir()) {
+                        return relatorio.readAllBytes();
+                    }
+                }));
+            }
+
+            byte[] primeiro = resultados.get(0).get();
+
+            for (Future<byte[]> resultado : resultados) {
+                assertArrayEquals(primeiro, resultado.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, contador("relatorio.preenchimentos") - preenchimentos);
+        assertEquals(1, contador("relatorio.exportacoes") - exportacoes);
+    }
+
+    private double contador(String nome) {
+        return meterRegistry.find(nome).tag("tipo", "AUTORES").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+}
@@ -0,0 +1,199 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.RelatorioFiltroDTO;
+import biblioteca.dev.luanluz.api.exception.BadRequestException;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sem @Transactional: o relatório é preenchido pelo pool próprio e precisa ver os dados gravados
+@SpringBootTest
+@ActiveProfiles("test")
+class RelatorioFiltroIntegrationTest {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Autor machado;
+    private Autor amado;
+    private Autor alencar;
+    private Assunto romance;
+    private Assunto ficcao;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> criarAcervo());
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveListarTodosOsLivrosSemFiltro() throws Exception {
+        List<String> textos = textos(Tipo.LIVROS, null);
+
+        assertTrue(textos.containsAll(List.of("Dom Casmurro", "Quincas Borba", "Capitães da Areia", "Iracema")));
+    }
+
+    @Test
+    void deveFiltrarLivrosPorEditora() throws Exception {
+        List<String> textos = textos(Tipo.LIVROS, RelatorioFiltroDTO.builder().editora(" Garnier ").build());
+
+        assertTrue(textos.containsAll(List.of("Dom Casmurro", "Quincas Borba")));
+        assertFalse(textos.contains("Capitães da Areia"));
+        assertFalse(textos.contains("Iracema"));
+    }
+
+    @Test
+    void deveFiltrarLivrosPorAutorEIntervaloDeAnos() throws Exception {
+        List<String> textos = textos(Tipo.LIVROS, RelatorioFiltroDTO.builder()
+                .autoresCodigos(Set.of(machado.getCodigo()))
+                .anoPublicacaoMinimo(1895)
+                .build());
+
+        assertTrue(textos.contains("Dom Casmurro"));
+        assertFalse(textos.contains("Quincas Borba"));
+        assertFalse(textos.contains("Capitães da Areia"));
+    }
+
+    @Test
+    void deveSelecionarAutoresComLivrosDoAssunto() throws Exception {
+        List<String> textos = textos(Tipo.LIVROS_POR_AUTOR, RelatorioFiltroDTO.builder()
+                .assuntosCodigos(Set.of(ficcao.getCodigo()))
+                .build());
+
+        assertTrue(textos.contains("Machado de Assis"));
+        assertTrue(textos.contains("Jorge Amado"));
+        assertFalse(textos.contains("José de Alencar"));
+    }
+
+    @Test
+    void deveFiltrarResumoDeAutoresPorCodigoEEditora() throws Exception {
+        List<String> porCodigo = textos(Tipo.AUTORES, RelatorioFiltroDTO.builder()
+                .autoresCodigos(Set.of(alencar.getCodigo()))
+                .build());
+
+        assertTrue(porCodigo.contains("José de Alencar"));
+        assertFalse(porCodigo.contains("Machado de Assis"));
+
+        List<String> porEditora = textos(Tipo.AUTORES, RelatorioFiltroDTO.builder().editora("Record").build());
+
+        assertTrue(porEditora.contains("Jorge Amado"));
+        assertFalse(porEditora.contains("Machado de Assis"));
+        assertFalse(porEditora.contains("José de Alencar"));
+    }
+
+    @Test
+    void deveTratarOFiltroComoValorENaoComoSql() throws Exception {
+        List<String> textos = textos(Tipo.LIVROS, RelatorioFiltroDTO.builder().editora("Garnier' OR '1'='1").build());
+
+        assertFalse(textos.contains("Dom Casmurro"));
+        assertFalse(textos.contains("Iracema"));
+    }
+
+    @Test
+    void deveMontarParametrosEstaveisApenasComOsCriteriosInformados() {
+        Map<String, Object> parametros = relatorioService.parametros(RelatorioFiltroDTO.builder()
+                .autoresCodigos(Set.of(3, 1, 2))
+                .editora("  ")
+                .anoPublicacaoMaximo(950)
+                .build());
+
+        assertEquals(Map.of("AUTORES", List.of(1, 2, 3), "ANO_FINAL", "0950"), parametros);
+        assertEquals(Map.of(), relatorioService.parametros(null));
+        assertThrows(BadRequestException.class, () -> relatorioService.parametros(RelatorioFiltroDTO.builder()
+                .anoPublicacaoMinimo(1900)
+                .anoPublicacaoMaximo(1800)
+                .build()));
+    }
+
+    private List<String> textos(Tipo tipo, RelatorioFiltroDTO filtro) throws Exception {
+        List<String> textos = new ArrayList<>();
+
+        try (RelatorioImpressao impressao = relatorioService.preencher(tipo, relatorioService.parametros(filtro),
+                relatorioService.criarFiller(tipo))) {
+            for (JRPrintPage pagina : impressao.getJasperPrint().getPages()) {
+                for (JRPrintElement elemento : pagina.getElements()) {
+                    if (elemento instanceof JRPrintText texto) {
+                        textos.add(texto.getFullText());
+                    }
+                }
+            }
+        }
+
+        return textos;
+    }
+
+    private void criarAcervo() {
+        machado = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        amado = autorRepository.save(Autor.builder().nome("Jorge Amado").build());
+        alencar = autorRepository.save(Autor.builder().nome("José de Alencar").build());
+        romance = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+        ficcao = assuntoRepository.save(Assunto.builder().descricao("Ficção").build());
+
+        livroRepository.save(livro("Dom Casmurro", "Garnier", "1899", Set.of(machado), Set.of(romance, ficcao)));
+        livroRepository.save(livro("Quincas Borba", "Garnier", "1891", Set.of(machado), Set.of(romance)));
+        livroRepository.save(livro("Capitães da Areia", "Record", "1937", Set.of(amado), Set.of(ficcao)));
+        livroRepository.save(livro("Iracema", "Typographia", "1865", Set.of(alencar), Set.of(romance)));
+    }
+
+    private Livro livro(String titulo, String editora, String ano, Set<Autor> autores, Set<Assunto> assuntos) {
+        return Livro.builder()
+                .titulo(titulo)
+                .editora(editora)
+                .edicao(1)
+                .anoPublicacao(ano)
+                .valorEmCentavos(3990)
+                .autores(autores)
+                .assuntos(assuntos)
+                .build();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
@@ -0,0 +1,137 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioJobProperties;
+import biblioteca.dev.luanluz.api.dto.response.RelatorioJobResponseDTO;
+import biblioteca.dev.luanluz.api.exception.DomainException;
+import biblioteca.dev.luanluz.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.ReportFiller;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RelatorioJobServiceTest {
+
+    @Mock
+    private RelatorioService relatorioService;
+
+    @Mock
+    private ReportFiller filler;
+
+    @TempDir
+    private Path diretorio;
+
+    private final CountDownLatch preenchendo = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    private RelatorioJobService relatorioJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(relatorioService.criarFiller(any())).thenReturn(filler);
+        lenient().when(relatorioService.preencherEmSegundoPlano(any(), any(), any())).thenAnswer(invocation -> {
+            preenchendo.countDown();
+            liberar.await();
+            return new RelatorioImpressao(new JasperPrint(), null);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        relatorioJobService.encerrar();
+    }
+
+    @Test
+    void deveRecusarComRetryAfterQuandoAFilaEstiverCheia() throws Exception {
+        iniciar(Duration.ofMinutes(1), Duration.ofHours(1));
+
+        relatorioJobService.criar("AUTORES", "PDF");
+        assertTrue(preenchendo.await(5, TimeUnit.SECONDS));
+        relatorioJobService.criar("AUTORES", "PDF");
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> relatorioJobService.criar("AUTORES", "PDF"));
+        assertEquals(Duration.ofSeconds(15), exception.getRetryAfter());
+    }
+
+    @Test
+    void deveLiberarAVagaDaFilaAoCancelarJobPendente() throws Exception {
+        iniciar(Duration.ofMinutes(1), Duration.ofHours(1));
+
+        relatorioJobService.criar("AUTORES", "PDF");
+        assertTrue(preenchendo.await(5, TimeUnit.SECONDS));
+        String pendente = relatorioJobService.criar("AUTORES", "PDF").getId();
+
+        relatorioJobService.cancelar(pendente);
+
+        assertEquals("PENDENTE", relatorioJobService.criar("AUTORES", "PDF").getStatus());
+    }
+
+    @Test
+    void deveCancelarPreenchimentoQuandoOTempoLimiteExpirar() throws Exception {
+        iniciar(Duration.ofMillis(100), Duration.ofHours(1));
+
+        String id = relatorioJobService.criar("AUTORES", "EXCEL").getId();
+        RelatorioJobResponseDTO job = aguardarFinalizacao(id);
+
+        assertEquals("TEMPO_ESGOTADO", job.getStatus());
+        verify(filler).cancelFill();
+        assertThrows(DomainException.class, () -> relatorioJobService.resultado(id));
+    }
+
+    @Test
+    void deveRemoverJobsEArquivosExpirados() throws Exception {
+        iniciar(Duration.ofMinutes(1), Duration.ZERO);
+        liberar.countDown();
+
+        String id = relatorioJobService.criar("AUTORES", "PDF").getId();
+        assertEquals("CONCLUIDO", aguardarFinalizacao(id).getStatus());
+        Path arquivo = relatorioJobService.resultado(id).getArquivo();
+        assertTrue(Files.exists(arquivo));
+
+        Thread.sleep(10);
+        relatorioJobService.limparExpirados();
+
+        assertTrue(Files.notExists(arquivo));
+        assertEquals(0, Files.list(diretorio).count());
+    }
+
+    private void iniciar(Duration timeout, Duration ttl) throws Exception {
+        RelatorioJobProperties properties = new RelatorioJobProperties(
+                1, 1, timeout, ttl, Duration.ofHours(1), Duration.ofSeconds(15), diretorio);
+
+        relatorioJobService = new RelatorioJobService(relatorioService, properties, new SimpleMeterRegistry());
+        relatorioJobService.iniciar();
+    }
+
+    private RelatorioJobResponseDTO aguardarFinalizacao(String id) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        RelatorioJobResponseDTO job = relatorioJobService.status(id);
+
+        while ((job.getStatus().equals("PENDENTE") || job.getStatus().equals("EXECUTANDO")) && System.nanoTime() < limite) {
+            Thread.sleep(20);
+            job = relatorioJobService.status(id);
+        }
+
+        return job;
+    }
+}
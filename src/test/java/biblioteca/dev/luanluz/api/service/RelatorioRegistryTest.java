@@ -0,0 +1,88 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioRegistryProperties;
+import biblioteca.dev.luanluz.api.service.RelatorioRegistry.RelatorioCompilado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelatorioRegistryTest {
+
+    private static final String RELATORIO = "relatorio_autores";
+    private static final Path FONTE = Path.of("src/main/resources/reports", RELATORIO + ".jrxml");
+
+    @TempDir
+    private Path fontes;
+
+    private RelatorioRegistry relatorioRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        relatorioRegistry = new RelatorioRegistry(new RelatorioRegistryProperties(false, fontes, Duration.ofSeconds(1)));
+        relatorioRegistry.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relatorioRegistry.encerrar();
+    }
+
+    @Test
+    void deveCarregarOsRelatoriosCompiladosNoBuild() {
+        RelatorioCompilado compilado = relatorioRegistry.obter(RELATORIO);
+
+        assertTrue(compilado.origem().contains(RELATORIO + ".jasper"));
+        assertEquals(RELATORIO, compilado.relatorio().getName());
+        assertSame(compilado.relatorio(), relatorioRegistry.obter(RELATORIO).relatorio());
+        assertThrows(IllegalStateException.class, () -> relatorioRegistry.obter("inexistente"));
+    }
+
+    @Test
+    void deveRecompilarApenasOsRelatoriosAlterados() throws Exception {
+        RelatorioCompilado original = relatorioRegistry.obter(RELATORIO);
+        Path fonte = fontes.resolve(RELATORIO + ".jrxml");
+
+        // Fonte mais antiga que a carga: nada a recompilar
+        Files.copy(FONTE, fonte);
+        Files.setLastModifiedTime(fonte, FileTime.from(original.carregadoEm().minusSeconds(60)));
+        relatorioRegistry.recarregarAlterados();
+        assertSame(original, relatorioRegistry.obter(RELATORIO));
+
+        String jrxml = Files.readString(FONTE, StandardCharsets.UTF_8)
+                .replace("\"Relatório de Autores\"", "\"Autores do Acervo\"");
+        Files.writeString(fonte, jrxml, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(fonte, FileTime.from(original.carregadoEm().plusSeconds(60)));
+        relatorioRegistry.recarregarAlterados();
+
+        RelatorioCompilado recompilado = relatorioRegistry.obter(RELATORIO);
+        assertNotSame(original.relatorio(), recompilado.relatorio());
+        assertNotEquals(original.assinatura(), recompilado.assinatura());
+        assertEquals(fonte.toAbsolutePath().toString(), recompilado.origem());
+    }
+
+    @Test
+    void deveManterAVersaoAnteriorQuandoARecompilacaoFalhar() throws Exception {
+        RelatorioCompilado original = relatorioRegistry.obter(RELATORIO);
+        Path fonte = fontes.resolve(RELATORIO + ".jrxml");
+
+        Files.writeString(fonte, "<jasperReport", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(fonte, FileTime.from(original.carregadoEm().plusSeconds(60)));
+        relatorioRegistry.recarregarAlterados();
+
+        assertSame(original, relatorioRegistry.obter(RELATORIO));
+    }
+}
@@ -0,0 +1,210 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioBulkheadProperties;
+import biblioteca.dev.luanluz.api.exception.TooManyRequestsException;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintRectangle;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Seções a partir de 10 linhas e uma página em memória por seção: a renumeração passa pelo arquivo de swap
+@SpringBootTest(properties = {
+        "app.relatorio.secoes.paralelismo=4",
+        "app.relatorio.secoes.linhas-minimas=10",
+        "app.relatorio.virtualizacao.limite-paginas=4"
+})
+@ActiveProfiles("test")
+class RelatorioSecoesIntegrationTest {
+
+    private static final int AUTORES = 90;
+
+    @Autowired
+    private RelatorioSecoesService relatorioSecoesService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private RelatorioVirtualizacaoService relatorioVirtualizacaoService;
+
+    @Autowired
+    private RelatorioBulkhead relatorioBulkhead;
+
+    @Autowired
+    private RelatorioBulkheadProperties relatorioBulkheadProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        autorRepository.saveAll(IntStream.range(0, AUTORES)
+                .mapToObj(i -> Autor.builder().nome(String.format("Autor de Teste %02d", i)).build())
+                .toList());
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveConcatenarAsSecoesNaOrdemDoRelatorioComNumeracaoContinua() throws Exception {
+        double gravadasAntes = meterRegistry.get("relatorio.virtualizacao.paginas").tag("operacao", "gravadas")
+                .counter().count();
+
+        List<String> autoresUnico;
+        try (RelatorioImpressao unico = relatorioService.preencher(Tipo.AUTORES, relatorioService.criarFiller(Tipo.AUTORES))) {
+            autoresUnico = autores(unico.getJasperPrint());
+        }
+
+        try (RelatorioImpressao secionado = relatorioSecoesService.preencher(Tipo.AUTORES, Map.of())) {
+            JasperPrint jasperPrint = secionado.getJasperPrint();
+            int paginas = jasperPrint.getPages().size();
+
+            assertEquals(autoresUnico, autores(jasperPrint));
+            assertEquals(AUTORES, autoresUnico.size());
+            assertEquals(1, textos(jasperPrint).stream().filter(texto -> texto.startsWith("Relatório de Livros")).count());
+            assertEquals(AUTORES / 2, linhasDestacadas(jasperPrint));
+
+            for (int i = 0; i < paginas; i++) {
+                String numero = " " + (i + 1) + " de";
+                List<String> rodape = textos(jasperPrint.getPages().get(i));
+
+                assertTrue(rodape.stream().anyMatch(texto -> texto.endsWith(numero)), "Página " + (i + 1) + ": " + rodape);
+                assertTrue(rodape.contains(" " + paginas), "Página " + (i + 1) + ": " + rodape);
+            }
+
+            relatorioService.exportar(jasperPrint, Formato.PDF, OutputStream.nullOutputStream());
+        }
+
+        assertTrue(meterRegistry.get("relatorio.virtualizacao.paginas").tag("operacao", "gravadas").counter().count()
+                > gravadasAntes);
+        assertEquals(0, relatorioVirtualizacaoService.getArquivosAtivos());
+    }
+
+    // Com uma só vaga livre o relatório sai inteiro numa faixa; sem nenhuma é recusado antes de preencher qualquer faixa
+    @Test
+    void deveDividirEmMenosSecoesQuandoFaltaremVagasNoBulkhead() throws Exception {
+        int ocupadas = relatorioBulkheadProperties.preenchimentosSimultaneos() - 1;
+
+        List<String> autoresUnico;
+        try (RelatorioImpressao unico = relatorioService.preencher(Tipo.AUTORES, relatorioService.criarFiller(Tipo.AUTORES))) {
+            autoresUnico = autores(unico.getJasperPrint());
+        }
+
+        for (int i = 0; i < ocupadas; i++) {
+            relatorioBulkhead.adquirir();
+        }
+
+        try {
+            try (RelatorioImpressao impressao = relatorioSecoesService.preencher(Tipo.AUTORES, Map.of())) {
+                assertEquals(autoresUnico, autores(impressao.getJasperPrint()));
+            }
+
+            assertEquals(ocupadas, meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+
+            relatorioBulkhead.adquirir();
+            try {
+                assertThrows(TooManyRequestsException.class,
+                        () -> relatorioSecoesService.preencher(Tipo.AUTORES, Map.of()));
+            } finally {
+                relatorioBulkhead.liberar();
+            }
+        } finally {
+            relatorioBulkhead.liberar(ocupadas);
+        }
+
+        assertEquals(0, meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+        assertEquals(0, relatorioVirtualizacaoService.getArquivosAtivos());
+    }
+
+    // O relatório filtrado não é dividido: sai idêntico ao preenchimento único, sem páginas parciais entre seções
+    @Test
+    void devePreencherDeUmaVezQuandoFiltrado() throws Exception {
+        Map<String, Object> parametros = Map.of("AUTORES", autorRepository.findAll().stream()
+                .map(Autor::getCodigo)
+                .toList());
+
+        List<String> unico;
+        try (RelatorioImpressao impressao = relatorioService.preencher(Tipo.AUTORES, relatorioService.criarFiller(Tipo.AUTORES))) {
+            unico = textos(impressao.getJasperPrint());
+        }
+
+        try (RelatorioImpressao impressao = relatorioSecoesService.preencher(Tipo.AUTORES, parametros)) {
+            assertEquals(unico, textos(impressao.getJasperPrint()));
+        }
+    }
+
+    private static List<String> autores(JasperPrint jasperPrint) {
+        return textos(jasperPrint).stream()
+                .filter(texto -> texto.startsWith("Autor de Teste"))
+                .toList();
+    }
+
+    private static long linhasDestacadas(JasperPrint jasperPrint) {
+        return jasperPrint.getPages().stream()
+                .flatMap(pagina -> pagina.getElements().stream())
+                .filter(elemento -> elemento instanceof JRPrintRectangle && elemento.getHeight() == 40)
+                .count();
+    }
+
+    // A data de emissão fica de fora para a comparação não depender do minuto
+    private static List<String> textos(JasperPrint jasperPrint) {
+        List<String> textos = new ArrayList<>();
+        jasperPrint.getPages().forEach(pagina -> textos.addAll(textos(pagina)));
+
+        return textos.stream()
+                .filter(texto -> !texto.startsWith("Data:"))
+                .toList();
+    }
+
+    private static List<String> textos(JRPrintPage pagina) {
+        List<String> textos = new ArrayList<>();
+
+        for (JRPrintElement elemento : pagina.getElements()) {
+            if (elemento instanceof JRPrintText texto && texto.getFullText() != null) {
+                textos.add(texto.getFullText());
+            }
+        }
+
+        return textos;
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+}
@@ -0,0 +1,113 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.PostgresIntegrationTest;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+// Autores incluídos depois do cálculo das faixas, antes de qualquer seção ler o resumo, não entram no relatório
+@PostgresIntegrationTest
+@TestPropertySource(properties = {
+        "app.relatorio.secoes.paralelismo=4",
+        "app.relatorio.secoes.linhas-minimas=10"
+})
+class RelatorioSecoesPostgresIntegrationTest {
+
+    private static final int AUTORES = 60;
+
+    @Autowired
+    private RelatorioSecoesService relatorioSecoesService;
+
+    @MockitoSpyBean
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        for (int i = 0; i < AUTORES; i++) {
+            jdbcTemplate.update("INSERT INTO autor (nome) VALUES (?)", String.format("Autor de Teste %02d", i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void devePreencherTodasAsSecoesNaMesmaInstantanea() throws Exception {
+        List<String> esperados;
+        try (RelatorioImpressao unico = relatorioService.preencher(Tipo.AUTORES, relatorioService.criarFiller(Tipo.AUTORES))) {
+            esperados = autores(unico.getJasperPrint());
+        }
+
+        // Cada seção espera a inclusão de um autor dentro de cada faixa, feita pela primeira que começar
+        AtomicBoolean incluidos = new AtomicBoolean();
+        CountDownLatch inclusao = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (incluidos.compareAndSet(false, true)) {
+                for (int i = 0; i < AUTORES; i++) {
+                    jdbcTemplate.update("INSERT INTO autor (nome) VALUES (?)", String.format("Autor de Teste %02d b", i));
+                }
+                inclusao.countDown();
+            }
+
+            assertTrue(inclusao.await(30, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(relatorioService).preencherSecao(eq(Tipo.AUTORES), any(), anyInt(), any(Connection.class));
+
+        try (RelatorioImpressao secionado = relatorioSecoesService.preencher(Tipo.AUTORES, Map.of())) {
+            assertEquals(esperados, autores(secionado.getJasperPrint()));
+        }
+
+        assertTrue(incluidos.get());
+        assertEquals(AUTORES * 2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM relatorio_autor WHERE nome_autor LIKE 'Autor de Teste%'", Integer.class));
+    }
+
+    private static List<String> autores(JasperPrint jasperPrint) {
+        List<String> autores = new ArrayList<>();
+
+        jasperPrint.getPages().forEach(pagina -> {
+            for (JRPrintElement elemento : pagina.getElements()) {
+                if (elemento instanceof JRPrintText texto && texto.getFullText() != null
+                        && texto.getFullText().startsWith("Autor de Teste")) {
+                    autores.add(texto.getFullText());
+                }
+            }
+        });
+
+        return autores;
+    }
+
+    private void limpar() {
+        jdbcTemplate.update("DELETE FROM autor WHERE nome LIKE 'Autor de Teste%'");
+    }
+}
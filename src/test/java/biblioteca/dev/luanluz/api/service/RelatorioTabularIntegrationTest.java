@@ -0,0 +1,265 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.RelatorioFiltroDTO;
+import biblioteca.dev.luanluz.api.model.Assunto;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.model.Livro;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import biblioteca.dev.luanluz.api.service.RelatorioTabularService.Formato;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sf.jasperreports.engine.JRDefaultScriptlet;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRScriptletException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Janela de duas linhas no XLSX: a maior parte da planilha passa pelo arquivo temporário antes de ser escrita
+@SpringBootTest(properties = "app.relatorio.tabular.linhas-em-memoria=2")
+@ActiveProfiles("test")
+class RelatorioTabularIntegrationTest {
+
+    @Autowired
+    private RelatorioTabularService relatorioTabularService;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Autor machado;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> criarAcervo());
+        relatorioService.reconstruirRelatorioAutores();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveExportarOResumoDeAutoresEmCsvNaOrdemDoRelatorio() throws Exception {
+        List<String> linhas = csv(Tipo.AUTORES, null);
+
+        assertEquals("Código,Nome do Autor,Qtd.,Títulos,Editoras,Assuntos,Valor Total,Ano Mais Antigo,Ano Mais Recente",
+                linhas.get(0));
+        assertEquals(List.of("Autor Avulso 00", "Autor Avulso 01"), linhas.subList(1, 3).stream()
+                .map(linha -> linha.split(",")[1])
+                .toList());
+        assertEquals(machado.getCodigo() + ",Machado de Assis,2,Dom Casmurro; Quincas Borba,Garnier,Ficção; Romance,"
+                + valorTotalMachado().toPlainString() + ",1891,1899", linhas.get(linhas.size() - 1));
+        assertEquals(1 + 21, linhas.size());
+    }
+
+    @Test
+    void deveAplicarOsFiltrosDoRelatorio() throws Exception {
+        List<String> livros = csv(Tipo.LIVROS, RelatorioFiltroDTO.builder()
+                .editora("Garnier")
+                .anoPublicacaoMinimo(1895)
+                .build());
+
+        assertEquals(2, livros.size());
+        assertEquals("Dom Casmurro", livros.get(1).split(",")[1]);
+
+        List<String> autores = csv(Tipo.LIVROS_POR_AUTOR, RelatorioFiltroDTO.builder()
+                .assuntosCodigos(Set.of(assuntoRepository.findAll().stream()
+                        .filter(assunto -> assunto.getDescricao().equals("Ficção"))
+                        .findFirst()
+                        .orElseThrow()
+                        .getCodigo()))
+                .build());
+
+        assertEquals(List.of("Machado de Assis"), autores.subList(1, autores.size()).stream()
+                .map(linha -> linha.split(",")[1])
+                .toList());
+    }
+
+    @Test
+    void deveExportarXlsxComCelulasNumericas() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        relatorioTabularService.exportar(Tipo.AUTORES, Formato.EXCEL, Map.of(), saida);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(saida.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Row ultima = sheet.getRow(sheet.getLastRowNum());
+
+            assertEquals("Relatório de Autores", sheet.getSheetName());
+            assertEquals(21, sheet.getLastRowNum());
+            assertEquals("Nome do Autor", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("Machado de Assis", ultima.getCell(1).getStringCellValue());
+
+            Cell valorTotal = ultima.getCell(6);
+            assertEquals(CellType.NUMERIC, valorTotal.getCellType());
+            assertEquals(valorTotalMachado().doubleValue(), valorTotal.getNumericCellValue(), 0.001);
+            assertEquals(2, ultima.getCell(2).getNumericCellValue(), 0);
+        }
+    }
+
+    // A cópia para o cliente começa só depois de o cursor ser esgotado e a vaga no bulkhead devolvida
+    @Test
+    void deveLiberarAVagaNoBulkheadAntesDeEscreverParaOCliente() throws Exception {
+        for (Formato formato : Formato.values()) {
+            List<Double> vagasEmUso = new ArrayList<>();
+            OutputStream cliente = new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    if (vagasEmUso.isEmpty()) {
+                        vagasEmUso.add(meterRegistry.get("relatorio.bulkhead.em-uso").gauge().value());
+                    }
+                }
+            };
+
+            relatorioTabularService.preparar(Tipo.AUTORES, formato, Map.of()).escrever(cliente);
+
+            assertEquals(List.of(0.0), vagasEmUso, formato.name());
+        }
+    }
+
+    // As consultas tabulares repetem as dos .jrxml; os dois motores devem selecionar as mesmas linhas na mesma ordem
+    @Test
+    void deveSelecionarAsMesmasLinhasDoJasperParaOsMesmosFiltros() throws Exception {
+        Integer romance = assuntoRepository.findAll().stream()
+                .filter(assunto -> assunto.getDescricao().equals("Romance"))
+                .findFirst()
+                .orElseThrow()
+                .getCodigo();
+        Integer avulso = autorRepository.findAll().stream()
+                .filter(autor -> autor.getNome().equals("Autor Avulso 03"))
+                .findFirst()
+                .orElseThrow()
+                .getCodigo();
+
+        List<RelatorioFiltroDTO> filtros = List.of(
+                RelatorioFiltroDTO.builder().build(),
+                RelatorioFiltroDTO.builder().editora("Garnier").anoPublicacaoMaximo(1895).build(),
+                RelatorioFiltroDTO.builder().assuntosCodigos(Set.of(romance)).build(),
+                RelatorioFiltroDTO.builder().autoresCodigos(Set.of(machado.getCodigo(), avulso)).build(),
+                RelatorioFiltroDTO.builder().autoresCodigos(Set.of(avulso)).editora("Garnier").build());
+
+        for (Tipo tipo : Tipo.values()) {
+            String chave = tipo == Tipo.LIVROS ? "codl" : "codau";
+
+            for (RelatorioFiltroDTO filtro : filtros) {
+                List<String> tabular = csv(tipo, filtro).stream()
+                        .skip(1)
+                        .map(linha -> linha.split(",")[0])
+                        .toList();
+
+                assertEquals(jasper(tipo, filtro, chave), tabular, tipo + " " + filtro);
+            }
+        }
+    }
+
+    // Preenche o layout com um scriptlet que anota a chave de cada linha do detalhe
+    private List<String> jasper(Tipo tipo, RelatorioFiltroDTO filtro, String chave) throws Exception {
+        List<String> chaves = new ArrayList<>();
+        Map<String, Object> parametros = new HashMap<>(relatorioService.parametros(filtro));
+        parametros.put(JRParameter.REPORT_SCRIPTLET, new JRDefaultScriptlet() {
+            @Override
+            public void afterDetailEval() throws JRScriptletException {
+                chaves.add(String.valueOf(getFieldValue(chave)));
+            }
+        });
+
+        try (RelatorioImpressao ignorada = relatorioService.preencher(tipo, parametros, relatorioService.criarFiller(tipo))) {
+            return chaves;
+        }
+    }
+
+    private BigDecimal valorTotalMachado() {
+        return jdbcTemplate.queryForObject("SELECT valor_total_reais FROM relatorio_autor WHERE codau = ?",
+                BigDecimal.class, machado.getCodigo());
+    }
+
+    private List<String> csv(Tipo tipo, RelatorioFiltroDTO filtro) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        relatorioTabularService.exportar(tipo, Formato.CSV, relatorioService.parametros(filtro), saida);
+
+        return new ArrayList<>(saida.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    private void criarAcervo() {
+        machado = autorRepository.save(Autor.builder().nome("Machado de Assis").build());
+        Assunto romance = assuntoRepository.save(Assunto.builder().descricao("Romance").build());
+        Assunto ficcao = assuntoRepository.save(Assunto.builder().descricao("Ficção").build());
+
+        livroRepository.save(livro("Dom Casmurro", "1899", 3990, Set.of(romance, ficcao)));
+        livroRepository.save(livro("Quincas Borba", "1891", 2500, Set.of(romance)));
+
+        autorRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> Autor.builder().nome(String.format("Autor Avulso %02d", i)).build())
+                .toList());
+    }
+
+    private Livro livro(String titulo, String ano, int valor, Set<Assunto> assuntos) {
+        return Livro.builder()
+                .titulo(titulo)
+                .editora("Garnier")
+                .edicao(1)
+                .anoPublicacao(ano)
+                .valorEmCentavos(valor)
+                .autores(Set.of(machado))
+                .assuntos(assuntos)
+                .build();
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
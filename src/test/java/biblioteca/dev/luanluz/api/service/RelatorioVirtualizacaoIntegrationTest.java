@@ -0,0 +1,149 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.config.RelatorioVirtualizacaoProperties;
+import biblioteca.dev.luanluz.api.model.Autor;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Formato;
+import biblioteca.dev.luanluz.api.service.RelatorioService.Tipo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Duas páginas em memória por preenchimento: o relatório de autores grande é forçado a usar o arquivo de swap
+@SpringBootTest(properties = "app.relatorio.virtualizacao.limite-paginas=2")
+@ActiveProfiles("test")
+class RelatorioVirtualizacaoIntegrationTest {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private RelatorioVirtualizacaoService relatorioVirtualizacaoService;
+
+    @Autowired
+    private RelatorioVirtualizacaoProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @BeforeEach
+    void setUp() {
+        limpar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limpar();
+    }
+
+    @Test
+    void deveGravarPaginasEmDiscoAcimaDoLimiteEApagarOSwapAoFechar() throws Exception {
+        criarAutores(1000);
+        double gravadasAntes = paginas("gravadas");
+        double lidasAntes = paginas("lidas");
+
+        try (RelatorioImpressao impressao = preencher()) {
+            assertTrue(impressao.getJasperPrint().getPages().size() > 2,
+                    "Páginas: " + impressao.getJasperPrint().getPages().size());
+            assertEquals(1, relatorioVirtualizacaoService.getArquivosAtivos());
+            assertEquals(1, arquivosDeSwap());
+
+            relatorioService.exportar(impressao.getJasperPrint(), Formato.PDF, OutputStream.nullOutputStream());
+        }
+
+        assertTrue(paginas("gravadas") > gravadasAntes);
+        assertTrue(paginas("lidas") > lidasAntes);
+        assertEquals(0, relatorioVirtualizacaoService.getArquivosAtivos());
+        assertEquals(0, arquivosDeSwap());
+    }
+
+    @Test
+    void naoDeveCriarArquivoDeSwapAbaixoDoLimite() throws Exception {
+        criarAutores(3);
+
+        try (RelatorioImpressao impressao = preencher()) {
+            assertEquals(1, impressao.getJasperPrint().getPages().size());
+            assertEquals(0, arquivosDeSwap());
+        }
+    }
+
+    @Test
+    void deveManterOSwapAteALiberacaoDaUltimaReserva() throws Exception {
+        criarAutores(1000);
+
+        RelatorioImpressao impressao = preencher();
+        assertTrue(impressao.reservar());
+
+        impressao.close();
+        assertEquals(1, arquivosDeSwap());
+
+        impressao.close();
+        assertEquals(0, arquivosDeSwap());
+        assertFalse(impressao.reservar());
+    }
+
+    @Test
+    void deveLimitarPaginasEmMemoriaPeloOrcamentoDoPreenchimento() {
+        RelatorioVirtualizacaoProperties orcamento = new RelatorioVirtualizacaoProperties(properties.diretorio(), 200,
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(256));
+
+        assertEquals(4, orcamento.paginasEmMemoria());
+        assertEquals(2, properties.paginasEmMemoria());
+
+        // O peso da impressão no cache para de crescer quando as páginas passam a ir para o disco
+        assertEquals(DataSize.ofKilobytes(512).toBytes(), orcamento.memoriaEstimada(2));
+        assertEquals(DataSize.ofMegabytes(1).toBytes(), orcamento.memoriaEstimada(500));
+    }
+
+    private RelatorioImpressao preencher() throws Exception {
+        relatorioService.reconstruirRelatorioAutores();
+        return relatorioService.preencher(Tipo.AUTORES, relatorioService.criarFiller(Tipo.AUTORES));
+    }
+
+    private double paginas(String operacao) {
+        return meterRegistry.get("relatorio.virtualizacao.paginas").tag("operacao", operacao).counter().count();
+    }
+
+    private long arquivosDeSwap() throws IOException {
+        try (Stream<Path> arquivos = Files.list(properties.diretorio())) {
+            return arquivos.count();
+        }
+    }
+
+    private void criarAutores(int quantidade) {
+        List<Autor> autores = IntStream.range(0, quantidade)
+                .mapToObj(i -> Autor.builder().nome("Autor de Teste " + i).build())
+                .toList();
+
+        autorRepository.saveAll(autores);
+    }
+
+    private void limpar() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+}
@@ -0,0 +1,149 @@
+package biblioteca.dev.luanluz.api.service;
+
+import biblioteca.dev.luanluz.api.dto.request.AssuntoRequestDTO;
+import biblioteca.dev.luanluz.api.dto.request.AutorRequestDTO;
+import biblioteca.dev.luanluz.api.dto.request.LivroRequestDTO;
+import biblioteca.dev.luanluz.api.exception.DuplicateResourceException;
+import biblioteca.dev.luanluz.api.repository.AssuntoRepository;
+import biblioteca.dev.luanluz.api.repository.AutorRepository;
+import biblioteca.dev.luanluz.api.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UnicidadeConcorrenteIntegrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private AutorService autorService;
+
+    @Autowired
+    private AssuntoService assuntoService;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private AutorRepository autorRepository;
+
+    @Autowired
+    private AssuntoRepository assuntoRepository;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @BeforeEach
+    void setUp() {
+        limparBase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limparBase();
+    }
+
+    @Test
+    void devePermitirApenasUmAutorComMesmoNomeEmCriacoesConcorrentes() throws Exception {
+        List<Throwable> falhas = executarConcorrentemente(i -> {
+            AutorRequestDTO dto = new AutorRequestDTO();
+            dto.setNome(i % 2 == 0 ? "Machado de Assis" : "MACHADO DE ASSIS");
+            return () -> autorService.create(dto);
+        });
+
+        assertApenasUmaCriacao(falhas);
+        assertEquals(1, autorRepository.count());
+    }
+
+    @Test
+    void devePermitirApenasUmAssuntoComMesmaDescricaoEmCriacoesConcorrentes() throws Exception {
+        List<Throwable> falhas = executarConcorrentemente(i -> {
+            AssuntoRequestDTO dto = new AssuntoRequestDTO();
+            dto.setDescricao(i % 2 == 0 ? "Romance" : "romance");
+            return () -> assuntoService.create(dto);
+        });
+
+        assertApenasUmaCriacao(falhas);
+        assertEquals(1, assuntoRepository.count());
+    }
+
+    @Test
+    void devePermitirApenasUmLivroComMesmoTituloEmCriacoesConcorrentes() throws Exception {
+        List<Throwable> falhas = executarConcorrentemente(i -> {
+            LivroRequestDTO dto = new LivroRequestDTO();
+            dto.setTitulo(i % 2 == 0 ? "Dom Casmurro" : "dom casmurro");
+            dto.setEditora("Editora Teste");
+            dto.setEdicao(1);
+            dto.setAnoPublicacao("1899");
+            dto.setValorEmCentavos(4990);
+            return () -> livroService.create(dto);
+        });
+
+        assertApenasUmaCriacao(falhas);
+        assertEquals(1, livroRepository.count());
+    }
+
+    private List<Throwable> executarConcorrentemente(IntFunction<Callable<?>> tarefa) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> futuros = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<?> chamada = tarefa.apply(i);
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return chamada.call();
+                }));
+            }
+
+            largada.countDown();
+
+            List<Throwable> falhas = new ArrayList<>();
+            for (Future<?> futuro : futuros) {
+                try {
+                    futuro.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    falhas.add(e.getCause());
+                } catch (Exception e) {
+                    falhas.add(e);
+                }
+            }
+            return falhas;
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private void assertApenasUmaCriacao(List<Throwable> falhas) {
+        assertEquals(THREADS - 1, falhas.size());
+        falhas.forEach(falha -> assertInstanceOf(DuplicateResourceException.class, falha));
+    }
+
+    private void limparBase() {
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        assuntoRepository.deleteAll();
+    }
+}
@@ -0,0 +1,116 @@
+-- Equivalente no H2 dos índices únicos funcionais criados pelas migrations do PostgreSQL
+ALTER TABLE livro ADD COLUMN IF NOT EXISTS titulo_lower VARCHAR(40) GENERATED ALWAYS AS (LOWER(titulo));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_livro_titulo_lower ON livro (titulo_lower);
+
+ALTER TABLE autor ADD COLUMN IF NOT EXISTS nome_lower VARCHAR(40) GENERATED ALWAYS AS (LOWER(nome));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_autor_nome_lower ON autor (nome_lower);
+
+ALTER TABLE assunto ADD COLUMN IF NOT EXISTS descricao_lower VARCHAR(20) GENERATED ALWAYS AS (LOWER(descricao));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_assunto_descricao_lower ON assunto (descricao_lower);
+
+-- Contadores da tabela contagem; no H2 os triggers são classes Java e disparam por linha
+MERGE INTO contagem (tabela, total) KEY (tabela) SELECT 'autor', COUNT(*) FROM autor;
+MERGE INTO contagem (tabela, total) KEY (tabela) SELECT 'assunto', COUNT(*) FROM assunto;
+MERGE INTO contagem (tabela, total) KEY (tabela) SELECT 'livro', COUNT(*) FROM livro;
+
+CREATE TRIGGER IF NOT EXISTS trg_contagem_autor AFTER INSERT, DELETE ON autor FOR EACH ROW CALL 'biblioteca.dev.luanluz.api.config.ContagemH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_contagem_assunto AFTER INSERT, DELETE ON assunto FOR EACH ROW CALL 'biblioteca.dev.luanluz.api.config.ContagemH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_contagem_livro AFTER INSERT, DELETE ON livro FOR EACH ROW CALL 'biblioteca.dev.luanluz.api.config.ContagemH2Trigger';
+
+-- Índices dos filtros da listagem de livros
+CREATE INDEX IF NOT EXISTS idx_livro_editora ON livro (editora);
+CREATE INDEX IF NOT EXISTS idx_livro_anopublicacao ON livro (anopublicacao);
+CREATE INDEX IF NOT EXISTS idx_livro_valoremcentavos ON livro (valoremcentavos);
+CREATE INDEX IF NOT EXISTS idx_livro_autor_autor_livro ON livro_autor (autor_codau, livro_codl);
+CREATE INDEX IF NOT EXISTS idx_livro_assunto_assunto_livro ON livro_assunto (assunto_codas, livro_codl);
+
+-- Resumo do relatório de autores; no H2 não há triggers de manutenção, apenas a reconstrução completa
+CREATE OR REPLACE VIEW vw_relatorio_por_autor AS
+SELECT a.codau,
+       a.nome                                                                    AS nome_autor,
+       COUNT(DISTINCT l.codl)                                                    AS quantidade_livros,
+       LISTAGG(DISTINCT l.titulo, '; ') WITHIN GROUP (ORDER BY l.titulo)         AS titulos,
+       LISTAGG(DISTINCT l.editora, '; ') WITHIN GROUP (ORDER BY l.editora)       AS editoras,
+       LISTAGG(DISTINCT ass.descricao, '; ') WITHIN GROUP (ORDER BY ass.descricao) AS assuntos,
+       ROUND(SUM(l.valoremcentavos) / 100.0, 2)                                  AS valor_total_reais,
+       MIN(l.anopublicacao)                                                      AS ano_publicacao_mais_antigo,
+       MAX(l.anopublicacao)                                                      AS ano_publicacao_mais_recente
+FROM autor a
+         LEFT JOIN livro_autor la ON a.codau = la.autor_codau
+         LEFT JOIN livro l ON la.livro_codl = l.codl
+         LEFT JOIN livro_assunto las ON l.codl = las.livro_codl
+         LEFT JOIN assunto ass ON las.assunto_codas = ass.codas
+GROUP BY a.codau, a.nome;
+
+-- Views dos relatórios de livros e de estatísticas por autor
+CREATE OR REPLACE VIEW vw_livros_completos AS
+SELECT l.codl,
+       l.titulo,
+       l.editora,
+       l.edicao,
+       l.anopublicacao,
+       l.valoremcentavos,
+       CONCAT('R$ ', TO_CHAR(l.valoremcentavos / 100.0, 'FM999999990.00'))         AS valor_formatado,
+       LISTAGG(DISTINCT a.nome, ', ') WITHIN GROUP (ORDER BY a.nome)               AS autores,
+       LISTAGG(DISTINCT ass.descricao, ', ') WITHIN GROUP (ORDER BY ass.descricao) AS assuntos,
+       COUNT(DISTINCT la.autor_codau)                                              AS quantidade_autores,
+       COUNT(DISTINCT lassunto.assunto_codas)                                      AS quantidade_assuntos
+FROM livro l
+         LEFT JOIN livro_autor la ON l.codl = la.livro_codl
+         LEFT JOIN autor a ON la.autor_codau = a.codau
+         LEFT JOIN livro_assunto lassunto ON l.codl = lassunto.livro_codl
+         LEFT JOIN assunto ass ON lassunto.assunto_codas = ass.codas
+GROUP BY l.codl, l.titulo, l.editora, l.edicao, l.anopublicacao, l.valoremcentavos;
+
+CREATE OR REPLACE VIEW vw_relatorio_livros_por_autor AS
+SELECT a.codau,
+       a.nome                                               AS autor,
+       COUNT(DISTINCT la.livro_codl)                        AS quantidade_livros,
+       TO_CHAR(AVG(l.valoremcentavos) / 100.0, 'FM999999990.00') AS preco_medio,
+       TO_CHAR(MIN(l.valoremcentavos) / 100.0, 'FM999999990.00') AS preco_minimo,
+       TO_CHAR(MAX(l.valoremcentavos) / 100.0, 'FM999999990.00') AS preco_maximo,
+       TO_CHAR(SUM(l.valoremcentavos) / 100.0, 'FM999999990.00') AS valor_total
+FROM autor a
+         INNER JOIN livro_autor la ON a.codau = la.autor_codau
+         INNER JOIN livro l ON la.livro_codl = l.codl
+GROUP BY a.codau, a.nome;
+
+CREATE TABLE IF NOT EXISTS relatorio_autor
+(
+    codau                       INTEGER     NOT NULL PRIMARY KEY,
+    nome_autor                  VARCHAR(40) NOT NULL,
+    quantidade_livros           BIGINT      NOT NULL,
+    titulos                     VARCHAR(10000),
+    editoras                    VARCHAR(10000),
+    assuntos                    VARCHAR(10000),
+    valor_total_reais           NUMERIC(20, 2),
+    ano_publicacao_mais_antigo  VARCHAR(4),
+    ano_publicacao_mais_recente VARCHAR(4),
+    CONSTRAINT fk_relatorio_autor_autor FOREIGN KEY (codau) REFERENCES autor (codau) ON DELETE CASCADE
+);
+
+-- Versão do acervo usada pelo cache de relatórios; no H2 os triggers por instrução são classes Java
+CREATE TABLE IF NOT EXISTS versao_dados
+(
+    id   SMALLINT NOT NULL DEFAULT 1,
+    base BIGINT   NOT NULL,
+    CONSTRAINT pk_versao_dados PRIMARY KEY (id),
+    CONSTRAINT ck_versao_dados_unica CHECK (id = 1)
+);
+
+INSERT INTO versao_dados (id, base) SELECT 1, 0 WHERE NOT EXISTS (SELECT 1 FROM versao_dados);
+
+CREATE TABLE IF NOT EXISTS versao_dados_transacao
+(
+    xid BIGINT NOT NULL,
+    CONSTRAINT pk_versao_dados_transacao PRIMARY KEY (xid)
+);
+
+CREATE SEQUENCE IF NOT EXISTS seq_versao_dados_transacao;
+
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_autor AFTER INSERT, UPDATE, DELETE ON autor CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_assunto AFTER INSERT, UPDATE, DELETE ON assunto CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_livro AFTER INSERT, UPDATE, DELETE ON livro CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_livro_autor AFTER INSERT, UPDATE, DELETE ON livro_autor CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_livro_assunto AFTER INSERT, UPDATE, DELETE ON livro_assunto CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';
+CREATE TRIGGER IF NOT EXISTS trg_versao_dados_relatorio_autor AFTER INSERT, UPDATE, DELETE ON relatorio_autor CALL 'biblioteca.dev.luanluz.api.config.VersaoDadosH2Trigger';